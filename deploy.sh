@@ -15,6 +15,8 @@ sam validate -t infrastructure/lambda/template.yaml --config-env dev
 
 sam build -t infrastructure/lambda/template.yaml --config-env dev
 
+./infrastructure/lambda/cds/build-archives.sh
+
 sam deploy --stack-name $stack_name \
    --no-fail-on-empty-changeset \
    --no-confirm-changeset \
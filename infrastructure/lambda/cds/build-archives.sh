@@ -0,0 +1,167 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Adds an AppCDS class data sharing archive to each function built by `sam build`, at cds/app.jsa,
+# with the exec wrapper that loads it, cds/load-archive.sh, which AWS_LAMBDA_EXEC_WRAPPER in
+# template.yaml points the runtime at.
+#
+# Lambda starts the JVM with only the runtime's jars, /var/runtime/lib, on the class path, and
+# loads the handler from /var/task and /var/task/lib with a class loader of its own. An archive
+# dumped with any other class path is rejected, so it is dumped from the runtime itself: the
+# function is mounted at /var/task in the Lambda java17 image for its architecture, and run behind
+# the image's runtime interface emulator with -XX:ArchiveClassesAtExit. Classes from the handler's
+# class loader are archived too, and at init are taken from the archive when their class file
+# matches.
+#
+# The handler run is the training handler of each lambda (see its cds source set), which drives the
+# real one with its AWS backed services stubbed. It and the jars it needs beyond the function's are
+# mounted as a layer, at /opt/java/lib, which the runtime's class loader also reads. A deployed
+# function has no such layer, so the training classes in the archive are never used.
+#
+# Usage: build-archives.sh [--measure <runs>]
+#   --measure  also starts each function <runs> times with and without the archive, and prints the
+#              mean time from JVM start to the training handler being ready (init_ms) and of its
+#              first invocation of the real handler (first_invocation_ms). It then logs the class
+#              loading of one more run with the archive, and prints how many of the classes loaded
+#              from /var/task were taken from the archive.
+
+ROOT_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")/../../.." && pwd)"
+CDS_DIR="${ROOT_DIR}/infrastructure/lambda/cds"
+BUILD_DIR="${ROOT_DIR}/.aws-sam/build"
+LAMBDA_IMAGE="public.ecr.aws/lambda/java:17"
+# The architecture of the functions, an archive only loads into the JVM build that dumped it
+LAMBDA_PLATFORM="linux/arm64"
+# As set for the functions in template.yaml
+JAVA_TOOL_OPTIONS_FUNCTION="-XX:+TieredCompilation -XX:TieredStopAtLevel=1"
+DUMP_OPTIONS="-XX:ArchiveClassesAtExit=/var/task/cds/app.jsa"
+CLASS_LOAD_LOG_OPTIONS="-Xlog:class+load=info:file=/tmp/class-load.log"
+INVOKE_PATH="2015-03-31/functions/function/invocations"
+
+MEASURE_RUNS=0
+if [ "${1:-}" == "--measure" ]; then
+  MEASURE_RUNS="${2:-10}"
+fi
+
+# Starts the function with the training handler and prints the container ID. Any further arguments
+# are added to the environment of the function.
+start_function() {
+  local function_dir="$1" training_dir="$2" training_handler="$3"
+  shift 3
+  docker run --detach --rm \
+    --platform "${LAMBDA_PLATFORM}" \
+    --publish 127.0.0.1::8080 \
+    --env AWS_REGION=eu-west-2 \
+    --env AWS_ACCESS_KEY_ID=cds-training \
+    --env AWS_SECRET_ACCESS_KEY=cds-training \
+    --env POWERTOOLS_LOG_LEVEL=WARN \
+    --env POWERTOOLS_METRICS_NAMESPACE=cds-training \
+    "$@" \
+    --volume "${function_dir}:/var/task" \
+    --volume "${training_dir}:/opt/java/lib:ro" \
+    "${LAMBDA_IMAGE}" "${training_handler}"
+}
+
+invoke() {
+  local container="$1" event="$2"
+  curl --silent --show-error --max-time 120 \
+    --retry 10 --retry-connrefused --retry-delay 1 \
+    --data "${event}" "http://$(docker port "${container}" 8080)/${INVOKE_PATH}"
+}
+
+# Not retried, as a retry would start a new JVM to exit again
+request_exit() {
+  local container="$1"
+  curl --silent --max-time 120 \
+    --data '"exit"' "http://$(docker port "${container}" 8080)/${INVOKE_PATH}" > /dev/null || true
+}
+
+wait_for_jvm_exit() {
+  local container="$1"
+  for ((second = 0; second < 120; second++)); do
+    if ! docker top "${container}" -o args | grep -q 'bin/java '; then
+      return 0
+    fi
+    sleep 1
+  done
+  echo "The JVM of ${container} did not exit" >&2
+  return 1
+}
+
+build_archive() {
+  local function_name="$1" project_dir="$2" training_handler="$3"
+  local function_dir="${BUILD_DIR}/${function_name}"
+  local training_dir="${ROOT_DIR}/${project_dir}/build/cds-training"
+  local container
+
+  echo "Building class data sharing archive for ${function_name}"
+  mkdir -p "${function_dir}/cds"
+  rm -f "${function_dir}/cds/app.jsa"
+  cp "${CDS_DIR}/load-archive.sh" "${function_dir}/cds/load-archive.sh"
+  chmod 755 "${function_dir}/cds/load-archive.sh"
+
+  container="$(start_function "${function_dir}" "${training_dir}" "${training_handler}" \
+    --env JAVA_TOOL_OPTIONS="${JAVA_TOOL_OPTIONS_FUNCTION} ${DUMP_OPTIONS}")"
+  invoke "${container}" '"train"' > /dev/null
+  # Exiting the JVM dumps the archive, so the invocation itself gets no answer
+  request_exit "${container}"
+  wait_for_jvm_exit "${container}"
+  docker stop "${container}" > /dev/null
+
+  ls -lh "${function_dir}/cds/app.jsa"
+
+  if [ "${MEASURE_RUNS}" -gt 0 ]; then
+    measure "${function_name}" "without archive" "${function_dir}" "${training_dir}" \
+      "${training_handler}" --env JAVA_TOOL_OPTIONS="${JAVA_TOOL_OPTIONS_FUNCTION}"
+    measure "${function_name}" "with archive" "${function_dir}" "${training_dir}" \
+      "${training_handler}" --env JAVA_TOOL_OPTIONS="${JAVA_TOOL_OPTIONS_FUNCTION}" \
+      --env AWS_LAMBDA_EXEC_WRAPPER=/var/task/cds/load-archive.sh
+    report_archived_classes "${function_name}" "${function_dir}" "${training_dir}" \
+      "${training_handler}"
+  fi
+}
+
+measure() {
+  local function_name="$1" label="$2" function_dir="$3" training_dir="$4" training_handler="$5"
+  shift 5
+  local container
+  for ((run = 0; run < MEASURE_RUNS; run++)); do
+    container="$(start_function "${function_dir}" "${training_dir}" "${training_handler}" "$@")"
+    invoke "${container}" '"train"'
+    echo
+    docker stop "${container}" > /dev/null
+  done | tr -d '"' | awk -v name="${function_name}" -v label="${label}" '
+    /^init_ms=/ {
+      split($1, init, "="); split($2, first, "=")
+      initTotal += init[2]; firstTotal += first[2]; runs++
+    }
+    END {
+      printf "%s %s: init_ms=%.0f first_invocation_ms=%.0f (mean of %d runs)\n",
+        name, label, initTotal / runs, firstTotal / runs, runs
+    }'
+}
+
+# An archive the JVM rejects is skipped without failing, so this checks the classes came from it
+report_archived_classes() {
+  local function_name="$1" function_dir="$2" training_dir="$3" training_handler="$4"
+  local container
+  container="$(start_function "${function_dir}" "${training_dir}" "${training_handler}" \
+    --env JAVA_TOOL_OPTIONS="${JAVA_TOOL_OPTIONS_FUNCTION} ${CLASS_LOAD_LOG_OPTIONS}" \
+    --env AWS_LAMBDA_EXEC_WRAPPER=/var/task/cds/load-archive.sh)"
+  invoke "${container}" '"train"' > /dev/null
+  docker exec "${container}" cat /tmp/class-load.log | awk -v name="${function_name}" '
+    / source: shared objects file \(top\)/ { archived++ }
+    / source: (jar:)?file:\/var\/task/ { fromTask++ }
+    END {
+      printf "%s: %d classes loaded from the archive, %d from /var/task\n",
+        name, archived, fromTask
+    }'
+  docker stop "${container}" > /dev/null
+}
+
+"${ROOT_DIR}/gradlew" -p "${ROOT_DIR}" \
+  :lambdas:drivingpermitcheck:cdsTraining :lambdas:issuecredential:cdsTraining
+
+build_archive DrivingPermitCheckingFunction lambdas/drivingpermitcheck \
+  uk.gov.di.ipv.cri.drivingpermit.api.handler.DrivingPermitHandlerTraining::handleRequest
+build_archive IssueCredentialFunction lambdas/issuecredential \
+  uk.gov.di.ipv.cri.drivingpermit.api.handler.IssueCredentialHandlerTraining::handleRequest
@@ -0,0 +1,41 @@
+#!/bin/bash
+set -euo pipefail
+
+# The exec wrapper (AWS_LAMBDA_EXEC_WRAPPER in template.yaml) that has the JVM the Lambda runtime
+# starts also map the AppCDS archive build-archives.sh dumped for the function, on top of the base
+# archive the runtime maps. Lambda passes the java command line as the arguments.
+#
+# The runtime can give its own -XX:SharedArchiveFile on the command line, which would override one
+# in JAVA_TOOL_OPTIONS, so the archive is added to that argument instead. -Xshare:on becomes
+# -Xshare:auto, so an archive the JVM rejects (it was dumped by another build of the runtime) is
+# skipped rather than failing the init.
+
+ARCHIVE=/var/task/cds/app.jsa
+
+if [ ! -f "${ARCHIVE}" ]; then
+  exec "$@"
+fi
+
+args=()
+archive_added=false
+for arg in "$@"; do
+  case "${arg}" in
+    -XX:SharedArchiveFile=*)
+      args+=("${arg}:${ARCHIVE}")
+      archive_added=true
+      ;;
+    -Xshare:on)
+      args+=(-Xshare:auto)
+      ;;
+    *)
+      args+=("${arg}")
+      ;;
+  esac
+done
+
+# Without a base archive given, the dynamic archive names the JDK's default one as its base
+if [ "${archive_added}" == false ]; then
+  args=("${args[0]}" "-XX:SharedArchiveFile=${ARCHIVE}" "${args[@]:1}")
+fi
+
+exec "${args[@]}"
@@ -0,0 +1,217 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.RSADecrypter;
+import com.nimbusds.jose.crypto.RSAEncrypter;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
+import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
+import uk.gov.di.ipv.cri.common.library.service.SessionService;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckVerificationResult;
+import uk.gov.di.ipv.cri.drivingpermit.api.service.ConfigurationService;
+import uk.gov.di.ipv.cri.drivingpermit.api.service.IdentityVerificationService;
+import uk.gov.di.ipv.cri.drivingpermit.api.service.ServiceFactory;
+import uk.gov.di.ipv.cri.drivingpermit.api.util.RequestDeadline;
+import uk.gov.di.ipv.cri.drivingpermit.library.audit.AuditEventPublisher;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.DocumentCheckResultStore;
+import uk.gov.di.ipv.cri.drivingpermit.library.sdk.SdkClients;
+import uk.gov.di.ipv.cri.drivingpermit.library.testdata.DrivingPermitFormTestDataGenerator;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ParallelTaskExecutor;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The training run the CDS archive of the check lambda is dumped from, run as the handler of the
+ * function by the Lambda runtime so its classes are loaded as the real handler's are. Its init
+ * builds the SDK clients and result store the lambda builds during init, runs the DCS
+ * sign-encrypt-sign pipeline with throwaway keys, and creates a {@link DrivingPermitHandler} with
+ * the AWS backed services and DCS stubbed, so nothing leaves the JVM. Each invocation then invokes
+ * that handler a few times.
+ *
+ * <p>Answers with how long the JVM took to get the handler ready and to complete the first
+ * invocation, which infrastructure/lambda/cds/build-archives.sh compares with and without the
+ * archive. The event {@code "exit"} ends the JVM, which is when the archive is dumped.
+ */
+public class DrivingPermitHandlerTraining implements RequestHandler<String, String> {
+
+    private static final int INVOCATIONS = 5;
+
+    private final ObjectMapper objectMapper;
+    private final DrivingPermitHandler handler;
+    private final long readyMs;
+
+    public DrivingPermitHandlerTraining() throws Exception {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+        createSdkClients();
+        runDcsPipeline(objectMapper);
+        handler = createHandler(objectMapper);
+        readyMs = millisSinceJvmStart();
+    }
+
+    @Override
+    public String handleRequest(String event, Context context) {
+        if ("exit".equals(event)) {
+            System.exit(0);
+        }
+
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(DrivingPermitFormTestDataGenerator.generate());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+
+        long firstInvocationStart = System.nanoTime();
+        handler.handleRequest(createRequest(body), context);
+        long firstInvocationMs =
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstInvocationStart);
+
+        for (int i = 1; i < INVOCATIONS; i++) {
+            handler.handleRequest(createRequest(body), context);
+        }
+
+        return String.format("init_ms=%d first_invocation_ms=%d", readyMs, firstInvocationMs);
+    }
+
+    private static void createSdkClients() {
+        SdkClients.sync(SsmClient.builder()).build();
+        SdkClients.sync(SqsClient.builder()).build();
+        SdkClients.async(SqsAsyncClient.builder()).build();
+        new DocumentCheckResultStore("cds-training", SdkClients.dynamoDbEnhancedClient());
+    }
+
+    /** The same JOSE operations as DcsCryptographyService, in both directions. */
+    private static void runDcsPipeline(ObjectMapper objectMapper) throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        KeyPair signingKeyPair = keyPairGenerator.generateKeyPair();
+        KeyPair encryptionKeyPair = keyPairGenerator.generateKeyPair();
+
+        JWSObject innerSigned =
+                new JWSObject(
+                        new JWSHeader(JWSAlgorithm.RS256),
+                        new Payload(
+                                objectMapper.writeValueAsString(
+                                        DrivingPermitFormTestDataGenerator.generate())));
+        innerSigned.sign(new RSASSASigner(signingKeyPair.getPrivate()));
+
+        JWEObject encrypted =
+                new JWEObject(
+                        new JWEHeader(JWEAlgorithm.RSA_OAEP_256, EncryptionMethod.A128CBC_HS256),
+                        new Payload(innerSigned.serialize()));
+        encrypted.encrypt(new RSAEncrypter((RSAPublicKey) encryptionKeyPair.getPublic()));
+
+        JWSObject outerSigned =
+                new JWSObject(
+                        new JWSHeader(JWSAlgorithm.RS256), new Payload(encrypted.serialize()));
+        outerSigned.sign(new RSASSASigner(signingKeyPair.getPrivate()));
+
+        JWSObject parsedOuter = JWSObject.parse(outerSigned.serialize());
+        parsedOuter.verify(new RSASSAVerifier((RSAPublicKey) signingKeyPair.getPublic()));
+        JWEObject parsedEncrypted = JWEObject.parse(parsedOuter.getPayload().toString());
+        parsedEncrypted.decrypt(new RSADecrypter((RSAPrivateKey) encryptionKeyPair.getPrivate()));
+        JWSObject.parse(parsedEncrypted.getPayload().toString())
+                .verify(new RSASSAVerifier((RSAPublicKey) signingKeyPair.getPublic()));
+    }
+
+    private static DrivingPermitHandler createHandler(ObjectMapper objectMapper) throws Exception {
+        IdentityVerificationService identityVerificationService =
+                mock(IdentityVerificationService.class);
+        when(identityVerificationService.verifyIdentity(any(DrivingPermitForm.class), any()))
+                .thenAnswer(
+                        invocation ->
+                                createVerificationResult(
+                                        invocation.getArgument(0, DrivingPermitForm.class)));
+
+        ServiceFactory serviceFactory = mock(ServiceFactory.class);
+        when(serviceFactory.getIdentityVerificationService())
+                .thenReturn(identityVerificationService);
+        when(serviceFactory.getRequestDeadline())
+                .thenReturn(new RequestDeadline(Clock.systemUTC()));
+        when(serviceFactory.getParallelTaskExecutor())
+                .thenReturn(ParallelTaskExecutor.withDaemonThreads("check-task", 3));
+
+        SessionService sessionService = mock(SessionService.class);
+        when(sessionService.validateSessionId(anyString()))
+                .thenAnswer(invocation -> createSessionItem());
+
+        return new DrivingPermitHandler(
+                serviceFactory,
+                objectMapper,
+                new EventProbe(),
+                mock(PersonIdentityService.class),
+                sessionService,
+                mock(DocumentCheckResultStore.class),
+                mock(ConfigurationService.class),
+                mock(AuditEventPublisher.class));
+    }
+
+    private static DocumentCheckVerificationResult createVerificationResult(
+            DrivingPermitForm drivingPermitForm) {
+        DocumentCheckVerificationResult result = new DocumentCheckVerificationResult();
+        result.setExecutedSuccessfully(true);
+        result.setVerified(true);
+        result.setContraIndicators(List.of());
+        result.setStrengthScore(3);
+        result.setValidityScore(2);
+        result.setCheckDetails(
+                DrivingPermitFormTestDataGenerator.deriveCheckDetails(drivingPermitForm));
+        result.setDrivingPermit(
+                DrivingPermitFormTestDataGenerator.deriveDrivingPermit(drivingPermitForm));
+        return result;
+    }
+
+    private static SessionItem createSessionItem() {
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.randomUUID());
+        sessionItem.setAttemptCount(0);
+        return sessionItem;
+    }
+
+    private static APIGatewayProxyRequestEvent createRequest(String body) {
+        return new APIGatewayProxyRequestEvent()
+                .withBody(body)
+                .withHeaders(Map.of("session_id", UUID.randomUUID().toString()));
+    }
+
+    private static long millisSinceJvmStart() {
+        return ProcessHandle.current()
+                .info()
+                .startInstant()
+                .map(start -> System.currentTimeMillis() - start.toEpochMilli())
+                .orElse(-1L);
+    }
+}
@@ -0,0 +1,71 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nimbusds.jose.Payload;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.DcsPayload;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.IssuingAuthority;
+import uk.gov.di.ipv.cri.drivingpermit.library.testdata.DrivingPermitFormTestDataGenerator;
+
+/**
+ * Compares turning a driving permit form into the bytes of the DCS payload JSON by mapping it to a
+ * {@link DcsPayload} and serialising that, as the gateway used to, against streaming it with
+ * {@link DcsPayloadWriter}. Both end with the payload the inner JWS is signed over.
+ *
+ * <p>Run with {@code ./gradlew :lambdas:drivingpermitcheck:jmh -PjmhIncludes=DcsPayloadWriter};
+ * compare gc.alloc.rate.norm (bytes allocated per operation) between the two. Streaming is meant
+ * to allocate at most half of what mapping and serialising does.
+ */
+@State(Scope.Benchmark)
+public class DcsPayloadWriterBenchmark {
+
+    @Param({"DVLA", "DVA"})
+    public String issuingAuthority;
+
+    private final ObjectMapper objectMapper =
+            new ObjectMapper().registerModule(new JavaTimeModule());
+    private final DcsPayloadWriter dcsPayloadWriter = new DcsPayloadWriter();
+
+    private DrivingPermitForm drivingPermitForm;
+    private DocumentCheckRoute route;
+
+    @Setup
+    public void setUp() {
+        IssuingAuthority licenceIssuer = IssuingAuthority.valueOf(issuingAuthority);
+
+        drivingPermitForm = DrivingPermitFormTestDataGenerator.generate(licenceIssuer);
+        drivingPermitForm.setPostcode(drivingPermitForm.getAddresses().get(0).getPostalCode());
+        drivingPermitForm.setIssueNumber("01");
+        drivingPermitForm.setDateOfIssue(drivingPermitForm.getIssueDate());
+
+        route = DocumentCheckRoutes.create("https://localhost").get(licenceIssuer);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialiseDcsPayload() throws Exception {
+        DcsPayload payload = objectMapper.convertValue(drivingPermitForm, DcsPayload.class);
+        payload.setExpiryDate(drivingPermitForm.getExpiryDate());
+
+        if (route.getIssuingAuthority() == IssuingAuthority.DVA) {
+            payload.setDriverNumber(drivingPermitForm.getDrivingLicenceNumber());
+            payload.setDateOfIssue(drivingPermitForm.getDateOfIssue());
+        } else {
+            payload.setIssueNumber(drivingPermitForm.getIssueNumber());
+            payload.setLicenceNumber(drivingPermitForm.getDrivingLicenceNumber());
+            payload.setIssueDate(drivingPermitForm.getIssueDate());
+        }
+
+        return new Payload(objectMapper.writeValueAsString(payload)).toBytes();
+    }
+
+    @Benchmark
+    public byte[] streamDcsPayload() throws Exception {
+        return new Payload(dcsPayloadWriter.write(drivingPermitForm, route)).toBytes();
+    }
+}
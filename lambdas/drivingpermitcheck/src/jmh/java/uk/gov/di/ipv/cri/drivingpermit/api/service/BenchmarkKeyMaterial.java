@@ -0,0 +1,177 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.service;
+
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParametersRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import software.amazon.lambda.powertools.parameters.ParamManager;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates throwaway RSA key pairs and self-signed certificates for both sides of the DCS
+ * exchange, and serves the CRI side of them to a real {@link ConfigurationService} through an
+ * in-memory SSM client. Nothing here leaves the JVM.
+ */
+public final class BenchmarkKeyMaterial {
+
+    private static final String ENVIRONMENT = "benchmark";
+    private static final String KEY_FORMAT = "/%s/credentialIssuers/driving-permit/%s";
+
+    private final int keySize;
+    private final KeyPair criSigningKeyPair;
+    private final KeyPair criEncryptionKeyPair;
+    private final KeyPair dcsSigningKeyPair;
+    private final KeyPair dcsEncryptionKeyPair;
+    private final KeyPair tlsKeyPair;
+    private final Map<String, String> parameters = new HashMap<>();
+
+    public BenchmarkKeyMaterial(int keySize) throws Exception {
+        this.keySize = keySize;
+        this.criSigningKeyPair = generateKeyPair();
+        this.criEncryptionKeyPair = generateKeyPair();
+        this.dcsSigningKeyPair = generateKeyPair();
+        this.dcsEncryptionKeyPair = generateKeyPair();
+        this.tlsKeyPair = generateKeyPair();
+
+        parameters.put(String.format(KEY_FORMAT, ENVIRONMENT, "thirdPartyId"), "benchmark");
+        putParameter("contraindicationMappings", "benchmark:D02");
+        putParameter("dcsEndpoint", "https://localhost");
+        putParameter("DocumentCheckResultTableName", "benchmark");
+
+        putCertificate("signingCertForDrivingPermitToVerify", dcsSigningKeyPair);
+        putCertificate("encryptionCertForDrivingPermitToEncrypt", dcsEncryptionKeyPair);
+        putCertificate("signingCertForDcsToVerify", criSigningKeyPair);
+        putCertificate("tlsCert", tlsKeyPair);
+        putCertificate("tlsRootCertificate", tlsKeyPair);
+        putCertificate("tlsIntermediateCertificate", tlsKeyPair);
+
+        putPrivateKey("tlsKey", tlsKeyPair);
+        putPrivateKey("encryptionKeyForDrivingPermitToDecrypt", criEncryptionKeyPair);
+        putPrivateKey("signingKeyForDrivingPermitToSign", criSigningKeyPair);
+    }
+
+    public ConfigurationService createConfigurationService() throws Exception {
+        return new ConfigurationService(
+                ParamManager.getSecretsProvider(new UnusedSecretsManagerClient()),
+                new ParameterBatchLoader(new InMemorySsmClient(parameters), Runnable::run),
+                new EventProbe(),
+                ENVIRONMENT);
+    }
+
+    public KeyPair getCriEncryptionKeyPair() {
+        return criEncryptionKeyPair;
+    }
+
+    public KeyPair getDcsSigningKeyPair() {
+        return dcsSigningKeyPair;
+    }
+
+    public KeyPair getDcsEncryptionKeyPair() {
+        return dcsEncryptionKeyPair;
+    }
+
+    private KeyPair generateKeyPair() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(keySize);
+        return keyPairGenerator.generateKeyPair();
+    }
+
+    private void putParameter(String name, String value) {
+        parameters.put(String.format("/%s/%s", System.getenv("AWS_STACK_NAME"), name), value);
+    }
+
+    private void putCertificate(String name, KeyPair keyPair) throws Exception {
+        X509Certificate certificate = selfSignedCertificate(keyPair);
+        putParameter(name, Base64.getEncoder().encodeToString(certificate.getEncoded()));
+    }
+
+    private void putPrivateKey(String name, KeyPair keyPair) {
+        putParameter(name, Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()));
+    }
+
+    private static X509Certificate selfSignedCertificate(KeyPair keyPair) throws Exception {
+        X500Name subject = new X500Name("CN=driving-permit-benchmark");
+        Instant now = Instant.now();
+
+        ContentSigner contentSigner =
+                new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate());
+
+        return new JcaX509CertificateConverter()
+                .getCertificate(
+                        new JcaX509v3CertificateBuilder(
+                                        subject,
+                                        BigInteger.valueOf(now.toEpochMilli()),
+                                        Date.from(now),
+                                        Date.from(now.plus(Duration.ofDays(1))),
+                                        subject,
+                                        keyPair.getPublic())
+                                .build(contentSigner));
+    }
+
+    private static final class InMemorySsmClient implements SsmClient {
+        private final Map<String, String> parameters;
+
+        private InMemorySsmClient(Map<String, String> parameters) {
+            this.parameters = parameters;
+        }
+
+        @Override
+        public GetParametersResponse getParameters(GetParametersRequest getParametersRequest) {
+            List<Parameter> found = new ArrayList<>();
+            List<String> invalid = new ArrayList<>();
+            for (String name : getParametersRequest.names()) {
+                String value = parameters.get(name);
+                if (value == null) {
+                    invalid.add(name);
+                } else {
+                    found.add(Parameter.builder().name(name).value(value).build());
+                }
+            }
+            return GetParametersResponse.builder()
+                    .parameters(found)
+                    .invalidParameters(invalid)
+                    .build();
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+
+    private static final class UnusedSecretsManagerClient implements SecretsManagerClient {
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.RSAEncrypter;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.DcsPayload;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.DcsResponse;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.IssuingAuthority;
+import uk.gov.di.ipv.cri.drivingpermit.library.testdata.DrivingPermitFormTestDataGenerator;
+
+import java.security.interfaces.RSAPublicKey;
+
+/**
+ * Benchmarks the DCS sign-encrypt-sign request pipeline and verify-decrypt-verify-parse response
+ * pipeline, stage by stage and end to end.
+ *
+ * <p>Run with {@code ./gradlew :lambdas:drivingpermitcheck:jmh}; the gc profiler configured in
+ * build.gradle reports gc.alloc.rate.norm (bytes allocated per operation) for each benchmark.
+ */
+@State(Scope.Benchmark)
+public class DcsCryptographyServiceBenchmark {
+
+    private static final String DCS_RESPONSE_JSON =
+            "{\"correlationId\":\"correlation-id\",\"requestId\":\"request-id\",\"error\":false,\"valid\":true}";
+
+    @Param({"DVLA", "DVA"})
+    public String issuingAuthority;
+
+    @Param({"2048"})
+    public int keySize;
+
+    private final ObjectMapper objectMapper =
+            new ObjectMapper().registerModule(new JavaTimeModule());
+    private final JWEHeader jweHeader =
+            new JWEHeader.Builder(JWEAlgorithm.RSA_OAEP_256, EncryptionMethod.A128CBC_HS256)
+                    .type(new JOSEObjectType("JWE"))
+                    .build();
+
+    private DcsCryptographyService dcsCryptographyService;
+    private DcsCryptographyContext dcsCryptographyContext;
+    private DcsPayload dcsPayload;
+
+    // Inputs for the individual request stages
+    private String dcsPayloadJson;
+    private String innerSignedPayload;
+    private String encryptedPayload;
+
+    // Inputs for the individual response stages
+    private String dcsResponse;
+    private String dcsResponseEncryptedPayload;
+    private String dcsResponseInnerSignedPayload;
+
+    @Setup
+    public void setUp() throws Exception {
+        BenchmarkKeyMaterial keyMaterial = new BenchmarkKeyMaterial(keySize);
+
+        dcsCryptographyService =
+                new DcsCryptographyService(keyMaterial.createConfigurationService());
+        dcsCryptographyContext = dcsCryptographyService.getCryptographyContext();
+
+        dcsPayload = createDcsPayload(IssuingAuthority.valueOf(issuingAuthority));
+        dcsPayloadJson = serialisePayload();
+        innerSignedPayload = signInnerPayload();
+        encryptedPayload = encryptPayload();
+
+        RSASSASigner dcsSigner = new RSASSASigner(keyMaterial.getDcsSigningKeyPair().getPrivate());
+        JWSObject dcsInnerSignedPayload =
+                new JWSObject(new JWSHeader(JWSAlgorithm.RS256), new Payload(DCS_RESPONSE_JSON));
+        dcsInnerSignedPayload.sign(dcsSigner);
+        dcsResponseInnerSignedPayload = dcsInnerSignedPayload.serialize();
+
+        JWEObject dcsEncryptedPayload =
+                new JWEObject(jweHeader, new Payload(dcsResponseInnerSignedPayload));
+        dcsEncryptedPayload.encrypt(
+                new RSAEncrypter(
+                        (RSAPublicKey) keyMaterial.getCriEncryptionKeyPair().getPublic()));
+        dcsResponseEncryptedPayload = dcsEncryptedPayload.serialize();
+
+        JWSObject dcsOuterSignedPayload =
+                new JWSObject(
+                        new JWSHeader(JWSAlgorithm.RS256),
+                        new Payload(dcsResponseEncryptedPayload));
+        dcsOuterSignedPayload.sign(dcsSigner);
+        dcsResponse = dcsOuterSignedPayload.serialize();
+    }
+
+    // *******************************Request stages*******************************
+
+    @Benchmark
+    public String serialisePayload() throws Exception {
+        return objectMapper.writeValueAsString(dcsPayload);
+    }
+
+    @Benchmark
+    public String signInnerPayload() throws Exception {
+        return sign(dcsPayloadJson);
+    }
+
+    @Benchmark
+    public String encryptPayload() throws Exception {
+        JWEObject jweObject = new JWEObject(jweHeader, new Payload(innerSignedPayload));
+        jweObject.encrypt(dcsCryptographyContext.getEncrypter());
+        return jweObject.serialize();
+    }
+
+    @Benchmark
+    public String signOuterPayload() throws Exception {
+        return sign(encryptedPayload);
+    }
+
+    @Benchmark
+    public String preparePayload() throws Exception {
+        return dcsCryptographyService.preparePayload(dcsPayload).serialize();
+    }
+
+    // ******************************Response stages*******************************
+
+    @Benchmark
+    public boolean verifyOuterSignature() throws Exception {
+        return dcsCryptographyContext.getSignatureVerifier().verify(JWSObject.parse(dcsResponse));
+    }
+
+    @Benchmark
+    public String decryptPayload() throws Exception {
+        JWEObject jweObject = JWEObject.parse(dcsResponseEncryptedPayload);
+        jweObject.decrypt(dcsCryptographyContext.getDecrypter());
+        return jweObject.getPayload().toString();
+    }
+
+    @Benchmark
+    public boolean verifyInnerSignature() throws Exception {
+        return dcsCryptographyContext
+                .getSignatureVerifier()
+                .verify(JWSObject.parse(dcsResponseInnerSignedPayload));
+    }
+
+    @Benchmark
+    public DcsResponse parseResponse() throws Exception {
+        return objectMapper.readValue(DCS_RESPONSE_JSON, DcsResponse.class);
+    }
+
+    @Benchmark
+    public DcsResponse unwrapDcsResponse() throws Exception {
+        return dcsCryptographyService.unwrapDcsResponse(dcsResponse);
+    }
+
+    private String sign(String payload) throws Exception {
+        JWSObject jwsObject =
+                new JWSObject(dcsCryptographyContext.getJwsHeader(), new Payload(payload));
+        jwsObject.sign(dcsCryptographyContext.getSigner());
+        return jwsObject.serialize();
+    }
+
+    /** Mirrors the mapping ThirdPartyDocumentGateway applies before preparing the payload. */
+    private DcsPayload createDcsPayload(IssuingAuthority licenceIssuer) {
+        DrivingPermitForm drivingPermitForm =
+                DrivingPermitFormTestDataGenerator.generate(licenceIssuer);
+        drivingPermitForm.setPostcode(drivingPermitForm.getAddresses().get(0).getPostalCode());
+        drivingPermitForm.setIssueNumber("01");
+        drivingPermitForm.setDateOfIssue(drivingPermitForm.getIssueDate());
+
+        DcsPayload payload = objectMapper.convertValue(drivingPermitForm, DcsPayload.class);
+        payload.setExpiryDate(drivingPermitForm.getExpiryDate());
+
+        if (licenceIssuer == IssuingAuthority.DVA) {
+            payload.setDriverNumber(drivingPermitForm.getDrivingLicenceNumber());
+            payload.setDateOfIssue(drivingPermitForm.getDateOfIssue());
+        } else {
+            payload.setIssueNumber(drivingPermitForm.getIssueNumber());
+            payload.setLicenceNumber(drivingPermitForm.getDrivingLicenceNumber());
+            payload.setIssueDate(drivingPermitForm.getIssueDate());
+        }
+
+        return payload;
+    }
+}
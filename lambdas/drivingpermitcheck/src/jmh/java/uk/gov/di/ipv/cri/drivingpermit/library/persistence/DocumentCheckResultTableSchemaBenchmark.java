@@ -0,0 +1,84 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.persistence;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.drivingpermit.library.testdata.DocumentCheckTestDataGenerator;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cold cost of the bean table schema the DataStore built for DocumentCheckResultItem
+ * against {@link DocumentCheckResultTableSchema}, as two separate measurements: building the
+ * schema, and mapping the first item written with a schema that has just been built. Both happen
+ * once per execution environment, so each fork measures a single cold run and nothing is warmed
+ * up. No table is needed.
+ *
+ * <p>Run with {@code ./gradlew :lambdas:drivingpermitcheck:jmh
+ * -PjmhIncludes=DocumentCheckResultTableSchema}; the gc profiler also reports what each allocates.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(10)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+public class DocumentCheckResultTableSchemaBenchmark {
+
+    /** A bean schema built before the first write is measured. */
+    @State(Scope.Benchmark)
+    public static class BuiltBeanSchema {
+        TableSchema<DocumentCheckResultItem> tableSchema;
+        DocumentCheckResultItem item;
+
+        @Setup
+        public void setUp() {
+            tableSchema = TableSchema.fromBean(DocumentCheckResultItem.class);
+            item = DocumentCheckTestDataGenerator.generateValidResultItem();
+        }
+    }
+
+    /** The static schema initialised before the first write is measured. */
+    @State(Scope.Benchmark)
+    public static class BuiltStaticSchema {
+        TableSchema<DocumentCheckResultItem> tableSchema;
+        DocumentCheckResultItem item;
+
+        @Setup
+        public void setUp() {
+            tableSchema = DocumentCheckResultTableSchema.TABLE_SCHEMA;
+            item = DocumentCheckTestDataGenerator.generateValidResultItem();
+        }
+    }
+
+    @Benchmark
+    public TableSchema<DocumentCheckResultItem> beanSchemaBuild() {
+        return TableSchema.fromBean(DocumentCheckResultItem.class);
+    }
+
+    @Benchmark
+    public TableSchema<DocumentCheckResultItem> staticSchemaBuild() {
+        // Initialises the class, which is when the schema is built
+        return DocumentCheckResultTableSchema.TABLE_SCHEMA;
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> beanSchemaFirstWrite(BuiltBeanSchema schema) {
+        return schema.tableSchema.itemToMap(schema.item, true);
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> staticSchemaFirstWrite(BuiltStaticSchema schema) {
+        return schema.tableSchema.itemToMap(schema.item, true);
+    }
+}
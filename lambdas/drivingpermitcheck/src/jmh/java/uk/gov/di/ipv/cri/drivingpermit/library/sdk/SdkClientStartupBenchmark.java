@@ -0,0 +1,77 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.sdk;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.infra.Blackhole;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building the SDK clients the check lambda creates during init, each with the HTTP
+ * client the SDK finds for itself, against building them on the shared clients of {@link
+ * SdkClients}. No requests are made, so no credentials or network are needed.
+ *
+ * <p>Run with {@code ./gradlew :lambdas:drivingpermitcheck:jmh}. Single shot times are reported, so
+ * the first measured iteration of each fork is the closest to a cold start; gc.alloc.rate.norm from
+ * the gc profiler gives the memory allocated to build each set of clients.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SdkClientStartupBenchmark {
+
+    private static final Region REGION = Region.EU_WEST_2;
+
+    @Benchmark
+    public void clientsWithTheirOwnHttpClients(Blackhole blackhole) {
+        List<SdkAutoCloseable> clients =
+                List.of(
+                        SsmClient.builder().region(REGION).build(),
+                        SqsClient.builder().region(REGION).build(),
+                        SqsAsyncClient.builder().region(REGION).build(),
+                        DynamoDbClient.builder().region(REGION).build(),
+                        DynamoDbClient.builder().region(REGION).build());
+
+        consumeAndClose(blackhole, clients);
+    }
+
+    @Benchmark
+    public void clientsSharingHttpClients(Blackhole blackhole) {
+        SdkHttpClientConfig config = new SdkHttpClientConfig(Map.of());
+        SdkHttpClient httpClient = SdkClients.createSyncHttpClient(config);
+        SdkAsyncHttpClient asyncHttpClient = SdkClients.createAsyncHttpClient(config);
+
+        // One DynamoDB client now serves both tables
+        List<SdkAutoCloseable> clients =
+                List.of(
+                        SsmClient.builder().region(REGION).httpClient(httpClient).build(),
+                        SqsClient.builder().region(REGION).httpClient(httpClient).build(),
+                        SqsAsyncClient.builder()
+                                .region(REGION)
+                                .httpClient(asyncHttpClient)
+                                .build(),
+                        DynamoDbClient.builder().region(REGION).httpClient(httpClient).build());
+
+        consumeAndClose(blackhole, clients);
+        httpClient.close();
+        asyncHttpClient.close();
+    }
+
+    private static void consumeAndClose(Blackhole blackhole, List<SdkAutoCloseable> clients) {
+        for (SdkAutoCloseable client : clients) {
+            blackhole.consume(client);
+            client.close();
+        }
+    }
+}
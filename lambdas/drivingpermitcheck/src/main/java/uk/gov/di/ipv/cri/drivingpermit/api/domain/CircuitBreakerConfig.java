@@ -0,0 +1,110 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.domain;
+
+import java.util.List;
+import java.util.Map;
+
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getBoolean;
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getInt;
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getLong;
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getString;
+
+/**
+ * Circuit breaker settings for the DCS endpoints, read from the parameters under
+ * /{stack}/CircuitBreaker. Any that are missing or invalid fall back to the defaults below.
+ */
+public class CircuitBreakerConfig {
+
+    // The parameters read below, loaded by name at init
+    public static final List<String> PARAMETER_NAMES =
+            List.of(
+                    "Enabled",
+                    "FailureRateThresholdPercent",
+                    "SlidingWindowSize",
+                    "MinimumRequests",
+                    "OpenDurationMs",
+                    "HalfOpenMaxProbes",
+                    "SharedStateEnabled",
+                    "SharedStateTableName",
+                    "SharedStateRefreshMs");
+
+    public static final int DEFAULT_FAILURE_RATE_THRESHOLD_PERCENT = 50;
+    public static final int DEFAULT_SLIDING_WINDOW_SIZE = 20;
+    public static final int DEFAULT_MINIMUM_REQUESTS = 10;
+    public static final long DEFAULT_OPEN_DURATION_MS = 30000L;
+    public static final int DEFAULT_HALF_OPEN_MAX_PROBES = 1;
+    public static final long DEFAULT_SHARED_STATE_REFRESH_MS = 5000L;
+
+    private final boolean enabled;
+    private final int failureRateThresholdPercent;
+    private final int slidingWindowSize;
+    private final int minimumRequests;
+    private final long openDurationMs;
+    private final int halfOpenMaxProbes;
+    private final boolean sharedStateEnabled;
+    private final String sharedStateTableName;
+    private final long sharedStateRefreshMs;
+
+    public CircuitBreakerConfig(Map<String, String> parameters) {
+        this.enabled = getBoolean(parameters, "Enabled", true);
+        this.failureRateThresholdPercent =
+                getInt(
+                        parameters,
+                        "FailureRateThresholdPercent",
+                        DEFAULT_FAILURE_RATE_THRESHOLD_PERCENT);
+        this.slidingWindowSize =
+                Math.max(1, getInt(parameters, "SlidingWindowSize", DEFAULT_SLIDING_WINDOW_SIZE));
+        this.minimumRequests =
+                Math.min(
+                        slidingWindowSize,
+                        getInt(parameters, "MinimumRequests", DEFAULT_MINIMUM_REQUESTS));
+        this.openDurationMs = getLong(parameters, "OpenDurationMs", DEFAULT_OPEN_DURATION_MS);
+        this.halfOpenMaxProbes =
+                Math.max(1, getInt(parameters, "HalfOpenMaxProbes", DEFAULT_HALF_OPEN_MAX_PROBES));
+        this.sharedStateEnabled = getBoolean(parameters, "SharedStateEnabled", false);
+        this.sharedStateTableName = getString(parameters, "SharedStateTableName", null);
+        this.sharedStateRefreshMs =
+                getLong(parameters, "SharedStateRefreshMs", DEFAULT_SHARED_STATE_REFRESH_MS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Percentage of failed requests in the window at or above which the circuit opens. */
+    public int getFailureRateThresholdPercent() {
+        return failureRateThresholdPercent;
+    }
+
+    /** Number of most recent requests the failure rate is calculated over. */
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    /** Requests needed in the window before the failure rate is acted on. */
+    public int getMinimumRequests() {
+        return minimumRequests;
+    }
+
+    /** Time the circuit stays open before a probe request is let through. */
+    public long getOpenDurationMs() {
+        return openDurationMs;
+    }
+
+    public int getHalfOpenMaxProbes() {
+        return halfOpenMaxProbes;
+    }
+
+    /** True when open circuits are also recorded in DynamoDB so that all containers trip. */
+    public boolean isSharedStateEnabled() {
+        return sharedStateEnabled && sharedStateTableName != null;
+    }
+
+    public String getSharedStateTableName() {
+        return sharedStateTableName;
+    }
+
+    /** Minimum time between reads of the shared state while the local circuit is closed. */
+    public long getSharedStateRefreshMs() {
+        return sharedStateRefreshMs;
+    }
+}
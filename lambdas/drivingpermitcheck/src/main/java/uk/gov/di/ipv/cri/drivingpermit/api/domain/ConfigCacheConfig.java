@@ -0,0 +1,36 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.domain;
+
+import java.util.List;
+import java.util.Map;
+
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getLong;
+
+/**
+ * How long configuration loaded at init is used before it is reloaded from SSM, read from the
+ * parameters under /{stack}/ConfigCache. Any that are missing or invalid fall back to the
+ * defaults below.
+ */
+public class ConfigCacheConfig {
+
+    // The parameters read below, loaded by name at init
+    public static final List<String> PARAMETER_NAMES = List.of("KeyMaterialTtlSeconds");
+
+    public static final long DEFAULT_KEY_MATERIAL_TTL_SECONDS = 300L;
+
+    private final long keyMaterialTtlSeconds;
+
+    public ConfigCacheConfig(Map<String, String> parameters) {
+        this.keyMaterialTtlSeconds =
+                Math.max(
+                        1L,
+                        getLong(
+                                parameters,
+                                "KeyMaterialTtlSeconds",
+                                DEFAULT_KEY_MATERIAL_TTL_SECONDS));
+    }
+
+    /** Time to live of the DCS signing and encryption keys and certificates. */
+    public long getKeyMaterialTtlSeconds() {
+        return keyMaterialTtlSeconds;
+    }
+}
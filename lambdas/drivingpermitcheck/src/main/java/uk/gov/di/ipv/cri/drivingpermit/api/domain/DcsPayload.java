@@ -6,10 +6,9 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
+import uk.gov.di.ipv.cri.drivingpermit.api.util.RequestIdentityGenerator;
 
-import java.text.SimpleDateFormat;
 import java.time.LocalDate;
-import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,8 +18,9 @@ import static com.fasterxml.jackson.annotation.JsonInclude.Include;
 @JsonIgnoreProperties(ignoreUnknown = true)
 @JsonInclude(Include.NON_NULL)
 public class DcsPayload {
+    public static final String CLIENT_ID = "di-ipv-passport-test-2021-12";
+
     private static final String DATE_FORMAT = "yyyy-MM-dd";
-    private static final String TIMESTAMP_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
 
     private static final String TIME_ZONE = "UTC";
 
@@ -30,7 +30,7 @@ public class DcsPayload {
     @JsonProperty private String licenceNumber;
     @JsonProperty private String driverNumber;
     @JsonProperty private String postcode;
-    @JsonProperty private String clientId = "di-ipv-passport-test-2021-12";
+    @JsonProperty private String clientId = CLIENT_ID;
     @JsonProperty private String surname;
     @JsonProperty private String issueNumber;
 
@@ -64,9 +64,10 @@ public class DcsPayload {
         this.issueDate = issueDate;
         this.dateOfIssue = dateOfIssue;
         this.expiryDate = expiryDate;
-        this.correlationId = UUID.randomUUID();
-        this.requestId = UUID.randomUUID();
-        this.timestamp = new SimpleDateFormat(TIMESTAMP_DATE_FORMAT).format(new Date());
+        RequestIdentityGenerator requestIdentityGenerator = RequestIdentityGenerator.getDefault();
+        this.correlationId = requestIdentityGenerator.nextId();
+        this.requestId = requestIdentityGenerator.nextId();
+        this.timestamp = requestIdentityGenerator.timestamp();
         this.postcode = postcode;
     }
 
@@ -0,0 +1,88 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.domain;
+
+import java.util.List;
+import java.util.Map;
+
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getBoolean;
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getInt;
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getLong;
+
+/**
+ * Settings for hedged requests to DCS, read from the parameters under /{stack}/Hedging. Any that
+ * are missing or invalid fall back to the defaults below.
+ */
+public class HedgingConfig {
+
+    // The parameters read below, loaded by name at init
+    public static final List<String> PARAMETER_NAMES =
+            List.of(
+                    "Enabled",
+                    "LatencyPercentile",
+                    "SampleWindowSize",
+                    "MinSamples",
+                    "InitialDelayMs",
+                    "MinDelayMs",
+                    "MaxHedgeRatioPercent");
+
+    public static final int DEFAULT_LATENCY_PERCENTILE = 95;
+    public static final int DEFAULT_SAMPLE_WINDOW_SIZE = 100;
+    public static final int DEFAULT_MIN_SAMPLES = 20;
+    public static final long DEFAULT_INITIAL_DELAY_MS = 1000L;
+    public static final long DEFAULT_MIN_DELAY_MS = 100L;
+    public static final int DEFAULT_MAX_HEDGE_RATIO_PERCENT = 10;
+
+    private final boolean enabled;
+    private final int latencyPercentile;
+    private final int sampleWindowSize;
+    private final int minSamples;
+    private final long initialDelayMs;
+    private final long minDelayMs;
+    private final int maxHedgeRatioPercent;
+
+    public HedgingConfig(Map<String, String> parameters) {
+        this.enabled = getBoolean(parameters, "Enabled", false);
+        int percentile = getInt(parameters, "LatencyPercentile", DEFAULT_LATENCY_PERCENTILE);
+        this.latencyPercentile = Math.min(100, Math.max(1, percentile));
+        this.sampleWindowSize =
+                Math.max(1, getInt(parameters, "SampleWindowSize", DEFAULT_SAMPLE_WINDOW_SIZE));
+        this.minSamples =
+                Math.min(sampleWindowSize, getInt(parameters, "MinSamples", DEFAULT_MIN_SAMPLES));
+        this.initialDelayMs = getLong(parameters, "InitialDelayMs", DEFAULT_INITIAL_DELAY_MS);
+        this.minDelayMs = getLong(parameters, "MinDelayMs", DEFAULT_MIN_DELAY_MS);
+        this.maxHedgeRatioPercent =
+                getInt(parameters, "MaxHedgeRatioPercent", DEFAULT_MAX_HEDGE_RATIO_PERCENT);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Latency percentile of recent requests after which a hedged request is sent. */
+    public int getLatencyPercentile() {
+        return latencyPercentile;
+    }
+
+    /** Number of most recent request latencies the percentile is taken over. */
+    public int getSampleWindowSize() {
+        return sampleWindowSize;
+    }
+
+    /** Latencies needed before the percentile is used, until then the initial delay applies. */
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public long getInitialDelayMs() {
+        return initialDelayMs;
+    }
+
+    /** Lower bound on the hedge delay, so a run of fast responses does not hedge everything. */
+    public long getMinDelayMs() {
+        return minDelayMs;
+    }
+
+    /** Hedged requests as a percentage of requests, the most extra load hedging can add. */
+    public int getMaxHedgeRatioPercent() {
+        return maxHedgeRatioPercent;
+    }
+}
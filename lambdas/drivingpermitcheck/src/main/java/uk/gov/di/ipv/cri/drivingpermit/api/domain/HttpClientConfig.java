@@ -0,0 +1,144 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.domain;
+
+import java.util.List;
+import java.util.Map;
+
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getBoolean;
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getInt;
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getLong;
+
+/**
+ * Connection pool, timeout and TLS session settings for the DCS HTTP client. Values are read from
+ * the parameters under /{stack}/HttpClient, any that are missing or invalid fall back to the
+ * defaults below.
+ */
+public class HttpClientConfig {
+
+    // The parameters read below, loaded by name at init
+    public static final List<String> PARAMETER_NAMES =
+            List.of(
+                    "MaxConnections",
+                    "MaxConnectionsPerRoute",
+                    "ConnectTimeoutMs",
+                    "SocketTimeoutMs",
+                    "ConnectionRequestTimeoutMs",
+                    "KeepAliveMs",
+                    "IdleConnectionEvictionMs",
+                    "ValidateAfterInactivityMs",
+                    "TlsSessionCacheSize",
+                    "TlsSessionTimeoutSeconds",
+                    "WarmUpEnabled",
+                    "WarmUpTimeoutMs",
+                    "MaxResponseBytes");
+
+    public static final int DEFAULT_MAX_CONNECTIONS = 10;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+    public static final int DEFAULT_CONNECT_TIMEOUT_MS = 5000;
+    public static final int DEFAULT_SOCKET_TIMEOUT_MS = 10000;
+    public static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT_MS = 2000;
+    public static final long DEFAULT_KEEP_ALIVE_MS = 60000L;
+    public static final long DEFAULT_IDLE_CONNECTION_EVICTION_MS = 30000L;
+    public static final int DEFAULT_VALIDATE_AFTER_INACTIVITY_MS = 2000;
+    public static final int DEFAULT_TLS_SESSION_CACHE_SIZE = 10;
+    public static final int DEFAULT_TLS_SESSION_TIMEOUT_SECONDS = 3600;
+    public static final int DEFAULT_WARM_UP_TIMEOUT_MS = 2000;
+    public static final int DEFAULT_MAX_RESPONSE_BYTES = 262144;
+
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+    private final int connectTimeoutMs;
+    private final int socketTimeoutMs;
+    private final int connectionRequestTimeoutMs;
+    private final long keepAliveMs;
+    private final long idleConnectionEvictionMs;
+    private final int validateAfterInactivityMs;
+    private final int tlsSessionCacheSize;
+    private final int tlsSessionTimeoutSeconds;
+    private final boolean warmUpEnabled;
+    private final int warmUpTimeoutMs;
+    private final int maxResponseBytes;
+
+    public HttpClientConfig(Map<String, String> parameters) {
+        this.maxConnections = getInt(parameters, "MaxConnections", DEFAULT_MAX_CONNECTIONS);
+        this.maxConnectionsPerRoute =
+                getInt(parameters, "MaxConnectionsPerRoute", DEFAULT_MAX_CONNECTIONS_PER_ROUTE);
+        this.connectTimeoutMs = getInt(parameters, "ConnectTimeoutMs", DEFAULT_CONNECT_TIMEOUT_MS);
+        this.socketTimeoutMs = getInt(parameters, "SocketTimeoutMs", DEFAULT_SOCKET_TIMEOUT_MS);
+        this.connectionRequestTimeoutMs =
+                getInt(
+                        parameters,
+                        "ConnectionRequestTimeoutMs",
+                        DEFAULT_CONNECTION_REQUEST_TIMEOUT_MS);
+        this.keepAliveMs = getLong(parameters, "KeepAliveMs", DEFAULT_KEEP_ALIVE_MS);
+        this.idleConnectionEvictionMs =
+                getLong(
+                        parameters,
+                        "IdleConnectionEvictionMs",
+                        DEFAULT_IDLE_CONNECTION_EVICTION_MS);
+        this.validateAfterInactivityMs =
+                getInt(
+                        parameters,
+                        "ValidateAfterInactivityMs",
+                        DEFAULT_VALIDATE_AFTER_INACTIVITY_MS);
+        this.tlsSessionCacheSize =
+                getInt(parameters, "TlsSessionCacheSize", DEFAULT_TLS_SESSION_CACHE_SIZE);
+        this.tlsSessionTimeoutSeconds =
+                getInt(parameters, "TlsSessionTimeoutSeconds", DEFAULT_TLS_SESSION_TIMEOUT_SECONDS);
+        this.warmUpEnabled = getBoolean(parameters, "WarmUpEnabled", false);
+        this.warmUpTimeoutMs = getInt(parameters, "WarmUpTimeoutMs", DEFAULT_WARM_UP_TIMEOUT_MS);
+        this.maxResponseBytes = getInt(parameters, "MaxResponseBytes", DEFAULT_MAX_RESPONSE_BYTES);
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    public int getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    public int getSocketTimeoutMs() {
+        return socketTimeoutMs;
+    }
+
+    public int getConnectionRequestTimeoutMs() {
+        return connectionRequestTimeoutMs;
+    }
+
+    public long getKeepAliveMs() {
+        return keepAliveMs;
+    }
+
+    public long getIdleConnectionEvictionMs() {
+        return idleConnectionEvictionMs;
+    }
+
+    public int getValidateAfterInactivityMs() {
+        return validateAfterInactivityMs;
+    }
+
+    public int getTlsSessionCacheSize() {
+        return tlsSessionCacheSize;
+    }
+
+    public int getTlsSessionTimeoutSeconds() {
+        return tlsSessionTimeoutSeconds;
+    }
+
+    public boolean isWarmUpEnabled() {
+        return warmUpEnabled;
+    }
+
+    public int getWarmUpTimeoutMs() {
+        return warmUpTimeoutMs;
+    }
+
+    /** Largest DCS response body that is read, anything bigger fails the request. */
+    public int getMaxResponseBytes() {
+        return maxResponseBytes;
+    }
+}
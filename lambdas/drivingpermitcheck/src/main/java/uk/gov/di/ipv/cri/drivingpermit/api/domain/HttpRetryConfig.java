@@ -0,0 +1,126 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.domain;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getInt;
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getLong;
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getString;
+
+/**
+ * Retry settings for requests to DCS, read from the parameters under /{stack}/HttpRetry. Any that
+ * are missing or invalid fall back to the defaults below.
+ */
+public class HttpRetryConfig {
+
+    // The parameters read below, loaded by name at init
+    public static final List<String> PARAMETER_NAMES =
+            List.of(
+                    "Strategy",
+                    "MaxRetries",
+                    "BaseDelayMs",
+                    "MaxDelayMs",
+                    "MaxRetryAfterMs",
+                    "DeadlineMarginMs");
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // The names BackoffStrategy.create accepts
+    private static final Set<String> STRATEGIES =
+            Set.of("EXPONENTIAL", "FULL_JITTER", "DECORRELATED_JITTER");
+
+    public static final String DEFAULT_STRATEGY = "FULL_JITTER";
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_BASE_DELAY_MS = 100L;
+    public static final long DEFAULT_MAX_DELAY_MS = 3200L;
+    public static final long DEFAULT_MAX_RETRY_AFTER_MS = 5000L;
+    public static final long DEFAULT_DEADLINE_MARGIN_MS = 17000L;
+
+    private final String strategy;
+    private final int maxRetries;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final long maxRetryAfterMs;
+    private final long deadlineMarginMs;
+
+    /**
+     * @param httpClientConfig the timeouts of a single request, which the deadline margin is never
+     *     allowed to fall below
+     */
+    public HttpRetryConfig(Map<String, String> parameters, HttpClientConfig httpClientConfig) {
+        this.strategy = getStrategy(parameters);
+        this.maxRetries = getInt(parameters, "MaxRetries", DEFAULT_MAX_RETRIES);
+        this.baseDelayMs = getLong(parameters, "BaseDelayMs", DEFAULT_BASE_DELAY_MS);
+        this.maxDelayMs = getLong(parameters, "MaxDelayMs", DEFAULT_MAX_DELAY_MS);
+        this.maxRetryAfterMs = getLong(parameters, "MaxRetryAfterMs", DEFAULT_MAX_RETRY_AFTER_MS);
+        this.deadlineMarginMs =
+                getDeadlineMarginMs(
+                        getLong(parameters, "DeadlineMarginMs", DEFAULT_DEADLINE_MARGIN_MS),
+                        httpClientConfig);
+    }
+
+    private static String getStrategy(Map<String, String> parameters) {
+        String value = getString(parameters, "Strategy", DEFAULT_STRATEGY);
+        String strategy = value.trim().toUpperCase(Locale.ROOT);
+        if (STRATEGIES.contains(strategy)) {
+            return strategy;
+        }
+
+        LOGGER.warn("Unknown backoff strategy '{}', using {}", value, DEFAULT_STRATEGY);
+        return DEFAULT_STRATEGY;
+    }
+
+    private static long getDeadlineMarginMs(
+            long deadlineMarginMs, HttpClientConfig httpClientConfig) {
+        // The longest a retried request can take before it times out
+        long requestTimeoutMs =
+                (long) httpClientConfig.getConnectionRequestTimeoutMs()
+                        + httpClientConfig.getConnectTimeoutMs()
+                        + httpClientConfig.getSocketTimeoutMs();
+        if (deadlineMarginMs >= requestTimeoutMs) {
+            return deadlineMarginMs;
+        }
+
+        LOGGER.warn(
+                "Deadline margin of {}ms is less than the request timeouts, using {}ms",
+                deadlineMarginMs,
+                requestTimeoutMs);
+        return requestTimeoutMs;
+    }
+
+    public String getStrategy() {
+        return strategy;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getBaseDelayMs() {
+        return baseDelayMs;
+    }
+
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    /** A Retry-After asking for longer than this ends the retries rather than being honoured. */
+    public long getMaxRetryAfterMs() {
+        return maxRetryAfterMs;
+    }
+
+    /**
+     * Time kept back from the Lambda deadline for the retried request itself and for handling its
+     * response. A retry is only made when its delay ends before the deadline minus this margin. It
+     * is never less than the connection request, connect and socket timeouts added together, so a
+     * retry that hangs still times out before the Lambda does.
+     */
+    public long getDeadlineMarginMs() {
+        return deadlineMarginMs;
+    }
+}
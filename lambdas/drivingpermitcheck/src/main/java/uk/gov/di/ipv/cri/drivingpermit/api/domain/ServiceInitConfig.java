@@ -0,0 +1,58 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.domain;
+
+import java.util.List;
+import java.util.Map;
+
+import static uk.gov.di.ipv.cri.drivingpermit.api.util.ParameterMapUtility.getBoolean;
+
+/**
+ * Which components are created during init and which are left until a request first needs them,
+ * read from the parameters under /{stack}/ServiceInit. Any that are missing or invalid fall back to
+ * the defaults below.
+ */
+public class ServiceInitConfig {
+
+    // The parameters read below, loaded by name at init
+    public static final List<String> PARAMETER_NAMES =
+            List.of(
+                    "DcsHttpClientOnDemand",
+                    "ContraindicationMapperOnDemand",
+                    "AuditEventPublisherOnDemand",
+                    "AuditServiceOnDemand");
+
+    private final boolean dcsHttpClientOnDemand;
+    private final boolean contraindicationMapperOnDemand;
+    private final boolean auditEventPublisherOnDemand;
+    private final boolean auditServiceOnDemand;
+
+    public ServiceInitConfig(Map<String, String> parameters) {
+        this.dcsHttpClientOnDemand = getBoolean(parameters, "DcsHttpClientOnDemand", false);
+        this.contraindicationMapperOnDemand =
+                getBoolean(parameters, "ContraindicationMapperOnDemand", false);
+        this.auditEventPublisherOnDemand =
+                getBoolean(parameters, "AuditEventPublisherOnDemand", false);
+        this.auditServiceOnDemand = getBoolean(parameters, "AuditServiceOnDemand", true);
+    }
+
+    /**
+     * The TLS key stores and pooled HTTP client for DCS. When created on demand the connection is
+     * not warmed up during init, so the first request to DCS also makes the TLS handshake.
+     */
+    public boolean isDcsHttpClientOnDemand() {
+        return dcsHttpClientOnDemand;
+    }
+
+    public boolean isContraindicationMapperOnDemand() {
+        return contraindicationMapperOnDemand;
+    }
+
+    /** The SQS client the audit events are sent with. */
+    public boolean isAuditEventPublisherOnDemand() {
+        return auditEventPublisherOnDemand;
+    }
+
+    /** The synchronous SQS audit client, not used by the check itself. */
+    public boolean isAuditServiceOnDemand() {
+        return auditServiceOnDemand;
+    }
+}
@@ -31,7 +31,8 @@ public enum ErrorResponse {
     DCS_ERROR_HTTP_40x(1023, "DCS Responded with a HTTP Client Error status code"),
     DCS_ERROR_HTTP_50x(1024, "DCS Responded with a HTTP Server Error status code"),
     DCS_ERROR_HTTP_X(1025, "DCS Responded with an unhandled HTTP status code"),
-    TOO_MANY_RETRY_ATTEMPTS(1026, "Too many retry attempts made");
+    TOO_MANY_RETRY_ATTEMPTS(1026, "Too many retry attempts made"),
+    DCS_RESPONSE_TOO_LARGE(1027, "DCS response was over the maximum size");
 
     private final int code;
     private final String message;
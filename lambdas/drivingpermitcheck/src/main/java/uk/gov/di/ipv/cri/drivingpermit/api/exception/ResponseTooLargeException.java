@@ -0,0 +1,10 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.exception;
+
+import java.io.IOException;
+
+public class ResponseTooLargeException extends IOException {
+
+    public ResponseTooLargeException(long maxBytes) {
+        super(String.format("Response body is over the maximum of %d bytes", maxBytes));
+    }
+}
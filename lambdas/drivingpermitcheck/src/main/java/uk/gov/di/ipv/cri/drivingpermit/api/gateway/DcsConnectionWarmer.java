@@ -0,0 +1,117 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HttpClientConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.service.ConfigurationService;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CONNECTION_WARM_UP_DURATION;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CONNECTION_WARM_UP_FAILED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CONNECTION_WARM_UP_OK;
+
+/**
+ * Opens a connection to DCS during Lambda init with a HEAD request, so the DNS lookup, TCP connect
+ * and mutual TLS handshake are paid before the first real request and the connection is left in
+ * the pool. The status code returned is irrelevant. Failures are logged and never propagated.
+ *
+ * <p>Warming up happens outside any invocation, so there is no metrics context to emit its outcome
+ * in. The outcome of the last warm up is held and emitted once by {@link
+ * #publishMetrics(EventProbe)} from the handler thread of the next invocation.
+ */
+public class DcsConnectionWarmer {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // Read on each warm up, as the pool is created again after a SnapStart restore
+    private final Supplier<CloseableHttpClient> httpClient;
+    private final ConfigurationService configurationService;
+
+    // The outcome of the last warm up not yet published, null when there is none
+    private Boolean succeeded;
+    private long durationMs;
+
+    public DcsConnectionWarmer(
+            Supplier<CloseableHttpClient> httpClient, ConfigurationService configurationService) {
+        this.httpClient = httpClient;
+        this.configurationService = configurationService;
+    }
+
+    public synchronized void warmUp() {
+        HttpClientConfig httpClientConfig = configurationService.getHttpClientConfig();
+        if (!httpClientConfig.isWarmUpEnabled()) {
+            LOGGER.info("DCS connection warm up disabled");
+            return;
+        }
+
+        int timeoutMs = httpClientConfig.getWarmUpTimeoutMs();
+
+        HttpHead request = new HttpHead(configurationService.getDcsEndpointUri());
+        request.setConfig(
+                RequestConfig.custom()
+                        .setConnectTimeout(timeoutMs)
+                        .setSocketTimeout(timeoutMs)
+                        .setConnectionRequestTimeout(timeoutMs)
+                        .build());
+
+        // The per phase timeouts above do not bound the request as a whole
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        ScheduledFuture<?> abort =
+                scheduler.schedule(request::abort, timeoutMs, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        try (CloseableHttpResponse response = httpClient.get().execute(request)) {
+            // Consuming the (empty) entity releases the connection back to the pool
+            EntityUtils.consume(response.getEntity());
+
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            LOGGER.info(
+                    "DCS connection warm up completed in {}ms, statusCode {}",
+                    durationMs,
+                    response.getStatusLine().getStatusCode());
+
+            this.succeeded = true;
+            this.durationMs = durationMs;
+        } catch (Exception e) {
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            LOGGER.warn(
+                    "DCS connection warm up failed after {}ms - {}", durationMs, e.getMessage());
+
+            this.succeeded = false;
+        } finally {
+            abort.cancel(false);
+            scheduler.shutdownNow();
+        }
+    }
+
+    /** Emits the outcome of the last warm up, once. */
+    public synchronized void publishMetrics(EventProbe eventProbe) {
+        if (succeeded == null) {
+            return;
+        }
+
+        if (succeeded) {
+            eventProbe.counterMetric(DCS_CONNECTION_WARM_UP_OK);
+            eventProbe.counterMetric(DCS_CONNECTION_WARM_UP_DURATION, durationMs);
+        } else {
+            eventProbe.counterMetric(DCS_CONNECTION_WARM_UP_FAILED);
+        }
+        succeeded = null;
+    }
+
+    /** Forgets the outcome of the last warm up without emitting it. */
+    public synchronized void discardMetrics() {
+        succeeded = null;
+    }
+}
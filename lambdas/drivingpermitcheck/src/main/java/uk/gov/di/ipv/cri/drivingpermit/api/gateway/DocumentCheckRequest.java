@@ -0,0 +1,47 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
+
+import java.time.LocalDate;
+
+/**
+ * A document check request that has been mapped and signed and encrypted for DCS, but not yet
+ * sent. Built by {@link ThirdPartyDocumentGateway#prepareDocumentCheck} so the JOSE work can be
+ * done ahead of, and on a different thread to, the request itself.
+ */
+public class DocumentCheckRequest {
+
+    private final DrivingPermitForm drivingPermitForm;
+    private final DocumentCheckRoute route;
+    private final String requestBody;
+    private final LocalDate documentIssueDate;
+
+    DocumentCheckRequest(
+            DrivingPermitForm drivingPermitForm,
+            DocumentCheckRoute route,
+            String requestBody,
+            LocalDate documentIssueDate) {
+        this.drivingPermitForm = drivingPermitForm;
+        this.route = route;
+        this.requestBody = requestBody;
+        this.documentIssueDate = documentIssueDate;
+    }
+
+    /** The form the request was prepared from. */
+    public DrivingPermitForm getDrivingPermitForm() {
+        return drivingPermitForm;
+    }
+
+    DocumentCheckRoute getRoute() {
+        return route;
+    }
+
+    /** The signed, encrypted and signed again payload, in JWS compact serialization. */
+    String getRequestBody() {
+        return requestBody;
+    }
+
+    LocalDate getDocumentIssueDate() {
+        return documentIssueDate;
+    }
+}
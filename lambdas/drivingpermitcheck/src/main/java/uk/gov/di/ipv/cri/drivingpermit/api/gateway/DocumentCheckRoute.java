@@ -0,0 +1,70 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.IssuingAuthority;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Where and how a document check for one issuing authority is sent to DCS. Built once per
+ * authority by {@link DocumentCheckRoutes}, so the endpoint and metric name are not rebuilt for
+ * each request.
+ */
+final class DocumentCheckRoute {
+
+    private final IssuingAuthority issuingAuthority;
+    private final URI endpoint;
+    private final String metricName;
+    private final String circuitBreakerName;
+    private final SerializableString documentNumberField;
+    private final Function<DrivingPermitForm, LocalDate> documentIssueDate;
+
+    DocumentCheckRoute(
+            IssuingAuthority issuingAuthority,
+            URI endpoint,
+            String metricName,
+            String circuitBreakerName,
+            String documentNumberField,
+            Function<DrivingPermitForm, LocalDate> documentIssueDate) {
+        this.issuingAuthority = issuingAuthority;
+        this.endpoint = endpoint;
+        this.metricName = metricName;
+        this.circuitBreakerName = circuitBreakerName;
+        this.documentNumberField = new SerializedString(documentNumberField);
+        this.documentIssueDate = documentIssueDate;
+    }
+
+    IssuingAuthority getIssuingAuthority() {
+        return issuingAuthority;
+    }
+
+    URI getEndpoint() {
+        return endpoint;
+    }
+
+    /** The counter emitted for each check sent to this issuing authority. */
+    String getMetricName() {
+        return metricName;
+    }
+
+    String getCircuitBreakerName() {
+        return circuitBreakerName;
+    }
+
+    /** The DCS payload field the driving licence number is sent in. */
+    SerializableString getDocumentNumberField() {
+        return documentNumberField;
+    }
+
+    /**
+     * @return the issue date of the document, recorded as the start of the activity when the
+     *     check is valid
+     */
+    LocalDate getDocumentIssueDate(DrivingPermitForm drivingPermitForm) {
+        return documentIssueDate.apply(drivingPermitForm);
+    }
+}
@@ -0,0 +1,82 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.IssuingAuthority;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.ISSUING_AUTHORITY_PREFIX;
+
+/**
+ * The DCS route of each issuing authority, built once from the DCS endpoint. Supporting another
+ * issuing authority means adding its route in {@link #create(String)}, the gateway itself does not
+ * change.
+ */
+final class DocumentCheckRoutes {
+
+    private static final String DVA_CIRCUIT_BREAKER = "dva_driving_licence";
+    private static final String DVLA_CIRCUIT_BREAKER = "driving_licence";
+
+    private final Map<IssuingAuthority, DocumentCheckRoute> routes;
+    private final Map<String, DocumentCheckRoute> routesByName;
+
+    private DocumentCheckRoutes(Map<IssuingAuthority, DocumentCheckRoute> routes) {
+        this.routes = routes;
+        this.routesByName = new HashMap<>();
+        routes.forEach((issuer, route) -> routesByName.put(issuer.name(), route));
+    }
+
+    static DocumentCheckRoutes create(String dcsEndpointUri) {
+        Map<IssuingAuthority, DocumentCheckRoute> routes = new EnumMap<>(IssuingAuthority.class);
+        routes.put(
+                IssuingAuthority.DVA,
+                createRoute(
+                        IssuingAuthority.DVA,
+                        dcsEndpointUri + "/dva-driving-licence",
+                        DVA_CIRCUIT_BREAKER,
+                        "driverNumber",
+                        DrivingPermitForm::getDateOfIssue));
+        routes.put(
+                IssuingAuthority.DVLA,
+                createRoute(
+                        IssuingAuthority.DVLA,
+                        dcsEndpointUri + "/driving-licence",
+                        DVLA_CIRCUIT_BREAKER,
+                        "licenceNumber",
+                        DrivingPermitForm::getIssueDate));
+        return new DocumentCheckRoutes(routes);
+    }
+
+    /**
+     * @return the route of the issuing authority with the given name, or null if there is no such
+     *     issuing authority or it has no route
+     */
+    DocumentCheckRoute find(String licenceIssuer) {
+        return licenceIssuer == null ? null : routesByName.get(licenceIssuer);
+    }
+
+    DocumentCheckRoute get(IssuingAuthority issuingAuthority) {
+        return routes.get(issuingAuthority);
+    }
+
+    private static DocumentCheckRoute createRoute(
+            IssuingAuthority issuingAuthority,
+            String endpoint,
+            String circuitBreakerName,
+            String documentNumberField,
+            Function<DrivingPermitForm, LocalDate> documentIssueDate) {
+        return new DocumentCheckRoute(
+                issuingAuthority,
+                URI.create(endpoint),
+                ISSUING_AUTHORITY_PREFIX + issuingAuthority.toString().toLowerCase(Locale.ROOT),
+                circuitBreakerName,
+                documentNumberField,
+                documentIssueDate);
+    }
+}
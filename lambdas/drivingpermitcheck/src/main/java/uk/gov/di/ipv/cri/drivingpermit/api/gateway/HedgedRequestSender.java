@@ -0,0 +1,225 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HedgingConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.hedge.HedgeBudget;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.hedge.LatencyTracker;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ParallelTaskExecutor;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_HEDGE_SENT;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_HEDGE_WON;
+
+/**
+ * Sends a document check request through {@link HttpRetryer} and, when hedging is enabled and no
+ * answer has arrived within the configured latency percentile, sends a second identical request on
+ * another pooled connection. The first 200 response is used and the other request is aborted. When
+ * neither answers with a 200 the outcome of the first request is returned, as if no hedge was
+ * sent. Hedges are single attempts and limited by a {@link HedgeBudget}.
+ *
+ * <p>Both requests run on a {@link ParallelTaskExecutor}, so they log with the correlation id of
+ * the invocation. Hedges sent and won are counted as they happen and emitted as metrics by {@link
+ * #publishMetrics()} from the handler thread.
+ */
+public class HedgedRequestSender {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // The primary request and its hedge
+    private static final int HEDGE_THREADS = 2;
+
+    private final HttpRetryer httpRetryer;
+    private final ResponseBodyReader responseBodyReader;
+    private final HedgingConfig hedgingConfig;
+    private final LatencyTracker latencyTracker;
+    private final HedgeBudget hedgeBudget;
+    private final Executor executor;
+    private final EventProbe eventProbe;
+    private final AtomicInteger hedgesSent = new AtomicInteger();
+    private final AtomicInteger hedgesWon = new AtomicInteger();
+
+    public HedgedRequestSender(
+            HttpRetryer httpRetryer,
+            ResponseBodyReader responseBodyReader,
+            HedgingConfig hedgingConfig,
+            EventProbe eventProbe) {
+        this(
+                httpRetryer,
+                responseBodyReader,
+                hedgingConfig,
+                hedgingConfig.isEnabled()
+                        ? ParallelTaskExecutor.withDaemonThreads(
+                                "dcs-hedged-request", HEDGE_THREADS)
+                        : null,
+                eventProbe);
+    }
+
+    HedgedRequestSender(
+            HttpRetryer httpRetryer,
+            ResponseBodyReader responseBodyReader,
+            HedgingConfig hedgingConfig,
+            Executor executor,
+            EventProbe eventProbe) {
+        this.httpRetryer = httpRetryer;
+        this.responseBodyReader = responseBodyReader;
+        this.hedgingConfig = hedgingConfig;
+        this.latencyTracker =
+                new LatencyTracker(
+                        hedgingConfig.getLatencyPercentile(),
+                        hedgingConfig.getSampleWindowSize(),
+                        hedgingConfig.getMinSamples(),
+                        hedgingConfig.getInitialDelayMs(),
+                        hedgingConfig.getMinDelayMs());
+        this.hedgeBudget =
+                new HedgeBudget(
+                        hedgingConfig.getMaxHedgeRatioPercent(),
+                        hedgingConfig.getSampleWindowSize());
+        this.executor = executor;
+        this.eventProbe = eventProbe;
+    }
+
+    public CloseableHttpResponse send(HttpPost request) throws IOException, InterruptedException {
+        if (!hedgingConfig.isEnabled()) {
+            return httpRetryer.sendHTTPRequestRetryIfAllowed(request);
+        }
+
+        hedgeBudget.onRequest();
+
+        CompletionService<CloseableHttpResponse> completionService =
+                new ExecutorCompletionService<>(executor);
+        // Only attempts answered with a 200 are timed, so fast failures and retries do not move
+        // the hedge delay
+        Future<CloseableHttpResponse> primary =
+                completionService.submit(
+                        () ->
+                                httpRetryer.sendHTTPRequestRetryIfAllowed(
+                                        request, latencyTracker::record));
+
+        long hedgeDelayMs = latencyTracker.getHedgeDelayMs();
+        HttpPost hedgeRequest = null;
+        Future<CloseableHttpResponse> hedge = null;
+        try {
+            Future<CloseableHttpResponse> first =
+                    completionService.poll(hedgeDelayMs, TimeUnit.MILLISECONDS);
+            if (first == null && hedgeBudget.tryAcquire()) {
+                LOGGER.info("No DCS response after {}ms, sending hedged request", hedgeDelayMs);
+                hedgesSent.incrementAndGet();
+
+                HttpPost copy = copyOf(request);
+                hedge =
+                        completionService.submit(
+                                () ->
+                                        httpRetryer.sendHTTPRequestOnce(
+                                                copy, latencyTracker::record));
+                hedgeRequest = copy;
+            }
+
+            if (first == null) {
+                first = completionService.take();
+            }
+
+            if (hedge == null) {
+                return getResponse(primary);
+            }
+
+            Future<CloseableHttpResponse> winner = first;
+            if (!isOk(first)) {
+                Future<CloseableHttpResponse> second = completionService.take();
+                winner = isOk(second) ? second : primary;
+            }
+
+            if (winner == hedge) {
+                hedgesWon.incrementAndGet();
+                abandon(primary, request);
+            } else {
+                abandon(hedge, hedgeRequest);
+            }
+            return getResponse(winner);
+        } catch (InterruptedException e) {
+            abandon(primary, request);
+            if (hedge != null) {
+                abandon(hedge, hedgeRequest);
+            }
+            throw e;
+        }
+    }
+
+    /** Emits the hedges sent and won since the last call. */
+    public void publishMetrics() {
+        publish(THIRD_PARTY_REQUEST_HEDGE_SENT, hedgesSent);
+        publish(THIRD_PARTY_REQUEST_HEDGE_WON, hedgesWon);
+    }
+
+    private void publish(String metricName, AtomicInteger counter) {
+        int count = counter.getAndSet(0);
+        if (count > 0) {
+            eventProbe.counterMetric(metricName, count);
+        }
+    }
+
+    private static boolean isOk(Future<CloseableHttpResponse> future) throws InterruptedException {
+        try {
+            return future.get().getStatusLine().getStatusCode() == 200;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    private static CloseableHttpResponse getResponse(Future<CloseableHttpResponse> future)
+            throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /** Stops a request that is no longer needed and releases its response if it has one. */
+    private void abandon(Future<CloseableHttpResponse> future, HttpPost request) {
+        if (!future.isDone()) {
+            // Aborting closes the connection, it is not returned to the pool
+            request.abort();
+            future.cancel(true);
+            return;
+        }
+
+        try {
+            responseBodyReader.discard(future.get());
+        } catch (ExecutionException e) {
+            // The request failed, there is no response to release
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static HttpPost copyOf(HttpPost request) {
+        HttpPost copy = new HttpPost(request.getURI());
+        copy.setHeaders(request.getAllHeaders());
+        // The request body is a repeatable StringEntity, safe to send from both requests
+        copy.setEntity(request.getEntity());
+        copy.setConfig(request.getConfig());
+        return copy;
+    }
+}
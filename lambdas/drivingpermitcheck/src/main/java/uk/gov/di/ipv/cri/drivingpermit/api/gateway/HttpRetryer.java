@@ -2,59 +2,103 @@ package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
 
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
-import uk.gov.di.ipv.cri.drivingpermit.api.util.SleepHelper;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.retry.RetryPolicy;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.retry.Sleeper;
 
 import java.io.IOException;
 import java.net.http.HttpConnectTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_SEND_ERROR;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_SEND_FAIL;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_SEND_MAX_RETRIES;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_SEND_OK;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_SEND_RETRY;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_SEND_RETRY_BUDGET_EXHAUSTED;
 
 public class HttpRetryer {
 
     private static final Logger LOGGER = LogManager.getLogger();
 
-    public static final int MAX_HTTP_RETRIES = 7;
-    public static final long HTTP_RETRY_WAIT_TIME_LIMIT_MS = 12800L;
-
-    private final SleepHelper sleepHelper;
-    private final CloseableHttpClient httpClient;
+    private final Supplier<CloseableHttpClient> httpClient;
+    private final RetryPolicy retryPolicy;
+    private final ResponseBodyReader responseBodyReader;
+    private final Sleeper sleeper;
 
     private final EventProbe eventProbe;
 
-    public HttpRetryer(CloseableHttpClient httpClient, EventProbe eventProbe) {
-        this.sleepHelper = new SleepHelper(HTTP_RETRY_WAIT_TIME_LIMIT_MS);
+    public HttpRetryer(
+            CloseableHttpClient httpClient,
+            RetryPolicy retryPolicy,
+            ResponseBodyReader responseBodyReader,
+            EventProbe eventProbe) {
+        this(() -> httpClient, retryPolicy, responseBodyReader, eventProbe);
+    }
+
+    /** The client is taken from the supplier for each request, so it can be created on demand. */
+    public HttpRetryer(
+            Supplier<CloseableHttpClient> httpClient,
+            RetryPolicy retryPolicy,
+            ResponseBodyReader responseBodyReader,
+            EventProbe eventProbe) {
+        this(httpClient, retryPolicy, responseBodyReader, Sleeper.THREAD_SLEEPER, eventProbe);
+    }
+
+    HttpRetryer(
+            CloseableHttpClient httpClient,
+            RetryPolicy retryPolicy,
+            ResponseBodyReader responseBodyReader,
+            Sleeper sleeper,
+            EventProbe eventProbe) {
+        this(() -> httpClient, retryPolicy, responseBodyReader, sleeper, eventProbe);
+    }
+
+    private HttpRetryer(
+            Supplier<CloseableHttpClient> httpClient,
+            RetryPolicy retryPolicy,
+            ResponseBodyReader responseBodyReader,
+            Sleeper sleeper,
+            EventProbe eventProbe) {
         this.httpClient = httpClient;
+        this.retryPolicy = retryPolicy;
+        this.responseBodyReader = responseBodyReader;
+        this.sleeper = sleeper;
         this.eventProbe = eventProbe;
     }
 
     CloseableHttpResponse sendHTTPRequestRetryIfAllowed(HttpPost request)
             throws InterruptedException, IOException {
+        return sendHTTPRequestRetryIfAllowed(request, latencyMs -> {});
+    }
 
-        CloseableHttpResponse httpResponse = null;
+    /**
+     * Gives okLatencyMs the time taken by each attempt DCS answered with a 200. Failed attempts and
+     * the delays before retries are left out, so only the latency of a single good request is seen.
+     */
+    CloseableHttpResponse sendHTTPRequestRetryIfAllowed(
+            HttpPost request, LongConsumer okLatencyMs) throws InterruptedException, IOException {
+
+        CloseableHttpResponse httpResponse;
 
         // 0 is initial request, > 0 are retries
         int tryCount = 0;
-        boolean retry = false;
-
-        do {
-            // "If" added for capturing retries
-            if (retry) {
-                eventProbe.counterMetric(THIRD_PARTY_REQUEST_SEND_RETRY);
-            }
+        long delayMs = 0L;
 
-            // Wait before sending request (0ms for first try)
-            sleepHelper.sleepWithExponentialBackOff(tryCount);
+        while (true) {
+            IOException retryableException = null;
+            boolean retry;
 
             try {
-                httpResponse = httpClient.execute(request);
+                long attemptStart = System.nanoTime();
+                httpResponse = httpClient.get().execute(request);
+                recordIfOk(httpResponse, attemptStart, okLatencyMs);
 
                 retry = shouldHttpClientRetry(httpResponse.getStatusLine().getStatusCode());
 
@@ -64,53 +108,90 @@ public class HttpRetryer {
                         tryCount,
                         retry,
                         httpResponse.getStatusLine().getStatusCode());
-
             } catch (IOException e) {
-                if (!(e instanceof HttpConnectTimeoutException)) {
+                if (!shouldHttpClientRetry(e)) {
                     eventProbe.counterMetric(THIRD_PARTY_REQUEST_SEND_FAIL);
                     throw e;
                 }
 
-                // For retries (tryCount>0) we want to rethrow only the last
-                // HttpConnectTimeoutException
-                if (tryCount < MAX_HTTP_RETRIES) {
+                LOGGER.info(
+                        "HTTPRequestRetry {} - totalRequests {}, retries {}",
+                        e.getMessage(),
+                        tryCount + 1,
+                        tryCount);
 
-                    LOGGER.info(
-                            "HTTPRequestRetry {} - totalRequests {}, retries {}, retrying {}",
-                            e.getMessage(),
-                            tryCount + 1,
-                            tryCount,
-                            true);
+                httpResponse = null;
+                retryableException = e;
+                retry = true;
+            }
 
-                    retry = true;
-                } else {
+            if (!retry) {
+                break;
+            }
 
-                    LOGGER.info(
-                            "HTTPRequestRetry {} - totalRequests {}, retries {}, retrying {}",
-                            e.getMessage(),
-                            tryCount + 1,
-                            tryCount,
-                            false);
+            if (tryCount >= retryPolicy.getMaxRetries()) {
+                eventProbe.counterMetric(THIRD_PARTY_REQUEST_SEND_MAX_RETRIES);
+                return lastResponseOrThrow(httpResponse, retryableException);
+            }
 
-                    throw e;
-                }
+            delayMs = retryPolicy.getRetryDelayMs(tryCount + 1, delayMs, httpResponse);
+            if (delayMs == RetryPolicy.NO_RETRY) {
+                eventProbe.counterMetric(THIRD_PARTY_REQUEST_SEND_RETRY_BUDGET_EXHAUSTED);
+                return lastResponseOrThrow(httpResponse, retryableException);
             }
-        } while (retry && (tryCount++ < MAX_HTTP_RETRIES));
+
+            if (httpResponse != null) {
+                // Frees the pooled connection for the retry rather than leaking it
+                responseBodyReader.discard(httpResponse);
+            }
+
+            LOGGER.info("HTTPRequestRetry waiting {}ms before retry {}", delayMs, tryCount + 1);
+            sleeper.sleep(delayMs);
+
+            tryCount++;
+            eventProbe.counterMetric(THIRD_PARTY_REQUEST_SEND_RETRY);
+        }
 
         int lastStatusCode = httpResponse.getStatusLine().getStatusCode();
         LOGGER.info("HTTPRequestRetry Exited lastStatusCode {}", lastStatusCode);
 
         if (lastStatusCode == 200) {
             eventProbe.counterMetric(THIRD_PARTY_REQUEST_SEND_OK);
-        } else if (tryCount < MAX_HTTP_RETRIES) {
-            eventProbe.counterMetric(THIRD_PARTY_REQUEST_SEND_ERROR);
         } else {
-            eventProbe.counterMetric(THIRD_PARTY_REQUEST_SEND_MAX_RETRIES);
+            eventProbe.counterMetric(THIRD_PARTY_REQUEST_SEND_ERROR);
         }
 
         return httpResponse;
     }
 
+    /** A single attempt with no retries, so each hedged request adds exactly one to DCS. */
+    CloseableHttpResponse sendHTTPRequestOnce(HttpPost request, LongConsumer okLatencyMs)
+            throws IOException {
+        long attemptStart = System.nanoTime();
+        CloseableHttpResponse httpResponse = httpClient.get().execute(request);
+        recordIfOk(httpResponse, attemptStart, okLatencyMs);
+        return httpResponse;
+    }
+
+    private static void recordIfOk(
+            CloseableHttpResponse httpResponse, long attemptStart, LongConsumer okLatencyMs) {
+        if (httpResponse.getStatusLine().getStatusCode() == 200) {
+            okLatencyMs.accept(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - attemptStart));
+        }
+    }
+
+    private CloseableHttpResponse lastResponseOrThrow(
+            CloseableHttpResponse httpResponse, IOException retryableException) throws IOException {
+        if (retryableException != null) {
+            throw retryableException;
+        }
+
+        LOGGER.info(
+                "HTTPRequestRetry Exited lastStatusCode {}",
+                httpResponse.getStatusLine().getStatusCode());
+        return httpResponse;
+    }
+
     boolean shouldHttpClientRetry(int statusCode) {
         if (statusCode == 200) {
             // OK, Success
@@ -124,4 +205,10 @@ public class HttpRetryer {
             return ((statusCode >= 500) && (statusCode <= 599));
         }
     }
+
+    boolean shouldHttpClientRetry(IOException exception) {
+        // The request never reached DCS, so it is always safe to send again
+        return exception instanceof ConnectTimeoutException
+                || exception instanceof HttpConnectTimeoutException;
+    }
 }
@@ -0,0 +1,57 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.config.Registry;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_CONNECTION_LEASED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_CONNECTION_REUSED;
+
+/**
+ * Pooling connection manager that records every connection lease, and whether the leased
+ * connection was already open (reused from the pool) or still has to be connected.
+ */
+public class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private final EventProbe eventProbe;
+
+    public InstrumentedConnectionManager(
+            Registry<ConnectionSocketFactory> socketFactoryRegistry, EventProbe eventProbe) {
+        super(socketFactoryRegistry);
+        this.eventProbe = eventProbe;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        final ConnectionRequest connectionRequest = super.requestConnection(route, state);
+
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit timeUnit)
+                    throws InterruptedException, ExecutionException,
+                            ConnectionPoolTimeoutException {
+                HttpClientConnection connection = connectionRequest.get(timeout, timeUnit);
+
+                eventProbe.counterMetric(THIRD_PARTY_CONNECTION_LEASED);
+                if (connection.isOpen()) {
+                    eventProbe.counterMetric(THIRD_PARTY_CONNECTION_REUSED);
+                }
+
+                return connection;
+            }
+
+            @Override
+            public boolean cancel() {
+                return connectionRequest.cancel();
+            }
+        };
+    }
+}
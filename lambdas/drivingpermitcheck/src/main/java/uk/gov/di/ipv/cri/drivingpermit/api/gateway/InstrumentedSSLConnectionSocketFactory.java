@@ -0,0 +1,34 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.protocol.HttpContext;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import javax.net.ssl.SSLContext;
+
+import java.io.IOException;
+import java.net.Socket;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_TLS_HANDSHAKE;
+
+/**
+ * Records a metric for each TLS handshake. The handshake is completed synchronously inside
+ * createLayeredSocket, so the metric is emitted on the request thread.
+ */
+public class InstrumentedSSLConnectionSocketFactory extends SSLConnectionSocketFactory {
+
+    private final EventProbe eventProbe;
+
+    public InstrumentedSSLConnectionSocketFactory(SSLContext sslContext, EventProbe eventProbe) {
+        super(sslContext);
+        this.eventProbe = eventProbe;
+    }
+
+    @Override
+    public Socket createLayeredSocket(
+            Socket socket, String target, int port, HttpContext context) throws IOException {
+        Socket sslSocket = super.createLayeredSocket(socket, target, port, context);
+        eventProbe.counterMetric(THIRD_PARTY_TLS_HANDSHAKE);
+        return sslSocket;
+    }
+}
@@ -0,0 +1,79 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.drivingpermit.api.exception.ResponseTooLargeException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a response body once into a byte array no larger than the configured maximum. Reading to
+ * the end of the body releases the connection back to the pool. An oversized body is not drained,
+ * the response is closed instead so the connection is discarded.
+ */
+public class ResponseBodyReader {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static final int BUFFER_SIZE = 4096;
+    private static final byte[] EMPTY_BODY = new byte[0];
+
+    private final int maxBytes;
+
+    public ResponseBodyReader(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public byte[] read(CloseableHttpResponse response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            return EMPTY_BODY;
+        }
+
+        long contentLength = entity.getContentLength();
+        if (contentLength > maxBytes) {
+            response.close();
+            throw new ResponseTooLargeException(maxBytes);
+        }
+
+        try (InputStream content = entity.getContent()) {
+            if (content == null) {
+                return EMPTY_BODY;
+            }
+
+            int initialSize = contentLength > 0 ? (int) contentLength : BUFFER_SIZE;
+            ByteArrayOutputStream body = new ByteArrayOutputStream(initialSize);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = content.read(buffer)) != -1) {
+                if (body.size() + read > maxBytes) {
+                    // Closing the response first stops the stream close reading the remainder
+                    response.close();
+                    throw new ResponseTooLargeException(maxBytes);
+                }
+                body.write(buffer, 0, read);
+            }
+
+            return body.toByteArray();
+        }
+    }
+
+    /** Releases a response that is not going to be used, such as one that is being retried. */
+    public void discard(CloseableHttpResponse response) {
+        try {
+            read(response);
+        } catch (IOException e) {
+            LOGGER.debug("Failed to read discarded response - {}", e.getMessage());
+        } finally {
+            try {
+                response.close();
+            } catch (IOException e) {
+                LOGGER.debug("Failed to close discarded response - {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -1,48 +1,42 @@
 package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nimbusds.jose.JOSEException;
-import com.nimbusds.jose.JWEObject;
 import com.nimbusds.jose.JWSObject;
-import com.nimbusds.jose.crypto.RSADecrypter;
-import com.nimbusds.jose.crypto.RSASSAVerifier;
 import com.nimbusds.oauth2.sdk.util.StringUtils;
-import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.util.EntityUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import software.amazon.awssdk.http.HttpStatusCode;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
-import uk.gov.di.ipv.cri.drivingpermit.api.domain.DcsPayload;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DcsResponse;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckResult;
 import uk.gov.di.ipv.cri.drivingpermit.api.error.ErrorResponse;
 import uk.gov.di.ipv.cri.drivingpermit.api.exception.IpvCryptoException;
 import uk.gov.di.ipv.cri.drivingpermit.api.exception.OAuthHttpResponseExceptionWithErrorBody;
+import uk.gov.di.ipv.cri.drivingpermit.api.exception.ResponseTooLargeException;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker.CircuitBreaker;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker.CircuitBreakerRegistry;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.ConfigurationService;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.DcsCryptographyService;
 import uk.gov.di.ipv.cri.drivingpermit.api.util.SleepHelper;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.CheckDetails;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermit;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
-import uk.gov.di.ipv.cri.drivingpermit.library.domain.IssuingAuthority;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
-import java.security.interfaces.RSAPublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.text.ParseException;
 import java.time.LocalDate;
 import java.util.Objects;
 
-import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.ISSUING_AUTHORITY_PREFIX;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_DCS_RESPONSE_OK;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_DCS_RESPONSE_TYPE_ERROR;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_CREATED;
@@ -55,7 +49,12 @@ public class ThirdPartyDocumentGateway {
     private final DcsCryptographyService dcsCryptographyService;
     private final ConfigurationService configurationService;
     private final HttpRetryer httpRetryer;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final ResponseBodyReader responseBodyReader;
+    private final HedgedRequestSender hedgedRequestSender;
     private final EventProbe eventProbe;
+    private final DocumentCheckRoutes documentCheckRoutes;
+    private final DcsPayloadWriter dcsPayloadWriter = new DcsPayloadWriter();
     private static final String OPENID_CHECK_METHOD_IDENTIFIER = "data";
     private static final String IDENTITY_CHECK_POLICY = "published";
 
@@ -64,17 +63,31 @@ public class ThirdPartyDocumentGateway {
             DcsCryptographyService dcsCryptographyService,
             ConfigurationService configurationService,
             HttpRetryer httpRetryer,
+            CircuitBreakerRegistry circuitBreakerRegistry,
             EventProbe eventProbe) {
         Objects.requireNonNull(objectMapper, "objectMapper must not be null");
         Objects.requireNonNull(dcsCryptographyService, "dcsCryptographyService must not be null");
         Objects.requireNonNull(configurationService, "configurationService must not be null");
         Objects.requireNonNull(httpRetryer, "httpRetryer must not be null");
+        Objects.requireNonNull(circuitBreakerRegistry, "circuitBreakerRegistry must not be null");
 
         this.objectMapper = objectMapper;
         this.dcsCryptographyService = dcsCryptographyService;
         this.configurationService = configurationService;
         this.httpRetryer = httpRetryer;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.responseBodyReader =
+                new ResponseBodyReader(
+                        configurationService.getHttpClientConfig().getMaxResponseBytes());
+        this.hedgedRequestSender =
+                new HedgedRequestSender(
+                        httpRetryer,
+                        responseBodyReader,
+                        configurationService.getHedgingConfig(),
+                        eventProbe);
         this.eventProbe = eventProbe;
+        this.documentCheckRoutes =
+                DocumentCheckRoutes.create(configurationService.getDcsEndpointUri());
     }
 
     public ThirdPartyDocumentGateway(
@@ -84,11 +97,13 @@ public class ThirdPartyDocumentGateway {
             DcsCryptographyService dcsCryptographyService,
             ConfigurationService configurationService,
             HttpRetryer httpRetryer,
+            CircuitBreakerRegistry circuitBreakerRegistry,
             EventProbe eventProbe) {
         Objects.requireNonNull(objectMapper, "objectMapper must not be null");
         Objects.requireNonNull(dcsCryptographyService, "dcsCryptographyService must not be null");
         Objects.requireNonNull(configurationService, "configurationService must not be null");
         Objects.requireNonNull(httpRetryer, "httpRetryer must not be null");
+        Objects.requireNonNull(circuitBreakerRegistry, "circuitBreakerRegistry must not be null");
         if (StringUtils.isBlank(endpointUrl)) {
             throw new IllegalArgumentException("endpointUrl must be specified");
         }
@@ -97,72 +112,88 @@ public class ThirdPartyDocumentGateway {
         this.dcsCryptographyService = dcsCryptographyService;
         this.configurationService = configurationService;
         this.httpRetryer = httpRetryer;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.responseBodyReader =
+                new ResponseBodyReader(
+                        configurationService.getHttpClientConfig().getMaxResponseBytes());
+        this.hedgedRequestSender =
+                new HedgedRequestSender(
+                        httpRetryer,
+                        responseBodyReader,
+                        configurationService.getHedgingConfig(),
+                        eventProbe);
         this.eventProbe = eventProbe;
+        this.documentCheckRoutes =
+                DocumentCheckRoutes.create(configurationService.getDcsEndpointUri());
+    }
+
+    /** Emits the counts of hedged DCS requests sent and won since the last call. */
+    public void publishHedgeMetrics() {
+        hedgedRequestSender.publishMetrics();
     }
 
     public DocumentCheckResult performDocumentCheck(DrivingPermitForm drivingPermitData)
             throws IOException, InterruptedException, OAuthHttpResponseExceptionWithErrorBody,
                     CertificateException, ParseException, JOSEException {
-        LOGGER.info("Mapping person to third party document check request");
+        return performDocumentCheck(prepareDocumentCheck(drivingPermitData));
+    }
 
-        DcsPayload dcsPayload = objectMapper.convertValue(drivingPermitData, DcsPayload.class);
+    /**
+     * Maps the form to a DCS request and signs and encrypts it. Does not emit metrics or send
+     * anything, so it is safe to run on another thread ahead of {@link
+     * #performDocumentCheck(DocumentCheckRequest)}.
+     */
+    public DocumentCheckRequest prepareDocumentCheck(DrivingPermitForm drivingPermitData)
+            throws OAuthHttpResponseExceptionWithErrorBody {
+        LOGGER.info("Mapping person to third party document check request");
 
-        IssuingAuthority licenceIssuer;
-        try {
-            licenceIssuer = IssuingAuthority.valueOf(drivingPermitData.getLicenceIssuer());
-            LOGGER.info("Document Issuer {}", licenceIssuer);
-            eventProbe.counterMetric(
-                    ISSUING_AUTHORITY_PREFIX + licenceIssuer.toString().toLowerCase());
-        } catch (IllegalArgumentException e) {
+        DocumentCheckRoute route = documentCheckRoutes.find(drivingPermitData.getLicenceIssuer());
+        if (route == null) {
             throw new OAuthHttpResponseExceptionWithErrorBody(
                     HttpStatusCode.INTERNAL_SERVER_ERROR,
                     ErrorResponse.FAILED_TO_PARSE_DRIVING_PERMIT_FORM_DATA);
         }
-        LocalDate drivingPermitExpiryDate = drivingPermitData.getExpiryDate();
-        String drivingPermitDocumentNumber = drivingPermitData.getDrivingLicenceNumber();
-
-        LocalDate documentIssueDate = null;
-        String dcsEndpointUri = null;
-        switch (licenceIssuer) {
-            case DVA:
-                documentIssueDate = drivingPermitData.getDateOfIssue();
-                dcsEndpointUri = configurationService.getDcsEndpointUri() + "/dva-driving-licence";
-
-                dcsPayload.setExpiryDate(drivingPermitExpiryDate);
-                dcsPayload.setDriverNumber(drivingPermitDocumentNumber);
-                dcsPayload.setDateOfIssue(documentIssueDate);
-                break;
-            case DVLA:
-                documentIssueDate = drivingPermitData.getIssueDate();
-                dcsEndpointUri = configurationService.getDcsEndpointUri() + "/driving-licence";
-
-                dcsPayload.setIssueNumber(drivingPermitData.getIssueNumber());
-
-                dcsPayload.setExpiryDate(drivingPermitExpiryDate);
-                dcsPayload.setLicenceNumber(drivingPermitDocumentNumber);
-                dcsPayload.setIssueDate(documentIssueDate);
-                break;
-            default:
-                throw new OAuthHttpResponseExceptionWithErrorBody(
-                        HttpStatusCode.INTERNAL_SERVER_ERROR,
-                        ErrorResponse.FAILED_TO_PARSE_DRIVING_PERMIT_FORM_DATA);
-        }
+        LOGGER.info("Document Issuer {}", route.getIssuingAuthority());
 
-        JWSObject preparedDcsPayload = preparePayload(dcsPayload);
+        JWSObject preparedDcsPayload = preparePayload(drivingPermitData, route);
 
-        String requestBody = preparedDcsPayload.serialize();
+        return new DocumentCheckRequest(
+                drivingPermitData,
+                route,
+                preparedDcsPayload.serialize(),
+                route.getDocumentIssueDate(drivingPermitData));
+    }
 
-        URI endpoint = URI.create(dcsEndpointUri);
-        HttpPost request = requestBuilder(endpoint, requestBody);
+    public DocumentCheckResult performDocumentCheck(DocumentCheckRequest documentCheckRequest)
+            throws IOException, InterruptedException, OAuthHttpResponseExceptionWithErrorBody,
+                    CertificateException, ParseException, JOSEException {
+        DocumentCheckRoute route = documentCheckRequest.getRoute();
+        eventProbe.counterMetric(route.getMetricName());
+
+        HttpPost request =
+                requestBuilder(route.getEndpoint(), documentCheckRequest.getRequestBody());
 
         eventProbe.counterMetric(THIRD_PARTY_REQUEST_CREATED);
 
-        LOGGER.info("Submitting document check request to third party...");
-        CloseableHttpResponse httpResponse = httpRetryer.sendHTTPRequestRetryIfAllowed(request);
+        String circuitBreakerName = route.getCircuitBreakerName();
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.get(circuitBreakerName);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            // DCS is known to be failing, answer as it would rather than wait for the retries
+            LOGGER.warn("Circuit breaker {} is open, request not sent", circuitBreakerName);
+            throw new OAuthHttpResponseExceptionWithErrorBody(
+                    HttpStatusCode.INTERNAL_SERVER_ERROR, ErrorResponse.DCS_ERROR_HTTP_50x);
+        }
 
-        DocumentCheckResult documentCheckResult = responseHandler(httpResponse);
+        LOGGER.info("Submitting document check request to third party...");
+        DocumentCheckResult documentCheckResult;
+        try (CloseableHttpResponse httpResponse =
+                sendDocumentCheckRequest(request, circuitBreaker)) {
+            documentCheckResult = responseHandler(httpResponse);
+        }
 
         if (documentCheckResult.isExecutedSuccessfully()) {
+            DrivingPermitForm drivingPermitData = documentCheckRequest.getDrivingPermitForm();
+
             // Data capture for VC
             CheckDetails checkDetails = new CheckDetails();
             checkDetails.setCheckMethod(OPENID_CHECK_METHOD_IDENTIFIER);
@@ -170,30 +201,57 @@ public class ThirdPartyDocumentGateway {
 
             if (documentCheckResult.isValid()) {
                 // Map ActivityFrom to documentIssueDate (IssueDate / DateOfIssue)
+                LocalDate documentIssueDate = documentCheckRequest.getDocumentIssueDate();
                 checkDetails.setActivityFrom(documentIssueDate.toString());
             }
             documentCheckResult.setCheckDetails(checkDetails);
 
             DrivingPermit permit = new DrivingPermit();
-            permit.setIssuedBy(licenceIssuer.toString());
-            permit.setDocumentNumber(drivingPermitDocumentNumber);
-            permit.setExpiryDate(drivingPermitExpiryDate.toString());
+            permit.setIssuedBy(route.getIssuingAuthority().toString());
+            permit.setDocumentNumber(drivingPermitData.getDrivingLicenceNumber());
+            permit.setExpiryDate(drivingPermitData.getExpiryDate().toString());
             documentCheckResult.setDrivingPermit(permit);
         }
 
         return documentCheckResult;
     }
 
-    private JWSObject preparePayload(DcsPayload dcsPayload)
+    private CloseableHttpResponse sendDocumentCheckRequest(
+            HttpPost request, CircuitBreaker circuitBreaker)
+            throws IOException, InterruptedException {
+        CloseableHttpResponse httpResponse;
+        try {
+            httpResponse = hedgedRequestSender.send(request);
+        } catch (IOException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        } catch (InterruptedException | RuntimeException e) {
+            circuitBreaker.release();
+            throw e;
+        }
+
+        // Only responses that say DCS is unavailable count, a 4xx is DCS working as intended
+        int statusCode = httpResponse.getStatusLine().getStatusCode();
+        if (statusCode == 429 || (statusCode >= 500 && statusCode <= 599)) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+
+        return httpResponse;
+    }
+
+    private JWSObject preparePayload(DrivingPermitForm drivingPermitData, DocumentCheckRoute route)
             throws OAuthHttpResponseExceptionWithErrorBody {
         LOGGER.info("Preparing payload for DCS");
         try {
+            byte[] dcsPayload = dcsPayloadWriter.write(drivingPermitData, route);
             return dcsCryptographyService.preparePayload(dcsPayload);
         } catch (CertificateException
                 | NoSuchAlgorithmException
                 | InvalidKeySpecException
                 | JOSEException
-                | JsonProcessingException e) {
+                | IOException e) {
             LOGGER.error(("Failed to prepare payload for DCS: " + e.getMessage()));
             throw new OAuthHttpResponseExceptionWithErrorBody(
                     HttpStatusCode.INTERNAL_SERVER_ERROR,
@@ -216,8 +274,16 @@ public class ThirdPartyDocumentGateway {
                     OAuthHttpResponseExceptionWithErrorBody {
         int statusCode = httpResponse.getStatusLine().getStatusCode();
 
-        HttpEntity entity = httpResponse.getEntity();
-        String responseBody = EntityUtils.toString(entity);
+        String responseBody;
+        try {
+            byte[] body = responseBodyReader.read(httpResponse);
+            responseBody = new String(body, StandardCharsets.UTF_8);
+        } catch (ResponseTooLargeException e) {
+            LOGGER.error("DCS replied with HTTP status code {}, {}", statusCode, e.getMessage());
+            eventProbe.counterMetric(THIRD_PARTY_DCS_RESPONSE_TYPE_ERROR);
+            throw new OAuthHttpResponseExceptionWithErrorBody(
+                    HttpStatusCode.INTERNAL_SERVER_ERROR, ErrorResponse.DCS_RESPONSE_TOO_LARGE);
+        }
 
         if (statusCode == 200) {
             LOGGER.info("Third party response code {}", statusCode);
@@ -286,24 +352,4 @@ public class ThirdPartyDocumentGateway {
 
         return request;
     }
-
-    private boolean isInvalidSignature(JWSObject jwsObject) throws JOSEException {
-        RSASSAVerifier rsassaVerifier =
-                new RSASSAVerifier(
-                        (RSAPublicKey) configurationService.getDcsSigningCert().getPublicKey());
-        return !jwsObject.verify(rsassaVerifier);
-    }
-
-    public JWSObject decrypt(JWEObject encrypted) {
-        try {
-            RSADecrypter rsaDecrypter =
-                    new RSADecrypter(configurationService.getDrivingPermitEncryptionKey());
-            encrypted.decrypt(rsaDecrypter);
-
-            return JWSObject.parse(encrypted.getPayload().toString());
-        } catch (ParseException | JOSEException exception) {
-            throw new IpvCryptoException(
-                    String.format("Cannot Decrypt DCS Payload: %s", exception.getMessage()));
-        }
-    }
 }
@@ -0,0 +1,256 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.CircuitBreakerConfig;
+
+import java.time.Clock;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CIRCUIT_BREAKER_CLOSED_PREFIX;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CIRCUIT_BREAKER_HALF_OPENED_PREFIX;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CIRCUIT_BREAKER_OPENED_PREFIX;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CIRCUIT_BREAKER_REJECTED_PREFIX;
+
+/**
+ * Stops requests to a DCS endpoint once the failure rate over the last requests reaches the
+ * configured threshold. While OPEN requests are rejected without being sent. After the open
+ * duration the circuit goes HALF_OPEN and lets a limited number of probe requests through, a
+ * successful probe closes the circuit and a failed one opens it again.
+ *
+ * <p>Callers ask {@link #tryAcquirePermission()} before each request and then report exactly one
+ * of {@link #onSuccess()}, {@link #onFailure()} or {@link #release()}.
+ *
+ * <p>No request waits on the {@link SharedCircuitState}. It is read on the executor at most once
+ * per refresh interval and a closed circuit opens on the value from the last read. When this
+ * circuit opens, the state is written once the lock is released.
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final CircuitBreakerConfig config;
+    private final SharedCircuitState sharedCircuitState;
+    private final Executor executor;
+    private final Clock clock;
+    private final EventProbe eventProbe;
+
+    // Ring buffer of the most recent outcomes, true for a failure
+    private final boolean[] outcomes;
+    private int nextOutcome;
+    private int outcomeCount;
+    private int failureCount;
+
+    private State state = State.CLOSED;
+    private long openUntilMs;
+    private int probesInFlight;
+    private long nextSharedStateReadMs;
+
+    // Written by the last shared state read, which runs on the executor
+    private volatile long sharedOpenUntilMs;
+    private final AtomicBoolean sharedStateReadInFlight = new AtomicBoolean();
+
+    public CircuitBreaker(
+            String name,
+            CircuitBreakerConfig config,
+            SharedCircuitState sharedCircuitState,
+            Executor executor,
+            Clock clock,
+            EventProbe eventProbe) {
+        this.name = name;
+        this.config = config;
+        this.sharedCircuitState = sharedCircuitState;
+        this.executor = executor;
+        this.clock = clock;
+        this.eventProbe = eventProbe;
+        this.outcomes = new boolean[config.getSlidingWindowSize()];
+    }
+
+    public synchronized boolean tryAcquirePermission() {
+        if (!config.isEnabled()) {
+            return true;
+        }
+
+        long nowMs = clock.millis();
+        if (state == State.CLOSED) {
+            applySharedState(nowMs);
+            refreshSharedState(nowMs);
+        }
+
+        if (state == State.OPEN) {
+            if (nowMs < openUntilMs) {
+                return reject();
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= config.getHalfOpenMaxProbes()) {
+                return reject();
+            }
+            probesInFlight++;
+        }
+
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        if (state == State.HALF_OPEN) {
+            releaseProbe();
+            resetOutcomes();
+            transitionTo(State.CLOSED);
+        } else if (state == State.CLOSED) {
+            recordOutcome(false);
+        }
+    }
+
+    public void onFailure() {
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        long openedUntilMs;
+        synchronized (this) {
+            openedUntilMs = recordFailure();
+        }
+        if (openedUntilMs > 0) {
+            // Not held while DynamoDB is written, other requests only need the local state
+            sharedCircuitState.setOpenUntilMs(name, openedUntilMs);
+        }
+    }
+
+    /** For a permitted request whose outcome says nothing about the health of DCS. */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            releaseProbe();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private boolean reject() {
+        eventProbe.counterMetric(DCS_CIRCUIT_BREAKER_REJECTED_PREFIX + name);
+        return false;
+    }
+
+    /** @return the time the circuit is now open until, 0 when it was not opened */
+    private long recordFailure() {
+        if (state == State.HALF_OPEN) {
+            releaseProbe();
+            return open();
+        }
+
+        if (state == State.CLOSED) {
+            recordOutcome(true);
+
+            if (outcomeCount >= config.getMinimumRequests()
+                    && failureCount * 100L
+                            >= (long) config.getFailureRateThresholdPercent() * outcomeCount) {
+                LOGGER.warn(
+                        "Circuit breaker {} failure rate {}/{} reached the threshold",
+                        name,
+                        failureCount,
+                        outcomeCount);
+                return open();
+            }
+        }
+        return 0L;
+    }
+
+    private long open() {
+        openUntilMs = clock.millis() + config.getOpenDurationMs();
+        resetOutcomes();
+        transitionTo(State.OPEN);
+        return openUntilMs;
+    }
+
+    private void applySharedState(long nowMs) {
+        long sharedOpenUntil = sharedOpenUntilMs;
+        if (sharedOpenUntil > nowMs) {
+            LOGGER.warn("Circuit breaker {} opened by another container", name);
+            openUntilMs = sharedOpenUntil;
+            resetOutcomes();
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void refreshSharedState(long nowMs) {
+        if (sharedCircuitState == SharedCircuitState.NONE
+                || nowMs < nextSharedStateReadMs
+                || !sharedStateReadInFlight.compareAndSet(false, true)) {
+            return;
+        }
+        nextSharedStateReadMs = nowMs + config.getSharedStateRefreshMs();
+
+        executor.execute(
+                () -> {
+                    try {
+                        sharedOpenUntilMs = sharedCircuitState.getOpenUntilMs(name);
+                    } finally {
+                        sharedStateReadInFlight.set(false);
+                    }
+                });
+    }
+
+    private void recordOutcome(boolean failure) {
+        if (outcomeCount == outcomes.length) {
+            if (outcomes[nextOutcome]) {
+                failureCount--;
+            }
+        } else {
+            outcomeCount++;
+        }
+
+        outcomes[nextOutcome] = failure;
+        if (failure) {
+            failureCount++;
+        }
+        nextOutcome = (nextOutcome + 1) % outcomes.length;
+    }
+
+    private void resetOutcomes() {
+        nextOutcome = 0;
+        outcomeCount = 0;
+        failureCount = 0;
+    }
+
+    private void releaseProbe() {
+        probesInFlight = Math.max(0, probesInFlight - 1);
+    }
+
+    private void transitionTo(State newState) {
+        LOGGER.info("Circuit breaker {} {} -> {}", name, state, newState);
+        state = newState;
+
+        switch (newState) {
+            case OPEN:
+                eventProbe.counterMetric(DCS_CIRCUIT_BREAKER_OPENED_PREFIX + name);
+                break;
+            case HALF_OPEN:
+                eventProbe.counterMetric(DCS_CIRCUIT_BREAKER_HALF_OPENED_PREFIX + name);
+                break;
+            case CLOSED:
+                eventProbe.counterMetric(DCS_CIRCUIT_BREAKER_CLOSED_PREFIX + name);
+                break;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker;
+
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.CircuitBreakerConfig;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/** One {@link CircuitBreaker} per DCS endpoint, kept for the life of the container. */
+public class CircuitBreakerRegistry {
+
+    private final CircuitBreakerConfig config;
+    private final SharedCircuitState sharedCircuitState;
+    private final Executor executor;
+    private final Clock clock;
+    private final EventProbe eventProbe;
+
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerRegistry(
+            CircuitBreakerConfig config,
+            SharedCircuitState sharedCircuitState,
+            Executor executor,
+            Clock clock,
+            EventProbe eventProbe) {
+        this.config = config;
+        this.sharedCircuitState = sharedCircuitState;
+        this.executor = executor;
+        this.clock = clock;
+        this.eventProbe = eventProbe;
+    }
+
+    public CircuitBreaker get(String name) {
+        return circuitBreakers.computeIfAbsent(
+                name,
+                key ->
+                        new CircuitBreaker(
+                                key, config, sharedCircuitState, executor, clock, eventProbe));
+    }
+}
@@ -0,0 +1,38 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+@DynamoDbBean
+public class CircuitStateItem {
+    private String name;
+    private long openUntil;
+    private long ttl;
+
+    public CircuitStateItem() {}
+
+    @DynamoDbPartitionKey()
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getOpenUntil() {
+        return openUntil;
+    }
+
+    public void setOpenUntil(long openUntil) {
+        this.openUntil = openUntil;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+}
@@ -0,0 +1,47 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker;
+
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primaryPartitionKey;
+
+/**
+ * The table schema of {@link CircuitStateItem}, written out by hand so the bean is not introspected
+ * during init when the shared circuit state is enabled.
+ *
+ * <p>The attributes have to match what the bean schema would give. The build fails in
+ * CircuitStateTableSchemaTest if a property is added to the item but not here.
+ */
+public final class CircuitStateTableSchema {
+
+    public static final TableSchema<CircuitStateItem> TABLE_SCHEMA = create();
+
+    private CircuitStateTableSchema() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    private static TableSchema<CircuitStateItem> create() {
+        return StaticTableSchema.builder(CircuitStateItem.class)
+                .newItemSupplier(CircuitStateItem::new)
+                .addAttribute(
+                        String.class,
+                        a ->
+                                a.name("name")
+                                        .getter(CircuitStateItem::getName)
+                                        .setter(CircuitStateItem::setName)
+                                        .tags(primaryPartitionKey()))
+                .addAttribute(
+                        Long.class,
+                        a ->
+                                a.name("openUntil")
+                                        .getter(CircuitStateItem::getOpenUntil)
+                                        .setter(CircuitStateItem::setOpenUntil))
+                .addAttribute(
+                        Long.class,
+                        a ->
+                                a.name("ttl")
+                                        .getter(CircuitStateItem::getTtl)
+                                        .setter(CircuitStateItem::setTtl))
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+
+import java.util.concurrent.TimeUnit;
+
+/** Keeps open circuits in a DynamoDB table, expired items are removed by the table TTL. */
+public class DynamoDbCircuitState implements SharedCircuitState {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final DynamoDbTable<CircuitStateItem> table;
+
+    public DynamoDbCircuitState(String tableName, DynamoDbEnhancedClient enhancedClient) {
+        this.table = enhancedClient.table(tableName, CircuitStateTableSchema.TABLE_SCHEMA);
+    }
+
+    @Override
+    public long getOpenUntilMs(String name) {
+        try {
+            CircuitStateItem item = table.getItem(Key.builder().partitionValue(name).build());
+            return item == null ? 0L : item.getOpenUntil();
+        } catch (Exception e) {
+            LOGGER.warn("Unable to read shared circuit state for {} - {}", name, e.getMessage());
+            return 0L;
+        }
+    }
+
+    @Override
+    public void setOpenUntilMs(String name, long openUntilMs) {
+        CircuitStateItem item = new CircuitStateItem();
+        item.setName(name);
+        item.setOpenUntil(openUntilMs);
+        // TTL deletion can lag, readers always compare openUntil with their own clock
+        item.setTtl(TimeUnit.MILLISECONDS.toSeconds(openUntilMs));
+
+        try {
+            table.putItem(item);
+        } catch (Exception e) {
+            LOGGER.warn("Unable to write shared circuit state for {} - {}", name, e.getMessage());
+        }
+    }
+}
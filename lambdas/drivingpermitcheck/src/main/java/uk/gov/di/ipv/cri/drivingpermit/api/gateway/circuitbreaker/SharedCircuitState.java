@@ -0,0 +1,26 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker;
+
+/**
+ * Open circuits shared between Lambda containers, so a DCS outage seen by one container stops
+ * requests from all of them. Implementations must not throw, the local state is used when the
+ * shared state cannot be read or written.
+ */
+public interface SharedCircuitState {
+    SharedCircuitState NONE =
+            new SharedCircuitState() {
+                @Override
+                public long getOpenUntilMs(String name) {
+                    return 0L;
+                }
+
+                @Override
+                public void setOpenUntilMs(String name, long openUntilMs) {
+                    // Circuit state is kept within the container only
+                }
+            };
+
+    /** @return epoch milliseconds the named circuit is open until, 0 when it is not open */
+    long getOpenUntilMs(String name);
+
+    void setOpenUntilMs(String name, long openUntilMs);
+}
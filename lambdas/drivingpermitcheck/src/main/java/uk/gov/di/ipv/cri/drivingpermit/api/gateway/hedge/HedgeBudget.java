@@ -0,0 +1,35 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.hedge;
+
+/**
+ * Limits hedged requests to a ratio of all requests. Each request earns a fraction of a hedge and
+ * a hedge is only sent when a whole one has been earned, so over any period the hedges sent never
+ * exceed the ratio plus the small burst the budget can hold.
+ */
+public class HedgeBudget {
+
+    private final double hedgesPerRequest;
+    private final double maxHedges;
+
+    private double availableHedges;
+
+    /**
+     * @param maxHedgeRatioPercent hedges allowed per 100 requests
+     * @param burstRequests number of requests whose earned hedges can be saved up
+     */
+    public HedgeBudget(int maxHedgeRatioPercent, int burstRequests) {
+        this.hedgesPerRequest = maxHedgeRatioPercent / 100.0;
+        this.maxHedges = Math.max(1.0, hedgesPerRequest * burstRequests);
+    }
+
+    public synchronized void onRequest() {
+        availableHedges = Math.min(maxHedges, availableHedges + hedgesPerRequest);
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (availableHedges < 1.0) {
+            return false;
+        }
+        availableHedges -= 1.0;
+        return true;
+    }
+}
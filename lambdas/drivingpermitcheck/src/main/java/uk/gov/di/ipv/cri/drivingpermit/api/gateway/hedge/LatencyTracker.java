@@ -0,0 +1,50 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.hedge;
+
+import java.util.Arrays;
+
+/** Keeps the latencies of the most recent good DCS answers and gives the delay before a hedge. */
+public class LatencyTracker {
+
+    private final int percentile;
+    private final int minSamples;
+    private final long initialDelayMs;
+    private final long minDelayMs;
+
+    // Ring buffer of the most recent latencies in milliseconds
+    private final long[] samples;
+    private int nextSample;
+    private int sampleCount;
+
+    public LatencyTracker(
+            int percentile,
+            int sampleWindowSize,
+            int minSamples,
+            long initialDelayMs,
+            long minDelayMs) {
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.initialDelayMs = initialDelayMs;
+        this.minDelayMs = minDelayMs;
+        this.samples = new long[sampleWindowSize];
+    }
+
+    public synchronized void record(long latencyMs) {
+        samples[nextSample] = latencyMs;
+        nextSample = (nextSample + 1) % samples.length;
+        sampleCount = Math.min(sampleCount + 1, samples.length);
+    }
+
+    /** The configured percentile of recent latencies, the initial delay until enough are seen. */
+    public synchronized long getHedgeDelayMs() {
+        if (sampleCount < minSamples) {
+            return Math.max(minDelayMs, initialDelayMs);
+        }
+
+        // At most a few hundred samples, sorting a copy costs less than keeping them ordered
+        long[] sorted = Arrays.copyOf(samples, sampleCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sampleCount) - 1;
+
+        return Math.max(minDelayMs, sorted[Math.max(0, index)]);
+    }
+}
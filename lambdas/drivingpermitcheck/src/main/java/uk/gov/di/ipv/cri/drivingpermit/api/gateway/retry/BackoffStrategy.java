@@ -0,0 +1,33 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.retry;
+
+import java.util.Locale;
+import java.util.Random;
+
+/** Calculates how long to wait before a retry. */
+public interface BackoffStrategy {
+
+    /**
+     * @param retryCount 1 for the first retry, 2 for the second and so on
+     * @param previousDelayMs the delay returned for the previous retry, 0 before the first
+     */
+    long nextDelayMs(int retryCount, long previousDelayMs);
+
+    static BackoffStrategy create(String name, long baseDelayMs, long maxDelayMs, Random random) {
+        switch (name.trim().toUpperCase(Locale.ROOT)) {
+            case "EXPONENTIAL":
+                return new ExponentialBackoff(baseDelayMs, maxDelayMs);
+            case "FULL_JITTER":
+                return new FullJitterBackoff(baseDelayMs, maxDelayMs, random);
+            case "DECORRELATED_JITTER":
+                return new DecorrelatedJitterBackoff(baseDelayMs, maxDelayMs, random);
+            default:
+                throw new IllegalArgumentException("Unknown backoff strategy " + name);
+        }
+    }
+
+    /** base * 2^retryCount, capped at maxDelayMs, without risking overflow. */
+    static long cappedExponentialDelayMs(int retryCount, long baseDelayMs, long maxDelayMs) {
+        int shift = Math.min(retryCount, 30);
+        return Math.min(maxDelayMs, baseDelayMs << shift);
+    }
+}
@@ -0,0 +1,27 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.retry;
+
+import java.util.Random;
+
+/**
+ * A random delay between the base delay and three times the previous delay, capped at maxDelayMs.
+ * Grows like exponential backoff on average while keeping retries from different callers apart.
+ */
+public class DecorrelatedJitterBackoff implements BackoffStrategy {
+
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Random random;
+
+    public DecorrelatedJitterBackoff(long baseDelayMs, long maxDelayMs, Random random) {
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.random = random;
+    }
+
+    @Override
+    public long nextDelayMs(int retryCount, long previousDelayMs) {
+        long upperMs = Math.max(baseDelayMs, previousDelayMs) * 3;
+        long delayMs = baseDelayMs + (long) (random.nextDouble() * (upperMs - baseDelayMs + 1));
+        return Math.min(maxDelayMs, delayMs);
+    }
+}
@@ -0,0 +1,18 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.retry;
+
+/** The original un-jittered backoff, base * 2^retryCount capped at maxDelayMs. */
+public class ExponentialBackoff implements BackoffStrategy {
+
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    public ExponentialBackoff(long baseDelayMs, long maxDelayMs) {
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    @Override
+    public long nextDelayMs(int retryCount, long previousDelayMs) {
+        return BackoffStrategy.cappedExponentialDelayMs(retryCount, baseDelayMs, maxDelayMs);
+    }
+}
@@ -0,0 +1,27 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.retry;
+
+import java.util.Random;
+
+/**
+ * A uniformly random delay between 0 and the capped exponential delay, so retries from many
+ * containers are spread out rather than arriving at DCS together.
+ */
+public class FullJitterBackoff implements BackoffStrategy {
+
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final Random random;
+
+    public FullJitterBackoff(long baseDelayMs, long maxDelayMs, Random random) {
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.random = random;
+    }
+
+    @Override
+    public long nextDelayMs(int retryCount, long previousDelayMs) {
+        long ceilingMs =
+                BackoffStrategy.cappedExponentialDelayMs(retryCount, baseDelayMs, maxDelayMs);
+        return (long) (random.nextDouble() * (ceilingMs + 1));
+    }
+}
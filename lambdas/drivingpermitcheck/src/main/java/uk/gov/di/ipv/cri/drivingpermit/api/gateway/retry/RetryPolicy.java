@@ -0,0 +1,107 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.retry;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HttpRetryConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.util.RequestDeadline;
+
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * Decides whether, and after how long, a request to DCS is retried. The delay comes from the
+ * configured {@link BackoffStrategy}, is raised to any Retry-After the response asks for, and a
+ * retry is refused when waiting would run into the Lambda deadline.
+ */
+public class RetryPolicy {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final long NO_RETRY = -1L;
+
+    private final HttpRetryConfig httpRetryConfig;
+    private final BackoffStrategy backoffStrategy;
+    private final RequestDeadline requestDeadline;
+
+    public RetryPolicy(
+            HttpRetryConfig httpRetryConfig, RequestDeadline requestDeadline, Random random) {
+        this(
+                httpRetryConfig,
+                BackoffStrategy.create(
+                        httpRetryConfig.getStrategy(),
+                        httpRetryConfig.getBaseDelayMs(),
+                        httpRetryConfig.getMaxDelayMs(),
+                        random),
+                requestDeadline);
+    }
+
+    public RetryPolicy(
+            HttpRetryConfig httpRetryConfig,
+            BackoffStrategy backoffStrategy,
+            RequestDeadline requestDeadline) {
+        this.httpRetryConfig = httpRetryConfig;
+        this.backoffStrategy = backoffStrategy;
+        this.requestDeadline = requestDeadline;
+    }
+
+    public int getMaxRetries() {
+        return httpRetryConfig.getMaxRetries();
+    }
+
+    /**
+     * @param retryCount 1 for the first retry
+     * @param previousDelayMs the delay before the previous retry, 0 before the first
+     * @param httpResponse the response being retried, null if the request failed with an exception
+     * @return the delay in milliseconds, or NO_RETRY
+     */
+    public long getRetryDelayMs(int retryCount, long previousDelayMs, HttpResponse httpResponse) {
+        long delayMs = backoffStrategy.nextDelayMs(retryCount, previousDelayMs);
+
+        long retryAfterMs = getRetryAfterMs(httpResponse);
+        if (retryAfterMs > httpRetryConfig.getMaxRetryAfterMs()) {
+            LOGGER.warn("Retry-After of {}ms is over the maximum, not retrying", retryAfterMs);
+            return NO_RETRY;
+        }
+        delayMs = Math.max(delayMs, retryAfterMs);
+
+        long remainingMs = requestDeadline.getRemainingMs();
+        if (remainingMs != Long.MAX_VALUE
+                && delayMs > remainingMs - httpRetryConfig.getDeadlineMarginMs()) {
+            LOGGER.warn(
+                    "Retry delay of {}ms does not fit in the remaining {}ms, not retrying",
+                    delayMs,
+                    remainingMs);
+            return NO_RETRY;
+        }
+
+        return delayMs;
+    }
+
+    /** Retry-After as delta-seconds or an HTTP-date, 0 when absent or unparseable. */
+    long getRetryAfterMs(HttpResponse httpResponse) {
+        if (httpResponse == null) {
+            return 0L;
+        }
+
+        Header retryAfter = httpResponse.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (retryAfter == null || retryAfter.getValue() == null) {
+            return 0L;
+        }
+
+        String value = retryAfter.getValue().trim();
+        try {
+            return Math.max(0L, Long.parseLong(value) * 1000L);
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            if (date == null) {
+                LOGGER.warn("Ignoring unparseable Retry-After {}", value);
+                return 0L;
+            }
+            return Math.max(0L, date.getTime() - requestDeadline.getClock().millis());
+        }
+    }
+}
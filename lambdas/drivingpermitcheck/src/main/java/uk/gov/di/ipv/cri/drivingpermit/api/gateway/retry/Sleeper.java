@@ -0,0 +1,9 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.retry;
+
+/** Waits between retries, replaced in tests so no real time passes. */
+@FunctionalInterface
+public interface Sleeper {
+    Sleeper THREAD_SLEEPER = Thread::sleep;
+
+    void sleep(long millis) throws InterruptedException;
+}
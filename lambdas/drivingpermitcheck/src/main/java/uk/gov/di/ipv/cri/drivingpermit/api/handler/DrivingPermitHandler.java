@@ -20,9 +20,8 @@ import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
 import uk.gov.di.ipv.cri.common.library.domain.personidentity.BirthDate;
 import uk.gov.di.ipv.cri.common.library.domain.personidentity.SharedClaims;
 import uk.gov.di.ipv.cri.common.library.error.ErrorResponse;
-import uk.gov.di.ipv.cri.common.library.persistence.DataStore;
+import uk.gov.di.ipv.cri.common.library.exception.SqsException;
 import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
-import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
 import uk.gov.di.ipv.cri.common.library.service.SessionService;
 import uk.gov.di.ipv.cri.common.library.util.ApiGatewayResponseGenerator;
@@ -32,12 +31,18 @@ import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentVerificationResponse;
 import uk.gov.di.ipv.cri.drivingpermit.api.exception.OAuthHttpResponseExceptionWithErrorBody;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.ConfigurationService;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.IdentityVerificationService;
+import uk.gov.di.ipv.cri.drivingpermit.api.service.PreparedDocumentCheck;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.ServiceFactory;
 import uk.gov.di.ipv.cri.drivingpermit.api.util.DocumentCheckPersonIdentityDetailedMapper;
+import uk.gov.di.ipv.cri.drivingpermit.api.util.RequestDeadline;
+import uk.gov.di.ipv.cri.drivingpermit.library.audit.AuditEventPublisher;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.CheckDetails;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermit;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.DocumentCheckResultStore;
 import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.drivingpermit.library.sdk.SdkClients;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ParallelTaskExecutor;
 
 import java.io.IOException;
 import java.security.InvalidKeyException;
@@ -47,12 +52,21 @@ import java.security.cert.CertificateException;
 import java.security.spec.InvalidKeySpecException;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.COLD_START_INIT_DURATION;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.FIRST_REQUEST_DURATION;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_DRIVING_PERMIT_CHECK_ATTEMPT_STATUS_RETRY;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_DRIVING_PERMIT_CHECK_ATTEMPT_STATUS_UNVERIFIED;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_DRIVING_PERMIT_CHECK_ATTEMPT_STATUS_VERIFIED_PREFIX;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_ERROR;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_OK;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.SAVE_ATTEMPT_WRITE_DURATION_PREFIX;
 
 public class DrivingPermitHandler
         implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
@@ -64,9 +78,17 @@ public class DrivingPermitHandler
     private final EventProbe eventProbe;
     private final PersonIdentityService personIdentityService;
     private final SessionService sessionService;
-    private final DataStore<DocumentCheckResultItem> dataStore;
+    private final DocumentCheckResultStore dataStore;
     private final ConfigurationService configurationService;
-    private final AuditService auditService;
+    private final AuditEventPublisher auditEventPublisher;
+    private final RequestDeadline requestDeadline;
+    private final ParallelTaskExecutor parallelTaskExecutor;
+    private final ServiceFactory serviceFactory;
+
+    // Only the first invocation in an execution environment follows its init
+    private boolean firstRequest = true;
+    // Measured in the constructor, outside any invocation, so emitted by the first one
+    private final long initDurationMs;
 
     // TODO move this to a parameter store variable
     private static final int MAX_ATTEMPTS = 2;
@@ -74,19 +96,23 @@ public class DrivingPermitHandler
     public DrivingPermitHandler()
             throws NoSuchAlgorithmException, InvalidKeyException, CertificateException,
                     InvalidKeySpecException, HttpException, KeyStoreException, IOException {
+        long initStart = System.nanoTime();
         this.objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
-        ServiceFactory serviceFactory = new ServiceFactory(objectMapper);
+        this.serviceFactory = new ServiceFactory(objectMapper);
         this.eventProbe = new EventProbe();
         this.identityVerificationService = serviceFactory.getIdentityVerificationService();
         this.personIdentityService = new PersonIdentityService();
         this.sessionService = new SessionService();
         this.configurationService = serviceFactory.getConfigurationService();
         this.dataStore =
-                new DataStore<>(
+                new DocumentCheckResultStore(
                         configurationService.getDocumentCheckResultTableName(),
-                        DocumentCheckResultItem.class,
-                        DataStore.getClient());
-        this.auditService = serviceFactory.getAuditService();
+                        SdkClients.dynamoDbEnhancedClient());
+        this.auditEventPublisher = serviceFactory.getAuditEventPublisher();
+        this.requestDeadline = serviceFactory.getRequestDeadline();
+        this.parallelTaskExecutor = serviceFactory.getParallelTaskExecutor();
+
+        this.initDurationMs = elapsedMs(initStart);
     }
 
     @ExcludeFromGeneratedCoverageReport
@@ -96,9 +122,10 @@ public class DrivingPermitHandler
             EventProbe eventProbe,
             PersonIdentityService personIdentityService,
             SessionService sessionService,
-            DataStore<DocumentCheckResultItem> dataStore,
+            DocumentCheckResultStore dataStore,
             ConfigurationService configurationService,
-            AuditService auditService) {
+            AuditEventPublisher auditEventPublisher) {
+        this.serviceFactory = serviceFactory;
         this.identityVerificationService = serviceFactory.getIdentityVerificationService();
         this.objectMapper = objectMapper;
         this.eventProbe = eventProbe;
@@ -106,7 +133,10 @@ public class DrivingPermitHandler
         this.sessionService = sessionService;
         this.configurationService = configurationService;
         this.dataStore = dataStore;
-        this.auditService = auditService;
+        this.auditEventPublisher = auditEventPublisher;
+        this.requestDeadline = serviceFactory.getRequestDeadline();
+        this.parallelTaskExecutor = serviceFactory.getParallelTaskExecutor();
+        this.initDurationMs = -1;
     }
 
     @Override
@@ -114,12 +144,31 @@ public class DrivingPermitHandler
     @Metrics(captureColdStart = true)
     public APIGatewayProxyResponseEvent handleRequest(
             APIGatewayProxyRequestEvent input, Context context) {
+        long requestStart = System.nanoTime();
 
+        // Bounds the DCS retries for this invocation
+        requestDeadline.start(context.getRemainingTimeInMillis());
+        // Events of an earlier invocation that failed before its flush are not sent with these
+        auditEventPublisher.discardPending();
+
+        CompletableFuture<DrivingPermitForm> parsedForm = null;
+        CompletableFuture<PreparedDocumentCheck> preparedCheck = null;
         try {
             LOGGER.info(
                     "Initiating lambda {} version {}",
                     context.getFunctionName(),
                     context.getFunctionVersion());
+
+            // The form is parsed and the DCS request signed and encrypted while the session is
+            // read. The session is checked first, so its errors take precedence over the form's
+            parsedForm =
+                    parallelTaskExecutor.supply(
+                            () -> parseDrivingPermitFormRequest(input.getBody()));
+            preparedCheck =
+                    parsedForm.thenApplyAsync(
+                            identityVerificationService::prepareDocumentCheck,
+                            parallelTaskExecutor);
+
             Map<String, String> headers = input.getHeaders();
             final String sessionId = headers.get("session_id");
             LOGGER.info("Extracting session from header ID {}", sessionId);
@@ -148,28 +197,14 @@ public class DrivingPermitHandler
             }
 
             LOGGER.info("Verifying document details...");
-            DrivingPermitForm drivingPermitFormData =
-                    parseDrivingPermitFormRequest(input.getBody());
+            DrivingPermitForm drivingPermitFormData = getParsedForm(parsedForm);
             DocumentCheckVerificationResult result =
-                    identityVerificationService.verifyIdentity(drivingPermitFormData);
+                    identityVerificationService.verifyIdentity(
+                            drivingPermitFormData, preparedCheck.get());
 
             result.setAttemptCount(sessionItem.getAttemptCount());
 
-            auditService.sendAuditEvent(
-                    AuditEventType.THIRD_PARTY_REQUEST_ENDED,
-                    new AuditEventContext(headers, sessionItem),
-                    "");
-
-            LOGGER.info("Sending audit event REQUEST_SENT...");
-            auditService.sendAuditEvent(
-                    AuditEventType.REQUEST_SENT,
-                    new AuditEventContext(
-                            DocumentCheckPersonIdentityDetailedMapper
-                                    .generatePersonIdentityDetailed(drivingPermitFormData),
-                            input.getHeaders(),
-                            sessionItem));
-
-            saveAttempt(sessionItem, drivingPermitFormData, result);
+            saveAttempt(headers, sessionItem, drivingPermitFormData, result);
 
             boolean canRetry = true;
 
@@ -213,18 +248,53 @@ public class DrivingPermitHandler
             eventProbe.counterMetric(LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_ERROR);
             return ApiGatewayResponseGenerator.proxyJsonResponse(
                     HttpStatusCode.INTERNAL_SERVER_ERROR, ErrorResponse.GENERIC_SERVER_ERROR);
+        } finally {
+            // Stops the form being parsed and the request prepared when returning before they
+            // were needed, such as for a session over the maximum attempts
+            cancelIfRunning(parsedForm);
+            cancelIfRunning(preparedCheck);
+            // Includes reads by the task threads and reloads completed in the background
+            configurationService.publishCacheMetrics();
+            serviceFactory.publishDcsRequestMetrics();
+            // Measured during init, emitted by the first invocation only
+            configurationService.publishLoadMetrics();
+            serviceFactory.publishServiceCreationMetrics();
+            if (firstRequest) {
+                // Under SnapStart init ran for the snapshot, not for this environment
+                if (initDurationMs >= 0 && !serviceFactory.isRestoredFromSnapshot()) {
+                    eventProbe.counterMetric(COLD_START_INIT_DURATION, initDurationMs);
+                }
+                // Includes creating the services that were left until a request needed them
+                eventProbe.counterMetric(FIRST_REQUEST_DURATION, elapsedMs(requestStart));
+                firstRequest = false;
+            }
+        }
+    }
+
+    private static void cancelIfRunning(CompletableFuture<?> future) {
+        if (future != null) {
+            future.cancel(true);
         }
     }
 
+    private static long elapsedMs(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Sends the audit events and saves the person identity and check result at the same time. The
+     * audit events go in one batch, in the order they were added. All three are waited for even if
+     * one fails, and the first failure in the order listed is thrown. The authorization code is
+     * only created once everything else has succeeded, so a code is never issued for a check that
+     * was not saved. The time each write took is reported from this thread once they have ended.
+     */
     private void saveAttempt(
+            Map<String, String> headers,
             SessionItem sessionItem,
             DrivingPermitForm drivingPermitFormData,
-            DocumentCheckVerificationResult result) {
-
-        LOGGER.info("Generating authorization code...");
-        sessionService.createAuthorizationCode(sessionItem);
+            DocumentCheckVerificationResult result)
+            throws SqsException, ExecutionException, InterruptedException {
 
-        LOGGER.info("Saving person identity...");
         BirthDate birthDate = new BirthDate();
         birthDate.setValue(drivingPermitFormData.getDateOfBirth());
 
@@ -237,15 +307,91 @@ public class DrivingPermitHandler
                                 drivingPermitFormData.getForenames(),
                                 drivingPermitFormData.getSurname())));
 
-        personIdentityService.savePersonIdentity(sessionItem.getSessionId(), sharedClaims);
-        LOGGER.info("person identity saved.");
+        auditEventPublisher.addAuditEvent(
+                AuditEventType.THIRD_PARTY_REQUEST_ENDED,
+                new AuditEventContext(headers, sessionItem),
+                "");
+        auditEventPublisher.addAuditEvent(
+                AuditEventType.REQUEST_SENT,
+                new AuditEventContext(
+                        DocumentCheckPersonIdentityDetailedMapper.generatePersonIdentityDetailed(
+                                drivingPermitFormData),
+                        headers,
+                        sessionItem));
+
+        // Written to by the task threads
+        Map<String, Long> writeDurationsMs = new ConcurrentHashMap<>();
+        try {
+            parallelTaskExecutor.invokeAll(
+                    List.of(
+                            timedWrite(
+                                    "audit_events",
+                                    writeDurationsMs,
+                                    () -> {
+                                        LOGGER.info("Sending audit events...");
+                                        auditEventPublisher.flush();
+                                        return null;
+                                    }),
+                            timedWrite(
+                                    "person_identity",
+                                    writeDurationsMs,
+                                    () -> {
+                                        LOGGER.info("Saving person identity...");
+                                        personIdentityService.savePersonIdentity(
+                                                sessionItem.getSessionId(), sharedClaims);
+                                        LOGGER.info("person identity saved.");
+                                        return null;
+                                    }),
+                            timedWrite(
+                                    "document_check_result",
+                                    writeDurationsMs,
+                                    () -> {
+                                        LOGGER.info("Saving document check results...");
+                                        dataStore.create(
+                                                mapVerificationResultToResultItem(
+                                                        sessionItem, result));
+                                        LOGGER.info("document check results saved.");
+                                        return null;
+                                    })));
+
+            LOGGER.info("Generating authorization code...");
+            long authorizationCodeStart = System.nanoTime();
+            try {
+                sessionService.createAuthorizationCode(sessionItem);
+            } finally {
+                writeDurationsMs.put("authorization_code", elapsedMs(authorizationCodeStart));
+            }
+        } finally {
+            writeDurationsMs.forEach(
+                    (write, durationMs) ->
+                            eventProbe.counterMetric(
+                                    SAVE_ATTEMPT_WRITE_DURATION_PREFIX + write, durationMs));
+        }
+    }
 
-        final DocumentCheckResultItem documentCheckResultItem =
-                mapVerificationResultToResultItem(sessionItem, result);
+    private static Callable<Void> timedWrite(
+            String write, Map<String, Long> writeDurationsMs, Callable<Void> task) {
+        return () -> {
+            long writeStart = System.nanoTime();
+            try {
+                return task.call();
+            } finally {
+                writeDurationsMs.put(write, elapsedMs(writeStart));
+            }
+        };
+    }
 
-        LOGGER.info("Saving document check results...");
-        dataStore.create(documentCheckResultItem);
-        LOGGER.info("document check results saved.");
+    private static DrivingPermitForm getParsedForm(Future<DrivingPermitForm> parsedForm)
+            throws OAuthHttpResponseExceptionWithErrorBody, ExecutionException,
+                    InterruptedException {
+        try {
+            return parsedForm.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof OAuthHttpResponseExceptionWithErrorBody) {
+                throw (OAuthHttpResponseExceptionWithErrorBody) e.getCause();
+            }
+            throw e;
+        }
     }
 
     private DrivingPermitForm parseDrivingPermitFormRequest(String input)
@@ -3,12 +3,19 @@ package uk.gov.di.ipv.cri.drivingpermit.api.service;
 import com.nimbusds.oauth2.sdk.util.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import software.amazon.lambda.powertools.parameters.ParamProvider;
-import software.amazon.lambda.powertools.parameters.SSMProvider;
 import software.amazon.lambda.powertools.parameters.SecretsProvider;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.CircuitBreakerConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.ConfigCacheConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HedgingConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HttpClientConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HttpRetryConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.ServiceInitConfig;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.Thumbprints;
+import uk.gov.di.ipv.cri.drivingpermit.api.util.RefreshableValue;
 
 import java.io.ByteArrayInputStream;
+import java.security.GeneralSecurityException;
 import java.security.KeyFactory;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -20,8 +27,24 @@ import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.PKCS8EncodedKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.CONFIG_CACHE_PREFIX;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.CONFIG_LOAD_DURATION_PREFIX;
 
 public class ConfigurationService {
 
@@ -50,28 +73,73 @@ public class ConfigurationService {
 
     private static final String KEY_FORMAT = "/%s/credentialIssuers/driving-permit/%s";
 
+    // Parameters under the stack prefix, loaded at init in one GetParameters call per group
+    private static final List<String> SETTING_PARAMETERS =
+            List.of("contraindicationMappings", "dcsEndpoint", "DocumentCheckResultTableName");
+    private static final List<String> CERTIFICATE_PARAMETERS =
+            List.of(
+                    "signingCertForDrivingPermitToVerify",
+                    "encryptionCertForDrivingPermitToEncrypt",
+                    "tlsCert",
+                    "tlsRootCertificate",
+                    "tlsIntermediateCertificate",
+                    "signingCertForDcsToVerify");
+    private static final List<String> PRIVATE_KEY_PARAMETERS =
+            List.of(
+                    "tlsKey",
+                    "encryptionKeyForDrivingPermitToDecrypt",
+                    "signingKeyForDrivingPermitToSign");
+
+    private static final List<String> DCS_KEY_MATERIAL_PARAMETERS =
+            List.of(
+                    "signingKeyForDrivingPermitToSign",
+                    "encryptionKeyForDrivingPermitToDecrypt",
+                    "encryptionCertForDrivingPermitToEncrypt",
+                    "signingCertForDrivingPermitToVerify",
+                    "signingCertForDcsToVerify");
+
+    private interface ParameterDecoder<T> {
+        T decode(String value) throws GeneralSecurityException;
+    }
+
     private final String thirdPartyId;
     private final String documentCheckResultTableName;
     private final String contraindicationMappings;
     private final String dcsEndpointUri;
     private final String parameterPrefix;
-    private final Certificate dcsSigningCert;
-    private final Certificate dcsEncryptionCert;
     private final Certificate drivingPermitTlsSelfCert;
     private final Certificate dcsTlsRootCert;
     private final Certificate dcsIntermediateCert;
 
-    private final PrivateKey drivingPermitEncryptionKey;
-    private final PrivateKey drivingPermitCriSigningKey;
     private final PrivateKey drivingPermitTlsKey;
 
-    private final Thumbprints signingCertThumbprints;
+    // Reloaded from SSM once older than its time to live, so rotated keys are picked up
+    private final RefreshableValue<DcsKeyMaterial> dcsKeyMaterial;
+
+    private final HttpClientConfig httpClientConfig;
+    private final HttpRetryConfig httpRetryConfig;
+    private final CircuitBreakerConfig circuitBreakerConfig;
+    private final HedgingConfig hedgingConfig;
+    private final ConfigCacheConfig configCacheConfig;
+    private final ServiceInitConfig serviceInitConfig;
+
+    private final ParameterBatchLoader parameterBatchLoader;
+    private final EventProbe eventProbe;
+
+    // Loaded during init, outside any invocation, so emitted by the first one
+    private final Map<String, Long> loadDurationsMs = new ConcurrentHashMap<>();
 
     public ConfigurationService(
-            SecretsProvider secretsProvider, ParamProvider paramProvider, String env)
+            SecretsProvider secretsProvider,
+            ParameterBatchLoader parameterBatchLoader,
+            EventProbe eventProbe,
+            String env)
             throws CertificateException, NoSuchAlgorithmException, InvalidKeySpecException {
         Objects.requireNonNull(secretsProvider, "secretsProvider must not be null");
-        Objects.requireNonNull(paramProvider, "paramProvider must not be null");
+        Objects.requireNonNull(parameterBatchLoader, "parameterBatchLoader must not be null");
+        Objects.requireNonNull(eventProbe, "eventProbe must not be null");
+        this.parameterBatchLoader = parameterBatchLoader;
+        this.eventProbe = eventProbe;
 
         if (StringUtils.isBlank(env)) {
             throw new IllegalArgumentException("env must be specified");
@@ -79,63 +147,266 @@ public class ConfigurationService {
 
         // ****************************Private Parameters****************************
         this.parameterPrefix = System.getenv("AWS_STACK_NAME");
-        this.thirdPartyId = paramProvider.get(String.format(KEY_FORMAT, env, "thirdPartyId"));
+        String thirdPartyIdName = String.format(KEY_FORMAT, env, "thirdPartyId");
+
+        // Each group is one GetParameters call, or two for more than ten names, decoded on the
+        // thread that fetched it. All the groups load at the same time
+        List<String> settingNames = new ArrayList<>(getParameterNames(SETTING_PARAMETERS));
+        settingNames.add(thirdPartyIdName);
+        CompletableFuture<Map<String, String>> settings =
+                timed("settings", loadDurationsMs, () -> parameterBatchLoader.load(settingNames));
+        CompletableFuture<Map<String, List<Certificate>>> certificates =
+                timed(
+                        "certificates",
+                        loadDurationsMs,
+                        () ->
+                                loadAndDecode(
+                                        parameterBatchLoader,
+                                        CERTIFICATE_PARAMETERS,
+                                        ConfigurationService::toCertificates));
+        CompletableFuture<Map<String, PrivateKey>> privateKeys =
+                timed(
+                        "private_keys",
+                        loadDurationsMs,
+                        () ->
+                                loadAndDecode(
+                                        parameterBatchLoader,
+                                        PRIVATE_KEY_PARAMETERS,
+                                        ConfigurationService::toPrivateKey));
+
+        CompletableFuture<Map<String, String>> httpClientParameters =
+                loadConfigGroup("http_client", "HttpClient", HttpClientConfig.PARAMETER_NAMES);
+        CompletableFuture<Map<String, String>> httpRetryParameters =
+                loadConfigGroup("http_retry", "HttpRetry", HttpRetryConfig.PARAMETER_NAMES);
+        CompletableFuture<Map<String, String>> circuitBreakerParameters =
+                loadConfigGroup(
+                        "circuit_breaker", "CircuitBreaker", CircuitBreakerConfig.PARAMETER_NAMES);
+        CompletableFuture<Map<String, String>> hedgingParameters =
+                loadConfigGroup("hedging", "Hedging", HedgingConfig.PARAMETER_NAMES);
+        CompletableFuture<Map<String, String>> configCacheParameters =
+                loadConfigGroup("config_cache", "ConfigCache", ConfigCacheConfig.PARAMETER_NAMES);
+        CompletableFuture<Map<String, String>> serviceInitParameters =
+                loadConfigGroup("service_init", "ServiceInit", ServiceInitConfig.PARAMETER_NAMES);
+
+        try {
+            CompletableFuture.allOf(
+                            settings,
+                            certificates,
+                            privateKeys,
+                            httpClientParameters,
+                            httpRetryParameters,
+                            circuitBreakerParameters,
+                            hedgingParameters,
+                            configCacheParameters,
+                            serviceInitParameters)
+                    .join();
+        } catch (CompletionException e) {
+            throw unwrapLoadFailure(e);
+        }
+
+        this.httpClientConfig = new HttpClientConfig(httpClientParameters.join());
+        this.httpRetryConfig = new HttpRetryConfig(httpRetryParameters.join(), httpClientConfig);
+        this.circuitBreakerConfig = new CircuitBreakerConfig(circuitBreakerParameters.join());
+        this.hedgingConfig = new HedgingConfig(hedgingParameters.join());
+        this.configCacheConfig = new ConfigCacheConfig(configCacheParameters.join());
+        this.serviceInitConfig = new ServiceInitConfig(serviceInitParameters.join());
+
+        Map<String, String> settingValues = settings.join();
+        this.thirdPartyId = settingValues.get(thirdPartyIdName);
         this.contraindicationMappings =
-                paramProvider.get(getParameterName("contraindicationMappings"));
-        this.dcsEndpointUri = paramProvider.get(getParameterName("dcsEndpoint"));
+                settingValues.get(getParameterName("contraindicationMappings"));
+        this.dcsEndpointUri = settingValues.get(getParameterName("dcsEndpoint"));
         this.documentCheckResultTableName =
-                paramProvider.get(getParameterName("DocumentCheckResultTableName"));
+                settingValues.get(getParameterName("DocumentCheckResultTableName"));
+
+        Map<String, List<Certificate>> certificateValues = certificates.join();
+        Function<String, Certificate> certificate = name -> certificateValues.get(name).get(0);
+        this.drivingPermitTlsSelfCert = certificate.apply("tlsCert");
+        this.dcsTlsRootCert = certificate.apply("tlsRootCertificate");
+        this.dcsIntermediateCert = certificate.apply("tlsIntermediateCertificate");
+
+        Map<String, PrivateKey> privateKeyValues = privateKeys.join();
+        this.drivingPermitTlsKey = privateKeyValues.get("tlsKey");
+
+        List<Certificate> dcsSigningCerts =
+                certificateValues.get("signingCertForDrivingPermitToVerify");
+        this.dcsKeyMaterial =
+                new RefreshableValue<>(
+                        CONFIG_CACHE_PREFIX + "dcs_key_material",
+                        new DcsKeyMaterial(
+                                privateKeyValues.get("signingKeyForDrivingPermitToSign"),
+                                privateKeyValues.get("encryptionKeyForDrivingPermitToDecrypt"),
+                                certificate.apply("encryptionCertForDrivingPermitToEncrypt"),
+                                dcsSigningCerts,
+                                createThumbprints(dcsSigningCerts),
+                                createThumbprints(certificate.apply("signingCertForDcsToVerify"))),
+                        Duration.ofSeconds(configCacheConfig.getKeyMaterialTtlSeconds()),
+                        this::loadDcsKeyMaterial,
+                        Clock.systemUTC());
+        // *****************************Feature Toggles*******************************
 
-        this.dcsSigningCert = getCertificate(paramProvider, "signingCertForDrivingPermitToVerify");
-        this.dcsEncryptionCert =
-                getCertificate(paramProvider, "encryptionCertForDrivingPermitToEncrypt");
+        // *********************************Secrets***********************************
 
-        this.drivingPermitTlsSelfCert = getCertificate(paramProvider, "tlsCert");
+    }
 
-        this.dcsTlsRootCert = getCertificate(paramProvider, "tlsRootCertificate");
+    /**
+     * Loads the DCS keys and certificates again in one GetParameters call. The TLS key and
+     * certificates are not reloaded, they are only read when the HTTP client is built.
+     */
+    private CompletableFuture<DcsKeyMaterial> loadDcsKeyMaterial() {
+        return parameterBatchLoader
+                .load(getParameterNames(DCS_KEY_MATERIAL_PARAMETERS))
+                .thenApply(
+                        values -> {
+                            Function<String, String> value =
+                                    parameterName -> values.get(getParameterName(parameterName));
+                            try {
+                                List<Certificate> dcsSigningCerts =
+                                        toCertificates(
+                                                value.apply("signingCertForDrivingPermitToVerify"));
+                                return new DcsKeyMaterial(
+                                        toPrivateKey(
+                                                value.apply("signingKeyForDrivingPermitToSign")),
+                                        toPrivateKey(
+                                                value.apply(
+                                                        "encryptionKeyForDrivingPermitToDecrypt")),
+                                        toCertificate(
+                                                value.apply(
+                                                        "encryptionCertForDrivingPermitToEncrypt")),
+                                        dcsSigningCerts,
+                                        createThumbprints(dcsSigningCerts),
+                                        createThumbprints(
+                                                toCertificate(
+                                                        value.apply("signingCertForDcsToVerify"))));
+                            } catch (GeneralSecurityException e) {
+                                throw new CompletionException(e);
+                            }
+                        });
+    }
 
-        this.dcsIntermediateCert = getCertificate(paramProvider, "tlsIntermediateCertificate");
+    private Thumbprints createThumbprints(Certificate cert)
+            throws NoSuchAlgorithmException, CertificateEncodingException {
+        return new Thumbprints(
+                getThumbprint((X509Certificate) cert, "SHA-1"),
+                getThumbprint((X509Certificate) cert, "SHA-256"));
+    }
 
-        this.drivingPermitTlsKey = getPrivateKey(paramProvider, "tlsKey");
+    private List<Thumbprints> createThumbprints(List<Certificate> certs)
+            throws NoSuchAlgorithmException, CertificateEncodingException {
+        List<Thumbprints> thumbprints = new ArrayList<>();
+        for (Certificate cert : certs) {
+            thumbprints.add(createThumbprints(cert));
+        }
+        return thumbprints;
+    }
 
-        this.drivingPermitEncryptionKey =
-                getPrivateKey(paramProvider, "encryptionKeyForDrivingPermitToDecrypt");
-        this.drivingPermitCriSigningKey =
-                getPrivateKey(paramProvider, "signingKeyForDrivingPermitToSign");
+    private List<String> getParameterNames(List<String> parameterNames) {
+        return parameterNames.stream().map(this::getParameterName).collect(Collectors.toList());
+    }
 
-        var cert = getCertificate(paramProvider, "signingCertForDcsToVerify");
-        this.signingCertThumbprints =
-                new Thumbprints(
-                        getThumbprint((X509Certificate) cert, "SHA-1"),
-                        getThumbprint((X509Certificate) cert, "SHA-256"));
-        // *****************************Feature Toggles*******************************
+    private <T> CompletableFuture<Map<String, T>> loadAndDecode(
+            ParameterBatchLoader parameterBatchLoader,
+            List<String> parameterNames,
+            ParameterDecoder<T> parameterDecoder) {
+        return parameterBatchLoader
+                .load(getParameterNames(parameterNames))
+                .thenApply(
+                        values -> {
+                            Map<String, T> decoded = new HashMap<>();
+                            try {
+                                for (String parameterName : parameterNames) {
+                                    decoded.put(
+                                            parameterName,
+                                            parameterDecoder.decode(
+                                                    values.get(getParameterName(parameterName))));
+                                }
+                            } catch (GeneralSecurityException e) {
+                                throw new CompletionException(e);
+                            }
+                            return decoded;
+                        });
+    }
 
-        // *********************************Secrets***********************************
+    /**
+     * Loads the parameters under /{stack}/{path} by name, keyed by the name below that path. Any
+     * that are not created are left out, so the config built from them uses its default.
+     */
+    private CompletableFuture<Map<String, String>> loadConfigGroup(
+            String group, String path, List<String> parameterNames) {
+        String pathPrefix = getParameterName(path) + "/";
+        List<String> names =
+                parameterNames.stream().map(name -> pathPrefix + name).collect(Collectors.toList());
+        return timed(
+                group,
+                loadDurationsMs,
+                () ->
+                        parameterBatchLoader
+                                .loadIfPresent(names)
+                                .thenApply(values -> withoutPrefix(values, pathPrefix)));
+    }
 
+    private static Map<String, String> withoutPrefix(Map<String, String> values, String prefix) {
+        Map<String, String> byName = new HashMap<>();
+        values.forEach((name, value) -> byName.put(name.substring(prefix.length()), value));
+        return byName;
     }
 
-    private PrivateKey getPrivateKey(ParamProvider paramProvider, String parameterName)
-            throws NoSuchAlgorithmException, InvalidKeySpecException {
-        SSMProvider ssmProvider = (SSMProvider) paramProvider;
+    private static <T> CompletableFuture<T> timed(
+            String group, Map<String, Long> loadDurationsMs, Supplier<CompletableFuture<T>> load) {
+        long start = System.nanoTime();
+        return load.get()
+                .whenComplete((result, error) -> loadDurationsMs.put(group, elapsedMs(start)));
+    }
+
+    private static long elapsedMs(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
 
-        byte[] binaryKey =
-                Base64.getDecoder()
-                        .decode(ssmProvider.withDecryption().get(getParameterName(parameterName)));
+    private static RuntimeException unwrapLoadFailure(CompletionException e)
+            throws CertificateException, NoSuchAlgorithmException, InvalidKeySpecException {
+        Throwable cause = e.getCause();
+        if (cause instanceof CertificateException) {
+            throw (CertificateException) cause;
+        }
+        if (cause instanceof NoSuchAlgorithmException) {
+            throw (NoSuchAlgorithmException) cause;
+        }
+        if (cause instanceof InvalidKeySpecException) {
+            throw (InvalidKeySpecException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return e;
+    }
+
+    private static PrivateKey toPrivateKey(String value)
+            throws NoSuchAlgorithmException, InvalidKeySpecException {
+        byte[] binaryKey = Base64.getDecoder().decode(value);
         KeyFactory factory = KeyFactory.getInstance("RSA");
         PKCS8EncodedKeySpec privateKeySpec = new PKCS8EncodedKeySpec(binaryKey);
         return factory.generatePrivate(privateKeySpec);
     }
 
-    private Certificate getCertificate(ParamProvider paramProvider, String parameterName)
-            throws CertificateException {
-        SSMProvider ssmProvider = (SSMProvider) paramProvider;
-        byte[] binaryCertificate =
-                Base64.getDecoder()
-                        .decode(ssmProvider.withDecryption().get(getParameterName(parameterName)));
+    private static Certificate toCertificate(String value) throws CertificateException {
+        byte[] binaryCertificate = Base64.getDecoder().decode(value);
         CertificateFactory factory = CertificateFactory.getInstance("X.509");
         return factory.generateCertificate(new ByteArrayInputStream(binaryCertificate));
     }
 
+    /**
+     * A parameter may hold several comma separated certificates, so DCS can be trusted to sign with
+     * a new certificate before it stops using the old one. Only signingCertForDrivingPermitToVerify
+     * makes use of this, the first certificate is taken from every other parameter.
+     */
+    private static List<Certificate> toCertificates(String value) throws CertificateException {
+        List<Certificate> certificates = new ArrayList<>();
+        for (String encodedCertificate : value.split(",")) {
+            certificates.add(toCertificate(encodedCertificate.strip()));
+        }
+        return certificates;
+    }
+
     public String getThumbprint(X509Certificate cert, String hashAlg)
             throws NoSuchAlgorithmException, CertificateEncodingException {
         MessageDigest md = MessageDigest.getInstance(hashAlg);
@@ -161,24 +432,61 @@ public class ConfigurationService {
         return String.format("/%s/%s", parameterPrefix, parameterName);
     }
 
+    /**
+     * The current DCS keys and certificates. Take this once and use it for the whole operation,
+     * the instance returned may be replaced by a reload at any time.
+     */
+    public DcsKeyMaterial getDcsKeyMaterial() {
+        return dcsKeyMaterial.get();
+    }
+
     public Certificate getDcsSigningCert() {
-        return dcsSigningCert;
+        return getDcsKeyMaterial().getDcsSigningCert();
     }
 
     public PrivateKey getDrivingPermitEncryptionKey() {
-        return drivingPermitEncryptionKey;
+        return getDcsKeyMaterial().getDrivingPermitEncryptionKey();
     }
 
     public Thumbprints getSigningCertThumbprints() {
-        return signingCertThumbprints;
+        return getDcsKeyMaterial().getSigningCertThumbprints();
     }
 
     public PrivateKey getDrivingPermitCriSigningKey() {
-        return drivingPermitCriSigningKey;
+        return getDcsKeyMaterial().getDrivingPermitCriSigningKey();
     }
 
     public Certificate getDcsEncryptionCert() {
-        return dcsEncryptionCert;
+        return getDcsKeyMaterial().getDcsEncryptionCert();
+    }
+
+    /** Emits how long each parameter group took to load during init, once. */
+    public void publishLoadMetrics() {
+        // Removed as emitted, so a call on another thread cannot emit one twice
+        for (String group : List.copyOf(loadDurationsMs.keySet())) {
+            Long durationMs = loadDurationsMs.remove(group);
+            if (durationMs != null) {
+                eventProbe.counterMetric(CONFIG_LOAD_DURATION_PREFIX + group, durationMs);
+            }
+        }
+    }
+
+    /**
+     * Forgets the load durations without emitting them, for when the snapshot they were measured
+     * for is taken and they would describe no environment restored from it.
+     */
+    public void discardLoadMetrics() {
+        loadDurationsMs.clear();
+    }
+
+    /** Emits the configuration cache hits, misses and reloads counted since the last call. */
+    public void publishCacheMetrics() {
+        dcsKeyMaterial.publishMetrics(eventProbe);
+    }
+
+    /** Reloads the DCS keys and certificates if they are older than their time to live. */
+    public CompletableFuture<Void> refreshDcsKeyMaterialIfExpired() {
+        return dcsKeyMaterial.refreshIfExpired();
     }
 
     public String getDcsEndpointUri() {
@@ -200,4 +508,28 @@ public class ConfigurationService {
     public PrivateKey getDrivingPermitTlsKey() {
         return drivingPermitTlsKey;
     }
+
+    public HttpClientConfig getHttpClientConfig() {
+        return httpClientConfig;
+    }
+
+    public HttpRetryConfig getHttpRetryConfig() {
+        return httpRetryConfig;
+    }
+
+    public CircuitBreakerConfig getCircuitBreakerConfig() {
+        return circuitBreakerConfig;
+    }
+
+    public HedgingConfig getHedgingConfig() {
+        return hedgingConfig;
+    }
+
+    public ConfigCacheConfig getConfigCacheConfig() {
+        return configCacheConfig;
+    }
+
+    public ServiceInitConfig getServiceInitConfig() {
+        return serviceInitConfig;
+    }
 }
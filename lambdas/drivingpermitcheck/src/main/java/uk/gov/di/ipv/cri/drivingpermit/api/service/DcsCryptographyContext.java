@@ -0,0 +1,107 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.service;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSADecrypter;
+import com.nimbusds.jose.crypto.RSAEncrypter;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.Thumbprints;
+import uk.gov.di.ipv.cri.drivingpermit.api.exception.IpvCryptoException;
+
+import java.security.interfaces.RSAPublicKey;
+import java.text.ParseException;
+import java.util.Map;
+
+/**
+ * Immutable holder for the JOSE signer, encrypter, verifier, decrypter and protected header used to
+ * talk to DCS.
+ *
+ * <p>The Nimbus RSA implementations create their JCA Signature/Cipher per operation, so a single
+ * instance can be shared across invocations (and threads) for as long as the key material it was
+ * built from is unchanged.
+ */
+final class DcsCryptographyContext {
+
+    private final DcsKeyMaterial keyMaterial;
+
+    private final JWSHeader jwsHeader;
+    private final RSASSASigner signer;
+    private final RSAEncrypter encrypter;
+    private final DcsSignatureVerifier signatureVerifier;
+    private final RSADecrypter decrypter;
+
+    private DcsCryptographyContext(
+            DcsKeyMaterial keyMaterial, DcsCryptographyContext previousContext) {
+        this.keyMaterial = keyMaterial;
+
+        this.jwsHeader = createJwsHeader(keyMaterial.getSigningCertThumbprints());
+        this.signer = new RSASSASigner(keyMaterial.getDrivingPermitCriSigningKey());
+        this.encrypter =
+                new RSAEncrypter((RSAPublicKey) keyMaterial.getDcsEncryptionCert().getPublicKey());
+        this.signatureVerifier =
+                DcsSignatureVerifier.create(
+                        keyMaterial,
+                        previousContext == null ? null : previousContext.signatureVerifier);
+        this.decrypter = new RSADecrypter(keyMaterial.getDrivingPermitEncryptionKey());
+    }
+
+    /**
+     * Builds the context for the key material, keeping the signature verifiers of the previous
+     * context, if there is one, for the DCS signing certs that are still trusted.
+     */
+    static DcsCryptographyContext create(
+            DcsKeyMaterial keyMaterial, DcsCryptographyContext previousContext) {
+        return new DcsCryptographyContext(keyMaterial, previousContext);
+    }
+
+    /**
+     * The header is identical for every JWS we send, so it is built once. Parsing the encoded
+     * form back means the returned header keeps its Base64URL encoding, which JWSObject then
+     * reuses for every signing input rather than re-serialising the header each time.
+     */
+    private static JWSHeader createJwsHeader(Thumbprints signingCertThumbprints) {
+        JWSHeader header =
+                new JWSHeader.Builder(JWSAlgorithm.RS256)
+                        .customParams(
+                                Map.of(
+                                        "x5t",
+                                        signingCertThumbprints.getSha1Thumbprint(),
+                                        "x5t#S256",
+                                        signingCertThumbprints.getSha256Thumbprint()))
+                        .build();
+        try {
+            return JWSHeader.parse(header.toBase64URL());
+        } catch (ParseException e) {
+            throw new IpvCryptoException(
+                    String.format("Failed to create DCS JWS header: %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * Reference comparison is intentional - ConfigurationService only replaces the key material
+     * instance when it has been reloaded.
+     */
+    boolean isBuiltFrom(DcsKeyMaterial keyMaterial) {
+        return this.keyMaterial == keyMaterial;
+    }
+
+    JWSHeader getJwsHeader() {
+        return jwsHeader;
+    }
+
+    RSASSASigner getSigner() {
+        return signer;
+    }
+
+    RSAEncrypter getEncrypter() {
+        return encrypter;
+    }
+
+    DcsSignatureVerifier getSignatureVerifier() {
+        return signatureVerifier;
+    }
+
+    RSADecrypter getDecrypter() {
+        return decrypter;
+    }
+}
@@ -1,7 +1,6 @@
 package uk.gov.di.ipv.cri.drivingpermit.api.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.nimbusds.jose.EncryptionMethod;
@@ -10,26 +9,17 @@ import com.nimbusds.jose.JOSEObjectType;
 import com.nimbusds.jose.JWEAlgorithm;
 import com.nimbusds.jose.JWEHeader;
 import com.nimbusds.jose.JWEObject;
-import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.JWSHeader;
 import com.nimbusds.jose.JWSObject;
 import com.nimbusds.jose.Payload;
-import com.nimbusds.jose.crypto.RSADecrypter;
-import com.nimbusds.jose.crypto.RSAEncrypter;
-import com.nimbusds.jose.crypto.RSASSASigner;
-import com.nimbusds.jose.crypto.RSASSAVerifier;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DcsPayload;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DcsResponse;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DcsSignedEncryptedResponse;
-import uk.gov.di.ipv.cri.drivingpermit.api.domain.ProtectedHeader;
 import uk.gov.di.ipv.cri.drivingpermit.api.exception.IpvCryptoException;
 
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
-import java.security.interfaces.RSAPublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.text.ParseException;
-import java.util.Map;
 
 public class DcsCryptographyService {
 
@@ -37,6 +27,8 @@ public class DcsCryptographyService {
     private final ObjectMapper objectMapper =
             new ObjectMapper().registerModule(new JavaTimeModule());
 
+    private volatile DcsCryptographyContext cryptographyContext;
+
     public DcsCryptographyService(ConfigurationService configurationService) {
         this.configurationService = configurationService;
     }
@@ -44,24 +36,32 @@ public class DcsCryptographyService {
     public JWSObject preparePayload(DcsPayload passportDetails)
             throws CertificateException, NoSuchAlgorithmException, InvalidKeySpecException,
                     JOSEException, JsonProcessingException {
-        JWSObject signedPassportDetails =
-                createJWS(objectMapper.writeValueAsString(passportDetails));
-        JWEObject encryptedPassportDetails = createJWE(signedPassportDetails.serialize());
-        return createJWS(encryptedPassportDetails.serialize());
+        return preparePayload(objectMapper.writeValueAsBytes(passportDetails));
+    }
+
+    /** Signs, encrypts and signs again a payload that is already UTF-8 encoded JSON. */
+    public JWSObject preparePayload(byte[] payloadJson)
+            throws CertificateException, NoSuchAlgorithmException, InvalidKeySpecException,
+                    JOSEException {
+        DcsCryptographyContext context = getCryptographyContext();
+        JWSObject signedPassportDetails = createJWS(context, new Payload(payloadJson));
+        JWEObject encryptedPassportDetails = createJWE(context, signedPassportDetails.serialize());
+        return createJWS(context, new Payload(encryptedPassportDetails.serialize()));
     }
 
     public DcsResponse unwrapDcsResponse(String dcsSignedEncryptedResponseString)
             throws JOSEException, ParseException, JsonProcessingException, CertificateException {
+        DcsCryptographyContext context = getCryptographyContext();
         DcsSignedEncryptedResponse dcsSignedEncryptedResponse =
                 new DcsSignedEncryptedResponse(dcsSignedEncryptedResponseString);
         JWSObject outerSignedPayload = JWSObject.parse(dcsSignedEncryptedResponse.getPayload());
-        if (isInvalidSignature(outerSignedPayload)) {
+        if (isInvalidSignature(context, outerSignedPayload)) {
             throw new IpvCryptoException("DCS Response Outer Signature invalid.");
         }
         JWEObject encryptedSignedPayload =
                 JWEObject.parse(outerSignedPayload.getPayload().toString());
-        JWSObject decryptedSignedPayload = decrypt(encryptedSignedPayload);
-        if (isInvalidSignature(decryptedSignedPayload)) {
+        JWSObject decryptedSignedPayload = decrypt(context, encryptedSignedPayload);
+        if (isInvalidSignature(context, decryptedSignedPayload)) {
             throw new IpvCryptoException("DCS Response Inner Signature invalid.");
         }
         try {
@@ -74,32 +74,35 @@ public class DcsCryptographyService {
         }
     }
 
-    private JWSObject createJWS(String stringToSign) throws JOSEException, JsonProcessingException {
-
-        ProtectedHeader protectedHeader =
-                new ProtectedHeader(
-                        JWSAlgorithm.RS256.toString(),
-                        configurationService.getSigningCertThumbprints().getSha1Thumbprint(),
-                        configurationService.getSigningCertThumbprints().getSha256Thumbprint());
-
-        String jsonHeaders = objectMapper.writeValueAsString(protectedHeader);
+    /**
+     * Returns the cached crypto context, rebuilding it only when ConfigurationService holds
+     * different key material to the one the cached context was built from.
+     */
+    DcsCryptographyContext getCryptographyContext() {
+        DcsKeyMaterial keyMaterial = configurationService.getDcsKeyMaterial();
+        DcsCryptographyContext context = cryptographyContext;
+        if (context == null || !context.isBuiltFrom(keyMaterial)) {
+            synchronized (this) {
+                context = cryptographyContext;
+                if (context == null || !context.isBuiltFrom(keyMaterial)) {
+                    context = DcsCryptographyContext.create(keyMaterial, cryptographyContext);
+                    cryptographyContext = context;
+                }
+            }
+        }
+        return context;
+    }
 
-        JWSObject jwsObject =
-                new JWSObject(
-                        new JWSHeader.Builder(JWSAlgorithm.RS256)
-                                .customParams(
-                                        objectMapper.readValue(
-                                                jsonHeaders,
-                                                new TypeReference<Map<String, Object>>() {}))
-                                .build(),
-                        new Payload(stringToSign));
+    private JWSObject createJWS(DcsCryptographyContext context, Payload payloadToSign)
+            throws JOSEException {
+        JWSObject jwsObject = new JWSObject(context.getJwsHeader(), payloadToSign);
 
-        jwsObject.sign(new RSASSASigner(configurationService.getDrivingPermitCriSigningKey()));
+        jwsObject.sign(context.getSigner());
 
         return jwsObject;
     }
 
-    private JWEObject createJWE(String data) throws JOSEException, CertificateException {
+    private JWEObject createJWE(DcsCryptographyContext context, String data) throws JOSEException {
 
         var header =
                 new JWEHeader.Builder(JWEAlgorithm.RSA_OAEP_256, EncryptionMethod.A128CBC_HS256)
@@ -107,9 +110,7 @@ public class DcsCryptographyService {
                         .build();
         var jwe = new JWEObject(header, new Payload(data));
 
-        jwe.encrypt(
-                new RSAEncrypter(
-                        (RSAPublicKey) configurationService.getDcsEncryptionCert().getPublicKey()));
+        jwe.encrypt(context.getEncrypter());
 
         if (!jwe.getState().equals(JWEObject.State.ENCRYPTED)) {
             throw new IpvCryptoException("Something went wrong, couldn't encrypt JWE");
@@ -118,19 +119,18 @@ public class DcsCryptographyService {
         return jwe;
     }
 
-    private boolean isInvalidSignature(JWSObject jwsObject)
-            throws CertificateException, JOSEException {
-        RSASSAVerifier rsassaVerifier =
-                new RSASSAVerifier(
-                        (RSAPublicKey) configurationService.getDcsSigningCert().getPublicKey());
-        return !jwsObject.verify(rsassaVerifier);
+    private boolean isInvalidSignature(DcsCryptographyContext context, JWSObject jwsObject)
+            throws JOSEException {
+        return !context.getSignatureVerifier().verify(jwsObject);
     }
 
     public JWSObject decrypt(JWEObject encrypted) {
+        return decrypt(getCryptographyContext(), encrypted);
+    }
+
+    private JWSObject decrypt(DcsCryptographyContext context, JWEObject encrypted) {
         try {
-            RSADecrypter rsaDecrypter =
-                    new RSADecrypter(configurationService.getDrivingPermitEncryptionKey());
-            encrypted.decrypt(rsaDecrypter);
+            encrypted.decrypt(context.getDecrypter());
 
             return JWSObject.parse(encrypted.getPayload().toString());
         } catch (ParseException | JOSEException exception) {
@@ -0,0 +1,76 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.service;
+
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.Thumbprints;
+
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.util.List;
+
+/**
+ * The keys and certificates used to sign, encrypt, verify and decrypt the DCS messages. Loaded
+ * and replaced as a whole, so a request holding one instance never sees a mix of old and new key
+ * material while it is being rotated.
+ *
+ * <p>DCS may sign with any of several certificates while its signing cert is rotated. They are held
+ * with their thumbprints in the same order, the current certificate first.
+ */
+public final class DcsKeyMaterial {
+
+    private final PrivateKey drivingPermitCriSigningKey;
+    private final PrivateKey drivingPermitEncryptionKey;
+    private final Certificate dcsEncryptionCert;
+    private final List<Certificate> dcsSigningCerts;
+    private final List<Thumbprints> dcsSigningCertThumbprints;
+    private final Thumbprints signingCertThumbprints;
+
+    public DcsKeyMaterial(
+            PrivateKey drivingPermitCriSigningKey,
+            PrivateKey drivingPermitEncryptionKey,
+            Certificate dcsEncryptionCert,
+            List<Certificate> dcsSigningCerts,
+            List<Thumbprints> dcsSigningCertThumbprints,
+            Thumbprints signingCertThumbprints) {
+        if (dcsSigningCerts.isEmpty()) {
+            throw new IllegalArgumentException("At least one DCS signing cert must be specified");
+        }
+        if (dcsSigningCerts.size() != dcsSigningCertThumbprints.size()) {
+            throw new IllegalArgumentException(
+                    "Each DCS signing cert must have exactly one set of thumbprints");
+        }
+        this.drivingPermitCriSigningKey = drivingPermitCriSigningKey;
+        this.drivingPermitEncryptionKey = drivingPermitEncryptionKey;
+        this.dcsEncryptionCert = dcsEncryptionCert;
+        this.dcsSigningCerts = List.copyOf(dcsSigningCerts);
+        this.dcsSigningCertThumbprints = List.copyOf(dcsSigningCertThumbprints);
+        this.signingCertThumbprints = signingCertThumbprints;
+    }
+
+    public PrivateKey getDrivingPermitCriSigningKey() {
+        return drivingPermitCriSigningKey;
+    }
+
+    public PrivateKey getDrivingPermitEncryptionKey() {
+        return drivingPermitEncryptionKey;
+    }
+
+    public Certificate getDcsEncryptionCert() {
+        return dcsEncryptionCert;
+    }
+
+    /** The certificate DCS currently signs with. */
+    public Certificate getDcsSigningCert() {
+        return dcsSigningCerts.get(0);
+    }
+
+    public List<Certificate> getDcsSigningCerts() {
+        return dcsSigningCerts;
+    }
+
+    public List<Thumbprints> getDcsSigningCertThumbprints() {
+        return dcsSigningCertThumbprints;
+    }
+
+    public Thumbprints getSigningCertThumbprints() {
+        return signingCertThumbprints;
+    }
+}
@@ -0,0 +1,89 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.service;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.util.Base64URL;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.Thumbprints;
+
+import java.security.cert.Certificate;
+import java.security.interfaces.RSAPublicKey;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifies DCS signatures against whichever of the trusted DCS signing certs the message names in
+ * its x5t#S256 or x5t header. The verifier is found with one map lookup, so trusting an old and a
+ * new certificate while DCS rotates costs no more than trusting one.
+ *
+ * <p>A message without either header, or naming a certificate we do not hold, is verified against
+ * the current certificate as it was before more than one could be trusted.
+ */
+final class DcsSignatureVerifier {
+
+    private final RSASSAVerifier currentVerifier;
+    private final Map<String, RSASSAVerifier> verifiersBySha256Thumbprint;
+    private final Map<String, RSASSAVerifier> verifiersBySha1Thumbprint;
+
+    private DcsSignatureVerifier(
+            List<Certificate> dcsSigningCerts,
+            List<Thumbprints> dcsSigningCertThumbprints,
+            DcsSignatureVerifier previous) {
+        this.verifiersBySha256Thumbprint = new HashMap<>();
+        this.verifiersBySha1Thumbprint = new HashMap<>();
+
+        RSASSAVerifier current = null;
+        for (int i = 0; i < dcsSigningCerts.size(); i++) {
+            Thumbprints thumbprints = dcsSigningCertThumbprints.get(i);
+
+            // The public key of a certificate that is still trusted after a reload is unchanged
+            RSASSAVerifier verifier =
+                    previous == null
+                            ? null
+                            : previous.verifiersBySha256Thumbprint.get(
+                                    thumbprints.getSha256Thumbprint());
+            if (verifier == null) {
+                verifier =
+                        new RSASSAVerifier((RSAPublicKey) dcsSigningCerts.get(i).getPublicKey());
+            }
+
+            verifiersBySha256Thumbprint.put(thumbprints.getSha256Thumbprint(), verifier);
+            verifiersBySha1Thumbprint.put(thumbprints.getSha1Thumbprint(), verifier);
+            if (current == null) {
+                current = verifier;
+            }
+        }
+        this.currentVerifier = current;
+    }
+
+    /**
+     * Builds the verifiers for the DCS signing certs in the key material, reusing those of the
+     * previous instance for certificates it already held.
+     */
+    static DcsSignatureVerifier create(DcsKeyMaterial keyMaterial, DcsSignatureVerifier previous) {
+        return new DcsSignatureVerifier(
+                keyMaterial.getDcsSigningCerts(),
+                keyMaterial.getDcsSigningCertThumbprints(),
+                previous);
+    }
+
+    boolean verify(JWSObject jwsObject) throws JOSEException {
+        return jwsObject.verify(selectVerifier(jwsObject.getHeader()));
+    }
+
+    @SuppressWarnings("deprecation") // x5t is deprecated in favour of x5t#S256, DCS may send either
+    RSASSAVerifier selectVerifier(JWSHeader header) {
+        RSASSAVerifier verifier = null;
+
+        Base64URL sha256Thumbprint = header.getX509CertSHA256Thumbprint();
+        if (sha256Thumbprint != null) {
+            verifier = verifiersBySha256Thumbprint.get(sha256Thumbprint.toString());
+        } else if (header.getX509CertThumbprint() != null) {
+            verifier = verifiersBySha1Thumbprint.get(header.getX509CertThumbprint().toString());
+        }
+
+        return verifier == null ? currentVerifier : verifier;
+    }
+}
@@ -4,7 +4,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import software.amazon.awssdk.http.HttpStatusCode;
-import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckResult;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckVerificationResult;
@@ -38,7 +37,6 @@ public class IdentityVerificationService {
 
     private final FormDataValidator formDataValidator;
     private final ThirdPartyDocumentGateway thirdPartyGateway;
-    private final AuditService auditService;
     private final ObjectMapper objectMapper;
 
     private final EventProbe eventProbe;
@@ -47,25 +45,60 @@ public class IdentityVerificationService {
             ThirdPartyDocumentGateway thirdPartyGateway,
             FormDataValidator formDataValidator,
             ContraindicationMapper contraindicationMapper,
-            AuditService auditService,
             ConfigurationService configurationService,
             ObjectMapper objectMapper,
             EventProbe eventProbe) {
         this.thirdPartyGateway = thirdPartyGateway;
         this.formDataValidator = formDataValidator;
-        this.auditService = auditService;
         this.objectMapper = objectMapper;
         this.eventProbe = eventProbe;
     }
 
+    /**
+     * Validates the form and prepares the DCS request ahead of {@link #verifyIdentity}, so it can
+     * run alongside other work. Has no side effects, an invalid form or a failure to prepare the
+     * request is held in the result and reported by verifyIdentity, which does not validate again.
+     */
+    public PreparedDocumentCheck prepareDocumentCheck(DrivingPermitForm drivingPermitData) {
+        ValidationResult<List<String>> validationResult =
+                this.formDataValidator.validate(drivingPermitData);
+        if (!validationResult.isValid()) {
+            return PreparedDocumentCheck.invalid(drivingPermitData, validationResult);
+        }
+
+        try {
+            return PreparedDocumentCheck.prepared(
+                    drivingPermitData, thirdPartyGateway.prepareDocumentCheck(drivingPermitData));
+        } catch (Exception e) {
+            return PreparedDocumentCheck.failed(drivingPermitData, e);
+        }
+    }
+
     public DocumentCheckVerificationResult verifyIdentity(DrivingPermitForm drivingPermitData)
             throws OAuthHttpResponseExceptionWithErrorBody {
+        return verifyIdentity(drivingPermitData, null);
+    }
+
+    /**
+     * As {@link #verifyIdentity(DrivingPermitForm)}, using the validation result and request from
+     * {@link #prepareDocumentCheck} when they were prepared from this form.
+     */
+    public DocumentCheckVerificationResult verifyIdentity(
+            DrivingPermitForm drivingPermitData, PreparedDocumentCheck preparedDocumentCheck)
+            throws OAuthHttpResponseExceptionWithErrorBody {
         DocumentCheckVerificationResult result = new DocumentCheckVerificationResult();
+        boolean prepared =
+                preparedDocumentCheck != null
+                        && preparedDocumentCheck.getDrivingPermitForm() == drivingPermitData;
 
         try {
-            LOGGER.info("Validating form data...");
-            ValidationResult<List<String>> validationResult =
-                    this.formDataValidator.validate(drivingPermitData);
+            ValidationResult<List<String>> validationResult;
+            if (prepared) {
+                validationResult = preparedDocumentCheck.getValidationResult();
+            } else {
+                LOGGER.info("Validating form data...");
+                validationResult = this.formDataValidator.validate(drivingPermitData);
+            }
             if (!validationResult.isValid()) {
                 String errorMessages = String.join(",", validationResult.getError());
                 LOGGER.error(
@@ -80,8 +113,17 @@ public class IdentityVerificationService {
             LOGGER.info("Form data validated");
             eventProbe.counterMetric(FORM_DATA_VALIDATION_PASS);
 
-            DocumentCheckResult documentCheckResult =
-                    thirdPartyGateway.performDocumentCheck(drivingPermitData);
+            DocumentCheckResult documentCheckResult;
+            if (prepared && preparedDocumentCheck.getPrepareFailure() != null) {
+                // Reported as if the request had been prepared here
+                throw preparedDocumentCheck.getPrepareFailure();
+            } else if (prepared) {
+                documentCheckResult =
+                        thirdPartyGateway.performDocumentCheck(
+                                preparedDocumentCheck.getDocumentCheckRequest());
+            } else {
+                documentCheckResult = thirdPartyGateway.performDocumentCheck(drivingPermitData);
+            }
 
             LOGGER.info("Third party response mapped");
             if (Objects.nonNull(documentCheckResult)) {
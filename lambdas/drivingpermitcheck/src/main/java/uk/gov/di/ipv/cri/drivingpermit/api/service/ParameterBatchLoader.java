@@ -0,0 +1,88 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.service;
+
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParametersRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import software.amazon.awssdk.services.ssm.model.ParameterNotFoundException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Fetches SSM parameters by name with GetParameters, which returns up to ten parameters in one
+ * round trip, in place of a GetParameter call for each. The calls for a larger list of names run at
+ * the same time on the executor.
+ */
+public class ParameterBatchLoader {
+
+    // The most names GetParameters accepts in one call
+    static final int MAX_NAMES_PER_REQUEST = 10;
+
+    private final SsmClient ssmClient;
+    private final Executor executor;
+
+    public ParameterBatchLoader(SsmClient ssmClient, Executor executor) {
+        this.ssmClient = ssmClient;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the decrypted values keyed by parameter name. Completes exceptionally with {@link
+     * ParameterNotFoundException} when any of the names does not exist.
+     */
+    public CompletableFuture<Map<String, String>> load(List<String> names) {
+        return load(names, true);
+    }
+
+    /**
+     * Returns the decrypted values keyed by parameter name, leaving out any of the names that do
+     * not exist, for settings that fall back to a default when their parameter is not created.
+     */
+    public CompletableFuture<Map<String, String>> loadIfPresent(List<String> names) {
+        return load(names, false);
+    }
+
+    private CompletableFuture<Map<String, String>> load(List<String> names, boolean required) {
+        List<CompletableFuture<Map<String, String>>> requests = new ArrayList<>();
+        for (int start = 0; start < names.size(); start += MAX_NAMES_PER_REQUEST) {
+            List<String> batch =
+                    names.subList(start, Math.min(names.size(), start + MAX_NAMES_PER_REQUEST));
+            requests.add(
+                    CompletableFuture.supplyAsync(() -> getParameters(batch, required), executor));
+        }
+
+        return CompletableFuture.allOf(requests.toArray(new CompletableFuture[0]))
+                .thenApply(
+                        ignored -> {
+                            Map<String, String> values = new HashMap<>();
+                            requests.forEach(request -> values.putAll(request.join()));
+                            return values;
+                        });
+    }
+
+    private Map<String, String> getParameters(List<String> names, boolean required) {
+        GetParametersResponse response =
+                ssmClient.getParameters(
+                        GetParametersRequest.builder().names(names).withDecryption(true).build());
+
+        // Unlike GetParameter, names that do not exist are listed rather than thrown
+        if (required
+                && response.hasInvalidParameters()
+                && !response.invalidParameters().isEmpty()) {
+            throw ParameterNotFoundException.builder()
+                    .message("Parameters not found: " + response.invalidParameters())
+                    .build();
+        }
+
+        Map<String, String> values = new HashMap<>();
+        for (Parameter parameter : response.parameters()) {
+            values.put(parameter.name(), parameter.value());
+        }
+        return values;
+    }
+}
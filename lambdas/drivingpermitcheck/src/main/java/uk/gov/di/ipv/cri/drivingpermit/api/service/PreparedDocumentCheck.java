@@ -0,0 +1,70 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.service;
+
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.ValidationResult;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.DocumentCheckRequest;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
+
+import java.util.List;
+
+/**
+ * The outcome of {@link IdentityVerificationService#prepareDocumentCheck}: the result of validating
+ * the form and, when it was valid, either the DCS request prepared from it or the exception that
+ * stopped the request being prepared. Nothing is reported until it is passed to verifyIdentity.
+ */
+public class PreparedDocumentCheck {
+
+    private final DrivingPermitForm drivingPermitForm;
+    private final ValidationResult<List<String>> validationResult;
+    private final DocumentCheckRequest documentCheckRequest;
+    private final Exception prepareFailure;
+
+    private PreparedDocumentCheck(
+            DrivingPermitForm drivingPermitForm,
+            ValidationResult<List<String>> validationResult,
+            DocumentCheckRequest documentCheckRequest,
+            Exception prepareFailure) {
+        this.drivingPermitForm = drivingPermitForm;
+        this.validationResult = validationResult;
+        this.documentCheckRequest = documentCheckRequest;
+        this.prepareFailure = prepareFailure;
+    }
+
+    static PreparedDocumentCheck invalid(
+            DrivingPermitForm drivingPermitForm, ValidationResult<List<String>> validationResult) {
+        return new PreparedDocumentCheck(drivingPermitForm, validationResult, null, null);
+    }
+
+    static PreparedDocumentCheck prepared(
+            DrivingPermitForm drivingPermitForm, DocumentCheckRequest documentCheckRequest) {
+        return new PreparedDocumentCheck(
+                drivingPermitForm,
+                ValidationResult.createValidResult(),
+                documentCheckRequest,
+                null);
+    }
+
+    static PreparedDocumentCheck failed(
+            DrivingPermitForm drivingPermitForm, Exception prepareFailure) {
+        return new PreparedDocumentCheck(
+                drivingPermitForm, ValidationResult.createValidResult(), null, prepareFailure);
+    }
+
+    /** The form that was validated and the request prepared from. */
+    public DrivingPermitForm getDrivingPermitForm() {
+        return drivingPermitForm;
+    }
+
+    public ValidationResult<List<String>> getValidationResult() {
+        return validationResult;
+    }
+
+    /** Null when the form was invalid or the request could not be prepared. */
+    public DocumentCheckRequest getDocumentCheckRequest() {
+        return documentCheckRequest;
+    }
+
+    /** Null unless the form was valid but preparing the request threw. */
+    public Exception getPrepareFailure() {
+        return prepareFailure;
+    }
+}
@@ -2,19 +2,51 @@ package uk.gov.di.ipv.cri.drivingpermit.api.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.http.HttpException;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.ssl.SSLContexts;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
 import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.ssm.SsmClient;
 import software.amazon.lambda.powertools.parameters.ParamManager;
 import uk.gov.di.ipv.cri.common.library.annotations.ExcludeFromGeneratedCoverageReport;
 import uk.gov.di.ipv.cri.common.library.service.AuditEventFactory;
 import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.CircuitBreakerConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HttpClientConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.ServiceInitConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.DcsConnectionWarmer;
 import uk.gov.di.ipv.cri.drivingpermit.api.gateway.HttpRetryer;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.InstrumentedConnectionManager;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.InstrumentedSSLConnectionSocketFactory;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.ResponseBodyReader;
 import uk.gov.di.ipv.cri.drivingpermit.api.gateway.ThirdPartyDocumentGateway;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker.CircuitBreakerRegistry;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker.DynamoDbCircuitState;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker.SharedCircuitState;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.retry.RetryPolicy;
+import uk.gov.di.ipv.cri.drivingpermit.api.util.Lazy;
+import uk.gov.di.ipv.cri.drivingpermit.api.util.RequestDeadline;
+import uk.gov.di.ipv.cri.drivingpermit.library.audit.AuditEventPublisher;
+import uk.gov.di.ipv.cri.drivingpermit.library.sdk.SdkClients;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ParallelTaskExecutor;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RandomIds;
 
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
 
 import java.io.IOException;
 import java.security.InvalidKeyException;
@@ -28,18 +60,46 @@ import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.spec.InvalidKeySpecException;
 import java.time.Clock;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-public class ServiceFactory {
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.SERVICE_CREATION_DURATION_PREFIX;
+
+public class ServiceFactory implements Resource {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // Enough for the ten GetParameters calls made at init to run at once, which also covers the
+    // steps the check handler runs at the same time
+    private static final int PARALLEL_TASK_THREADS = 10;
+    // How long a restore waits for expired DCS keys to reload before going on with those held
+    private static final long RESTORE_KEY_RELOAD_TIMEOUT_MS = 2000;
+
+    private final ThirdPartyDocumentGateway thirdPartyDocumentGateway;
     private final IdentityVerificationService identityVerificationService;
-    private final ContraindicationMapper contraindicationMapper;
     private final DcsCryptographyService dcsCryptographyService;
     private final ConfigurationService configurationService;
     private final FormDataValidator formDataValidator;
     private final ObjectMapper objectMapper;
-    private final CloseableHttpClient httpClient;
-    private final AuditService auditService;
+    private final AuditEventPublisher auditEventPublisher;
     private final HttpRetryer httpRetryer;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
     private final EventProbe eventProbe;
+    private final RequestDeadline requestDeadline;
+    private final ParallelTaskExecutor parallelTaskExecutor;
+    private final Random retryRandom;
+
+    // Created during init or on first use, as set by the ServiceInit parameters
+    private final Lazy<CloseableHttpClient> httpClient;
+    private final Lazy<ContraindicationMapper> contraindicationMapper;
+    private final Lazy<SqsAsyncClient> auditSqsAsyncClient;
+    private final Lazy<AuditService> auditService;
+    private final DcsConnectionWarmer dcsConnectionWarmer;
+
+    // Set once this environment has been restored from a SnapStart snapshot
+    private volatile boolean restoredFromSnapshot;
 
     public ServiceFactory(ObjectMapper objectMapper)
             throws NoSuchAlgorithmException, InvalidKeyException, CertificateException,
@@ -47,13 +107,57 @@ public class ServiceFactory {
         this.objectMapper = objectMapper;
         this.eventProbe = new EventProbe();
         this.formDataValidator = new FormDataValidator();
+        // Created first so init can load parameters on its threads
+        this.parallelTaskExecutor =
+                ParallelTaskExecutor.withDaemonThreads("check-task", PARALLEL_TASK_THREADS);
         this.configurationService = createConfigurationService();
         this.dcsCryptographyService = new DcsCryptographyService(configurationService);
-        this.contraindicationMapper = new ContraIndicatorRemoteMapper(configurationService);
-        this.httpClient = generateHttpClient(configurationService);
-        this.auditService = createAuditService(this.objectMapper);
-        this.httpRetryer = new HttpRetryer(httpClient, eventProbe);
-        this.identityVerificationService = createIdentityVerificationService(this.auditService);
+        this.contraindicationMapper =
+                new Lazy<>(
+                        "contraindication_mapper",
+                        () -> new ContraIndicatorRemoteMapper(configurationService));
+        this.httpClient =
+                new Lazy<>(
+                        "dcs_http_client",
+                        () -> generateHttpClient(configurationService, eventProbe));
+        this.auditService = new Lazy<>("audit_service", () -> createAuditService(objectMapper));
+        this.auditSqsAsyncClient =
+                new Lazy<>(
+                        "audit_sqs_async_client",
+                        () -> SdkClients.async(SqsAsyncClient.builder()).build());
+        this.auditEventPublisher = createAuditEventPublisher(this.objectMapper);
+        this.requestDeadline = new RequestDeadline(Clock.systemUTC());
+        this.retryRandom = new Random(RandomIds.getInstance().nextSeed());
+        this.httpRetryer =
+                new HttpRetryer(
+                        httpClient,
+                        new RetryPolicy(
+                                configurationService.getHttpRetryConfig(),
+                                requestDeadline,
+                                retryRandom),
+                        new ResponseBodyReader(
+                                configurationService.getHttpClientConfig().getMaxResponseBytes()),
+                        eventProbe);
+        this.circuitBreakerRegistry =
+                createCircuitBreakerRegistry(configurationService.getCircuitBreakerConfig());
+        this.thirdPartyDocumentGateway = createThirdPartyDocumentGateway();
+        this.identityVerificationService = createIdentityVerificationService();
+        this.dcsConnectionWarmer = new DcsConnectionWarmer(httpClient, configurationService);
+
+        ServiceInitConfig serviceInitConfig = configurationService.getServiceInitConfig();
+        initialiseUnlessOnDemand(
+                contraindicationMapper, serviceInitConfig.isContraindicationMapperOnDemand());
+        initialiseUnlessOnDemand(
+                auditSqsAsyncClient, serviceInitConfig.isAuditEventPublisherOnDemand());
+        initialiseUnlessOnDemand(auditService, serviceInitConfig.isAuditServiceOnDemand());
+        if (!serviceInitConfig.isDcsHttpClientOnDemand()) {
+            // Only done here (during Lambda init) so the connection is pooled for the first request
+            httpClient.get();
+            dcsConnectionWarmer.warmUp();
+        }
+
+        // Only the Lambda constructor registers, for the hooks run around a SnapStart snapshot
+        Core.getGlobalContext().register(this);
     }
 
     @ExcludeFromGeneratedCoverageReport
@@ -66,25 +170,87 @@ public class ServiceFactory {
             FormDataValidator formDataValidator,
             CloseableHttpClient httpClient,
             AuditService auditService,
-            HttpRetryer httpRetryer)
+            HttpRetryer httpRetryer,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            AuditEventPublisher auditEventPublisher)
             throws NoSuchAlgorithmException, InvalidKeyException {
         this.objectMapper = objectMapper;
         this.eventProbe = eventProbe;
         this.configurationService = configurationService;
         this.dcsCryptographyService = dcsCryptographyService;
-        this.contraindicationMapper = contraindicationMapper;
+        this.contraindicationMapper =
+                new Lazy<>("contraindication_mapper", () -> contraindicationMapper);
         this.formDataValidator = formDataValidator;
-        this.httpClient = httpClient;
-        this.auditService = auditService;
+        this.httpClient = new Lazy<>("dcs_http_client", () -> httpClient);
+        this.auditService = new Lazy<>("audit_service", () -> auditService);
+        // Only used through the AuditEventPublisher passed in
+        this.auditSqsAsyncClient = new Lazy<>("audit_sqs_async_client", () -> null);
+        this.auditEventPublisher = auditEventPublisher;
         this.httpRetryer = httpRetryer;
-        this.identityVerificationService = createIdentityVerificationService(this.auditService);
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.requestDeadline = new RequestDeadline(Clock.systemUTC());
+        this.retryRandom = new Random();
+        this.parallelTaskExecutor =
+                ParallelTaskExecutor.withDaemonThreads("check-task", PARALLEL_TASK_THREADS);
+        this.thirdPartyDocumentGateway = createThirdPartyDocumentGateway();
+        this.identityVerificationService = createIdentityVerificationService();
+        this.dcsConnectionWarmer = new DcsConnectionWarmer(this.httpClient, configurationService);
+    }
+
+    /**
+     * Closes the pooled DCS connections before the snapshot is taken, as they would be long dead by
+     * the time it is restored. The warm up outcome and parameter load durations measured during
+     * init are dropped, they describe the snapshot rather than any environment restored from it.
+     */
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) throws IOException {
+        dcsConnectionWarmer.discardMetrics();
+        configurationService.discardLoadMetrics();
+
+        CloseableHttpClient client = httpClient.reset();
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    /**
+     * Reseeds the request IDs and retry jitter, which would otherwise repeat in every environment
+     * restored from the snapshot, and reloads the DCS keys if they have expired since it was taken.
+     * The DCS connection pool is then created again, and warmed up, unless it is left on demand.
+     */
+    @Override
+    public void afterRestore(Context<? extends Resource> context) throws InterruptedException {
+        restoredFromSnapshot = true;
+        RandomIds.getInstance().reseed();
+        retryRandom.setSeed(RandomIds.getInstance().nextSeed());
+
+        try {
+            configurationService
+                    .refreshDcsKeyMaterialIfExpired()
+                    .get(RESTORE_KEY_RELOAD_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            LOGGER.warn("DCS keys not reloaded after restore, going on with those held", e);
+        }
+
+        if (!configurationService.getServiceInitConfig().isDcsHttpClientOnDemand()) {
+            httpClient.get();
+            dcsConnectionWarmer.warmUp();
+        }
+    }
+
+    private static void initialiseUnlessOnDemand(Lazy<?> service, boolean onDemand) {
+        if (!onDemand) {
+            service.get();
+        }
     }
 
     private ConfigurationService createConfigurationService()
             throws CertificateException, NoSuchAlgorithmException, InvalidKeySpecException {
         return new ConfigurationService(
                 ParamManager.getSecretsProvider(),
-                ParamManager.getSsmProvider(),
+                new ParameterBatchLoader(
+                        SdkClients.sync(SsmClient.builder()).build(), parallelTaskExecutor),
+                eventProbe,
                 System.getenv("ENVIRONMENT"));
     }
 
@@ -96,44 +262,108 @@ public class ServiceFactory {
         return this.identityVerificationService;
     }
 
-    private IdentityVerificationService createIdentityVerificationService(
-            AuditService auditService) {
-
-        ThirdPartyDocumentGateway thirdPartyGateway =
-                new ThirdPartyDocumentGateway(
-                        this.objectMapper,
-                        this.dcsCryptographyService,
-                        this.configurationService,
-                        this.httpRetryer,
-                        eventProbe);
+    private ThirdPartyDocumentGateway createThirdPartyDocumentGateway() {
+        return new ThirdPartyDocumentGateway(
+                this.objectMapper,
+                this.dcsCryptographyService,
+                this.configurationService,
+                this.httpRetryer,
+                this.circuitBreakerRegistry,
+                eventProbe);
+    }
 
+    private IdentityVerificationService createIdentityVerificationService() {
         return new IdentityVerificationService(
-                thirdPartyGateway,
+                thirdPartyDocumentGateway,
                 this.formDataValidator,
-                this.contraindicationMapper,
-                auditService,
+                fraudCodes -> contraindicationMapper.get().mapThirdPartyFraudCodes(fraudCodes),
                 configurationService,
                 objectMapper,
                 eventProbe);
     }
 
+    /** Created on the first call unless the ServiceInit parameters ask for it during init. */
     public AuditService getAuditService() {
-        return auditService;
+        return auditService.get();
+    }
+
+    public AuditEventPublisher getAuditEventPublisher() {
+        return auditEventPublisher;
+    }
+
+    public RequestDeadline getRequestDeadline() {
+        return requestDeadline;
+    }
+
+    public ParallelTaskExecutor getParallelTaskExecutor() {
+        return parallelTaskExecutor;
+    }
+
+    /** Whether init ran for a snapshot this environment was restored from, not for it. */
+    public boolean isRestoredFromSnapshot() {
+        return restoredFromSnapshot;
+    }
+
+    /**
+     * Emits how long each service took to create, once it has been, whether that was during init
+     * or on demand in the invocation that first used it, and the outcome of the DCS connection warm
+     * up done during init or after a restore.
+     */
+    public void publishServiceCreationMetrics() {
+        for (Lazy<?> service :
+                List.of(httpClient, contraindicationMapper, auditSqsAsyncClient, auditService)) {
+            service.publishMetrics(eventProbe, SERVICE_CREATION_DURATION_PREFIX);
+        }
+        dcsConnectionWarmer.publishMetrics(eventProbe);
+    }
+
+    /** Emits the counts of hedged DCS requests sent and won since the last call. */
+    public void publishDcsRequestMetrics() {
+        thirdPartyDocumentGateway.publishHedgeMetrics();
+    }
+
+    private CircuitBreakerRegistry createCircuitBreakerRegistry(
+            CircuitBreakerConfig circuitBreakerConfig) {
+        SharedCircuitState sharedCircuitState = SharedCircuitState.NONE;
+        if (circuitBreakerConfig.isSharedStateEnabled()) {
+            sharedCircuitState =
+                    new DynamoDbCircuitState(
+                            circuitBreakerConfig.getSharedStateTableName(),
+                            SdkClients.dynamoDbEnhancedClient());
+        }
+
+        return new CircuitBreakerRegistry(
+                circuitBreakerConfig,
+                sharedCircuitState,
+                parallelTaskExecutor,
+                Clock.systemUTC(),
+                eventProbe);
     }
 
     private AuditService createAuditService(ObjectMapper objectMapper) {
         var commonLibConfigurationService =
                 new uk.gov.di.ipv.cri.common.library.service.ConfigurationService();
         return new AuditService(
-                SqsClient.builder().build(),
+                SdkClients.sync(SqsClient.builder()).build(),
                 commonLibConfigurationService,
                 objectMapper,
                 new AuditEventFactory(commonLibConfigurationService, Clock.systemUTC()));
     }
 
+    private AuditEventPublisher createAuditEventPublisher(ObjectMapper objectMapper) {
+        var commonLibConfigurationService =
+                new uk.gov.di.ipv.cri.common.library.service.ConfigurationService();
+        return new AuditEventPublisher(
+                auditSqsAsyncClient,
+                commonLibConfigurationService.getSqsAuditEventQueueUrl(),
+                objectMapper,
+                new AuditEventFactory(commonLibConfigurationService, Clock.systemUTC()));
+    }
+
     private static final char[] password = "password".toCharArray();
 
-    public static CloseableHttpClient generateHttpClient(ConfigurationService configurationService)
+    public static CloseableHttpClient generateHttpClient(
+            ConfigurationService configurationService, EventProbe eventProbe)
             throws NoSuchAlgorithmException, CertificateException, KeyStoreException, IOException,
                     HttpException {
         KeyStore keystoreTLS =
@@ -148,10 +378,15 @@ public class ServiceFactory {
                             configurationService.getDcsIntermediateCert()
                         });
 
-        return contextSetup(keystoreTLS, trustStore);
+        return contextSetup(
+                keystoreTLS, trustStore, configurationService.getHttpClientConfig(), eventProbe);
     }
 
-    private static CloseableHttpClient contextSetup(KeyStore clientTls, KeyStore caBundle)
+    private static CloseableHttpClient contextSetup(
+            KeyStore clientTls,
+            KeyStore caBundle,
+            HttpClientConfig httpClientConfig,
+            EventProbe eventProbe)
             throws HttpException {
         try {
             SSLContext sslContext =
@@ -160,7 +395,62 @@ public class ServiceFactory {
                             .loadTrustMaterial(caBundle, null)
                             .build();
 
-            return HttpClients.custom().setSSLContext(sslContext).build();
+            // Sessions are cached per host and port, so a new connection to DCS can resume the
+            // previous TLS session rather than repeat the full mutual TLS handshake
+            SSLSessionContext clientSessionContext = sslContext.getClientSessionContext();
+            clientSessionContext.setSessionCacheSize(httpClientConfig.getTlsSessionCacheSize());
+            clientSessionContext.setSessionTimeout(httpClientConfig.getTlsSessionTimeoutSeconds());
+
+            Registry<ConnectionSocketFactory> socketFactoryRegistry =
+                    RegistryBuilder.<ConnectionSocketFactory>create()
+                            .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                            .register(
+                                    "https",
+                                    new InstrumentedSSLConnectionSocketFactory(
+                                            sslContext, eventProbe))
+                            .build();
+
+            InstrumentedConnectionManager connectionManager =
+                    new InstrumentedConnectionManager(socketFactoryRegistry, eventProbe);
+            connectionManager.setMaxTotal(httpClientConfig.getMaxConnections());
+            connectionManager.setDefaultMaxPerRoute(httpClientConfig.getMaxConnectionsPerRoute());
+            connectionManager.setValidateAfterInactivity(
+                    httpClientConfig.getValidateAfterInactivityMs());
+            connectionManager.setDefaultSocketConfig(
+                    SocketConfig.custom()
+                            .setSoKeepAlive(true)
+                            .setSoTimeout(httpClientConfig.getSocketTimeoutMs())
+                            .build());
+
+            RequestConfig requestConfig =
+                    RequestConfig.custom()
+                            .setConnectTimeout(httpClientConfig.getConnectTimeoutMs())
+                            .setSocketTimeout(httpClientConfig.getSocketTimeoutMs())
+                            .setConnectionRequestTimeout(
+                                    httpClientConfig.getConnectionRequestTimeoutMs())
+                            .build();
+
+            return HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(requestConfig)
+                    .setKeepAliveStrategy(
+                            (response, context) -> {
+                                long serverKeepAliveMs =
+                                        DefaultConnectionKeepAliveStrategy.INSTANCE
+                                                .getKeepAliveDuration(response, context);
+                                return serverKeepAliveMs > 0
+                                        ? Math.min(
+                                                serverKeepAliveMs,
+                                                httpClientConfig.getKeepAliveMs())
+                                        : httpClientConfig.getKeepAliveMs();
+                            })
+                    .evictExpiredConnections()
+                    .evictIdleConnections(
+                            httpClientConfig.getIdleConnectionEvictionMs(), TimeUnit.MILLISECONDS)
+                    // With a client certificate each connection would otherwise be tagged with
+                    // the TLS principal and never be leased again for a new request context
+                    .disableConnectionState()
+                    .build();
         } catch (NoSuchAlgorithmException
                 | KeyManagementException
                 | KeyStoreException
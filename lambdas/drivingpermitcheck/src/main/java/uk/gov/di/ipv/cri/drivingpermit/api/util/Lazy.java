@@ -0,0 +1,91 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A component created by the first call to {@link #get()}, which may be during init or in the
+ * first request that needs it. Creation is timed, and the duration emitted once by {@link
+ * #publishMetrics(EventProbe, String)} from the handler thread, as the first call may be on a task
+ * thread.
+ *
+ * <p>A creation that fails is not remembered, the next call tries again.
+ */
+public class Lazy<T> implements Supplier<T> {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    @FunctionalInterface
+    public interface Factory<T> {
+        T create() throws Exception;
+    }
+
+    private final String name;
+    private final Factory<T> factory;
+
+    private volatile T value;
+    private volatile long creationDurationMs = -1;
+    private boolean published;
+
+    public Lazy(String name, Factory<T> factory) {
+        this.name = name;
+        this.factory = factory;
+    }
+
+    private synchronized T create() throws Exception {
+        if (value == null) {
+            long start = System.nanoTime();
+            value = factory.create();
+            creationDurationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            LOGGER.info("Created {} in {}ms", name, creationDurationMs);
+        }
+        return value;
+    }
+
+    /**
+     * The component, created on the first call. A checked exception from its factory is thrown
+     * wrapped in an IllegalStateException.
+     */
+    @Override
+    public T get() {
+        T current = value;
+        if (current != null) {
+            return current;
+        }
+        try {
+            return create();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create " + name, e);
+        }
+    }
+
+    public boolean isInitialised() {
+        return value != null;
+    }
+
+    /**
+     * Forgets the component, so the next call to {@link #get()} creates it again, and returns it if
+     * it had been created so the caller can close it.
+     */
+    public synchronized T reset() {
+        T previous = value;
+        value = null;
+        creationDurationMs = -1;
+        published = false;
+        return previous;
+    }
+
+    /** Emits how long the component took to create, once, after it has been created. */
+    public synchronized void publishMetrics(EventProbe eventProbe, String metricPrefix) {
+        if (!published && creationDurationMs >= 0) {
+            eventProbe.counterMetric(metricPrefix + name, creationDurationMs);
+            published = true;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+
+/** Reads typed values from a group of parameters under one path, falling back to a default. */
+public class ParameterMapUtility {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private ParameterMapUtility() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    public static int getInt(Map<String, String> parameters, String name, int defaultValue) {
+        return (int) getLong(parameters, name, defaultValue);
+    }
+
+    /** Only values between 0 and Integer.MAX_VALUE are accepted. */
+    public static long getLong(Map<String, String> parameters, String name, long defaultValue) {
+        String value = getString(parameters, name, null);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            long parsed = Long.parseLong(value.trim());
+            if (parsed >= 0 && parsed <= Integer.MAX_VALUE) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the default
+        }
+
+        LOGGER.warn("Invalid parameter {} '{}', using {}", name, value, defaultValue);
+        return defaultValue;
+    }
+
+    public static boolean getBoolean(
+            Map<String, String> parameters, String name, boolean defaultValue) {
+        String value = getString(parameters, name, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+    }
+
+    public static String getString(
+            Map<String, String> parameters, String name, String defaultValue) {
+        String value = parameters == null ? null : parameters.get(name);
+        return value == null ? defaultValue : value;
+    }
+}
@@ -0,0 +1,139 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A configuration value that is reloaded once it is older than its time to live. The reload runs
+ * in the background, callers are given the value already held until the new one has loaded, so
+ * reading it never waits on SSM. If a reload fails the value held is kept and the reload is tried
+ * again after the retry delay.
+ *
+ * <p>Hits, misses and reload outcomes are counted as they happen, on whichever thread reads the
+ * value, and emitted as metrics by {@link #publishMetrics(EventProbe)} from the handler thread.
+ */
+public class RefreshableValue<T> {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final String name;
+    private final long timeToLiveMs;
+    private final long retryDelayMs;
+    private final Supplier<CompletableFuture<T>> loader;
+    private final Clock clock;
+
+    private volatile Entry<T> entry;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile CompletableFuture<Void> refreshCompleted =
+            CompletableFuture.completedFuture(null);
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger refreshes = new AtomicInteger();
+    private final AtomicInteger refreshFailures = new AtomicInteger();
+
+    public RefreshableValue(
+            String name,
+            T initialValue,
+            Duration timeToLive,
+            Supplier<CompletableFuture<T>> loader,
+            Clock clock) {
+        this.name = name;
+        this.timeToLiveMs = timeToLive.toMillis();
+        this.retryDelayMs = Math.min(timeToLiveMs, MAX_RETRY_DELAY.toMillis());
+        this.loader = loader;
+        this.clock = clock;
+        this.entry = new Entry<>(initialValue, clock.millis() + timeToLiveMs);
+    }
+
+    /** The value held, starting a reload in the background if it has expired. */
+    public T get() {
+        Entry<T> current = entry;
+        if (clock.millis() < current.expiresAtMs) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            refresh();
+        }
+        return current.value;
+    }
+
+    private void refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        CompletableFuture<T> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+
+        refreshCompleted =
+                load.handle(
+                        (value, error) -> {
+                            if (error == null) {
+                                entry = new Entry<>(value, clock.millis() + timeToLiveMs);
+                                refreshes.incrementAndGet();
+                                LOGGER.info("Reloaded {}", name);
+                            } else {
+                                entry = new Entry<>(entry.value, clock.millis() + retryDelayMs);
+                                refreshFailures.incrementAndGet();
+                                LOGGER.warn(
+                                        "Failed to reload {}, keeping the current value",
+                                        name,
+                                        error);
+                            }
+                            refreshing.set(false);
+                            return null;
+                        });
+    }
+
+    /**
+     * Starts a reload if the value has expired, as it may have when restored from a snapshot taken
+     * longer ago than its time to live. The future completes once the reload started, or one
+     * already running, has finished, whether or not it succeeded.
+     */
+    public CompletableFuture<Void> refreshIfExpired() {
+        if (clock.millis() >= entry.expiresAtMs) {
+            refresh();
+        }
+        return refreshCompleted;
+    }
+
+    /** Emits the counts gathered since the last call, prefixed with the name of the value. */
+    public void publishMetrics(EventProbe eventProbe) {
+        publish(eventProbe, "_hit", hits);
+        publish(eventProbe, "_miss", misses);
+        publish(eventProbe, "_refresh_ok", refreshes);
+        publish(eventProbe, "_refresh_failed", refreshFailures);
+    }
+
+    private void publish(EventProbe eventProbe, String suffix, AtomicInteger counter) {
+        int count = counter.getAndSet(0);
+        if (count > 0) {
+            eventProbe.counterMetric(name + suffix, count);
+        }
+    }
+
+    private static final class Entry<T> {
+        private final T value;
+        private final long expiresAtMs;
+
+        private Entry(T value, long expiresAtMs) {
+            this.value = value;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+}
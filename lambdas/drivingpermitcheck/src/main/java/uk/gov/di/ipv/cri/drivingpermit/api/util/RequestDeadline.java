@@ -0,0 +1,33 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.util;
+
+import java.time.Clock;
+
+/**
+ * The time by which the current invocation has to finish. Set by the handler at the start of each
+ * invocation from Context.getRemainingTimeInMillis() and read by anything that needs to bound its
+ * own work, such as retries.
+ */
+public class RequestDeadline {
+
+    private final Clock clock;
+
+    private volatile long deadlineEpochMs = Long.MAX_VALUE;
+
+    public RequestDeadline(Clock clock) {
+        this.clock = clock;
+    }
+
+    public void start(long remainingTimeMs) {
+        this.deadlineEpochMs = clock.millis() + remainingTimeMs;
+    }
+
+    /** Long.MAX_VALUE until the first invocation has started. */
+    public long getRemainingMs() {
+        long deadline = deadlineEpochMs;
+        return deadline == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - clock.millis();
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+}
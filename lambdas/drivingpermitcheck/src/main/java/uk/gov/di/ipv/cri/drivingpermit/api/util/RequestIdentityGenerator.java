@@ -0,0 +1,65 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.util;
+
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RandomIds;
+
+import java.time.Clock;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The correlation and request IDs and the timestamp each DCS request is stamped with. The
+ * timestamp is formatted as SimpleDateFormat formatted it, in the zone of the clock, but with one
+ * immutable formatter shared by every thread. IDs come from {@link RandomIds}, which keeps a
+ * generator per thread.
+ *
+ * <p>{@link #deterministic(Clock)} numbers the IDs instead, so tests can pin the exact payload.
+ */
+public final class RequestIdentityGenerator {
+
+    private static final String TIMESTAMP_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
+
+    // The JVM default zone, which is what SimpleDateFormat used
+    private static final RequestIdentityGenerator DEFAULT =
+            new RequestIdentityGenerator(Clock.systemDefaultZone());
+
+    private final Clock clock;
+    private final DateTimeFormatter timestampFormatter;
+    private final Supplier<UUID> idSupplier;
+
+    public RequestIdentityGenerator(Clock clock) {
+        this(clock, () -> RandomIds.getInstance().randomUUID());
+    }
+
+    private RequestIdentityGenerator(Clock clock, Supplier<UUID> idSupplier) {
+        this.clock = clock;
+        this.timestampFormatter =
+                DateTimeFormatter.ofPattern(TIMESTAMP_DATE_FORMAT).withZone(clock.getZone());
+        this.idSupplier = idSupplier;
+    }
+
+    /** The generator DCS payloads are stamped by when none is passed in. */
+    public static RequestIdentityGenerator getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * A generator for tests, with IDs numbered from 1 in the order they are drawn, such as
+     * 00000000-0000-4000-8000-000000000001, and timestamps from the given clock.
+     */
+    public static RequestIdentityGenerator deterministic(Clock clock) {
+        AtomicLong counter = new AtomicLong();
+        return new RequestIdentityGenerator(
+                clock, () -> new UUID(0x4000L, 0x8000000000000000L | counter.incrementAndGet()));
+    }
+
+    public UUID nextId() {
+        return idSupplier.get();
+    }
+
+    /** The current time as, for example, 2022-06-01T12:00:00.000+0000. */
+    public String timestamp() {
+        return timestampFormatter.format(clock.instant());
+    }
+}
@@ -0,0 +1,57 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HttpClientConfigTest {
+
+    @Test
+    void shouldUseDefaultsWhenNoParametersAreSet() {
+        HttpClientConfig httpClientConfig = new HttpClientConfig(Map.of());
+
+        assertEquals(
+                HttpClientConfig.DEFAULT_MAX_CONNECTIONS, httpClientConfig.getMaxConnections());
+        assertEquals(
+                HttpClientConfig.DEFAULT_CONNECT_TIMEOUT_MS,
+                httpClientConfig.getConnectTimeoutMs());
+        assertEquals(HttpClientConfig.DEFAULT_KEEP_ALIVE_MS, httpClientConfig.getKeepAliveMs());
+        assertEquals(
+                HttpClientConfig.DEFAULT_TLS_SESSION_TIMEOUT_SECONDS,
+                httpClientConfig.getTlsSessionTimeoutSeconds());
+    }
+
+    @Test
+    void shouldReadParametersWhenSet() {
+        HttpClientConfig httpClientConfig =
+                new HttpClientConfig(
+                        Map.of(
+                                "MaxConnections",
+                                "4",
+                                "SocketTimeoutMs",
+                                "2500",
+                                "IdleConnectionEvictionMs",
+                                "15000",
+                                "TlsSessionCacheSize",
+                                "1"));
+
+        assertEquals(4, httpClientConfig.getMaxConnections());
+        assertEquals(2500, httpClientConfig.getSocketTimeoutMs());
+        assertEquals(15000L, httpClientConfig.getIdleConnectionEvictionMs());
+        assertEquals(1, httpClientConfig.getTlsSessionCacheSize());
+    }
+
+    @Test
+    void shouldFallBackToDefaultWhenParameterIsInvalid() {
+        HttpClientConfig httpClientConfig =
+                new HttpClientConfig(Map.of("MaxConnections", "ten", "ConnectTimeoutMs", "-1"));
+
+        assertEquals(
+                HttpClientConfig.DEFAULT_MAX_CONNECTIONS, httpClientConfig.getMaxConnections());
+        assertEquals(
+                HttpClientConfig.DEFAULT_CONNECT_TIMEOUT_MS,
+                httpClientConfig.getConnectTimeoutMs());
+    }
+}
@@ -0,0 +1,70 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HttpRetryConfigTest {
+
+    private static final HttpClientConfig DEFAULT_HTTP_CLIENT_CONFIG =
+            new HttpClientConfig(Map.of());
+
+    @Test
+    void shouldUseDefaultsWhenNoParametersAreSet() {
+        HttpRetryConfig httpRetryConfig = new HttpRetryConfig(Map.of(), DEFAULT_HTTP_CLIENT_CONFIG);
+
+        assertEquals(HttpRetryConfig.DEFAULT_STRATEGY, httpRetryConfig.getStrategy());
+        assertEquals(HttpRetryConfig.DEFAULT_MAX_RETRIES, httpRetryConfig.getMaxRetries());
+        assertEquals(
+                HttpRetryConfig.DEFAULT_DEADLINE_MARGIN_MS, httpRetryConfig.getDeadlineMarginMs());
+    }
+
+    @Test
+    void shouldReadStrategyIgnoringCase() {
+        HttpRetryConfig httpRetryConfig =
+                new HttpRetryConfig(
+                        Map.of("Strategy", " decorrelated_jitter "), DEFAULT_HTTP_CLIENT_CONFIG);
+
+        assertEquals("DECORRELATED_JITTER", httpRetryConfig.getStrategy());
+    }
+
+    @Test
+    void shouldFallBackToDefaultStrategyWhenUnknown() {
+        HttpRetryConfig httpRetryConfig =
+                new HttpRetryConfig(Map.of("Strategy", "LINEAR"), DEFAULT_HTTP_CLIENT_CONFIG);
+
+        assertEquals(HttpRetryConfig.DEFAULT_STRATEGY, httpRetryConfig.getStrategy());
+    }
+
+    @Test
+    void shouldRaiseDeadlineMarginToTheRequestTimeouts() {
+        HttpRetryConfig httpRetryConfig =
+                new HttpRetryConfig(Map.of("DeadlineMarginMs", "5000"), DEFAULT_HTTP_CLIENT_CONFIG);
+
+        assertEquals(
+                HttpClientConfig.DEFAULT_CONNECTION_REQUEST_TIMEOUT_MS
+                        + HttpClientConfig.DEFAULT_CONNECT_TIMEOUT_MS
+                        + HttpClientConfig.DEFAULT_SOCKET_TIMEOUT_MS,
+                httpRetryConfig.getDeadlineMarginMs());
+    }
+
+    @Test
+    void shouldKeepDeadlineMarginAboveTheRequestTimeouts() {
+        HttpClientConfig httpClientConfig =
+                new HttpClientConfig(
+                        Map.of(
+                                "ConnectionRequestTimeoutMs",
+                                "500",
+                                "ConnectTimeoutMs",
+                                "1000",
+                                "SocketTimeoutMs",
+                                "2000"));
+
+        HttpRetryConfig httpRetryConfig =
+                new HttpRetryConfig(Map.of("DeadlineMarginMs", "5000"), httpClientConfig);
+
+        assertEquals(5000L, httpRetryConfig.getDeadlineMarginMs());
+    }
+}
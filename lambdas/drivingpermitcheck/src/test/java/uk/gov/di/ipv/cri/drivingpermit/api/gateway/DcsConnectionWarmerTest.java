@@ -0,0 +1,119 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HttpClientConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.service.ConfigurationService;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CONNECTION_WARM_UP_DURATION;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CONNECTION_WARM_UP_FAILED;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CONNECTION_WARM_UP_OK;
+
+@ExtendWith(MockitoExtension.class)
+class DcsConnectionWarmerTest {
+    private static final String TEST_ENDPOINT_URL = "https://test-endpoint.co.uk";
+
+    @Mock private CloseableHttpClient mockHttpClient;
+    @Mock private CloseableHttpResponse mockHttpResponse;
+    @Mock private ConfigurationService mockConfigurationService;
+    @Mock private EventProbe mockEventProbe;
+
+    private DcsConnectionWarmer dcsConnectionWarmer;
+
+    @BeforeEach
+    void setUp() {
+        dcsConnectionWarmer =
+                new DcsConnectionWarmer(() -> mockHttpClient, mockConfigurationService);
+    }
+
+    @Test
+    void shouldNotSendRequestWhenWarmUpDisabled() {
+        when(mockConfigurationService.getHttpClientConfig())
+                .thenReturn(new HttpClientConfig(Map.of()));
+
+        dcsConnectionWarmer.warmUp();
+        dcsConnectionWarmer.publishMetrics(mockEventProbe);
+
+        verifyNoInteractions(mockHttpClient);
+        verifyNoInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldSendHeadRequestToDcsEndpointWhenWarmUpEnabled() throws IOException {
+        when(mockConfigurationService.getHttpClientConfig())
+                .thenReturn(new HttpClientConfig(Map.of("WarmUpEnabled", "true")));
+        when(mockConfigurationService.getDcsEndpointUri()).thenReturn(TEST_ENDPOINT_URL);
+        when(mockHttpResponse.getStatusLine())
+                .thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, 404, "Not Found"));
+        ArgumentCaptor<HttpUriRequest> requestCaptor =
+                ArgumentCaptor.forClass(HttpUriRequest.class);
+        when(mockHttpClient.execute(requestCaptor.capture())).thenReturn(mockHttpResponse);
+
+        dcsConnectionWarmer.warmUp();
+        // Nothing is emitted until the handler thread publishes, then only once
+        verifyNoInteractions(mockEventProbe);
+        dcsConnectionWarmer.publishMetrics(mockEventProbe);
+        dcsConnectionWarmer.publishMetrics(mockEventProbe);
+
+        HttpUriRequest request = requestCaptor.getValue();
+        assertEquals(HttpHead.METHOD_NAME, request.getMethod());
+        assertEquals(TEST_ENDPOINT_URL, request.getURI().toString());
+        verify(mockHttpResponse).close();
+        verify(mockEventProbe).counterMetric(DCS_CONNECTION_WARM_UP_OK);
+        verify(mockEventProbe).counterMetric(eq(DCS_CONNECTION_WARM_UP_DURATION), anyDouble());
+        verify(mockEventProbe, never()).counterMetric(DCS_CONNECTION_WARM_UP_FAILED);
+    }
+
+    @Test
+    void shouldNotThrowWhenWarmUpRequestFails() throws IOException {
+        when(mockConfigurationService.getHttpClientConfig())
+                .thenReturn(new HttpClientConfig(Map.of("WarmUpEnabled", "true")));
+        when(mockConfigurationService.getDcsEndpointUri()).thenReturn(TEST_ENDPOINT_URL);
+        when(mockHttpClient.execute(any(HttpUriRequest.class)))
+                .thenThrow(new IOException("Connection refused"));
+
+        assertDoesNotThrow(() -> dcsConnectionWarmer.warmUp());
+        dcsConnectionWarmer.publishMetrics(mockEventProbe);
+
+        verify(mockEventProbe).counterMetric(DCS_CONNECTION_WARM_UP_FAILED);
+        verify(mockEventProbe, never()).counterMetric(DCS_CONNECTION_WARM_UP_OK);
+    }
+
+    @Test
+    void shouldNotEmitDiscardedOutcome() throws IOException {
+        when(mockConfigurationService.getHttpClientConfig())
+                .thenReturn(new HttpClientConfig(Map.of("WarmUpEnabled", "true")));
+        when(mockConfigurationService.getDcsEndpointUri()).thenReturn(TEST_ENDPOINT_URL);
+        when(mockHttpClient.execute(any(HttpUriRequest.class)))
+                .thenThrow(new IOException("Connection refused"));
+
+        dcsConnectionWarmer.warmUp();
+        dcsConnectionWarmer.discardMetrics();
+        dcsConnectionWarmer.publishMetrics(mockEventProbe);
+
+        verifyNoInteractions(mockEventProbe);
+    }
+}
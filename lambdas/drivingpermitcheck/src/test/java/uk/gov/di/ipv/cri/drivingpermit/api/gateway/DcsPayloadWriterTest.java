@@ -0,0 +1,171 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.DcsPayload;
+import uk.gov.di.ipv.cri.drivingpermit.api.util.RequestIdentityGenerator;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.IssuingAuthority;
+import uk.gov.di.ipv.cri.drivingpermit.library.testdata.DrivingPermitFormTestDataGenerator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class DcsPayloadWriterTest {
+
+    private static final Clock CLOCK =
+            Clock.fixed(Instant.parse("2022-06-01T12:00:00Z"), ZoneOffset.UTC);
+
+    // As the deterministic RequestIdentityGenerator draws them
+    private static final UUID CORRELATION_ID =
+            UUID.fromString("00000000-0000-4000-8000-000000000001");
+    private static final UUID REQUEST_ID = UUID.fromString("00000000-0000-4000-8000-000000000002");
+    private static final String TIMESTAMP = "2022-06-01T12:00:00.000+0000";
+
+    private final ObjectMapper objectMapper =
+            new ObjectMapper().registerModule(new JavaTimeModule());
+    private final DocumentCheckRoutes documentCheckRoutes =
+            DocumentCheckRoutes.create("https://test-endpoint.co.uk");
+
+    @Test
+    void shouldWriteTheDvlaGoldenPayload() throws IOException {
+        assertArrayEquals(
+                readGoldenPayload("dvla.json"),
+                write(createDvlaForm(), IssuingAuthority.DVLA),
+                "written payload differs from dcs-payload/dvla.json");
+    }
+
+    @Test
+    void shouldWriteTheDvaGoldenPayload() throws IOException {
+        assertArrayEquals(
+                readGoldenPayload("dva.json"),
+                write(createDvaForm(), IssuingAuthority.DVA),
+                "written payload differs from dcs-payload/dva.json");
+    }
+
+    @Test
+    void shouldMatchTheDcsPayloadSerialisationForTheGoldenPayloads() throws IOException {
+        assertArrayEquals(
+                readGoldenPayload("dvla.json"),
+                serialiseDcsPayload(createDvlaForm(), IssuingAuthority.DVLA));
+        assertArrayEquals(
+                readGoldenPayload("dva.json"),
+                serialiseDcsPayload(createDvaForm(), IssuingAuthority.DVA));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("getForms")
+    void shouldWriteTheSameBytesAsTheDcsPayloadSerialisation(
+            String description, DrivingPermitForm drivingPermitForm) throws IOException {
+        IssuingAuthority issuingAuthority =
+                IssuingAuthority.valueOf(drivingPermitForm.getLicenceIssuer());
+
+        byte[] expected = serialiseDcsPayload(drivingPermitForm, issuingAuthority);
+        byte[] actual = write(drivingPermitForm, issuingAuthority);
+
+        assertEquals(
+                new String(expected, StandardCharsets.UTF_8),
+                new String(actual, StandardCharsets.UTF_8));
+        assertArrayEquals(expected, actual);
+    }
+
+    private static Stream<Arguments> getForms() {
+        DrivingPermitForm escapedNames = createDvlaForm();
+        escapedNames.setSurname("O'Brien \"Jr\" \\ Ó Súilleabháin \u0007");
+        escapedNames.setForenames(Arrays.asList("Zoë", null, "李"));
+
+        DrivingPermitForm missingFields =
+                DrivingPermitFormTestDataGenerator.generate(IssuingAuthority.DVLA);
+        missingFields.setForenames(null);
+        missingFields.setDateOfBirth(null);
+        missingFields.setIssueDate(null);
+
+        DrivingPermitForm dvaWithDvlaFields = createDvaForm();
+        dvaWithDvlaFields.setIssueNumber("02");
+        dvaWithDvlaFields.setIssueDate(LocalDate.of(2001, 1, 9));
+
+        DrivingPermitForm dvlaWithDvaFields = createDvlaForm();
+        dvlaWithDvaFields.setDateOfIssue(LocalDate.of(2001, 1, 9));
+
+        return Stream.of(
+                arguments("DVLA", createDvlaForm()),
+                arguments("DVA", createDvaForm()),
+                arguments("names needing escaping", escapedNames),
+                arguments("missing fields", missingFields),
+                arguments("DVA with DVLA fields", dvaWithDvlaFields),
+                arguments("DVLA with DVA fields", dvlaWithDvaFields));
+    }
+
+    private byte[] write(DrivingPermitForm drivingPermitForm, IssuingAuthority issuingAuthority)
+            throws IOException {
+        DcsPayloadWriter dcsPayloadWriter =
+                new DcsPayloadWriter(
+                        new JsonFactory(), RequestIdentityGenerator.deterministic(CLOCK));
+        return dcsPayloadWriter.write(drivingPermitForm, documentCheckRoutes.get(issuingAuthority));
+    }
+
+    /** The mapping the gateway applied before it streamed the payload. */
+    private byte[] serialiseDcsPayload(
+            DrivingPermitForm drivingPermitForm, IssuingAuthority issuingAuthority)
+            throws IOException {
+        DcsPayload dcsPayload = objectMapper.convertValue(drivingPermitForm, DcsPayload.class);
+        dcsPayload.setCorrelationId(CORRELATION_ID);
+        dcsPayload.setRequestId(REQUEST_ID);
+        dcsPayload.setTimestamp(TIMESTAMP);
+        dcsPayload.setExpiryDate(drivingPermitForm.getExpiryDate());
+
+        if (issuingAuthority == IssuingAuthority.DVA) {
+            dcsPayload.setDriverNumber(drivingPermitForm.getDrivingLicenceNumber());
+            dcsPayload.setDateOfIssue(drivingPermitForm.getDateOfIssue());
+        } else {
+            dcsPayload.setIssueNumber(drivingPermitForm.getIssueNumber());
+            dcsPayload.setLicenceNumber(drivingPermitForm.getDrivingLicenceNumber());
+            dcsPayload.setIssueDate(drivingPermitForm.getIssueDate());
+        }
+
+        return objectMapper.writeValueAsBytes(dcsPayload);
+    }
+
+    private static DrivingPermitForm createDvlaForm() {
+        DrivingPermitForm drivingPermitForm =
+                DrivingPermitFormTestDataGenerator.generate(IssuingAuthority.DVLA);
+        drivingPermitForm.setPostcode("Postcode");
+        drivingPermitForm.setIssueNumber("01");
+        return drivingPermitForm;
+    }
+
+    private static DrivingPermitForm createDvaForm() {
+        DrivingPermitForm drivingPermitForm =
+                DrivingPermitFormTestDataGenerator.generate(IssuingAuthority.DVA);
+        drivingPermitForm.setPostcode("Postcode");
+        drivingPermitForm.setDateOfIssue(drivingPermitForm.getIssueDate());
+        drivingPermitForm.setIssueDate(null);
+        return drivingPermitForm;
+    }
+
+    private static byte[] readGoldenPayload(String name) throws IOException {
+        try (InputStream goldenPayload =
+                DcsPayloadWriterTest.class.getResourceAsStream("/dcs-payload/" + name)) {
+            assertNotNull(goldenPayload, "missing golden payload " + name);
+            return goldenPayload.readAllBytes();
+        }
+    }
+}
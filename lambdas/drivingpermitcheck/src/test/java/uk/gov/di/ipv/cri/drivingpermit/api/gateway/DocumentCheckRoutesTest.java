@@ -0,0 +1,86 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.IssuingAuthority;
+import uk.gov.di.ipv.cri.drivingpermit.library.testdata.DrivingPermitFormTestDataGenerator;
+
+import java.net.URI;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DocumentCheckRoutesTest {
+
+    private static final String DCS_ENDPOINT = "https://test-endpoint.co.uk";
+
+    private final DocumentCheckRoutes documentCheckRoutes =
+            DocumentCheckRoutes.create(DCS_ENDPOINT);
+
+    @ParameterizedTest
+    @EnumSource(IssuingAuthority.class)
+    void shouldHaveARouteForEachIssuingAuthority(IssuingAuthority issuingAuthority) {
+        DocumentCheckRoute route = documentCheckRoutes.find(issuingAuthority.name());
+
+        assertNotNull(route);
+        assertSame(route, documentCheckRoutes.get(issuingAuthority));
+        assertEquals(issuingAuthority, route.getIssuingAuthority());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "dvla", "DVLNI", "UNKNOWN"})
+    void shouldNotFindARouteForAnUnknownIssuingAuthority(String licenceIssuer) {
+        assertNull(documentCheckRoutes.find(licenceIssuer));
+    }
+
+    @Test
+    void shouldNotFindARouteWithoutAnIssuingAuthority() {
+        assertNull(documentCheckRoutes.find(null));
+    }
+
+    @Test
+    void shouldRouteDvlaChecksToTheDrivingLicenceEndpoint() {
+        DocumentCheckRoute route = documentCheckRoutes.get(IssuingAuthority.DVLA);
+
+        assertEquals(URI.create(DCS_ENDPOINT + "/driving-licence"), route.getEndpoint());
+        assertEquals("issuing_authority_dvla", route.getMetricName());
+        assertEquals("driving_licence", route.getCircuitBreakerName());
+    }
+
+    @Test
+    void shouldRouteDvaChecksToTheDvaDrivingLicenceEndpoint() {
+        DocumentCheckRoute route = documentCheckRoutes.get(IssuingAuthority.DVA);
+
+        assertEquals(URI.create(DCS_ENDPOINT + "/dva-driving-licence"), route.getEndpoint());
+        assertEquals("issuing_authority_dva", route.getMetricName());
+        assertEquals("dva_driving_licence", route.getCircuitBreakerName());
+    }
+
+    @Test
+    void shouldSendDvlaLicenceNumbersAsTheLicenceNumber() {
+        DocumentCheckRoute route = documentCheckRoutes.get(IssuingAuthority.DVLA);
+        DrivingPermitForm drivingPermitForm =
+                DrivingPermitFormTestDataGenerator.generate(IssuingAuthority.DVLA);
+
+        assertEquals("licenceNumber", route.getDocumentNumberField().getValue());
+        assertEquals(
+                drivingPermitForm.getIssueDate(), route.getDocumentIssueDate(drivingPermitForm));
+    }
+
+    @Test
+    void shouldSendDvaLicenceNumbersAsTheDriverNumber() {
+        DocumentCheckRoute route = documentCheckRoutes.get(IssuingAuthority.DVA);
+        DrivingPermitForm drivingPermitForm =
+                DrivingPermitFormTestDataGenerator.generate(IssuingAuthority.DVA);
+        drivingPermitForm.setDateOfIssue(LocalDate.of(2005, 3, 1));
+
+        assertEquals("driverNumber", route.getDocumentNumberField().getValue());
+        assertEquals(LocalDate.of(2005, 3, 1), route.getDocumentIssueDate(drivingPermitForm));
+    }
+}
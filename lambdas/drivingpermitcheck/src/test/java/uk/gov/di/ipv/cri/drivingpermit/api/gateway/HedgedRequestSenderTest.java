@@ -0,0 +1,224 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HedgingConfig;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ParallelTaskExecutor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_HEDGE_SENT;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_HEDGE_WON;
+
+@ExtendWith(MockitoExtension.class)
+class HedgedRequestSenderTest {
+    private static final int MAX_RESPONSE_BYTES = 1024;
+
+    @Mock private HttpRetryer mockHttpRetryer;
+    @Mock private EventProbe mockEventProbe;
+
+    private ExecutorService executor;
+    private CountDownLatch primaryReleased;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newCachedThreadPool();
+        primaryReleased = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primaryReleased.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldSendDirectlyWhenHedgingDisabled() throws Exception {
+        HttpPost request = request();
+        CloseableHttpResponse okResponse = response(200);
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(request)).thenReturn(okResponse);
+
+        HedgedRequestSender hedgedRequestSender =
+                new HedgedRequestSender(
+                        mockHttpRetryer,
+                        new ResponseBodyReader(MAX_RESPONSE_BYTES),
+                        new HedgingConfig(Map.of()),
+                        mockEventProbe);
+
+        assertSame(okResponse, hedgedRequestSender.send(request));
+        verifyNoInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldNotHedgeWhenFirstRequestAnswersInTime() throws Exception {
+        HttpPost request = request();
+        CloseableHttpResponse okResponse = response(200);
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(eq(request), any()))
+                .thenReturn(okResponse);
+
+        HedgedRequestSender hedgedRequestSender = hedgedRequestSender(Map.of());
+
+        assertSame(okResponse, hedgedRequestSender.send(request));
+        verify(mockHttpRetryer, never()).sendHTTPRequestOnce(any(HttpPost.class), any());
+        hedgedRequestSender.publishMetrics();
+        verifyNoInteractions(mockEventProbe);
+    }
+
+    @Test
+    void shouldUseHedgeWhenItAnswersFirst() throws Exception {
+        HttpPost request = request();
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(eq(request), any()))
+                .thenAnswer(
+                        invocation -> {
+                            primaryReleased.await();
+                            return response(200);
+                        });
+        CloseableHttpResponse hedgeResponse = response(200);
+        when(mockHttpRetryer.sendHTTPRequestOnce(any(HttpPost.class), any()))
+                .thenReturn(hedgeResponse);
+
+        HedgedRequestSender hedgedRequestSender = hedgedRequestSender(Map.of());
+
+        assertSame(hedgeResponse, hedgedRequestSender.send(request));
+        assertTrue(request.isAborted());
+        // Only emitted when published from the handler thread
+        verifyNoInteractions(mockEventProbe);
+        hedgedRequestSender.publishMetrics();
+        verify(mockEventProbe).counterMetric(THIRD_PARTY_REQUEST_HEDGE_SENT, 1);
+        verify(mockEventProbe).counterMetric(THIRD_PARTY_REQUEST_HEDGE_WON, 1);
+    }
+
+    @Test
+    void shouldUseFirstRequestWhenHedgeFails() throws Exception {
+        HttpPost request = request();
+        CloseableHttpResponse okResponse = response(200);
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(eq(request), any()))
+                .thenAnswer(
+                        invocation -> {
+                            // Answers well after the hedge
+                            primaryReleased.await(200, TimeUnit.MILLISECONDS);
+                            return okResponse;
+                        });
+        TestHttpResponse hedgeResponse = response(500);
+        when(mockHttpRetryer.sendHTTPRequestOnce(any(HttpPost.class), any()))
+                .thenReturn(hedgeResponse);
+
+        HedgedRequestSender hedgedRequestSender = hedgedRequestSender(Map.of());
+
+        assertSame(okResponse, hedgedRequestSender.send(request));
+        assertFalse(request.isAborted());
+        assertTrue(hedgeResponse.isClosed());
+        hedgedRequestSender.publishMetrics();
+        verify(mockEventProbe).counterMetric(THIRD_PARTY_REQUEST_HEDGE_SENT, 1);
+        verify(mockEventProbe, never())
+                .counterMetric(eq(THIRD_PARTY_REQUEST_HEDGE_WON), anyDouble());
+    }
+
+    @Test
+    void shouldEmitHedgeCountsOnce() throws Exception {
+        HttpPost request = request();
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(eq(request), any()))
+                .thenAnswer(
+                        invocation -> {
+                            primaryReleased.await();
+                            return response(200);
+                        });
+        when(mockHttpRetryer.sendHTTPRequestOnce(any(HttpPost.class), any()))
+                .thenReturn(response(200));
+
+        HedgedRequestSender hedgedRequestSender = hedgedRequestSender(Map.of());
+        hedgedRequestSender.send(request);
+
+        hedgedRequestSender.publishMetrics();
+        hedgedRequestSender.publishMetrics();
+        verify(mockEventProbe).counterMetric(THIRD_PARTY_REQUEST_HEDGE_SENT, 1);
+        verify(mockEventProbe).counterMetric(THIRD_PARTY_REQUEST_HEDGE_WON, 1);
+    }
+
+    @Test
+    void shouldNotHedgeWhenBudgetIsUsedUp() throws Exception {
+        HttpPost request = request();
+        CloseableHttpResponse okResponse = response(200);
+        when(mockHttpRetryer.sendHTTPRequestRetryIfAllowed(eq(request), any()))
+                .thenAnswer(
+                        invocation -> {
+                            // Slower than the hedge delay
+                            primaryReleased.await(100, TimeUnit.MILLISECONDS);
+                            return okResponse;
+                        });
+
+        HedgedRequestSender hedgedRequestSender =
+                hedgedRequestSender(Map.of("MaxHedgeRatioPercent", "0"));
+
+        assertSame(okResponse, hedgedRequestSender.send(request));
+        verify(mockHttpRetryer, never()).sendHTTPRequestOnce(any(HttpPost.class), any());
+    }
+
+    private HedgedRequestSender hedgedRequestSender(Map<String, String> parameters) {
+        // Hedge after 10ms, every request earns a hedge unless set otherwise
+        Map<String, String> hedgingParameters = new HashMap<>();
+        hedgingParameters.put("Enabled", "true");
+        hedgingParameters.put("InitialDelayMs", "10");
+        hedgingParameters.put("MinDelayMs", "0");
+        hedgingParameters.put("MaxHedgeRatioPercent", "100");
+        hedgingParameters.putAll(parameters);
+
+        return new HedgedRequestSender(
+                mockHttpRetryer,
+                new ResponseBodyReader(MAX_RESPONSE_BYTES),
+                new HedgingConfig(hedgingParameters),
+                new ParallelTaskExecutor(executor),
+                mockEventProbe);
+    }
+
+    private static HttpPost request() {
+        return new HttpPost("https://test-endpoint.co.uk/driving-licence");
+    }
+
+    private static TestHttpResponse response(int statusCode) {
+        return new TestHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode, ""));
+    }
+
+    private static class TestHttpResponse extends BasicHttpResponse
+            implements CloseableHttpResponse {
+        private boolean closed;
+
+        TestHttpResponse(BasicStatusLine statusLine) {
+            super(statusLine);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpVersion;
+import org.apache.http.StatusLine;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HttpClientConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HttpRetryConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.retry.ExponentialBackoff;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.retry.FullJitterBackoff;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.retry.RetryPolicy;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.retry.Sleeper;
+import uk.gov.di.ipv.cri.drivingpermit.api.util.RequestDeadline;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_SEND_MAX_RETRIES;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_SEND_OK;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_SEND_RETRY;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.THIRD_PARTY_REQUEST_SEND_RETRY_BUDGET_EXHAUSTED;
+
+@ExtendWith(MockitoExtension.class)
+class HttpRetryerTest {
+    private static final long LAMBDA_REMAINING_TIME_MS = 30000L;
+    private static final long DEADLINE_MARGIN_MS = 5000L;
+    private static final int MAX_RESPONSE_BYTES = 1024;
+
+    @Mock private CloseableHttpClient mockHttpClient;
+    @Mock private EventProbe mockEventProbe;
+
+    private FakeClock fakeClock;
+    private RequestDeadline requestDeadline;
+    private List<Long> sleeps;
+    private Sleeper fakeSleeper;
+
+    @BeforeEach
+    void setUp() {
+        fakeClock = new FakeClock();
+        requestDeadline = new RequestDeadline(fakeClock);
+        requestDeadline.start(LAMBDA_REMAINING_TIME_MS);
+
+        sleeps = new ArrayList<>();
+        fakeSleeper =
+                millis -> {
+                    sleeps.add(millis);
+                    fakeClock.advance(millis);
+                };
+    }
+
+    @Test
+    void shouldNeverSleepPastTheLambdaDeadline() throws Exception {
+        Instant deadline = fakeClock.instant().plusMillis(LAMBDA_REMAINING_TIME_MS);
+        // Every DCS request takes 4s and fails
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenAnswer(
+                        invocation -> {
+                            fakeClock.advance(4000L);
+                            return response(503, null);
+                        });
+
+        HttpRetryer httpRetryer =
+                new HttpRetryer(
+                        mockHttpClient,
+                        new RetryPolicy(
+                                retryConfig(Map.of("MaxRetries", "20")),
+                                new FullJitterBackoff(1000L, 8000L, new Random(42L)),
+                                requestDeadline),
+                        new ResponseBodyReader(MAX_RESPONSE_BYTES),
+                        fakeSleeper,
+                        mockEventProbe);
+
+        CloseableHttpResponse httpResponse = httpRetryer.sendHTTPRequestRetryIfAllowed(request());
+
+        assertEquals(503, httpResponse.getStatusLine().getStatusCode());
+        assertTrue(fakeClock.instant().isBefore(deadline));
+        // Each sleep has to end before the deadline less the margin kept for the next request
+        long elapsedMs = 0L;
+        for (long sleepMs : sleeps) {
+            elapsedMs += 4000L + sleepMs;
+            assertTrue(elapsedMs <= LAMBDA_REMAINING_TIME_MS - DEADLINE_MARGIN_MS);
+        }
+        verify(mockEventProbe).counterMetric(THIRD_PARTY_REQUEST_SEND_RETRY_BUDGET_EXHAUSTED);
+    }
+
+    @Test
+    void shouldNotRetryWhenDeadlineAlreadyWithinMargin() throws Exception {
+        requestDeadline.start(DEADLINE_MARGIN_MS);
+        when(mockHttpClient.execute(any(HttpPost.class))).thenReturn(response(500, null));
+
+        HttpRetryer httpRetryer = exponentialRetryer(Map.of());
+
+        httpRetryer.sendHTTPRequestRetryIfAllowed(request());
+
+        assertTrue(sleeps.isEmpty());
+        verify(mockHttpClient, times(1)).execute(any(HttpPost.class));
+        verify(mockEventProbe).counterMetric(THIRD_PARTY_REQUEST_SEND_RETRY_BUDGET_EXHAUSTED);
+    }
+
+    @Test
+    void shouldRetryUntilSuccess() throws Exception {
+        CloseableHttpResponse okResponse = response(200, null);
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenReturn(response(500, null))
+                .thenReturn(response(502, null))
+                .thenReturn(okResponse);
+
+        HttpRetryer httpRetryer = exponentialRetryer(Map.of());
+
+        assertSame(okResponse, httpRetryer.sendHTTPRequestRetryIfAllowed(request()));
+        assertEquals(List.of(200L, 400L), sleeps);
+        verify(mockEventProbe, times(2)).counterMetric(THIRD_PARTY_REQUEST_SEND_RETRY);
+        verify(mockEventProbe).counterMetric(THIRD_PARTY_REQUEST_SEND_OK);
+    }
+
+    @Test
+    void shouldCloseEachResponseThatIsRetried() throws Exception {
+        TestHttpResponse firstResponse = response(503, null);
+        TestHttpResponse secondResponse = response(429, null);
+        TestHttpResponse okResponse = response(200, null);
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenReturn(firstResponse)
+                .thenReturn(secondResponse)
+                .thenReturn(okResponse);
+
+        HttpRetryer httpRetryer = exponentialRetryer(Map.of());
+
+        assertSame(okResponse, httpRetryer.sendHTTPRequestRetryIfAllowed(request()));
+        assertTrue(firstResponse.isClosed());
+        assertTrue(secondResponse.isClosed());
+        // Left for the caller to read and close
+        assertFalse(okResponse.isClosed());
+    }
+
+    @Test
+    void shouldStopAfterMaxRetries() throws Exception {
+        when(mockHttpClient.execute(any(HttpPost.class))).thenReturn(response(503, null));
+
+        HttpRetryer httpRetryer = exponentialRetryer(Map.of("MaxRetries", "2"));
+
+        httpRetryer.sendHTTPRequestRetryIfAllowed(request());
+
+        verify(mockHttpClient, times(3)).execute(any(HttpPost.class));
+        verify(mockEventProbe).counterMetric(THIRD_PARTY_REQUEST_SEND_MAX_RETRIES);
+    }
+
+    @Test
+    void shouldWaitForRetryAfterSecondsOn429() throws Exception {
+        CloseableHttpResponse okResponse = response(200, null);
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenReturn(response(429, "3"))
+                .thenReturn(okResponse);
+
+        HttpRetryer httpRetryer = exponentialRetryer(Map.of());
+
+        assertSame(okResponse, httpRetryer.sendHTTPRequestRetryIfAllowed(request()));
+        assertEquals(List.of(3000L), sleeps);
+    }
+
+    @Test
+    void shouldWaitForRetryAfterDateOn429() throws Exception {
+        CloseableHttpResponse okResponse = response(200, null);
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenReturn(response(429, "Thu, 01 Jan 2099 00:00:02 GMT"))
+                .thenReturn(okResponse);
+
+        HttpRetryer httpRetryer = exponentialRetryer(Map.of());
+
+        assertSame(okResponse, httpRetryer.sendHTTPRequestRetryIfAllowed(request()));
+        assertEquals(List.of(2000L), sleeps);
+    }
+
+    @Test
+    void shouldGiveTheLatencyOfOnlyTheAttemptAnsweredWithOk() throws Exception {
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenReturn(response(500, null))
+                .thenReturn(response(200, null));
+        List<Long> okLatencies = new ArrayList<>();
+
+        exponentialRetryer(Map.of()).sendHTTPRequestRetryIfAllowed(request(), okLatencies::add);
+
+        assertEquals(1, okLatencies.size());
+    }
+
+    @Test
+    void shouldNotGiveTheLatencyOfAFailedSingleAttempt() throws Exception {
+        when(mockHttpClient.execute(any(HttpPost.class))).thenReturn(response(503, null));
+        List<Long> okLatencies = new ArrayList<>();
+
+        exponentialRetryer(Map.of()).sendHTTPRequestOnce(request(), okLatencies::add);
+
+        assertTrue(okLatencies.isEmpty());
+    }
+
+    @Test
+    void shouldNotRetryWhenRetryAfterIsOverTheMaximum() throws Exception {
+        when(mockHttpClient.execute(any(HttpPost.class))).thenReturn(response(429, "60"));
+
+        HttpRetryer httpRetryer = exponentialRetryer(Map.of());
+
+        CloseableHttpResponse httpResponse = httpRetryer.sendHTTPRequestRetryIfAllowed(request());
+
+        assertEquals(429, httpResponse.getStatusLine().getStatusCode());
+        assertTrue(sleeps.isEmpty());
+        verify(mockEventProbe).counterMetric(THIRD_PARTY_REQUEST_SEND_RETRY_BUDGET_EXHAUSTED);
+    }
+
+    @Test
+    void shouldRetryConnectTimeoutAndRethrowTheLast() throws Exception {
+        ConnectTimeoutException lastException = new ConnectTimeoutException("last");
+        when(mockHttpClient.execute(any(HttpPost.class)))
+                .thenThrow(new ConnectTimeoutException("first"))
+                .thenThrow(lastException);
+
+        HttpRetryer httpRetryer = exponentialRetryer(Map.of("MaxRetries", "1"));
+
+        ConnectTimeoutException thrown =
+                assertThrows(
+                        ConnectTimeoutException.class,
+                        () -> httpRetryer.sendHTTPRequestRetryIfAllowed(request()));
+        assertSame(lastException, thrown);
+        assertEquals(1, sleeps.size());
+    }
+
+    @Test
+    void shouldNotRetryOtherIOExceptions() throws Exception {
+        when(mockHttpClient.execute(any(HttpPost.class))).thenThrow(new IOException("reset"));
+
+        HttpRetryer httpRetryer = exponentialRetryer(Map.of());
+
+        assertThrows(IOException.class, () -> httpRetryer.sendHTTPRequestRetryIfAllowed(request()));
+        assertTrue(sleeps.isEmpty());
+    }
+
+    private HttpRetryer exponentialRetryer(Map<String, String> retryParameters) {
+        return new HttpRetryer(
+                mockHttpClient,
+                new RetryPolicy(
+                        retryConfig(retryParameters),
+                        new ExponentialBackoff(100L, 3200L),
+                        requestDeadline),
+                new ResponseBodyReader(MAX_RESPONSE_BYTES),
+                fakeSleeper,
+                mockEventProbe);
+    }
+
+    private static HttpRetryConfig retryConfig(Map<String, String> retryParameters) {
+        Map<String, String> parameters =
+                new HashMap<>(Map.of("DeadlineMarginMs", String.valueOf(DEADLINE_MARGIN_MS)));
+        parameters.putAll(retryParameters);
+        // Timeouts that add up to less than the margin, so it is used as set
+        HttpClientConfig httpClientConfig =
+                new HttpClientConfig(
+                        Map.of(
+                                "ConnectionRequestTimeoutMs",
+                                "500",
+                                "ConnectTimeoutMs",
+                                "1000",
+                                "SocketTimeoutMs",
+                                "2000"));
+        return new HttpRetryConfig(parameters, httpClientConfig);
+    }
+
+    private static HttpPost request() {
+        return new HttpPost("https://test-endpoint.co.uk");
+    }
+
+    private static TestHttpResponse response(int statusCode, String retryAfter) {
+        TestHttpResponse httpResponse =
+                new TestHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode, ""));
+        if (retryAfter != null) {
+            httpResponse.addHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return httpResponse;
+    }
+
+    private static class TestHttpResponse extends BasicHttpResponse
+            implements CloseableHttpResponse {
+        private boolean closed;
+
+        TestHttpResponse(StatusLine statusLine) {
+            super(statusLine);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+    }
+
+    private static class FakeClock extends Clock {
+        // Starts at 00:00:00 on the day used by the Retry-After date test
+        private Instant now = Instant.parse("2099-01-01T00:00:00Z");
+
+        void advance(long millis) {
+            now = now.plusMillis(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.jupiter.api.Test;
+import uk.gov.di.ipv.cri.drivingpermit.api.exception.ResponseTooLargeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseBodyReaderTest {
+    private static final int MAX_BYTES = 16;
+
+    private final ResponseBodyReader responseBodyReader = new ResponseBodyReader(MAX_BYTES);
+
+    @Test
+    void shouldReadBodyWithinMaximum() throws IOException {
+        byte[] body = "eyJhbGciOi.e30.x".getBytes(StandardCharsets.UTF_8);
+        TestHttpResponse response = response(new ByteArrayEntity(body));
+
+        assertArrayEquals(body, responseBodyReader.read(response));
+        assertFalse(response.isClosed());
+    }
+
+    @Test
+    void shouldReturnEmptyBodyWhenThereIsNoEntity() throws IOException {
+        assertEquals(0, responseBodyReader.read(response(null)).length);
+    }
+
+    @Test
+    void shouldRejectBodyWhenContentLengthIsOverMaximum() {
+        TestHttpResponse response = response(new ByteArrayEntity(bytes(MAX_BYTES + 1)));
+
+        assertThrows(ResponseTooLargeException.class, () -> responseBodyReader.read(response));
+        assertTrue(response.isClosed());
+    }
+
+    @Test
+    void shouldStopReadingWhenBodyOfUnknownLengthGoesOverMaximum() {
+        // A body of unknown length, as with chunked transfer encoding
+        TestHttpResponse response =
+                response(new InputStreamEntity(new ByteArrayInputStream(bytes(10000)), -1));
+
+        assertThrows(ResponseTooLargeException.class, () -> responseBodyReader.read(response));
+        assertTrue(response.isClosed());
+    }
+
+    @Test
+    void shouldCloseDiscardedResponse() {
+        TestHttpResponse response = response(new ByteArrayEntity(bytes(MAX_BYTES * 2)));
+
+        responseBodyReader.discard(response);
+
+        assertTrue(response.isClosed());
+    }
+
+    private static byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) 'a');
+        return bytes;
+    }
+
+    private static TestHttpResponse response(HttpEntity entity) {
+        TestHttpResponse response =
+                new TestHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"));
+        response.setEntity(entity);
+        return response;
+    }
+
+    private static class TestHttpResponse extends BasicHttpResponse
+            implements CloseableHttpResponse {
+        private boolean closed;
+
+        TestHttpResponse(BasicStatusLine statusLine) {
+            super(statusLine);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+    }
+}
@@ -26,11 +26,16 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
-import uk.gov.di.ipv.cri.drivingpermit.api.domain.DcsPayload;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.CircuitBreakerConfig;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DcsResponse;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckResult;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HedgingConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HttpClientConfig;
 import uk.gov.di.ipv.cri.drivingpermit.api.error.ErrorResponse;
 import uk.gov.di.ipv.cri.drivingpermit.api.exception.OAuthHttpResponseExceptionWithErrorBody;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker.CircuitBreaker;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker.CircuitBreakerRegistry;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker.SharedCircuitState;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.ConfigurationService;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.DcsCryptographyService;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
@@ -45,6 +50,7 @@ import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.spec.InvalidKeySpecException;
 import java.text.ParseException;
+import java.time.Clock;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
@@ -56,7 +62,6 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -88,6 +93,7 @@ class ThirdPartyDocumentGatewayTest {
     private static final String TEST_ENDPOINT_URL = "https://test-endpoint.co.uk";
     private static final int MOCK_HTTP_STATUS_CODE = -1;
     private ThirdPartyDocumentGateway thirdPartyDocumentGateway;
+    private CircuitBreakerRegistry circuitBreakerRegistry;
 
     @Mock private HttpClient mockHttpClient;
     @Mock private ObjectMapper mockObjectMapper;
@@ -102,12 +108,26 @@ class ThirdPartyDocumentGatewayTest {
         lenient()
                 .when(configurationService.getDcsEndpointUri())
                 .thenReturn("https://test-endpoint.co.uk");
+        lenient()
+                .when(configurationService.getHttpClientConfig())
+                .thenReturn(new HttpClientConfig(Map.of()));
+        lenient()
+                .when(configurationService.getHedgingConfig())
+                .thenReturn(new HedgingConfig(Map.of()));
+        this.circuitBreakerRegistry =
+                new CircuitBreakerRegistry(
+                        new CircuitBreakerConfig(Map.of()),
+                        SharedCircuitState.NONE,
+                        Runnable::run,
+                        Clock.systemUTC(),
+                        mockEventProbe);
         this.thirdPartyDocumentGateway =
                 new ThirdPartyDocumentGateway(
                         mockObjectMapper,
                         dcsCryptographyService,
                         configurationService,
                         httpRetryer,
+                        circuitBreakerRegistry,
                         mockEventProbe);
     }
 
@@ -122,8 +142,6 @@ class ThirdPartyDocumentGatewayTest {
         DocumentCheckResult testDocumentCheckResult = new DocumentCheckResult();
 
         ArgumentCaptor<HttpPost> httpRequestCaptor = ArgumentCaptor.forClass(HttpPost.class);
-        when(this.mockObjectMapper.convertValue(any(DrivingPermitForm.class), eq(DcsPayload.class)))
-                .thenReturn(new DcsPayload());
 
         CloseableHttpResponse httpResponse = createHttpResponse(200);
 
@@ -133,8 +151,7 @@ class ThirdPartyDocumentGatewayTest {
                 .thenReturn(createSuccessDcsResponse());
         JWSObject jwsObject = new JWSObject(new JWSHeader(JWSAlgorithm.EdDSA), new Payload(""));
         jwsObject.sign(new MyJWSSigner());
-        when(this.dcsCryptographyService.preparePayload(any(DcsPayload.class)))
-                .thenReturn(jwsObject);
+        when(this.dcsCryptographyService.preparePayload(any(byte[].class))).thenReturn(jwsObject);
 
         DocumentCheckResult actualDocumentCheckResult =
                 thirdPartyDocumentGateway.performDocumentCheck(drivingPermitForm);
@@ -158,12 +175,9 @@ class ThirdPartyDocumentGatewayTest {
         DocumentCheckResult testDocumentCheckResult = new DocumentCheckResult();
 
         ArgumentCaptor<HttpPost> httpRequestCaptor = ArgumentCaptor.forClass(HttpPost.class);
-        when(this.mockObjectMapper.convertValue(any(DrivingPermitForm.class), eq(DcsPayload.class)))
-                .thenReturn(new DcsPayload());
         JWSObject jwsObject = new JWSObject(new JWSHeader(JWSAlgorithm.EdDSA), new Payload(""));
         jwsObject.sign(new MyJWSSigner());
-        when(this.dcsCryptographyService.preparePayload(any(DcsPayload.class)))
-                .thenReturn(jwsObject);
+        when(this.dcsCryptographyService.preparePayload(any(byte[].class))).thenReturn(jwsObject);
 
         CloseableHttpResponse httpResponse = createHttpResponse(300);
 
@@ -202,12 +216,9 @@ class ThirdPartyDocumentGatewayTest {
         DocumentCheckResult testDocumentCheckResult = new DocumentCheckResult();
 
         ArgumentCaptor<HttpPost> httpRequestCaptor = ArgumentCaptor.forClass(HttpPost.class);
-        when(this.mockObjectMapper.convertValue(any(DrivingPermitForm.class), eq(DcsPayload.class)))
-                .thenReturn(new DcsPayload());
         JWSObject jwsObject = new JWSObject(new JWSHeader(JWSAlgorithm.EdDSA), new Payload(""));
         jwsObject.sign(new MyJWSSigner());
-        when(this.dcsCryptographyService.preparePayload(any(DcsPayload.class)))
-                .thenReturn(jwsObject);
+        when(this.dcsCryptographyService.preparePayload(any(byte[].class))).thenReturn(jwsObject);
 
         CloseableHttpResponse httpResponse = createHttpResponse(400);
 
@@ -246,13 +257,10 @@ class ThirdPartyDocumentGatewayTest {
         DocumentCheckResult testDocumentCheckResult = new DocumentCheckResult();
 
         ArgumentCaptor<HttpPost> httpRequestCaptor = ArgumentCaptor.forClass(HttpPost.class);
-        when(this.mockObjectMapper.convertValue(any(DrivingPermitForm.class), eq(DcsPayload.class)))
-                .thenReturn(new DcsPayload());
 
         JWSObject jwsObject = new JWSObject(new JWSHeader(JWSAlgorithm.EdDSA), new Payload(""));
         jwsObject.sign(new MyJWSSigner());
-        when(this.dcsCryptographyService.preparePayload(any(DcsPayload.class)))
-                .thenReturn(jwsObject);
+        when(this.dcsCryptographyService.preparePayload(any(byte[].class))).thenReturn(jwsObject);
 
         CloseableHttpResponse httpResponse = createHttpResponse(500);
 
@@ -290,12 +298,9 @@ class ThirdPartyDocumentGatewayTest {
         DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
 
         ArgumentCaptor<HttpPost> httpRequestCaptor = ArgumentCaptor.forClass(HttpPost.class);
-        when(this.mockObjectMapper.convertValue(any(DrivingPermitForm.class), eq(DcsPayload.class)))
-                .thenReturn(new DcsPayload());
         JWSObject jwsObject = new JWSObject(new JWSHeader(JWSAlgorithm.EdDSA), new Payload(""));
         jwsObject.sign(new MyJWSSigner());
-        when(this.dcsCryptographyService.preparePayload(any(DcsPayload.class)))
-                .thenReturn(jwsObject);
+        when(this.dcsCryptographyService.preparePayload(any(byte[].class))).thenReturn(jwsObject);
 
         CloseableHttpResponse httpResponse = createHttpResponse(-1);
 
@@ -335,12 +340,9 @@ class ThirdPartyDocumentGatewayTest {
         DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
 
         ArgumentCaptor<HttpPost> httpRequestCaptor = ArgumentCaptor.forClass(HttpPost.class);
-        when(this.mockObjectMapper.convertValue(any(DrivingPermitForm.class), eq(DcsPayload.class)))
-                .thenReturn(new DcsPayload());
         JWSObject jwsObject = new JWSObject(new JWSHeader(JWSAlgorithm.EdDSA), new Payload(""));
         jwsObject.sign(new MyJWSSigner());
-        when(this.dcsCryptographyService.preparePayload(any(DcsPayload.class)))
-                .thenReturn(jwsObject);
+        when(this.dcsCryptographyService.preparePayload(any(byte[].class))).thenReturn(jwsObject);
 
         CloseableHttpResponse httpResponse = createHttpResponse(200);
 
@@ -363,6 +365,46 @@ class ThirdPartyDocumentGatewayTest {
                 httpRequestCaptor.getValue().getFirstHeader("Content-Type").getValue());
     }
 
+    @Test
+    void shouldNotSendRequestWhenCircuitBreakerIsOpen()
+            throws IOException, InterruptedException, CertificateException, ParseException,
+                    JOSEException, NoSuchAlgorithmException, InvalidKeySpecException {
+        CircuitBreakerRegistry trippedCircuitBreakerRegistry =
+                new CircuitBreakerRegistry(
+                        new CircuitBreakerConfig(
+                                Map.of("SlidingWindowSize", "1", "MinimumRequests", "1")),
+                        SharedCircuitState.NONE,
+                        Runnable::run,
+                        Clock.systemUTC(),
+                        mockEventProbe);
+        CircuitBreaker circuitBreaker = trippedCircuitBreakerRegistry.get("driving_licence");
+        circuitBreaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        ThirdPartyDocumentGateway gateway =
+                new ThirdPartyDocumentGateway(
+                        mockObjectMapper,
+                        dcsCryptographyService,
+                        configurationService,
+                        httpRetryer,
+                        trippedCircuitBreakerRegistry,
+                        mockEventProbe);
+
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+        JWSObject jwsObject = new JWSObject(new JWSHeader(JWSAlgorithm.EdDSA), new Payload(""));
+        jwsObject.sign(new MyJWSSigner());
+        when(this.dcsCryptographyService.preparePayload(any(byte[].class))).thenReturn(jwsObject);
+
+        OAuthHttpResponseExceptionWithErrorBody e =
+                assertThrows(
+                        OAuthHttpResponseExceptionWithErrorBody.class,
+                        () -> gateway.performDocumentCheck(drivingPermitForm));
+
+        assertEquals(
+                ErrorResponse.DCS_ERROR_HTTP_50x.getMessage(), e.getErrorResponse().getMessage());
+        verify(httpRetryer, never()).sendHTTPRequestRetryIfAllowed(any(HttpPost.class));
+    }
+
     @Test
     void shouldThrowNullPointerExceptionWhenInvalidConstructorArgumentsProvided() {
         Map<String, ExperianGatewayConstructorArgs> testCases =
@@ -387,6 +429,7 @@ class ThirdPartyDocumentGatewayTest {
                                                 constructorArgs.dcsCryptographyService,
                                                 constructorArgs.configurationService,
                                                 constructorArgs.httpRetryer,
+                                                circuitBreakerRegistry,
                                                 constructorArgs.eventProbe),
                                 errorMessage));
     }
@@ -0,0 +1,263 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.CircuitBreakerConfig;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CIRCUIT_BREAKER_CLOSED_PREFIX;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CIRCUIT_BREAKER_HALF_OPENED_PREFIX;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CIRCUIT_BREAKER_OPENED_PREFIX;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CIRCUIT_BREAKER_REJECTED_PREFIX;
+
+@ExtendWith(MockitoExtension.class)
+class CircuitBreakerTest {
+    private static final String NAME = "driving_licence";
+    private static final long OPEN_DURATION_MS = 30000L;
+
+    // Opens when half of the last 4 requests failed
+    private static final Map<String, String> PARAMETERS =
+            Map.of(
+                    "FailureRateThresholdPercent",
+                    "50",
+                    "SlidingWindowSize",
+                    "4",
+                    "MinimumRequests",
+                    "4",
+                    "OpenDurationMs",
+                    String.valueOf(OPEN_DURATION_MS));
+
+    @Mock private EventProbe mockEventProbe;
+    @Mock private SharedCircuitState mockSharedCircuitState;
+
+    private FakeClock fakeClock;
+    private List<Runnable> sharedStateReads;
+
+    @BeforeEach
+    void setUp() {
+        fakeClock = new FakeClock();
+        sharedStateReads = new ArrayList<>();
+    }
+
+    @Test
+    void shouldStayClosedUntilMinimumRequestsAreSeen() {
+        CircuitBreaker circuitBreaker = circuitBreaker(PARAMETERS, SharedCircuitState.NONE);
+
+        failRequests(circuitBreaker, 3);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void shouldOpenAndRejectRequestsWhenFailureRateReachesThreshold() {
+        CircuitBreaker circuitBreaker = circuitBreaker(PARAMETERS, SharedCircuitState.NONE);
+
+        succeedRequests(circuitBreaker, 2);
+        failRequests(circuitBreaker, 2);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        verify(mockEventProbe).counterMetric(DCS_CIRCUIT_BREAKER_OPENED_PREFIX + NAME);
+        verify(mockEventProbe).counterMetric(DCS_CIRCUIT_BREAKER_REJECTED_PREFIX + NAME);
+    }
+
+    @Test
+    void shouldOnlyCountTheMostRecentRequests() {
+        CircuitBreaker circuitBreaker = circuitBreaker(PARAMETERS, SharedCircuitState.NONE);
+
+        // The first failure has dropped out of the window by the time of the second
+        failRequests(circuitBreaker, 1);
+        succeedRequests(circuitBreaker, 4);
+        failRequests(circuitBreaker, 1);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void shouldLetOneProbeThroughAndCloseWhenItSucceeds() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker();
+
+        fakeClock.advance(OPEN_DURATION_MS);
+
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        circuitBreaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        verify(mockEventProbe).counterMetric(DCS_CIRCUIT_BREAKER_HALF_OPENED_PREFIX + NAME);
+        verify(mockEventProbe).counterMetric(DCS_CIRCUIT_BREAKER_CLOSED_PREFIX + NAME);
+    }
+
+    @Test
+    void shouldReopenWhenProbeFails() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker();
+
+        fakeClock.advance(OPEN_DURATION_MS);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquirePermission());
+
+        fakeClock.advance(OPEN_DURATION_MS);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void shouldAllowAnotherProbeWhenProbeIsReleased() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker();
+
+        fakeClock.advance(OPEN_DURATION_MS);
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        circuitBreaker.release();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+    }
+
+    @Test
+    void shouldShareOpenStateWhenOpenedWithoutHoldingTheLock() {
+        CircuitBreaker circuitBreaker = circuitBreaker(PARAMETERS, mockSharedCircuitState);
+        doAnswer(
+                        invocation -> {
+                            assertFalse(Thread.holdsLock(circuitBreaker));
+                            return null;
+                        })
+                .when(mockSharedCircuitState)
+                .setOpenUntilMs(anyString(), anyLong());
+
+        failRequests(circuitBreaker, 4);
+
+        verify(mockSharedCircuitState).setOpenUntilMs(NAME, fakeClock.millis() + OPEN_DURATION_MS);
+    }
+
+    @Test
+    void shouldOpenOnTheLastSharedStateReadWhenOpenedByAnotherContainer() {
+        when(mockSharedCircuitState.getOpenUntilMs(NAME))
+                .thenReturn(fakeClock.millis() + OPEN_DURATION_MS);
+        CircuitBreaker circuitBreaker = circuitBreaker(PARAMETERS, mockSharedCircuitState);
+
+        // The request only starts the read and goes on with what was read before
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        verify(mockSharedCircuitState, never()).getOpenUntilMs(anyString());
+        runSharedStateReads();
+
+        assertFalse(circuitBreaker.tryAcquirePermission());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        verify(mockSharedCircuitState, never()).setOpenUntilMs(anyString(), anyLong());
+    }
+
+    @Test
+    void shouldReadSharedStateOncePerRefreshInterval() {
+        CircuitBreaker circuitBreaker = circuitBreaker(PARAMETERS, mockSharedCircuitState);
+
+        succeedRequests(circuitBreaker, 3);
+        runSharedStateReads();
+        verify(mockSharedCircuitState, times(1)).getOpenUntilMs(NAME);
+
+        fakeClock.advance(CircuitBreakerConfig.DEFAULT_SHARED_STATE_REFRESH_MS);
+        succeedRequests(circuitBreaker, 3);
+        runSharedStateReads();
+        verify(mockSharedCircuitState, times(2)).getOpenUntilMs(NAME);
+    }
+
+    @Test
+    void shouldAlwaysPermitRequestsWhenDisabled() {
+        CircuitBreaker circuitBreaker =
+                circuitBreaker(
+                        Map.of("Enabled", "false", "MinimumRequests", "1"),
+                        SharedCircuitState.NONE);
+
+        failRequests(circuitBreaker, 5);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquirePermission());
+        verify(mockEventProbe, never()).counterMetric(DCS_CIRCUIT_BREAKER_OPENED_PREFIX + NAME);
+    }
+
+    private CircuitBreaker openCircuitBreaker() {
+        CircuitBreaker circuitBreaker = circuitBreaker(PARAMETERS, SharedCircuitState.NONE);
+        failRequests(circuitBreaker, 4);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        return circuitBreaker;
+    }
+
+    private CircuitBreaker circuitBreaker(
+            Map<String, String> parameters, SharedCircuitState sharedCircuitState) {
+        return new CircuitBreaker(
+                NAME,
+                new CircuitBreakerConfig(parameters),
+                sharedCircuitState,
+                sharedStateReads::add,
+                fakeClock,
+                mockEventProbe);
+    }
+
+    private void runSharedStateReads() {
+        List<Runnable> reads = new ArrayList<>(sharedStateReads);
+        sharedStateReads.clear();
+        reads.forEach(Runnable::run);
+    }
+
+    private static void failRequests(CircuitBreaker circuitBreaker, int count) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            circuitBreaker.onFailure();
+        }
+    }
+
+    private static void succeedRequests(CircuitBreaker circuitBreaker, int count) {
+        for (int i = 0; i < count; i++) {
+            assertTrue(circuitBreaker.tryAcquirePermission());
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    private static class FakeClock extends Clock {
+        private Instant now = Instant.parse("2099-01-01T00:00:00Z");
+
+        void advance(long millis) {
+            now = now.plusMillis(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
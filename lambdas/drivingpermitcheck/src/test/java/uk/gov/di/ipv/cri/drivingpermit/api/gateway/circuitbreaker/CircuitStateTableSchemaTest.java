@@ -0,0 +1,44 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.HashSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker.CircuitStateTableSchema.TABLE_SCHEMA;
+
+class CircuitStateTableSchemaTest {
+
+    private final TableSchema<CircuitStateItem> beanTableSchema =
+            TableSchema.fromBean(CircuitStateItem.class);
+
+    @Test
+    void shouldHaveTheAttributesOfTheBean() {
+        assertEquals(
+                new HashSet<>(beanTableSchema.attributeNames()),
+                new HashSet<>(TABLE_SCHEMA.attributeNames()));
+    }
+
+    @Test
+    void shouldHaveThePartitionKeyOfTheBean() {
+        assertEquals(
+                beanTableSchema.tableMetadata().primaryKeys(),
+                TABLE_SCHEMA.tableMetadata().primaryKeys());
+    }
+
+    @Test
+    void shouldWriteAndReadTheSameAttributeValuesAsTheBean() {
+        CircuitStateItem item = new CircuitStateItem();
+        item.setName("driving_licence");
+        item.setOpenUntil(4070908830000L);
+        item.setTtl(4070908830L);
+
+        Map<String, AttributeValue> written = beanTableSchema.itemToMap(item, true);
+
+        assertEquals(written, TABLE_SCHEMA.itemToMap(item, true));
+        assertEquals(written, beanTableSchema.itemToMap(TABLE_SCHEMA.mapToItem(written), true));
+    }
+}
@@ -0,0 +1,67 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.gateway.retry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BackoffStrategyTest {
+
+    @Test
+    void exponentialBackoffShouldDoubleUpToTheMaximum() {
+        BackoffStrategy backoffStrategy = new ExponentialBackoff(100L, 1000L);
+
+        assertEquals(200L, backoffStrategy.nextDelayMs(1, 0L));
+        assertEquals(400L, backoffStrategy.nextDelayMs(2, 200L));
+        assertEquals(800L, backoffStrategy.nextDelayMs(3, 400L));
+        assertEquals(1000L, backoffStrategy.nextDelayMs(4, 800L));
+        assertEquals(1000L, backoffStrategy.nextDelayMs(100, 1000L));
+    }
+
+    @Test
+    void fullJitterBackoffShouldStayBetweenZeroAndTheExponentialDelay() {
+        BackoffStrategy backoffStrategy = new FullJitterBackoff(100L, 1000L, new Random(1L));
+
+        for (int retryCount = 1; retryCount <= 10; retryCount++) {
+            long ceilingMs = Math.min(1000L, 100L << retryCount);
+            for (int i = 0; i < 100; i++) {
+                long delayMs = backoffStrategy.nextDelayMs(retryCount, 0L);
+                assertTrue(delayMs >= 0L && delayMs <= ceilingMs);
+            }
+        }
+    }
+
+    @Test
+    void decorrelatedJitterBackoffShouldStayBetweenBaseAndThreeTimesPreviousDelay() {
+        BackoffStrategy backoffStrategy = new DecorrelatedJitterBackoff(100L, 1000L, new Random(1L));
+
+        long previousDelayMs = 0L;
+        for (int retryCount = 1; retryCount <= 50; retryCount++) {
+            long delayMs = backoffStrategy.nextDelayMs(retryCount, previousDelayMs);
+            long upperMs = Math.min(1000L, Math.max(100L, previousDelayMs) * 3);
+            assertTrue(delayMs >= 100L && delayMs <= upperMs);
+            previousDelayMs = delayMs;
+        }
+    }
+
+    @Test
+    void shouldCreateStrategyByName() {
+        Random random = new Random();
+
+        assertTrue(
+                BackoffStrategy.create("exponential", 100L, 1000L, random)
+                        instanceof ExponentialBackoff);
+        assertTrue(
+                BackoffStrategy.create("FULL_JITTER", 100L, 1000L, random)
+                        instanceof FullJitterBackoff);
+        assertTrue(
+                BackoffStrategy.create("DECORRELATED_JITTER", 100L, 1000L, random)
+                        instanceof DecorrelatedJitterBackoff);
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> BackoffStrategy.create("LINEAR", 100L, 1000L, random));
+    }
+}
@@ -0,0 +1,259 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.handler;
+
+import com.amazonaws.services.dynamodbv2.local.main.ServerRunner;
+import com.amazonaws.services.dynamodbv2.local.server.DynamoDBProxyServer;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import uk.gov.di.ipv.cri.common.library.exception.SqsException;
+import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
+import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
+import uk.gov.di.ipv.cri.common.library.service.SessionService;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckVerificationResult;
+import uk.gov.di.ipv.cri.drivingpermit.api.exception.OAuthHttpResponseExceptionWithErrorBody;
+import uk.gov.di.ipv.cri.drivingpermit.api.service.ConfigurationService;
+import uk.gov.di.ipv.cri.drivingpermit.api.service.IdentityVerificationService;
+import uk.gov.di.ipv.cri.drivingpermit.api.service.ServiceFactory;
+import uk.gov.di.ipv.cri.drivingpermit.api.testdata.DocumentCheckVerificationResultDataGenerator;
+import uk.gov.di.ipv.cri.drivingpermit.api.util.RequestDeadline;
+import uk.gov.di.ipv.cri.drivingpermit.library.audit.AuditEventPublisher;
+import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.DocumentCheckResultStore;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.DocumentCheckResultTableSchema;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.drivingpermit.library.testdata.DrivingPermitFormTestDataGenerator;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ParallelTaskExecutor;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.time.Clock;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Saves attempts through a {@link DocumentCheckResultStore} backed by DynamoDB Local, with the
+ * writes run on threads of their own as they are in the lambda. The person identity, session and
+ * audit writes go through cri-common-lib and are mocked.
+ */
+@ExtendWith(MockitoExtension.class)
+class DrivingPermitHandlerSaveAttemptTest {
+    private static final String TABLE_NAME = "document-check-result";
+    private static final long WRITE_TIMEOUT_MS = 5000;
+
+    private static DynamoDBProxyServer dynamoDbLocal;
+    private static DynamoDbClient dynamoDbClient;
+    private static DynamoDbEnhancedClient enhancedClient;
+
+    @Mock private ServiceFactory mockServiceFactory;
+    @Mock private ObjectMapper mockObjectMapper;
+    @Mock private IdentityVerificationService mockIdentityVerificationService;
+    @Mock private EventProbe mockEventProbe;
+    @Mock private Context context;
+    @Mock private PersonIdentityService mockPersonIdentityService;
+    @Mock private SessionService mockSessionService;
+    @Mock private ConfigurationService mockConfigurationService;
+    @Mock private AuditEventPublisher mockAuditEventPublisher;
+    private DocumentCheckResultStore documentCheckResultStore;
+    private DocumentCheckVerificationResult checkResult;
+
+    @BeforeAll
+    static void startDynamoDbLocal() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        dynamoDbLocal =
+                ServerRunner.createServerFromCommandLineArgs(
+                        new String[] {"-inMemory", "-port", String.valueOf(port)});
+        dynamoDbLocal.start();
+
+        dynamoDbClient =
+                DynamoDbClient.builder()
+                        .endpointOverride(URI.create("http://localhost:" + port))
+                        .region(Region.EU_WEST_2)
+                        .credentialsProvider(
+                                StaticCredentialsProvider.create(
+                                        AwsBasicCredentials.create("local", "local")))
+                        .httpClient(UrlConnectionHttpClient.create())
+                        .build();
+        enhancedClient = DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build();
+        enhancedClient.table(TABLE_NAME, DocumentCheckResultTableSchema.TABLE_SCHEMA).createTable();
+    }
+
+    @AfterAll
+    static void stopDynamoDbLocal() throws Exception {
+        dynamoDbClient.close();
+        dynamoDbLocal.stop();
+    }
+
+    @BeforeEach
+    void setup() {
+        when(mockServiceFactory.getIdentityVerificationService())
+                .thenReturn(mockIdentityVerificationService);
+        when(mockServiceFactory.getRequestDeadline())
+                .thenReturn(new RequestDeadline(Clock.systemUTC()));
+        when(mockServiceFactory.getParallelTaskExecutor())
+                .thenReturn(ParallelTaskExecutor.withDaemonThreads("save-attempt-test", 3));
+        documentCheckResultStore = new DocumentCheckResultStore(TABLE_NAME, enhancedClient);
+    }
+
+    @Test
+    void shouldSaveTheCheckResultAlongsideThePersonIdentityBeforeCreatingTheAuthorizationCode()
+            throws IOException, SqsException, OAuthHttpResponseExceptionWithErrorBody {
+        SessionItem sessionItem = givenSession();
+        APIGatewayProxyRequestEvent requestEvent = givenCheckedRequest();
+        String sessionId = sessionItem.getSessionId().toString();
+
+        // Only returns once the check result is in the table, so fails if the writes run in turn
+        doAnswer(
+                        invocation -> {
+                            assertNotNull(awaitCheckResult(sessionId));
+                            return null;
+                        })
+                .when(mockPersonIdentityService)
+                .savePersonIdentity(eq(sessionItem.getSessionId()), any());
+        doAnswer(
+                        invocation -> {
+                            assertNotNull(documentCheckResultStore.getItem(sessionId));
+                            return null;
+                        })
+                .when(mockSessionService)
+                .createAuthorizationCode(sessionItem);
+
+        APIGatewayProxyResponseEvent responseEvent =
+                handlerWriting(documentCheckResultStore).handleRequest(requestEvent, context);
+
+        assertEquals(200, responseEvent.getStatusCode());
+        DocumentCheckResultItem savedItem = documentCheckResultStore.getItem(sessionId);
+        assertEquals(sessionItem.getSessionId(), savedItem.getSessionId());
+        assertEquals(
+                checkResult.getDrivingPermit().getDocumentNumber(), savedItem.getDocumentNumber());
+
+        InOrder auditOrder = inOrder(mockAuditEventPublisher, mockSessionService);
+        auditOrder.verify(mockAuditEventPublisher).flush();
+        auditOrder.verify(mockSessionService).createAuthorizationCode(sessionItem);
+        InOrder personIdentityOrder = inOrder(mockPersonIdentityService, mockSessionService);
+        personIdentityOrder
+                .verify(mockPersonIdentityService)
+                .savePersonIdentity(eq(sessionItem.getSessionId()), any());
+        personIdentityOrder.verify(mockSessionService).createAuthorizationCode(sessionItem);
+    }
+
+    @Test
+    void shouldSaveTheCheckResultButNotCreateTheAuthorizationCodeWhenThePersonIdentityFails()
+            throws IOException, SqsException, OAuthHttpResponseExceptionWithErrorBody {
+        SessionItem sessionItem = givenSession();
+        APIGatewayProxyRequestEvent requestEvent = givenCheckedRequest();
+
+        doThrow(new IllegalStateException("person identity not saved"))
+                .when(mockPersonIdentityService)
+                .savePersonIdentity(eq(sessionItem.getSessionId()), any());
+
+        APIGatewayProxyResponseEvent responseEvent =
+                handlerWriting(documentCheckResultStore).handleRequest(requestEvent, context);
+
+        assertEquals(500, responseEvent.getStatusCode());
+        // Waited for even though the person identity write had already failed
+        assertNotNull(documentCheckResultStore.getItem(sessionItem.getSessionId().toString()));
+        verify(mockAuditEventPublisher).flush();
+        verify(mockSessionService, never()).createAuthorizationCode(any());
+    }
+
+    @Test
+    void shouldNotCreateTheAuthorizationCodeWhenTheCheckResultIsNotSaved()
+            throws IOException, SqsException, OAuthHttpResponseExceptionWithErrorBody {
+        SessionItem sessionItem = givenSession();
+        APIGatewayProxyRequestEvent requestEvent = givenCheckedRequest();
+        // DynamoDB Local rejects the put with a ResourceNotFoundException
+        DocumentCheckResultStore storeWithoutTable =
+                new DocumentCheckResultStore("table-never-created", enhancedClient);
+
+        APIGatewayProxyResponseEvent responseEvent =
+                handlerWriting(storeWithoutTable).handleRequest(requestEvent, context);
+
+        assertEquals(500, responseEvent.getStatusCode());
+        assertNull(documentCheckResultStore.getItem(sessionItem.getSessionId().toString()));
+        verify(mockAuditEventPublisher).flush();
+        verify(mockPersonIdentityService).savePersonIdentity(eq(sessionItem.getSessionId()), any());
+        verify(mockSessionService, never()).createAuthorizationCode(any());
+    }
+
+    private DrivingPermitHandler handlerWriting(DocumentCheckResultStore dataStore) {
+        return new DrivingPermitHandler(
+                mockServiceFactory,
+                mockObjectMapper,
+                mockEventProbe,
+                mockPersonIdentityService,
+                mockSessionService,
+                dataStore,
+                mockConfigurationService,
+                mockAuditEventPublisher);
+    }
+
+    private SessionItem givenSession() {
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.randomUUID());
+        sessionItem.setAttemptCount(0); // No previous attempt
+        when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
+        return sessionItem;
+    }
+
+    private APIGatewayProxyRequestEvent givenCheckedRequest()
+            throws IOException, OAuthHttpResponseExceptionWithErrorBody {
+        String testRequestBody = "request body";
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+        checkResult = DocumentCheckVerificationResultDataGenerator.generate(drivingPermitForm);
+
+        APIGatewayProxyRequestEvent requestEvent = new APIGatewayProxyRequestEvent();
+        requestEvent.setBody(testRequestBody);
+        requestEvent.setHeaders(Map.of("session_id", UUID.randomUUID().toString()));
+
+        when(mockObjectMapper.readValue(testRequestBody, DrivingPermitForm.class))
+                .thenReturn(drivingPermitForm);
+        when(mockIdentityVerificationService.verifyIdentity(drivingPermitForm, null))
+                .thenReturn(checkResult);
+        return requestEvent;
+    }
+
+    private DocumentCheckResultItem awaitCheckResult(String sessionId)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WRITE_TIMEOUT_MS);
+        DocumentCheckResultItem item = documentCheckResultStore.getItem(sessionId);
+        while (item == null && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+            item = documentCheckResultStore.getItem(sessionId);
+        }
+        return item;
+    }
+}
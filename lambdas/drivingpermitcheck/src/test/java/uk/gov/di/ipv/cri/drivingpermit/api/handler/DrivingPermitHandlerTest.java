@@ -3,6 +3,7 @@ package uk.gov.di.ipv.cri.drivingpermit.api.handler;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,9 +18,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventContext;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
 import uk.gov.di.ipv.cri.common.library.exception.SqsException;
-import uk.gov.di.ipv.cri.common.library.persistence.DataStore;
 import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
-import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
 import uk.gov.di.ipv.cri.common.library.service.SessionService;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
@@ -27,12 +26,21 @@ import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckVerificationResul
 import uk.gov.di.ipv.cri.drivingpermit.api.exception.OAuthHttpResponseExceptionWithErrorBody;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.ConfigurationService;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.IdentityVerificationService;
+import uk.gov.di.ipv.cri.drivingpermit.api.service.PreparedDocumentCheck;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.ServiceFactory;
 import uk.gov.di.ipv.cri.drivingpermit.api.testdata.DocumentCheckVerificationResultDataGenerator;
+import uk.gov.di.ipv.cri.drivingpermit.api.util.RequestDeadline;
+import uk.gov.di.ipv.cri.drivingpermit.library.audit.AuditEventPublisher;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.DocumentCheckResultStore;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.DocumentCheckResultItem;
 import uk.gov.di.ipv.cri.drivingpermit.library.testdata.DrivingPermitFormTestDataGenerator;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ParallelTaskExecutor;
 
 import java.io.IOException;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -40,7 +48,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_DRIVING_PERMIT_CHECK_ATTEMPT_STATUS_RETRY;
@@ -48,6 +58,7 @@ import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_DRIVING_PERMIT_CHECK_ATTEMPT_STATUS_VERIFIED_PREFIX;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_ERROR;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_OK;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.SAVE_ATTEMPT_WRITE_DURATION_PREFIX;
 
 @ExtendWith(MockitoExtension.class)
 class DrivingPermitHandlerTest {
@@ -58,15 +69,20 @@ class DrivingPermitHandlerTest {
     @Mock private Context context;
     @Mock private PersonIdentityService personIdentityService;
     @Mock private SessionService mockSessionService;
-    @Mock private DataStore dataStore;
+    @Mock private DocumentCheckResultStore dataStore;
     @Mock private ConfigurationService configurationService;
-    @Mock private AuditService auditService;
+    @Mock private AuditEventPublisher auditEventPublisher;
     private DrivingPermitHandler drivingPermitHandler;
 
     @BeforeEach
     void setup() {
         when(mockServiceFactory.getIdentityVerificationService())
                 .thenReturn(mockIdentityVerificationService);
+        when(mockServiceFactory.getRequestDeadline())
+                .thenReturn(new RequestDeadline(Clock.systemUTC()));
+        // Runs each task on the calling thread, ParallelTaskExecutorTest covers the concurrency
+        when(mockServiceFactory.getParallelTaskExecutor())
+                .thenReturn(new ParallelTaskExecutor(Runnable::run));
         this.drivingPermitHandler =
                 new DrivingPermitHandler(
                         mockServiceFactory,
@@ -76,7 +92,7 @@ class DrivingPermitHandlerTest {
                         mockSessionService,
                         dataStore,
                         configurationService,
-                        auditService);
+                        auditEventPublisher);
     }
 
     @Test
@@ -104,16 +120,16 @@ class DrivingPermitHandlerTest {
                 .thenReturn(drivingPermitForm);
 
         doNothing()
-                .when(auditService)
-                .sendAuditEvent(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
+                .when(auditEventPublisher)
+                .addAuditEvent(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
         doNothing()
-                .when(auditService)
-                .sendAuditEvent(
+                .when(auditEventPublisher)
+                .addAuditEvent(
                         eq(AuditEventType.THIRD_PARTY_REQUEST_ENDED),
                         any(AuditEventContext.class),
                         eq(""));
 
-        when(mockIdentityVerificationService.verifyIdentity(drivingPermitForm))
+        when(mockIdentityVerificationService.verifyIdentity(drivingPermitForm, null))
                 .thenReturn(testDocumentVerificationResult);
 
         when(context.getFunctionName()).thenReturn("functionName");
@@ -126,6 +142,10 @@ class DrivingPermitHandlerTest {
                 .counterMetric(LAMBDA_DRIVING_PERMIT_CHECK_ATTEMPT_STATUS_VERIFIED_PREFIX + 1);
         inOrder.verify(mockEventProbe).counterMetric(LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_OK);
 
+        InOrder auditOrder = inOrder(auditEventPublisher, mockSessionService);
+        auditOrder.verify(auditEventPublisher).flush();
+        auditOrder.verify(mockSessionService).createAuthorizationCode(sessionItem);
+
         assertNotNull(responseEvent);
         assertEquals(200, responseEvent.getStatusCode());
         assertEquals("{\"redirectUrl\":null,\"retry\":false}", responseEvent.getBody());
@@ -161,16 +181,16 @@ class DrivingPermitHandlerTest {
                 .thenReturn(drivingPermitForm);
 
         doNothing()
-                .when(auditService)
-                .sendAuditEvent(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
+                .when(auditEventPublisher)
+                .addAuditEvent(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
         doNothing()
-                .when(auditService)
-                .sendAuditEvent(
+                .when(auditEventPublisher)
+                .addAuditEvent(
                         eq(AuditEventType.THIRD_PARTY_REQUEST_ENDED),
                         any(AuditEventContext.class),
                         eq(""));
 
-        when(mockIdentityVerificationService.verifyIdentity(drivingPermitForm))
+        when(mockIdentityVerificationService.verifyIdentity(drivingPermitForm, null))
                 .thenReturn(testDocumentVerificationResult);
 
         when(context.getFunctionName()).thenReturn("functionName");
@@ -227,16 +247,16 @@ class DrivingPermitHandlerTest {
                 .thenReturn(drivingPermitForm);
 
         doNothing()
-                .when(auditService)
-                .sendAuditEvent(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
+                .when(auditEventPublisher)
+                .addAuditEvent(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
         doNothing()
-                .when(auditService)
-                .sendAuditEvent(
+                .when(auditEventPublisher)
+                .addAuditEvent(
                         eq(AuditEventType.THIRD_PARTY_REQUEST_ENDED),
                         any(AuditEventContext.class),
                         eq(""));
 
-        when(mockIdentityVerificationService.verifyIdentity(drivingPermitForm))
+        when(mockIdentityVerificationService.verifyIdentity(drivingPermitForm, null))
                 .thenReturn(testDocumentVerificationResult);
 
         when(context.getFunctionName()).thenReturn("functionName");
@@ -295,6 +315,43 @@ class DrivingPermitHandlerTest {
                 responseEvent.getBody());
     }
 
+    @Test
+    void handleResponseShouldCancelPreparingTheCheckWhenReturningEarly() throws IOException {
+        // Holds the tasks so they are only run once the handler has returned
+        List<Runnable> tasks = new ArrayList<>();
+        when(mockServiceFactory.getParallelTaskExecutor())
+                .thenReturn(new ParallelTaskExecutor(tasks::add));
+        DrivingPermitHandler handler =
+                new DrivingPermitHandler(
+                        mockServiceFactory,
+                        mockObjectMapper,
+                        mockEventProbe,
+                        personIdentityService,
+                        mockSessionService,
+                        dataStore,
+                        configurationService,
+                        auditEventPublisher);
+
+        APIGatewayProxyRequestEvent mockRequestEvent =
+                Mockito.mock(APIGatewayProxyRequestEvent.class);
+        when(mockRequestEvent.getBody()).thenReturn("request body");
+        Map<String, String> requestHeaders = Map.of("session_id", UUID.randomUUID().toString());
+        when(mockRequestEvent.getHeaders()).thenReturn(requestHeaders);
+
+        final var sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.randomUUID());
+        sessionItem.setAttemptCount(2); // Two previous attempts
+        when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
+
+        APIGatewayProxyResponseEvent responseEvent =
+                handler.handleRequest(mockRequestEvent, context);
+        tasks.forEach(Runnable::run);
+
+        assertEquals(500, responseEvent.getStatusCode());
+        verify(mockObjectMapper, never()).readValue(anyString(), eq(DrivingPermitForm.class));
+        verify(mockIdentityVerificationService, never()).prepareDocumentCheck(any());
+    }
+
     @Test
     void handleResponseShouldReturnInternalServerErrorResponseWhenUnableToContactThirdPartyApi()
             throws JsonProcessingException, SqsException, OAuthHttpResponseExceptionWithErrorBody {
@@ -323,16 +380,16 @@ class DrivingPermitHandlerTest {
         when(mockObjectMapper.readValue(testRequestBody, DrivingPermitForm.class))
                 .thenReturn(drivingPermitForm);
 
-        when(mockIdentityVerificationService.verifyIdentity(drivingPermitForm))
+        when(mockIdentityVerificationService.verifyIdentity(drivingPermitForm, null))
                 .thenReturn(testDocumentVerificationResult);
 
         doNothing()
-                .when(auditService)
-                .sendAuditEvent(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
+                .when(auditEventPublisher)
+                .addAuditEvent(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
 
         doNothing()
-                .when(auditService)
-                .sendAuditEvent(
+                .when(auditEventPublisher)
+                .addAuditEvent(
                         eq(AuditEventType.THIRD_PARTY_REQUEST_ENDED),
                         any(AuditEventContext.class),
                         eq(""));
@@ -352,6 +409,170 @@ class DrivingPermitHandlerTest {
         assertEquals(EXPECTED_ERROR, responseEvent.getBody());
     }
 
+    @Test
+    void handleResponseShouldSendDocumentCheckRequestPreparedWhileSessionIsRead()
+            throws IOException, SqsException, OAuthHttpResponseExceptionWithErrorBody {
+        String testRequestBody = "request body";
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+        PreparedDocumentCheck preparedDocumentCheck = Mockito.mock(PreparedDocumentCheck.class);
+
+        DocumentCheckVerificationResult testDocumentVerificationResult =
+                DocumentCheckVerificationResultDataGenerator.generate(drivingPermitForm);
+
+        APIGatewayProxyRequestEvent mockRequestEvent =
+                Mockito.mock(APIGatewayProxyRequestEvent.class);
+
+        when(mockRequestEvent.getBody()).thenReturn(testRequestBody);
+        Map<String, String> requestHeaders = Map.of("session_id", UUID.randomUUID().toString());
+        when(mockRequestEvent.getHeaders()).thenReturn(requestHeaders);
+
+        final var sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.randomUUID());
+        when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
+
+        when(mockObjectMapper.readValue(testRequestBody, DrivingPermitForm.class))
+                .thenReturn(drivingPermitForm);
+        when(mockIdentityVerificationService.prepareDocumentCheck(drivingPermitForm))
+                .thenReturn(preparedDocumentCheck);
+        when(mockIdentityVerificationService.verifyIdentity(
+                        drivingPermitForm, preparedDocumentCheck))
+                .thenReturn(testDocumentVerificationResult);
+
+        when(context.getFunctionName()).thenReturn("functionName");
+        when(context.getFunctionVersion()).thenReturn("1.0");
+        APIGatewayProxyResponseEvent responseEvent =
+                drivingPermitHandler.handleRequest(mockRequestEvent, context);
+
+        verify(mockEventProbe).counterMetric(LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_OK);
+        assertEquals(200, responseEvent.getStatusCode());
+    }
+
+    @Test
+    void handleResponseShouldReturnBadRequestWhenFormCannotBeParsed()
+            throws IOException, OAuthHttpResponseExceptionWithErrorBody {
+        String testRequestBody = "request body";
+
+        APIGatewayProxyRequestEvent mockRequestEvent =
+                Mockito.mock(APIGatewayProxyRequestEvent.class);
+
+        when(mockRequestEvent.getBody()).thenReturn(testRequestBody);
+        Map<String, String> requestHeaders = Map.of("session_id", UUID.randomUUID().toString());
+        when(mockRequestEvent.getHeaders()).thenReturn(requestHeaders);
+
+        final var sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.randomUUID());
+        when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
+
+        when(mockObjectMapper.readValue(testRequestBody, DrivingPermitForm.class))
+                .thenThrow(new JsonParseException(null, "Unexpected character"));
+
+        when(context.getFunctionName()).thenReturn("functionName");
+        when(context.getFunctionVersion()).thenReturn("1.0");
+        APIGatewayProxyResponseEvent responseEvent =
+                drivingPermitHandler.handleRequest(mockRequestEvent, context);
+
+        verify(mockIdentityVerificationService, never())
+                .verifyIdentity(any(DrivingPermitForm.class), any());
+        verify(mockEventProbe).counterMetric(LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_ERROR);
+        assertEquals(400, responseEvent.getStatusCode());
+    }
+
+    @Test
+    void handleResponseShouldSaveResultsButNotCreateAuthorizationCodeWhenAuditEventsFail()
+            throws IOException, SqsException, OAuthHttpResponseExceptionWithErrorBody {
+        String testRequestBody = "request body";
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+
+        DocumentCheckVerificationResult testDocumentVerificationResult =
+                DocumentCheckVerificationResultDataGenerator.generate(drivingPermitForm);
+
+        APIGatewayProxyRequestEvent mockRequestEvent =
+                Mockito.mock(APIGatewayProxyRequestEvent.class);
+
+        when(mockRequestEvent.getBody()).thenReturn(testRequestBody);
+        Map<String, String> requestHeaders = Map.of("session_id", UUID.randomUUID().toString());
+        when(mockRequestEvent.getHeaders()).thenReturn(requestHeaders);
+
+        final var sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.randomUUID());
+        when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
+
+        when(mockObjectMapper.readValue(testRequestBody, DrivingPermitForm.class))
+                .thenReturn(drivingPermitForm);
+        when(mockIdentityVerificationService.verifyIdentity(drivingPermitForm, null))
+                .thenReturn(testDocumentVerificationResult);
+
+        doThrow(new RuntimeException("Audit queue unavailable"))
+                .when(auditEventPublisher)
+                .flush();
+
+        when(context.getFunctionName()).thenReturn("functionName");
+        when(context.getFunctionVersion()).thenReturn("1.0");
+        APIGatewayProxyResponseEvent responseEvent =
+                drivingPermitHandler.handleRequest(mockRequestEvent, context);
+
+        // The writes still complete, but without a code the check can never be collected
+        verify(personIdentityService).savePersonIdentity(eq(sessionItem.getSessionId()), any());
+        verify(dataStore).create(any(DocumentCheckResultItem.class));
+        verify(auditEventPublisher)
+                .addAuditEvent(eq(AuditEventType.REQUEST_SENT), any(AuditEventContext.class));
+        verify(mockSessionService, never()).createAuthorizationCode(any(SessionItem.class));
+
+        // The failed write is timed too, and the code that was not created is not
+        for (String write : List.of("audit_events", "person_identity", "document_check_result")) {
+            verify(mockEventProbe)
+                    .counterMetric(eq(SAVE_ATTEMPT_WRITE_DURATION_PREFIX + write), anyDouble());
+        }
+        verify(mockEventProbe, never())
+                .counterMetric(
+                        eq(SAVE_ATTEMPT_WRITE_DURATION_PREFIX + "authorization_code"), anyDouble());
+
+        verify(mockEventProbe).counterMetric(LAMBDA_DRIVING_PERMIT_CHECK_COMPLETED_ERROR);
+        assertEquals(500, responseEvent.getStatusCode());
+    }
+
+    @Test
+    void handleResponseShouldReportTheDurationOfEachWrite()
+            throws IOException, SqsException, OAuthHttpResponseExceptionWithErrorBody {
+        String testRequestBody = "request body";
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+
+        DocumentCheckVerificationResult testDocumentVerificationResult =
+                DocumentCheckVerificationResultDataGenerator.generate(drivingPermitForm);
+
+        APIGatewayProxyRequestEvent mockRequestEvent =
+                Mockito.mock(APIGatewayProxyRequestEvent.class);
+
+        when(mockRequestEvent.getBody()).thenReturn(testRequestBody);
+        Map<String, String> requestHeaders = Map.of("session_id", UUID.randomUUID().toString());
+        when(mockRequestEvent.getHeaders()).thenReturn(requestHeaders);
+
+        final var sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.randomUUID());
+        when(mockSessionService.validateSessionId(anyString())).thenReturn(sessionItem);
+
+        when(mockObjectMapper.readValue(testRequestBody, DrivingPermitForm.class))
+                .thenReturn(drivingPermitForm);
+        when(mockIdentityVerificationService.verifyIdentity(drivingPermitForm, null))
+                .thenReturn(testDocumentVerificationResult);
+
+        when(context.getFunctionName()).thenReturn("functionName");
+        when(context.getFunctionVersion()).thenReturn("1.0");
+        APIGatewayProxyResponseEvent responseEvent =
+                drivingPermitHandler.handleRequest(mockRequestEvent, context);
+
+        for (String write :
+                List.of(
+                        "audit_events",
+                        "person_identity",
+                        "document_check_result",
+                        "authorization_code")) {
+            verify(mockEventProbe)
+                    .counterMetric(eq(SAVE_ATTEMPT_WRITE_DURATION_PREFIX + write), anyDouble());
+        }
+        assertEquals(200, responseEvent.getStatusCode());
+    }
+
     private static boolean[] getDocumentVerifiedStatus() {
         return new boolean[] {true, false};
     }
@@ -0,0 +1,189 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.service;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWEObject;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.RSADecrypter;
+import com.nimbusds.jose.crypto.RSAEncrypter;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.DcsPayload;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.DcsResponse;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.Thumbprints;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.Certificate;
+import java.security.interfaces.RSAPublicKey;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DcsCryptographyServiceTest {
+    private static final String DCS_RESPONSE_JSON =
+            "{\"correlationId\":\"correlation-id\",\"requestId\":\"request-id\",\"error\":false,\"valid\":true}";
+
+    private static KeyPair criSigningKeyPair;
+    private static KeyPair criEncryptionKeyPair;
+    private static KeyPair dcsSigningKeyPair;
+    private static KeyPair dcsEncryptionKeyPair;
+
+    @Mock private ConfigurationService mockConfigurationService;
+    @Mock private Certificate mockDcsSigningCert;
+    @Mock private Certificate mockDcsEncryptionCert;
+
+    private DcsCryptographyService dcsCryptographyService;
+
+    @BeforeAll
+    static void generateKeys() throws NoSuchAlgorithmException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+
+        criSigningKeyPair = keyPairGenerator.generateKeyPair();
+        criEncryptionKeyPair = keyPairGenerator.generateKeyPair();
+        dcsSigningKeyPair = keyPairGenerator.generateKeyPair();
+        dcsEncryptionKeyPair = keyPairGenerator.generateKeyPair();
+    }
+
+    @BeforeEach
+    void setUp() {
+        lenient()
+                .when(mockConfigurationService.getDcsKeyMaterial())
+                .thenReturn(createKeyMaterial(criSigningKeyPair));
+        lenient().when(mockDcsSigningCert.getPublicKey()).thenReturn(dcsSigningKeyPair.getPublic());
+        lenient()
+                .when(mockDcsEncryptionCert.getPublicKey())
+                .thenReturn(dcsEncryptionKeyPair.getPublic());
+
+        dcsCryptographyService = new DcsCryptographyService(mockConfigurationService);
+    }
+
+    @Test
+    void shouldReuseCryptographyContextAcrossPreparedPayloads() throws Exception {
+        JWSObject firstPayload = dcsCryptographyService.preparePayload(new DcsPayload());
+        DcsCryptographyContext firstContext = dcsCryptographyService.getCryptographyContext();
+
+        JWSObject secondPayload = dcsCryptographyService.preparePayload(new DcsPayload());
+
+        assertSame(firstContext, dcsCryptographyService.getCryptographyContext());
+        assertTrue(
+                firstPayload.verify(
+                        new RSASSAVerifier((RSAPublicKey) criSigningKeyPair.getPublic())));
+        assertTrue(
+                secondPayload.verify(
+                        new RSASSAVerifier((RSAPublicKey) criSigningKeyPair.getPublic())));
+
+        // Certificates are only unpacked once, when the context is first built
+        verify(mockDcsEncryptionCert, times(1)).getPublicKey();
+        verify(mockDcsSigningCert, times(1)).getPublicKey();
+    }
+
+    @Test
+    void shouldReuseCryptographyContextAcrossUnwrappedResponses() throws Exception {
+        DcsResponse firstResponse =
+                dcsCryptographyService.unwrapDcsResponse(createDcsResponse(DCS_RESPONSE_JSON));
+        DcsCryptographyContext firstContext = dcsCryptographyService.getCryptographyContext();
+
+        DcsResponse secondResponse =
+                dcsCryptographyService.unwrapDcsResponse(createDcsResponse(DCS_RESPONSE_JSON));
+
+        assertSame(firstContext, dcsCryptographyService.getCryptographyContext());
+        assertEquals("request-id", firstResponse.getRequestId());
+        assertEquals("request-id", secondResponse.getRequestId());
+        assertTrue(secondResponse.isValid());
+
+        verify(mockDcsEncryptionCert, times(1)).getPublicKey();
+        verify(mockDcsSigningCert, times(1)).getPublicKey();
+    }
+
+    @Test
+    void shouldSignWithPrecomputedProtectedHeader() throws Exception {
+        JWSObject preparedPayload = dcsCryptographyService.preparePayload(new DcsPayload());
+        JWSHeader cachedHeader = dcsCryptographyService.getCryptographyContext().getJwsHeader();
+
+        JWSObject parsedOuterPayload = JWSObject.parse(preparedPayload.serialize());
+        JWEObject encryptedPayload = JWEObject.parse(parsedOuterPayload.getPayload().toString());
+        encryptedPayload.decrypt(new RSADecrypter(dcsEncryptionKeyPair.getPrivate()));
+        JWSObject parsedInnerPayload = JWSObject.parse(encryptedPayload.getPayload().toString());
+
+        assertSame(cachedHeader, preparedPayload.getHeader());
+        assertEquals(cachedHeader.toBase64URL(), parsedOuterPayload.getHeader().toBase64URL());
+        assertEquals(JWSAlgorithm.RS256, parsedOuterPayload.getHeader().getAlgorithm());
+        assertEquals("sha1Thumbprint", parsedOuterPayload.getHeader().toJSONObject().get("x5t"));
+        assertEquals(
+                "sha256Thumbprint",
+                parsedOuterPayload.getHeader().toJSONObject().get("x5t#S256"));
+        assertEquals(cachedHeader.toBase64URL(), parsedInnerPayload.getHeader().toBase64URL());
+    }
+
+    @Test
+    void shouldRebuildCryptographyContextWhenKeyMaterialChanges() throws Exception {
+        DcsCryptographyContext firstContext = dcsCryptographyService.getCryptographyContext();
+        assertSame(firstContext, dcsCryptographyService.getCryptographyContext());
+
+        KeyPair rotatedCriSigningKeyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        when(mockConfigurationService.getDcsKeyMaterial())
+                .thenReturn(createKeyMaterial(rotatedCriSigningKeyPair));
+
+        DcsCryptographyContext rotatedContext = dcsCryptographyService.getCryptographyContext();
+        assertNotSame(firstContext, rotatedContext);
+
+        JWSObject preparedPayload = dcsCryptographyService.preparePayload(new DcsPayload());
+        assertSame(rotatedContext, dcsCryptographyService.getCryptographyContext());
+        assertTrue(
+                preparedPayload.verify(
+                        new RSASSAVerifier((RSAPublicKey) rotatedCriSigningKeyPair.getPublic())));
+    }
+
+    private DcsKeyMaterial createKeyMaterial(KeyPair signingKeyPair) {
+        return new DcsKeyMaterial(
+                signingKeyPair.getPrivate(),
+                criEncryptionKeyPair.getPrivate(),
+                mockDcsEncryptionCert,
+                List.of(mockDcsSigningCert),
+                List.of(new Thumbprints("dcsSha1Thumbprint", "dcsSha256Thumbprint")),
+                new Thumbprints("sha1Thumbprint", "sha256Thumbprint"));
+    }
+
+    private static String createDcsResponse(String dcsResponseJson) throws Exception {
+        RSASSASigner dcsSigner = new RSASSASigner(dcsSigningKeyPair.getPrivate());
+
+        JWSObject innerSignedPayload =
+                new JWSObject(new JWSHeader(JWSAlgorithm.RS256), new Payload(dcsResponseJson));
+        innerSignedPayload.sign(dcsSigner);
+
+        JWEObject encryptedPayload =
+                new JWEObject(
+                        new JWEHeader(JWEAlgorithm.RSA_OAEP_256, EncryptionMethod.A128CBC_HS256),
+                        new Payload(innerSignedPayload.serialize()));
+        encryptedPayload.encrypt(new RSAEncrypter((RSAPublicKey) criEncryptionKeyPair.getPublic()));
+
+        JWSObject outerSignedPayload =
+                new JWSObject(
+                        new JWSHeader(JWSAlgorithm.RS256),
+                        new Payload(encryptedPayload.serialize()));
+        outerSignedPayload.sign(dcsSigner);
+
+        return outerSignedPayload.serialize();
+    }
+}
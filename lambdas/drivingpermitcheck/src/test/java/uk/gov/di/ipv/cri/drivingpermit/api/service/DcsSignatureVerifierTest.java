@@ -0,0 +1,147 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.service;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.util.Base64URL;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.Thumbprints;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.cert.Certificate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class DcsSignatureVerifierTest {
+    private static final Thumbprints CURRENT_THUMBPRINTS =
+            new Thumbprints("currentSha1", "currentSha256");
+    private static final Thumbprints NEXT_THUMBPRINTS = new Thumbprints("nextSha1", "nextSha256");
+
+    private static KeyPair currentKeyPair;
+    private static KeyPair nextKeyPair;
+
+    @Mock private Certificate mockCurrentCert;
+    @Mock private Certificate mockNextCert;
+
+    private DcsSignatureVerifier dcsSignatureVerifier;
+
+    @BeforeAll
+    static void generateKeys() throws NoSuchAlgorithmException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+
+        currentKeyPair = keyPairGenerator.generateKeyPair();
+        nextKeyPair = keyPairGenerator.generateKeyPair();
+    }
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(mockCurrentCert.getPublicKey()).thenReturn(currentKeyPair.getPublic());
+        lenient().when(mockNextCert.getPublicKey()).thenReturn(nextKeyPair.getPublic());
+
+        dcsSignatureVerifier =
+                DcsSignatureVerifier.create(
+                        createKeyMaterial(
+                                List.of(mockCurrentCert, mockNextCert),
+                                List.of(CURRENT_THUMBPRINTS, NEXT_THUMBPRINTS)),
+                        null);
+    }
+
+    @Test
+    void shouldVerifyWithTheCertNamedBySha256Thumbprint() throws Exception {
+        JWSHeader header =
+                new JWSHeader.Builder(JWSAlgorithm.RS256)
+                        .x509CertSHA256Thumbprint(new Base64URL("nextSha256"))
+                        .build();
+
+        assertTrue(dcsSignatureVerifier.verify(sign(header, nextKeyPair)));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void shouldVerifyWithTheCertNamedBySha1Thumbprint() throws Exception {
+        JWSHeader header =
+                new JWSHeader.Builder(JWSAlgorithm.RS256)
+                        .x509CertThumbprint(new Base64URL("nextSha1"))
+                        .build();
+
+        assertTrue(dcsSignatureVerifier.verify(sign(header, nextKeyPair)));
+    }
+
+    @Test
+    void shouldVerifyWithTheCurrentCertWhenNoThumbprintIsGiven() throws Exception {
+        JWSHeader header = new JWSHeader(JWSAlgorithm.RS256);
+
+        assertTrue(dcsSignatureVerifier.verify(sign(header, currentKeyPair)));
+        assertFalse(dcsSignatureVerifier.verify(sign(header, nextKeyPair)));
+    }
+
+    @Test
+    void shouldNotVerifyWhenTheNamedCertDidNotSign() throws Exception {
+        JWSHeader header =
+                new JWSHeader.Builder(JWSAlgorithm.RS256)
+                        .x509CertSHA256Thumbprint(new Base64URL("currentSha256"))
+                        .build();
+
+        assertFalse(dcsSignatureVerifier.verify(sign(header, nextKeyPair)));
+    }
+
+    @Test
+    void shouldReuseVerifiersForCertsStillTrustedAfterReload() {
+        JWSHeader nextHeader =
+                new JWSHeader.Builder(JWSAlgorithm.RS256)
+                        .x509CertSHA256Thumbprint(new Base64URL("nextSha256"))
+                        .build();
+
+        // The old certificate is retired and the next one becomes current
+        DcsSignatureVerifier reloadedVerifier =
+                DcsSignatureVerifier.create(
+                        createKeyMaterial(List.of(mockNextCert), List.of(NEXT_THUMBPRINTS)),
+                        dcsSignatureVerifier);
+
+        assertSame(
+                dcsSignatureVerifier.selectVerifier(nextHeader),
+                reloadedVerifier.selectVerifier(nextHeader));
+        assertSame(
+                reloadedVerifier.selectVerifier(nextHeader),
+                reloadedVerifier.selectVerifier(new JWSHeader(JWSAlgorithm.RS256)));
+        assertNotSame(
+                dcsSignatureVerifier.selectVerifier(new JWSHeader(JWSAlgorithm.RS256)),
+                reloadedVerifier.selectVerifier(new JWSHeader(JWSAlgorithm.RS256)));
+        verify(mockNextCert, times(1)).getPublicKey();
+    }
+
+    private static DcsKeyMaterial createKeyMaterial(
+            List<Certificate> dcsSigningCerts, List<Thumbprints> dcsSigningCertThumbprints) {
+        return new DcsKeyMaterial(
+                null,
+                null,
+                null,
+                dcsSigningCerts,
+                dcsSigningCertThumbprints,
+                new Thumbprints("sha1Thumbprint", "sha256Thumbprint"));
+    }
+
+    private static JWSObject sign(JWSHeader header, KeyPair keyPair) throws Exception {
+        JWSObject jwsObject = new JWSObject(header, new Payload("payload"));
+        jwsObject.sign(new RSASSASigner(keyPair.getPrivate()));
+        return JWSObject.parse(jwsObject.serialize());
+    }
+}
@@ -7,13 +7,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckResult;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.DocumentCheckVerificationResult;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.ValidationResult;
 import uk.gov.di.ipv.cri.drivingpermit.api.error.ErrorResponse;
 import uk.gov.di.ipv.cri.drivingpermit.api.exception.OAuthHttpResponseExceptionWithErrorBody;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.DocumentCheckRequest;
 import uk.gov.di.ipv.cri.drivingpermit.api.gateway.ThirdPartyDocumentGateway;
 import uk.gov.di.ipv.cri.drivingpermit.library.domain.DrivingPermitForm;
 import uk.gov.di.ipv.cri.drivingpermit.library.testdata.DrivingPermitFormTestDataGenerator;
@@ -26,8 +26,14 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DCS_CHECK_REQUEST_FAILED;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.FORM_DATA_VALIDATION_FAIL;
@@ -38,7 +44,6 @@ class IdentityVerificationServiceTest {
     @Mock private ThirdPartyDocumentGateway mockThirdPartyGateway;
     @Mock private FormDataValidator formDataValidator;
     @Mock private ContraindicationMapper mockContraindicationMapper;
-    @Mock private AuditService mockAuditService;
     @Mock private ConfigurationService configurationService;
     @Mock private ObjectMapper objectMapper;
     @Mock private EventProbe mockEventProbe;
@@ -52,7 +57,6 @@ class IdentityVerificationServiceTest {
                         mockThirdPartyGateway,
                         formDataValidator,
                         mockContraindicationMapper,
-                        mockAuditService,
                         configurationService,
                         objectMapper,
                         mockEventProbe);
@@ -125,4 +129,89 @@ class IdentityVerificationServiceTest {
         verify(mockEventProbe).counterMetric(FORM_DATA_VALIDATION_PASS);
         verify(mockEventProbe).counterMetric(DCS_CHECK_REQUEST_FAILED);
     }
+
+    @Test
+    void prepareDocumentCheckShouldHoldValidationErrorWithoutSideEffectsWhenInvalidInputProvided() {
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+        when(formDataValidator.validate(drivingPermitForm))
+                .thenReturn(new ValidationResult<>(false, List.of("validation error")));
+
+        PreparedDocumentCheck preparedDocumentCheck =
+                this.identityVerificationService.prepareDocumentCheck(drivingPermitForm);
+
+        assertFalse(preparedDocumentCheck.getValidationResult().isValid());
+        assertNull(preparedDocumentCheck.getDocumentCheckRequest());
+        verifyNoInteractions(mockThirdPartyGateway);
+        verifyNoInteractions(mockEventProbe);
+    }
+
+    @Test
+    void verifyIdentityShouldReportPreparedValidationErrorWithoutValidatingAgain() {
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+        when(formDataValidator.validate(drivingPermitForm))
+                .thenReturn(new ValidationResult<>(false, List.of("validation error")));
+
+        PreparedDocumentCheck preparedDocumentCheck =
+                this.identityVerificationService.prepareDocumentCheck(drivingPermitForm);
+
+        assertThrows(
+                OAuthHttpResponseExceptionWithErrorBody.class,
+                () ->
+                        this.identityVerificationService.verifyIdentity(
+                                drivingPermitForm, preparedDocumentCheck));
+        verify(formDataValidator, times(1)).validate(drivingPermitForm);
+        verify(mockEventProbe).counterMetric(FORM_DATA_VALIDATION_FAIL);
+    }
+
+    @Test
+    void verifyIdentityShouldReportFailureToPrepareRequestWithoutPreparingAgain()
+            throws IOException, InterruptedException, CertificateException, ParseException,
+                    JOSEException, OAuthHttpResponseExceptionWithErrorBody {
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+        when(formDataValidator.validate(drivingPermitForm))
+                .thenReturn(ValidationResult.createValidResult());
+        when(mockThirdPartyGateway.prepareDocumentCheck(drivingPermitForm))
+                .thenThrow(new IllegalStateException("signing failed"));
+
+        PreparedDocumentCheck preparedDocumentCheck =
+                this.identityVerificationService.prepareDocumentCheck(drivingPermitForm);
+        DocumentCheckVerificationResult result =
+                this.identityVerificationService.verifyIdentity(
+                        drivingPermitForm, preparedDocumentCheck);
+
+        assertFalse(result.isExecutedSuccessfully());
+        assertEquals(
+                "Error occurred when attempting to invoke the third party api: signing failed",
+                result.getError());
+        verify(mockThirdPartyGateway, times(1)).prepareDocumentCheck(drivingPermitForm);
+        verify(mockThirdPartyGateway, never()).performDocumentCheck(drivingPermitForm);
+    }
+
+    @Test
+    void verifyIdentityShouldSendRequestPreparedFromTheSameForm()
+            throws IOException, InterruptedException, CertificateException, ParseException,
+                    JOSEException, OAuthHttpResponseExceptionWithErrorBody {
+        DrivingPermitForm drivingPermitForm = DrivingPermitFormTestDataGenerator.generate();
+        DocumentCheckRequest documentCheckRequest = mock(DocumentCheckRequest.class);
+        DocumentCheckResult testDocumentCheckResult = new DocumentCheckResult();
+        testDocumentCheckResult.setExecutedSuccessfully(true);
+        testDocumentCheckResult.setValid(true);
+        when(formDataValidator.validate(drivingPermitForm))
+                .thenReturn(ValidationResult.createValidResult());
+        when(mockThirdPartyGateway.prepareDocumentCheck(drivingPermitForm))
+                .thenReturn(documentCheckRequest);
+        when(mockThirdPartyGateway.performDocumentCheck(documentCheckRequest))
+                .thenReturn(testDocumentCheckResult);
+
+        PreparedDocumentCheck preparedDocumentCheck =
+                this.identityVerificationService.prepareDocumentCheck(drivingPermitForm);
+        DocumentCheckVerificationResult result =
+                this.identityVerificationService.verifyIdentity(
+                        drivingPermitForm, preparedDocumentCheck);
+
+        assertTrue(result.isVerified());
+        verify(formDataValidator, times(1)).validate(drivingPermitForm);
+        verify(mockThirdPartyGateway, never()).performDocumentCheck(drivingPermitForm);
+        verify(mockEventProbe).counterMetric(FORM_DATA_VALIDATION_PASS);
+    }
 }
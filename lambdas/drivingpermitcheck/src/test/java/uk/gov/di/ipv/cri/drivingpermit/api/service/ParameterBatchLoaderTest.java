@@ -0,0 +1,109 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParametersRequest;
+import software.amazon.awssdk.services.ssm.model.GetParametersResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import software.amazon.awssdk.services.ssm.model.ParameterNotFoundException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ParameterBatchLoaderTest {
+    @Mock private SsmClient mockSsmClient;
+
+    private ParameterBatchLoader parameterBatchLoader;
+
+    @BeforeEach
+    void setUp() {
+        parameterBatchLoader = new ParameterBatchLoader(mockSsmClient, Runnable::run);
+    }
+
+    @Test
+    void shouldRequestDecryptedParametersTenNamesAtATime() {
+        List<String> names =
+                IntStream.range(0, 13)
+                        .mapToObj(i -> "/stack/name" + i)
+                        .collect(Collectors.toList());
+        when(mockSsmClient.getParameters(any(GetParametersRequest.class)))
+                .thenAnswer(
+                        invocation -> {
+                            GetParametersRequest request = invocation.getArgument(0);
+                            return GetParametersResponse.builder()
+                                    .parameters(
+                                            request.names().stream()
+                                                    .map(
+                                                            name ->
+                                                                    Parameter.builder()
+                                                                            .name(name)
+                                                                            .value(name + "-value")
+                                                                            .build())
+                                                    .collect(Collectors.toList()))
+                                    .build();
+                        });
+
+        Map<String, String> values = parameterBatchLoader.load(names).join();
+
+        ArgumentCaptor<GetParametersRequest> requests =
+                ArgumentCaptor.forClass(GetParametersRequest.class);
+        verify(mockSsmClient, times(2)).getParameters(requests.capture());
+        assertEquals(10, requests.getAllValues().get(0).names().size());
+        assertEquals(3, requests.getAllValues().get(1).names().size());
+        assertTrue(requests.getAllValues().get(0).withDecryption());
+        assertEquals(13, values.size());
+        assertEquals("/stack/name12-value", values.get("/stack/name12"));
+    }
+
+    @Test
+    void shouldFailWhenAParameterDoesNotExist() {
+        when(mockSsmClient.getParameters(any(GetParametersRequest.class)))
+                .thenReturn(
+                        GetParametersResponse.builder()
+                                .parameters(
+                                        Parameter.builder().name("/stack/a").value("a").build())
+                                .invalidParameters("/stack/b")
+                                .build());
+
+        CompletionException thrownException =
+                assertThrows(
+                        CompletionException.class,
+                        () -> parameterBatchLoader.load(List.of("/stack/a", "/stack/b")).join());
+
+        assertInstanceOf(ParameterNotFoundException.class, thrownException.getCause());
+    }
+
+    @Test
+    void shouldLeaveOutParametersThatDoNotExistWhenLoadingIfPresent() {
+        when(mockSsmClient.getParameters(any(GetParametersRequest.class)))
+                .thenReturn(
+                        GetParametersResponse.builder()
+                                .parameters(
+                                        Parameter.builder().name("/stack/a").value("a").build())
+                                .invalidParameters("/stack/b")
+                                .build());
+
+        Map<String, String> values =
+                parameterBatchLoader.loadIfPresent(List.of("/stack/a", "/stack/b")).join();
+
+        assertEquals(Map.of("/stack/a", "a"), values);
+    }
+}
@@ -8,12 +8,24 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HedgingConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.HttpClientConfig;
+import uk.gov.di.ipv.cri.drivingpermit.api.domain.ServiceInitConfig;
 import uk.gov.di.ipv.cri.drivingpermit.api.gateway.HttpRetryer;
+import uk.gov.di.ipv.cri.drivingpermit.api.gateway.circuitbreaker.CircuitBreakerRegistry;
+import uk.gov.di.ipv.cri.drivingpermit.library.audit.AuditEventPublisher;
 
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class ServiceFactoryTest {
@@ -24,29 +36,76 @@ class ServiceFactoryTest {
     @Mock private CloseableHttpClient mockHttpClient;
     @Mock private DcsCryptographyService mockDcsCryptographyService;
     @Mock private HttpRetryer mockHttpRetryer;
+    @Mock private CircuitBreakerRegistry mockCircuitBreakerRegistry;
 
     @Mock private AuditService mockAuditService;
+    @Mock private AuditEventPublisher mockAuditEventPublisher;
 
     @Mock private EventProbe mockEventProbe;
 
     @Test
     void shouldCreateIdentityVerificationService()
             throws NoSuchAlgorithmException, InvalidKeyException {
-        ServiceFactory serviceFactory =
-                new ServiceFactory(
-                        mockObjectMapper,
-                        mockEventProbe,
-                        mockConfigurationService,
-                        mockDcsCryptographyService,
-                        mockContraindicationMapper,
-                        mockFormDataValidator,
-                        mockHttpClient,
-                        mockAuditService,
-                        mockHttpRetryer);
+        ServiceFactory serviceFactory = createServiceFactory();
 
         IdentityVerificationService identityVerificationService =
                 serviceFactory.getIdentityVerificationService();
 
         assertNotNull(identityVerificationService);
     }
+
+    @Test
+    void shouldReloadExpiredKeysAndRecreateDcsConnectionPoolAfterRestore() throws Exception {
+        ServiceFactory serviceFactory = createServiceFactory();
+        when(mockConfigurationService.refreshDcsKeyMaterialIfExpired())
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(mockConfigurationService.getServiceInitConfig())
+                .thenReturn(new ServiceInitConfig(Map.of()));
+
+        assertFalse(serviceFactory.isRestoredFromSnapshot());
+        serviceFactory.afterRestore(null);
+
+        verify(mockConfigurationService).refreshDcsKeyMaterialIfExpired();
+        assertTrue(serviceFactory.isRestoredFromSnapshot());
+
+        // The pool created on restore is closed again before a later snapshot
+        serviceFactory.beforeCheckpoint(null);
+
+        verify(mockHttpClient).close();
+    }
+
+    @Test
+    void shouldLeaveDcsConnectionPoolUntilNeededAfterRestoreWhenOnDemand() throws Exception {
+        ServiceFactory serviceFactory = createServiceFactory();
+        when(mockConfigurationService.refreshDcsKeyMaterialIfExpired())
+                .thenReturn(new CompletableFuture<>());
+        when(mockConfigurationService.getServiceInitConfig())
+                .thenReturn(new ServiceInitConfig(Map.of("DcsHttpClientOnDemand", "true")));
+
+        // A reload that never completes only delays the restore by the timeout
+        serviceFactory.afterRestore(null);
+        serviceFactory.beforeCheckpoint(null);
+
+        verifyNoInteractions(mockHttpClient);
+    }
+
+    private ServiceFactory createServiceFactory()
+            throws NoSuchAlgorithmException, InvalidKeyException {
+        when(mockConfigurationService.getHttpClientConfig())
+                .thenReturn(new HttpClientConfig(Map.of()));
+        when(mockConfigurationService.getHedgingConfig()).thenReturn(new HedgingConfig(Map.of()));
+
+        return new ServiceFactory(
+                mockObjectMapper,
+                mockEventProbe,
+                mockConfigurationService,
+                mockDcsCryptographyService,
+                mockContraindicationMapper,
+                mockFormDataValidator,
+                mockHttpClient,
+                mockAuditService,
+                mockHttpRetryer,
+                mockCircuitBreakerRegistry,
+                mockAuditEventPublisher);
+    }
 }
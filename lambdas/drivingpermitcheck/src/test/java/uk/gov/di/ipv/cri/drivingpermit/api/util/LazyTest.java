@@ -0,0 +1,103 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class LazyTest {
+    private static final String METRIC_PREFIX = "service_creation_duration_";
+
+    @Mock private EventProbe mockEventProbe;
+
+    @Test
+    void shouldCreateTheValueOnceOnFirstUse() {
+        AtomicInteger creations = new AtomicInteger();
+        Lazy<Object> lazy =
+                new Lazy<>(
+                        "component",
+                        () -> {
+                            creations.incrementAndGet();
+                            return new Object();
+                        });
+
+        assertFalse(lazy.isInitialised());
+        assertEquals(0, creations.get());
+
+        Object first = lazy.get();
+
+        assertTrue(lazy.isInitialised());
+        assertSame(first, lazy.get());
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    void shouldTryAgainAfterAFailedCreation() {
+        AtomicInteger attempts = new AtomicInteger();
+        Lazy<String> lazy =
+                new Lazy<>(
+                        "component",
+                        () -> {
+                            if (attempts.incrementAndGet() == 1) {
+                                throw new IOException("unavailable");
+                            }
+                            return "created";
+                        });
+
+        IllegalStateException thrownException =
+                assertThrows(IllegalStateException.class, lazy::get);
+
+        assertInstanceOf(IOException.class, thrownException.getCause());
+        assertFalse(lazy.isInitialised());
+        assertEquals("created", lazy.get());
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void shouldCreateTheValueAgainAfterReset() {
+        AtomicInteger creations = new AtomicInteger();
+        Lazy<Integer> lazy = new Lazy<>("component", creations::incrementAndGet);
+
+        assertNull(lazy.reset());
+        assertEquals(1, lazy.get());
+        assertEquals(1, lazy.reset());
+        assertFalse(lazy.isInitialised());
+        assertEquals(2, lazy.get());
+
+        lazy.publishMetrics(mockEventProbe, METRIC_PREFIX);
+        verify(mockEventProbe).counterMetric(eq(METRIC_PREFIX + "component"), anyDouble());
+    }
+
+    @Test
+    void shouldPublishTheCreationDurationOnceAfterCreation() {
+        Lazy<String> lazy = new Lazy<>("component", () -> "created");
+
+        lazy.publishMetrics(mockEventProbe, METRIC_PREFIX);
+        verifyNoInteractions(mockEventProbe);
+
+        lazy.get();
+        lazy.publishMetrics(mockEventProbe, METRIC_PREFIX);
+        lazy.publishMetrics(mockEventProbe, METRIC_PREFIX);
+
+        verify(mockEventProbe, times(1))
+                .counterMetric(eq(METRIC_PREFIX + "component"), anyDouble());
+    }
+}
@@ -0,0 +1,137 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshableValueTest {
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    @Mock private Clock mockClock;
+    @Mock private EventProbe mockEventProbe;
+
+    private final AtomicReference<CompletableFuture<String>> pendingLoad = new AtomicReference<>();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private RefreshableValue<String> refreshableValue;
+
+    @BeforeEach
+    void setUp() {
+        when(mockClock.millis()).thenReturn(0L);
+        refreshableValue =
+                new RefreshableValue<>(
+                        "test_value",
+                        "initial",
+                        TIME_TO_LIVE,
+                        () -> {
+                            loads.incrementAndGet();
+                            pendingLoad.set(new CompletableFuture<>());
+                            return pendingLoad.get();
+                        },
+                        mockClock);
+    }
+
+    @Test
+    void shouldReturnValueHeldWithoutLoadingUntilItExpires() {
+        when(mockClock.millis()).thenReturn(TIME_TO_LIVE.toMillis() - 1);
+
+        assertEquals("initial", refreshableValue.get());
+        assertEquals(0, loads.get());
+
+        refreshableValue.publishMetrics(mockEventProbe);
+        verify(mockEventProbe).counterMetric("test_value_hit", 1);
+    }
+
+    @Test
+    void shouldReturnExpiredValueWhileReloadingInBackgroundThenSwapToNewValue() {
+        when(mockClock.millis()).thenReturn(TIME_TO_LIVE.toMillis());
+
+        // Only the first read after expiry starts a reload
+        assertEquals("initial", refreshableValue.get());
+        assertEquals("initial", refreshableValue.get());
+        assertEquals(1, loads.get());
+
+        pendingLoad.get().complete("reloaded");
+
+        assertEquals("reloaded", refreshableValue.get());
+
+        refreshableValue.publishMetrics(mockEventProbe);
+        verify(mockEventProbe).counterMetric("test_value_miss", 2);
+        verify(mockEventProbe).counterMetric("test_value_refresh_ok", 1);
+        verify(mockEventProbe).counterMetric("test_value_hit", 1);
+    }
+
+    @Test
+    void shouldKeepValueHeldAndRetryLaterWhenReloadFails() {
+        when(mockClock.millis()).thenReturn(TIME_TO_LIVE.toMillis());
+        refreshableValue.get();
+        pendingLoad.get().completeExceptionally(new IllegalStateException("SSM unavailable"));
+
+        assertEquals("initial", refreshableValue.get());
+        assertEquals(1, loads.get());
+
+        long retryAt = TIME_TO_LIVE.toMillis() + RefreshableValue.MAX_RETRY_DELAY.toMillis();
+        when(mockClock.millis()).thenReturn(retryAt);
+        refreshableValue.get();
+        assertEquals(2, loads.get());
+
+        refreshableValue.publishMetrics(mockEventProbe);
+        verify(mockEventProbe).counterMetric("test_value_refresh_failed", 1);
+        verify(mockEventProbe, never()).counterMetric("test_value_refresh_ok", 1);
+    }
+
+    @Test
+    void shouldNotReloadAfterRestoreWhileTheValueIsFresh() {
+        when(mockClock.millis()).thenReturn(TIME_TO_LIVE.toMillis() - 1);
+
+        assertTrue(refreshableValue.refreshIfExpired().isDone());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void shouldCompleteTheRestoreRefreshOnceTheReloadHasFinished() {
+        when(mockClock.millis()).thenReturn(TIME_TO_LIVE.toMillis());
+
+        CompletableFuture<Void> refreshed = refreshableValue.refreshIfExpired();
+
+        assertEquals(1, loads.get());
+        assertFalse(refreshed.isDone());
+        assertSame(refreshed, refreshableValue.refreshIfExpired());
+
+        pendingLoad.get().complete("reloaded");
+
+        assertTrue(refreshed.isDone());
+        assertEquals("reloaded", refreshableValue.get());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldOnlyPublishCountsGatheredSinceLastCall() {
+        refreshableValue.get();
+        refreshableValue.publishMetrics(mockEventProbe);
+
+        refreshableValue.publishMetrics(mockEventProbe);
+
+        verify(mockEventProbe).counterMetric(anyString(), anyDouble());
+    }
+}
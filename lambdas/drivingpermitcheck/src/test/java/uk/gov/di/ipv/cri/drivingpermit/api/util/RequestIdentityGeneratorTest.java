@@ -0,0 +1,74 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.SimpleDateFormat;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RequestIdentityGeneratorTest {
+
+    private static final Instant NOW = Instant.parse("2022-06-01T12:34:56.789Z");
+
+    @Test
+    void shouldFormatTheTimestampInTheZoneOfTheClock() {
+        assertEquals(
+                "2022-06-01T12:34:56.789+0000",
+                new RequestIdentityGenerator(Clock.fixed(NOW, ZoneOffset.UTC)).timestamp());
+        assertEquals(
+                "2022-06-01T13:34:56.789+0100",
+                new RequestIdentityGenerator(Clock.fixed(NOW, ZoneId.of("Europe/London")))
+                        .timestamp());
+    }
+
+    @Test
+    void shouldFormatTheTimestampAsSimpleDateFormatDid() {
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+        simpleDateFormat.setTimeZone(TimeZone.getTimeZone("America/New_York"));
+
+        assertEquals(
+                simpleDateFormat.format(Date.from(NOW)),
+                new RequestIdentityGenerator(Clock.fixed(NOW, ZoneId.of("America/New_York")))
+                        .timestamp());
+    }
+
+    @Test
+    void shouldCreateUniqueVersion4Ids() {
+        RequestIdentityGenerator requestIdentityGenerator =
+                new RequestIdentityGenerator(Clock.systemUTC());
+        Set<UUID> ids = new HashSet<>();
+
+        for (int i = 0; i < 1000; i++) {
+            UUID id = requestIdentityGenerator.nextId();
+            assertEquals(4, id.version());
+            assertEquals(2, id.variant());
+            ids.add(id);
+        }
+
+        assertEquals(1000, ids.size());
+    }
+
+    @Test
+    void shouldNumberTheIdsWhenDeterministic() {
+        RequestIdentityGenerator requestIdentityGenerator =
+                RequestIdentityGenerator.deterministic(Clock.fixed(NOW, ZoneOffset.UTC));
+
+        UUID first = requestIdentityGenerator.nextId();
+        UUID second = requestIdentityGenerator.nextId();
+
+        assertEquals("00000000-0000-4000-8000-000000000001", first.toString());
+        assertEquals("00000000-0000-4000-8000-000000000002", second.toString());
+        assertEquals(4, first.version());
+        assertEquals(2, first.variant());
+        assertEquals("2022-06-01T12:34:56.789+0000", requestIdentityGenerator.timestamp());
+    }
+}
@@ -0,0 +1,160 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import software.amazon.awssdk.services.kms.KmsClient;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
+import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
+import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
+import uk.gov.di.ipv.cri.common.library.service.SessionService;
+import uk.gov.di.ipv.cri.common.library.util.EventProbe;
+import uk.gov.di.ipv.cri.common.library.util.SignedJWTFactory;
+import uk.gov.di.ipv.cri.drivingpermit.api.persistence.IssuedCredentialCache;
+import uk.gov.di.ipv.cri.drivingpermit.api.persistence.IssuedCredentialStore;
+import uk.gov.di.ipv.cri.drivingpermit.api.service.DocumentCheckRetrievalService;
+import uk.gov.di.ipv.cri.drivingpermit.api.service.VerifiableCredentialService;
+import uk.gov.di.ipv.cri.drivingpermit.api.util.DocumentCheckPersonIdentityDetailedMapper;
+import uk.gov.di.ipv.cri.drivingpermit.library.audit.AuditEventPublisher;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.DocumentCheckResultStore;
+import uk.gov.di.ipv.cri.drivingpermit.library.sdk.SdkClients;
+import uk.gov.di.ipv.cri.drivingpermit.library.testdata.DocumentCheckTestDataGenerator;
+import uk.gov.di.ipv.cri.drivingpermit.library.testdata.DrivingPermitFormTestDataGenerator;
+
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The training run the CDS archive of the issue credential lambda is dumped from, run as the
+ * handler of the function by the Lambda runtime so its classes are loaded as the real handler's
+ * are. Its init builds the SDK clients and stores the lambda builds during init, and creates an
+ * {@link IssueCredentialHandler} with the AWS backed services stubbed. Each invocation then invokes
+ * that handler a few times. The credential is signed for real, with a throwaway EC key in place of
+ * KMS, so nothing leaves the JVM.
+ *
+ * <p>Answers with how long the JVM took to get the handler ready and to complete the first
+ * invocation, which infrastructure/lambda/cds/build-archives.sh compares with and without the
+ * archive. The event {@code "exit"} ends the JVM, which is when the archive is dumped.
+ */
+public class IssueCredentialHandlerTraining implements RequestHandler<String, String> {
+
+    private static final int INVOCATIONS = 5;
+
+    private final IssueCredentialHandler handler;
+    private final long readyMs;
+
+    public IssueCredentialHandlerTraining() throws Exception {
+        createSdkClients();
+        handler = createHandler();
+        readyMs = millisSinceJvmStart();
+    }
+
+    @Override
+    public String handleRequest(String event, Context context) {
+        if ("exit".equals(event)) {
+            System.exit(0);
+        }
+
+        long firstInvocationStart = System.nanoTime();
+        handler.handleRequest(createRequest(), context);
+        long firstInvocationMs =
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstInvocationStart);
+
+        for (int i = 1; i < INVOCATIONS; i++) {
+            handler.handleRequest(createRequest(), context);
+        }
+
+        return String.format("init_ms=%d first_invocation_ms=%d", readyMs, firstInvocationMs);
+    }
+
+    private static void createSdkClients() {
+        SdkClients.sync(SsmClient.builder()).build();
+        SdkClients.sync(KmsClient.builder()).build();
+        SdkClients.async(SqsAsyncClient.builder()).build();
+        new DocumentCheckResultStore("cds-training", SdkClients.dynamoDbEnhancedClient());
+        new IssuedCredentialStore("cds-training", SdkClients.dynamoDbEnhancedClient());
+    }
+
+    private static IssueCredentialHandler createHandler() throws Exception {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+        keyPairGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        ECPrivateKey signingKey = (ECPrivateKey) keyPairGenerator.generateKeyPair().getPrivate();
+
+        ConfigurationService configurationService = mock(ConfigurationService.class);
+        when(configurationService.getVerifiableCredentialIssuer()).thenReturn("cds-training");
+        when(configurationService.getMaxJwtTtl()).thenReturn(600L);
+
+        VerifiableCredentialService verifiableCredentialService =
+                new VerifiableCredentialService(
+                        new SignedJWTFactory(new ECDSASigner(signingKey)),
+                        configurationService,
+                        new ObjectMapper()
+                                .registerModule(new Jdk8Module())
+                                .registerModule(new JavaTimeModule()));
+
+        SessionService sessionService = mock(SessionService.class);
+        when(sessionService.getSessionByAccessToken(any(AccessToken.class)))
+                .thenAnswer(invocation -> createSessionItem());
+
+        PersonIdentityService personIdentityService = mock(PersonIdentityService.class);
+        when(personIdentityService.getPersonIdentityDetailed(any(UUID.class)))
+                .thenAnswer(
+                        invocation ->
+                                DocumentCheckPersonIdentityDetailedMapper
+                                        .generatePersonIdentityDetailed(
+                                                DrivingPermitFormTestDataGenerator.generate()));
+
+        DocumentCheckRetrievalService documentCheckRetrievalService =
+                mock(DocumentCheckRetrievalService.class);
+        when(documentCheckRetrievalService.getDocumentCheckResult(any(UUID.class)))
+                .thenAnswer(invocation -> DocumentCheckTestDataGenerator.generateValidResultItem());
+
+        return new IssueCredentialHandler(
+                verifiableCredentialService,
+                sessionService,
+                new EventProbe(),
+                mock(AuditEventPublisher.class),
+                personIdentityService,
+                documentCheckRetrievalService,
+                mock(IssuedCredentialCache.class));
+    }
+
+    private static SessionItem createSessionItem() {
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.randomUUID());
+        sessionItem.setSubject("cds-training");
+        return sessionItem;
+    }
+
+    private static APIGatewayProxyRequestEvent createRequest() {
+        return new APIGatewayProxyRequestEvent()
+                .withHeaders(
+                        Map.of(
+                                IssueCredentialHandler.AUTHORIZATION_HEADER_KEY,
+                                new BearerAccessToken().toAuthorizationHeader()));
+    }
+
+    private static long millisSinceJvmStart() {
+        return ProcessHandle.current()
+                .info()
+                .startInstant()
+                .map(start -> System.currentTimeMillis() - start.toEpochMilli())
+                .orElse(-1L);
+    }
+}
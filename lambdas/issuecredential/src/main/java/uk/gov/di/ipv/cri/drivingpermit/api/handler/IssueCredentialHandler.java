@@ -12,65 +12,93 @@ import com.nimbusds.oauth2.sdk.token.AccessToken;
 import com.nimbusds.oauth2.sdk.token.AccessTokenType;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.crac.Core;
+import org.crac.Resource;
 import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.http.HttpStatusCode;
-import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.ssm.SsmClient;
 import software.amazon.lambda.powertools.logging.CorrelationIdPathConstants;
 import software.amazon.lambda.powertools.logging.Logging;
 import software.amazon.lambda.powertools.metrics.Metrics;
+import software.amazon.lambda.powertools.parameters.ParamManager;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventContext;
 import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
+import uk.gov.di.ipv.cri.common.library.domain.personidentity.PersonIdentityDetailed;
 import uk.gov.di.ipv.cri.common.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.common.library.exception.SqsException;
 import uk.gov.di.ipv.cri.common.library.service.AuditEventFactory;
-import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.service.ConfigurationService;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
 import uk.gov.di.ipv.cri.common.library.service.SessionService;
 import uk.gov.di.ipv.cri.common.library.util.ApiGatewayResponseGenerator;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.drivingpermit.api.exception.CredentialRequestException;
+import uk.gov.di.ipv.cri.drivingpermit.api.persistence.IssuedCredentialCache;
+import uk.gov.di.ipv.cri.drivingpermit.api.persistence.IssuedCredentialStore;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.DocumentCheckRetrievalService;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.VerifiableCredentialService;
 import uk.gov.di.ipv.cri.drivingpermit.api.util.IssueCredentialDrivingPermitAuditExtensionUtil;
+import uk.gov.di.ipv.cri.drivingpermit.library.audit.AuditEventPublisher;
 import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.drivingpermit.library.sdk.SdkClients;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.ParallelTaskExecutor;
+import uk.gov.di.ipv.cri.drivingpermit.library.util.RandomIds;
 
 import java.time.Clock;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DRIVING_PERMIT_CI_PREFIX;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.ISSUED_CREDENTIAL_CACHE_HIT;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.ISSUED_CREDENTIAL_CACHE_MISS;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.ISSUE_CREDENTIAL_READ_DURATION_PREFIX;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_ISSUE_CREDENTIAL_COMPLETED_ERROR;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK;
 
 public class IssueCredentialHandler
-        implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+        implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>,
+                Resource {
 
     private static final Logger LOGGER = LogManager.getLogger();
 
     public static final String AUTHORIZATION_HEADER_KEY = "Authorization";
+
+    // Only the document check result is read off the request thread
+    private static final ParallelTaskExecutor PARALLEL_TASK_EXECUTOR =
+            ParallelTaskExecutor.withDaemonThreads("credential-read", 1);
+
     private final VerifiableCredentialService verifiableCredentialService;
     private final PersonIdentityService personIdentityService;
     private final DocumentCheckRetrievalService documentCheckRetrievalService;
     private final SessionService sessionService;
     private EventProbe eventProbe;
-    private final AuditService auditService;
+    private final AuditEventPublisher auditEventPublisher;
+    private final IssuedCredentialCache issuedCredentialCache;
 
     public IssueCredentialHandler(
             VerifiableCredentialService verifiableCredentialService,
             SessionService sessionService,
             EventProbe eventProbe,
-            AuditService auditService,
+            AuditEventPublisher auditEventPublisher,
             PersonIdentityService personIdentityService,
-            DocumentCheckRetrievalService documentCheckRetrievalService) {
+            DocumentCheckRetrievalService documentCheckRetrievalService,
+            IssuedCredentialCache issuedCredentialCache) {
         this.verifiableCredentialService = verifiableCredentialService;
         this.personIdentityService = personIdentityService;
         this.sessionService = sessionService;
         this.eventProbe = eventProbe;
-        this.auditService = auditService;
+        this.auditEventPublisher = auditEventPublisher;
         this.documentCheckRetrievalService = documentCheckRetrievalService;
+        this.issuedCredentialCache = issuedCredentialCache;
     }
 
     public IssueCredentialHandler() {
@@ -79,13 +107,46 @@ public class IssueCredentialHandler
         this.personIdentityService = new PersonIdentityService();
         this.sessionService = new SessionService();
         this.eventProbe = new EventProbe();
-        this.auditService =
-                new AuditService(
-                        SqsClient.builder().build(),
-                        configurationService,
+        this.auditEventPublisher =
+                new AuditEventPublisher(
+                        SdkClients.async(SqsAsyncClient.builder()).build(),
+                        configurationService.getSqsAuditEventQueueUrl(),
                         new ObjectMapper(),
                         new AuditEventFactory(configurationService, Clock.systemUTC()));
-        this.documentCheckRetrievalService = new DocumentCheckRetrievalService();
+        var issueCredentialConfigurationService =
+                new uk.gov.di.ipv.cri.drivingpermit.api.service.ConfigurationService(
+                        ParamManager.getSecretsProvider(),
+                        ParamManager.getSsmProvider(
+                                SdkClients.sync(SsmClient.builder()).build()),
+                        System.getenv("ENVIRONMENT"));
+        this.documentCheckRetrievalService =
+                new DocumentCheckRetrievalService(issueCredentialConfigurationService);
+        this.issuedCredentialCache =
+                new IssuedCredentialCache(
+                        new IssuedCredentialStore(
+                                issueCredentialConfigurationService
+                                        .getIssuedCredentialCacheTableName(),
+                                SdkClients.dynamoDbEnhancedClient()),
+                        Clock.systemUTC(),
+                        issueCredentialConfigurationService.getIssuedCredentialCacheTtlSeconds());
+
+        // Only the Lambda constructor registers, for the hooks run around a SnapStart snapshot
+        Core.getGlobalContext().register(this);
+    }
+
+    /**
+     * Nothing is held open across the snapshot, the SDK clients make new connections as they need
+     * them after the restore.
+     */
+    @Override
+    public void beforeCheckpoint(org.crac.Context<? extends Resource> context) {
+        LOGGER.info("Taking snapshot");
+    }
+
+    /** Reseeds the random IDs, which would otherwise repeat in every restored environment. */
+    @Override
+    public void afterRestore(org.crac.Context<? extends Resource> context) {
+        RandomIds.getInstance().reseed();
     }
 
     @Override
@@ -93,6 +154,8 @@ public class IssueCredentialHandler
     @Metrics(captureColdStart = true)
     public APIGatewayProxyResponseEvent handleRequest(
             APIGatewayProxyRequestEvent input, Context context) {
+        // Events of an earlier invocation that failed before its flush are not sent with these
+        auditEventPublisher.discardPending();
 
         try {
             LOGGER.info(
@@ -105,12 +168,51 @@ public class IssueCredentialHandler
             var sessionItem = this.sessionService.getSessionByAccessToken(accessToken);
             LOGGER.info("Extracted session from session store ID {}", sessionItem.getSessionId());
 
+            // A retried request gets the credential already issued, without signing or auditing
+            // another, as long as it is within the cache time to live and uses the same token
+            if (issuedCredentialCache.isEnabled()) {
+                Optional<String> issuedCredential =
+                        issuedCredentialCache.get(sessionItem.getSessionId(), accessToken);
+                if (issuedCredential.isPresent()) {
+                    LOGGER.info("Returning the credential already issued for the session");
+                    eventProbe.counterMetric(ISSUED_CREDENTIAL_CACHE_HIT);
+                    eventProbe.counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK);
+                    return ApiGatewayResponseGenerator.proxyJwtResponse(
+                            HttpStatusCode.OK, issuedCredential.get());
+                }
+                eventProbe.counterMetric(ISSUED_CREDENTIAL_CACHE_MISS);
+            }
+
             LOGGER.info("Retrieving identity details and document check results...");
-            var personIdentityDetailed =
-                    personIdentityService.getPersonIdentityDetailed(sessionItem.getSessionId());
-            DocumentCheckResultItem documentCheckResult =
-                    documentCheckRetrievalService.getDocumentCheckResult(
-                            sessionItem.getSessionId());
+            // The check result is read while the identity is. Should both reads fail, the
+            // identity's failure is the one thrown, as when they ran one after the other
+            UUID sessionId = sessionItem.getSessionId();
+            Map<String, Long> readDurationsMs = new ConcurrentHashMap<>();
+            PersonIdentityDetailed personIdentityDetailed;
+            DocumentCheckResultItem documentCheckResult;
+            try {
+                CompletableFuture<DocumentCheckResultItem> documentCheckResultRead =
+                        PARALLEL_TASK_EXECUTOR.supply(
+                                () ->
+                                        timedRead(
+                                                "document_check_result",
+                                                readDurationsMs,
+                                                () ->
+                                                        documentCheckRetrievalService
+                                                                .getDocumentCheckResult(
+                                                                        sessionId)));
+                personIdentityDetailed =
+                        timedRead(
+                                "person_identity",
+                                readDurationsMs,
+                                () -> personIdentityService.getPersonIdentityDetailed(sessionId));
+                documentCheckResult = getDocumentCheckResult(documentCheckResultRead);
+            } finally {
+                readDurationsMs.forEach(
+                        (read, durationMs) ->
+                                eventProbe.counterMetric(
+                                        ISSUE_CREDENTIAL_READ_DURATION_PREFIX + read, durationMs));
+            }
             LOGGER.info("VC content retrieved.");
 
             LOGGER.info("Generating verifiable credential...");
@@ -118,7 +220,7 @@ public class IssueCredentialHandler
                     verifiableCredentialService.generateSignedVerifiableCredentialJwt(
                             sessionItem.getSubject(), documentCheckResult, personIdentityDetailed);
 
-            auditService.sendAuditEvent(
+            auditEventPublisher.addAuditEvent(
                     AuditEventType.VC_ISSUED,
                     new AuditEventContext(input.getHeaders(), sessionItem),
                     IssueCredentialDrivingPermitAuditExtensionUtil
@@ -129,14 +231,17 @@ public class IssueCredentialHandler
             // CI Metric captured here as check lambda can have multiple attempts
             recordCIMetrics(DRIVING_PERMIT_CI_PREFIX, documentCheckResult.getContraIndicators());
 
+            auditEventPublisher.addAuditEvent(
+                    AuditEventType.END, new AuditEventContext(input.getHeaders(), sessionItem));
+            auditEventPublisher.flush();
+
             LOGGER.info("Credential generated");
+            String serializedJwt = signedJWT.serialize();
+            // Only kept once it has been audited, so a failed request is never answered from it
+            issuedCredentialCache.put(sessionItem.getSessionId(), accessToken, serializedJwt);
             eventProbe.counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK);
 
-            auditService.sendAuditEvent(
-                    AuditEventType.END, new AuditEventContext(input.getHeaders(), sessionItem));
-
-            return ApiGatewayResponseGenerator.proxyJwtResponse(
-                    HttpStatusCode.OK, signedJWT.serialize());
+            return ApiGatewayResponseGenerator.proxyJwtResponse(HttpStatusCode.OK, serializedJwt);
         } catch (AwsServiceException ex) {
             LOGGER.error(
                     "Exception while handling lambda {} exception {}",
@@ -172,6 +277,31 @@ public class IssueCredentialHandler
         }
     }
 
+    /** Runs the read, recording how long it took also when it failed. */
+    private static <T> T timedRead(
+            String read, Map<String, Long> readDurationsMs, Supplier<T> task) {
+        long readStart = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            readDurationsMs.put(read, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - readStart));
+        }
+    }
+
+    private static DocumentCheckResultItem getDocumentCheckResult(
+            Future<DocumentCheckResultItem> documentCheckResultRead)
+            throws ExecutionException, InterruptedException {
+        try {
+            return documentCheckResultRead.get();
+        } catch (ExecutionException e) {
+            // Thrown as it would have been on this thread, so it is mapped to the same response
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     private AccessToken validateInputHeaderBearerToken(Map<String, String> headers)
             throws CredentialRequestException, ParseException {
         var token =
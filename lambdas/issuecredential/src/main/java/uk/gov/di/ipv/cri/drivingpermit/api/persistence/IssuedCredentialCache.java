@@ -0,0 +1,103 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.persistence;
+
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import uk.gov.di.ipv.cri.drivingpermit.api.persistence.item.IssuedCredentialItem;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The credential last issued for each session, kept for a short time so a retried credential
+ * request gets the same signed JWT back instead of another being signed and audited. Entries are
+ * kept in a DynamoDB table, so a retry handled by another Lambda container finds them too.
+ *
+ * <p>An entry is only returned for the access token it was stored with. A new check attempt ends
+ * with a new authorization code and so a new token, which leaves the old entry unused. An entry is
+ * also not returned once its time to live has passed, whether or not the table TTL has removed it
+ * yet. Failures reading or writing the table are logged and treated as a miss, the credential is
+ * then issued as it would have been without the cache.
+ */
+public class IssuedCredentialCache {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final IssuedCredentialStore dataStore;
+    private final Clock clock;
+    private final long ttlMs;
+
+    public IssuedCredentialCache(IssuedCredentialStore dataStore, Clock clock, long ttlSeconds) {
+        this.dataStore = dataStore;
+        this.clock = clock;
+        this.ttlMs = TimeUnit.SECONDS.toMillis(ttlSeconds);
+    }
+
+    /** A time to live of 0 turns the cache off, nothing is then read or written. */
+    public boolean isEnabled() {
+        return ttlMs > 0;
+    }
+
+    /** @return the signed JWT issued for the session and token, empty when there is none */
+    public Optional<String> get(UUID sessionId, AccessToken accessToken) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+
+        IssuedCredentialItem item;
+        try {
+            item = dataStore.getItem(sessionId.toString());
+        } catch (Exception e) {
+            LOGGER.warn("Unable to read the issued credential - {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        if (item == null
+                || item.getExpiresAt() <= clock.millis()
+                || !hash(accessToken).equals(item.getAccessTokenHash())) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(item.getSignedJwt());
+    }
+
+    /** Keeps the signed JWT for the session and token, replacing what was kept before. */
+    public void put(UUID sessionId, AccessToken accessToken, String signedJwt) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        long expiresAt = clock.millis() + ttlMs;
+
+        IssuedCredentialItem item = new IssuedCredentialItem();
+        item.setSessionId(sessionId);
+        item.setAccessTokenHash(hash(accessToken));
+        item.setSignedJwt(signedJwt);
+        item.setExpiresAt(expiresAt);
+        // TTL deletion can lag, get always compares expiresAt with the clock
+        item.setTtl(TimeUnit.MILLISECONDS.toSeconds(expiresAt) + 1);
+
+        try {
+            dataStore.create(item);
+        } catch (Exception e) {
+            LOGGER.warn("Unable to write the issued credential - {}", e.getMessage());
+        }
+    }
+
+    // Only a hash of the bearer token is stored, it is enough to tell whether tokens match
+    private static String hash(AccessToken accessToken) {
+        try {
+            byte[] digest =
+                    MessageDigest.getInstance("SHA-256")
+                            .digest(accessToken.getValue().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.persistence;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import uk.gov.di.ipv.cri.drivingpermit.api.persistence.item.IssuedCredentialItem;
+
+/**
+ * The issued credential table, as the cri-common-lib DataStore would give it but mapped with
+ * {@link IssuedCredentialTableSchema} in place of an introspected bean schema.
+ */
+public class IssuedCredentialStore {
+
+    private final DynamoDbTable<IssuedCredentialItem> table;
+
+    public IssuedCredentialStore(String tableName, DynamoDbEnhancedClient enhancedClient) {
+        this.table = enhancedClient.table(tableName, IssuedCredentialTableSchema.TABLE_SCHEMA);
+    }
+
+    public void create(IssuedCredentialItem item) {
+        table.putItem(item);
+    }
+
+    public IssuedCredentialItem getItem(String sessionId) {
+        return table.getItem(Key.builder().partitionValue(sessionId).build());
+    }
+}
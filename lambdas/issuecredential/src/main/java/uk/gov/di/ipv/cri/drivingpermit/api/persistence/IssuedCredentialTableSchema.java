@@ -0,0 +1,62 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.persistence;
+
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+import uk.gov.di.ipv.cri.drivingpermit.api.persistence.item.IssuedCredentialItem;
+
+import java.util.UUID;
+
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primaryPartitionKey;
+
+/**
+ * The table schema of {@link IssuedCredentialItem}, written out by hand so the bean is not
+ * introspected during init, as {@code DocumentCheckResultTableSchema} does for the check results.
+ *
+ * <p>The attributes have to match what the bean schema would give. The build fails in
+ * IssuedCredentialTableSchemaTest if a property is added to the item but not here.
+ */
+public final class IssuedCredentialTableSchema {
+
+    public static final TableSchema<IssuedCredentialItem> TABLE_SCHEMA = create();
+
+    private IssuedCredentialTableSchema() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    private static TableSchema<IssuedCredentialItem> create() {
+        return StaticTableSchema.builder(IssuedCredentialItem.class)
+                .newItemSupplier(IssuedCredentialItem::new)
+                .addAttribute(
+                        UUID.class,
+                        a ->
+                                a.name("sessionId")
+                                        .getter(IssuedCredentialItem::getSessionId)
+                                        .setter(IssuedCredentialItem::setSessionId)
+                                        .tags(primaryPartitionKey()))
+                .addAttribute(
+                        String.class,
+                        a ->
+                                a.name("accessTokenHash")
+                                        .getter(IssuedCredentialItem::getAccessTokenHash)
+                                        .setter(IssuedCredentialItem::setAccessTokenHash))
+                .addAttribute(
+                        String.class,
+                        a ->
+                                a.name("signedJwt")
+                                        .getter(IssuedCredentialItem::getSignedJwt)
+                                        .setter(IssuedCredentialItem::setSignedJwt))
+                .addAttribute(
+                        Long.class,
+                        a ->
+                                a.name("expiresAt")
+                                        .getter(IssuedCredentialItem::getExpiresAt)
+                                        .setter(IssuedCredentialItem::setExpiresAt))
+                .addAttribute(
+                        Long.class,
+                        a ->
+                                a.name("ttl")
+                                        .getter(IssuedCredentialItem::getTtl)
+                                        .setter(IssuedCredentialItem::setTtl))
+                .build();
+    }
+}
@@ -0,0 +1,58 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.persistence.item;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbBean;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+
+import java.util.UUID;
+
+@DynamoDbBean
+public class IssuedCredentialItem {
+    private UUID sessionId;
+    private String accessTokenHash;
+    private String signedJwt;
+    private long expiresAt;
+    private long ttl;
+
+    public IssuedCredentialItem() {}
+
+    @DynamoDbPartitionKey()
+    public UUID getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(UUID sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getAccessTokenHash() {
+        return accessTokenHash;
+    }
+
+    public void setAccessTokenHash(String accessTokenHash) {
+        this.accessTokenHash = accessTokenHash;
+    }
+
+    public String getSignedJwt() {
+        return signedJwt;
+    }
+
+    public void setSignedJwt(String signedJwt) {
+        this.signedJwt = signedJwt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+}
@@ -14,6 +14,8 @@ public class ConfigurationService {
 
     private final String documentCheckResultTableName;
     private final String contraindicationMappings;
+    private final String issuedCredentialCacheTableName;
+    private final long issuedCredentialCacheTtlSeconds;
     private final String parameterPrefix;
 
     public ConfigurationService(
@@ -29,12 +31,25 @@ public class ConfigurationService {
                 paramProvider.get(getParameterName("contraindicationMappings"));
         this.documentCheckResultTableName =
                 paramProvider.get(getParameterName("DocumentCheckResultTableName"));
+        this.issuedCredentialCacheTableName =
+                paramProvider.get(getParameterName("IssuedCredentialCache/TableName"));
+        this.issuedCredentialCacheTtlSeconds =
+                Long.parseLong(
+                        paramProvider.get(getParameterName("IssuedCredentialCache/TtlSeconds")));
     }
 
     public String getDocumentCheckResultTableName() {
         return documentCheckResultTableName;
     }
 
+    public String getIssuedCredentialCacheTableName() {
+        return issuedCredentialCacheTableName;
+    }
+
+    public long getIssuedCredentialCacheTtlSeconds() {
+        return issuedCredentialCacheTtlSeconds;
+    }
+
     public String getContraindicationMappings() {
         return contraindicationMappings;
     }
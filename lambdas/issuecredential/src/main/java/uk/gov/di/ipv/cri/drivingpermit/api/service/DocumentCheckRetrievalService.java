@@ -2,36 +2,41 @@ package uk.gov.di.ipv.cri.drivingpermit.api.service;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.services.ssm.SsmClient;
 import software.amazon.lambda.powertools.parameters.ParamManager;
-import uk.gov.di.ipv.cri.common.library.persistence.DataStore;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.DocumentCheckResultStore;
 import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.DocumentCheckResultItem;
+import uk.gov.di.ipv.cri.drivingpermit.library.sdk.SdkClients;
 
 import java.util.UUID;
 
 public class DocumentCheckRetrievalService {
     private static final Logger LOGGER = LogManager.getLogger();
 
-    private final DataStore<DocumentCheckResultItem> dataStore;
+    private final DocumentCheckResultStore dataStore;
     private final ConfigurationService configurationService;
 
     DocumentCheckRetrievalService(
-            DataStore<DocumentCheckResultItem> dataStore,
-            ConfigurationService configurationService) {
+            DocumentCheckResultStore dataStore, ConfigurationService configurationService) {
         this.configurationService = configurationService;
         this.dataStore = dataStore;
     }
 
     public DocumentCheckRetrievalService() {
-        this.configurationService =
+        this(
                 new ConfigurationService(
                         ParamManager.getSecretsProvider(),
-                        ParamManager.getSsmProvider(),
-                        System.getenv("ENVIRONMENT"));
+                        ParamManager.getSsmProvider(
+                                SdkClients.sync(SsmClient.builder()).build()),
+                        System.getenv("ENVIRONMENT")));
+    }
+
+    public DocumentCheckRetrievalService(ConfigurationService configurationService) {
+        this.configurationService = configurationService;
         this.dataStore =
-                new DataStore<DocumentCheckResultItem>(
+                new DocumentCheckResultStore(
                         configurationService.getDocumentCheckResultTableName(),
-                        DocumentCheckResultItem.class,
-                        DataStore.getClient());
+                        SdkClients.dynamoDbEnhancedClient());
     }
 
     public DocumentCheckResultItem getDocumentCheckResult(UUID sessionId) {
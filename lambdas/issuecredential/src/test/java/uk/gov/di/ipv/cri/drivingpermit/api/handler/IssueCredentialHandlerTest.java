@@ -15,6 +15,7 @@ import com.nimbusds.oauth2.sdk.token.AccessToken;
 import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -27,24 +28,29 @@ import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
 import uk.gov.di.ipv.cri.common.library.error.ErrorResponse;
 import uk.gov.di.ipv.cri.common.library.exception.SqsException;
 import uk.gov.di.ipv.cri.common.library.persistence.item.SessionItem;
-import uk.gov.di.ipv.cri.common.library.service.AuditService;
 import uk.gov.di.ipv.cri.common.library.service.PersonIdentityService;
 import uk.gov.di.ipv.cri.common.library.service.SessionService;
 import uk.gov.di.ipv.cri.common.library.util.EventProbe;
 import uk.gov.di.ipv.cri.drivingpermit.api.domain.audit.VCISSDocumentCheckAuditExtension;
+import uk.gov.di.ipv.cri.drivingpermit.api.persistence.IssuedCredentialCache;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.DocumentCheckRetrievalService;
 import uk.gov.di.ipv.cri.drivingpermit.api.service.VerifiableCredentialService;
 import uk.gov.di.ipv.cri.drivingpermit.api.util.DocumentCheckPersonIdentityDetailedMapper;
+import uk.gov.di.ipv.cri.drivingpermit.library.audit.AuditEventPublisher;
 import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.DocumentCheckResultItem;
 import uk.gov.di.ipv.cri.drivingpermit.library.testdata.DocumentCheckTestDataGenerator;
 import uk.gov.di.ipv.cri.drivingpermit.library.testdata.DrivingPermitFormTestDataGenerator;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.DRIVING_PERMIT_CI_PREFIX;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.ISSUED_CREDENTIAL_CACHE_HIT;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.ISSUED_CREDENTIAL_CACHE_MISS;
+import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.ISSUE_CREDENTIAL_READ_DURATION_PREFIX;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_ISSUE_CREDENTIAL_COMPLETED_ERROR;
 import static uk.gov.di.ipv.cri.drivingpermit.library.metrics.Definitions.LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK;
 
@@ -57,7 +63,8 @@ class IssueCredentialHandlerTest {
     @Mock private PersonIdentityService mockPersonIdentityService;
     @Mock private DocumentCheckRetrievalService mockDocumentCheckRetrievalService;
     @Mock private EventProbe mockEventProbe;
-    @Mock private AuditService mockAuditService;
+    @Mock private AuditEventPublisher mockAuditEventPublisher;
+    @Mock private IssuedCredentialCache mockIssuedCredentialCache;
 
     @Mock
     private DocumentCheckPersonIdentityDetailedMapper documentCheckPersonIdentityDetailedMapper;
@@ -89,12 +96,6 @@ class IssueCredentialHandlerTest {
         when(mockVerifiableCredentialService.generateSignedVerifiableCredentialJwt(
                         sessionItem.getSubject(), resultItem, personIdentityDetailed))
                 .thenReturn(mock(SignedJWT.class));
-        doNothing()
-                .when(mockAuditService)
-                .sendAuditEvent(
-                        eq(AuditEventType.VC_ISSUED),
-                        any(AuditEventContext.class),
-                        any(VCISSDocumentCheckAuditExtension.class));
 
         APIGatewayProxyResponseEvent response = handler.handleRequest(event, context);
 
@@ -105,19 +106,136 @@ class IssueCredentialHandlerTest {
         verify(mockVerifiableCredentialService)
                 .generateSignedVerifiableCredentialJwt(
                         sessionItem.getSubject(), resultItem, personIdentityDetailed);
-        verify(mockAuditService)
-                .sendAuditEvent(
+        InOrder inOrder = inOrder(mockAuditEventPublisher);
+        inOrder.verify(mockAuditEventPublisher).discardPending();
+        inOrder.verify(mockAuditEventPublisher)
+                .addAuditEvent(
                         eq(AuditEventType.VC_ISSUED),
                         any(AuditEventContext.class),
                         any(VCISSDocumentCheckAuditExtension.class));
+        inOrder.verify(mockAuditEventPublisher)
+                .addAuditEvent(eq(AuditEventType.END), any(AuditEventContext.class));
+        inOrder.verify(mockAuditEventPublisher).flush();
         verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK);
         verify(mockEventProbe)
                 .counterMetric(DRIVING_PERMIT_CI_PREFIX + resultItem.getContraIndicators().get(0));
+        verify(mockEventProbe)
+                .counterMetric(
+                        eq(ISSUE_CREDENTIAL_READ_DURATION_PREFIX + "person_identity"), anyDouble());
+        verify(mockEventProbe)
+                .counterMetric(
+                        eq(ISSUE_CREDENTIAL_READ_DURATION_PREFIX + "document_check_result"),
+                        anyDouble());
         assertEquals(
                 ContentType.APPLICATION_JWT.getType(), response.getHeaders().get("Content-Type"));
         assertEquals(HttpStatusCode.OK, response.getStatusCode());
     }
 
+    @Test
+    void shouldReturnTheCredentialAlreadyIssuedWhenTheRequestIsRetried() throws SqsException {
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        AccessToken accessToken = new BearerAccessToken();
+        event.withHeaders(
+                Map.of(
+                        IssueCredentialHandler.AUTHORIZATION_HEADER_KEY,
+                        accessToken.toAuthorizationHeader()));
+        setRequestBodyAsPlainJWT(event);
+
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.randomUUID());
+        String issuedCredential = "header.payload.signature";
+
+        when(mockSessionService.getSessionByAccessToken(accessToken)).thenReturn(sessionItem);
+        when(mockIssuedCredentialCache.isEnabled()).thenReturn(true);
+        when(mockIssuedCredentialCache.get(sessionItem.getSessionId(), accessToken))
+                .thenReturn(Optional.of(issuedCredential));
+
+        APIGatewayProxyResponseEvent response = handler.handleRequest(event, context);
+
+        // Nothing is read, signed or audited again
+        verifyNoInteractions(
+                mockPersonIdentityService,
+                mockDocumentCheckRetrievalService,
+                mockVerifiableCredentialService,
+                mockAuditEventPublisher);
+        verify(mockIssuedCredentialCache, never()).put(any(), any(), any());
+        verify(mockEventProbe).counterMetric(ISSUED_CREDENTIAL_CACHE_HIT);
+        verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_OK);
+        assertEquals(HttpStatusCode.OK, response.getStatusCode());
+        assertEquals(issuedCredential, response.getBody());
+    }
+
+    @Test
+    void shouldKeepTheCredentialIssuedWhenNoneWasAlreadyIssued()
+            throws JOSEException, SqsException {
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        AccessToken accessToken = new BearerAccessToken();
+        event.withHeaders(
+                Map.of(
+                        IssueCredentialHandler.AUTHORIZATION_HEADER_KEY,
+                        accessToken.toAuthorizationHeader()));
+        setRequestBodyAsPlainJWT(event);
+
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.randomUUID());
+        DocumentCheckResultItem resultItem =
+                DocumentCheckTestDataGenerator.generateValidResultItem();
+        SignedJWT signedJWT = mock(SignedJWT.class);
+
+        when(mockSessionService.getSessionByAccessToken(accessToken)).thenReturn(sessionItem);
+        when(mockIssuedCredentialCache.isEnabled()).thenReturn(true);
+        when(mockIssuedCredentialCache.get(sessionItem.getSessionId(), accessToken))
+                .thenReturn(Optional.empty());
+        when(mockDocumentCheckRetrievalService.getDocumentCheckResult(sessionItem.getSessionId()))
+                .thenReturn(resultItem);
+        when(mockVerifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                        eq(sessionItem.getSubject()), eq(resultItem), any()))
+                .thenReturn(signedJWT);
+        when(signedJWT.serialize()).thenReturn("header.payload.signature");
+
+        APIGatewayProxyResponseEvent response = handler.handleRequest(event, context);
+
+        InOrder inOrder = inOrder(mockAuditEventPublisher, mockIssuedCredentialCache);
+        inOrder.verify(mockAuditEventPublisher).flush();
+        inOrder.verify(mockIssuedCredentialCache)
+                .put(sessionItem.getSessionId(), accessToken, "header.payload.signature");
+        verify(mockEventProbe).counterMetric(ISSUED_CREDENTIAL_CACHE_MISS);
+        assertEquals(HttpStatusCode.OK, response.getStatusCode());
+        assertEquals("header.payload.signature", response.getBody());
+    }
+
+    @Test
+    void shouldNotKeepTheCredentialWhenTheAuditEventsFail() throws JOSEException, SqsException {
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        AccessToken accessToken = new BearerAccessToken();
+        event.withHeaders(
+                Map.of(
+                        IssueCredentialHandler.AUTHORIZATION_HEADER_KEY,
+                        accessToken.toAuthorizationHeader()));
+        setRequestBodyAsPlainJWT(event);
+
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.randomUUID());
+        DocumentCheckResultItem resultItem =
+                DocumentCheckTestDataGenerator.generateValidResultItem();
+
+        when(mockSessionService.getSessionByAccessToken(accessToken)).thenReturn(sessionItem);
+        when(mockDocumentCheckRetrievalService.getDocumentCheckResult(sessionItem.getSessionId()))
+                .thenReturn(resultItem);
+        when(mockVerifiableCredentialService.generateSignedVerifiableCredentialJwt(
+                        eq(sessionItem.getSubject()), eq(resultItem), any()))
+                .thenReturn(mock(SignedJWT.class));
+        doThrow(new SqsException(new IllegalStateException("Audit queue unavailable")))
+                .when(mockAuditEventPublisher)
+                .flush();
+
+        APIGatewayProxyResponseEvent response = handler.handleRequest(event, context);
+
+        verify(mockIssuedCredentialCache, never()).put(any(), any(), any());
+        verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_ERROR);
+        assertEquals(HttpStatusCode.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+
     @Test
     void shouldThrowJOSEExceptionWhenGenerateVerifiableCredentialIsMalformed()
             throws JsonProcessingException, JOSEException, SqsException, JsonProcessingException {
@@ -163,8 +281,8 @@ class IssueCredentialHandlerTest {
         verify(mockEventProbe, never())
                 .counterMetric(DRIVING_PERMIT_CI_PREFIX + resultItem.getContraIndicators().get(0));
         verifyNoMoreInteractions(mockVerifiableCredentialService);
-        verify(mockAuditService, never())
-                .sendAuditEvent(
+        verify(mockAuditEventPublisher, never())
+                .addAuditEvent(
                         eq(AuditEventType.VC_ISSUED),
                         any(AuditEventContext.class),
                         any(VCISSDocumentCheckAuditExtension.class));
@@ -183,8 +301,8 @@ class IssueCredentialHandlerTest {
 
         APIGatewayProxyResponseEvent response = handler.handleRequest(event, context);
         verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_ERROR);
-        verify(mockAuditService, never())
-                .sendAuditEvent(
+        verify(mockAuditEventPublisher, never())
+                .addAuditEvent(
                         eq(AuditEventType.VC_ISSUED),
                         any(AuditEventContext.class),
                         any(VCISSDocumentCheckAuditExtension.class));
@@ -226,13 +344,13 @@ class IssueCredentialHandlerTest {
 
         verify(mockSessionService).getSessionByAccessToken(accessToken);
         verify(mockPersonIdentityService, never()).getPersonIdentityDetailed(UUID.randomUUID());
-        verify(mockAuditService, never())
-                .sendAuditEvent(
+        verify(mockAuditEventPublisher, never())
+                .addAuditEvent(
                         eq(AuditEventType.VC_ISSUED),
                         any(AuditEventContext.class),
                         any(VCISSDocumentCheckAuditExtension.class));
         verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_ERROR);
-        verify(mockAuditService, never()).sendAuditEvent((AuditEventType) any());
+        verify(mockAuditEventPublisher, never()).flush();
         String responseBody = new ObjectMapper().readValue(response.getBody(), String.class);
         assertEquals(awsErrorDetails.sdkHttpResponse().statusCode(), response.getStatusCode());
         assertEquals(awsErrorDetails.errorMessage(), responseBody);
@@ -273,8 +391,8 @@ class IssueCredentialHandlerTest {
 
         verify(mockSessionService).getSessionByAccessToken(accessToken);
         verify(mockPersonIdentityService).getPersonIdentityDetailed(sessionItem.getSessionId());
-        verify(mockAuditService, never())
-                .sendAuditEvent(
+        verify(mockAuditEventPublisher, never())
+                .addAuditEvent(
                         eq(AuditEventType.VC_ISSUED),
                         any(AuditEventContext.class),
                         any(VCISSDocumentCheckAuditExtension.class));
@@ -284,6 +402,55 @@ class IssueCredentialHandlerTest {
         assertEquals(awsErrorDetails.errorMessage(), responseBody);
     }
 
+    @Test
+    void shouldThrowAWSExceptionWhenAServerErrorOccursDuringRetrievingDocumentCheckResult()
+            throws JsonProcessingException, SqsException {
+        APIGatewayProxyRequestEvent event = new APIGatewayProxyRequestEvent();
+        AccessToken accessToken = new BearerAccessToken();
+        event.withHeaders(
+                Map.of(
+                        IssueCredentialHandler.AUTHORIZATION_HEADER_KEY,
+                        accessToken.toAuthorizationHeader()));
+
+        setRequestBodyAsPlainJWT(event);
+
+        AwsErrorDetails awsErrorDetails =
+                AwsErrorDetails.builder()
+                        .errorCode("")
+                        .sdkHttpResponse(
+                                SdkHttpResponse.builder()
+                                        .statusCode(HttpStatusCode.INTERNAL_SERVER_ERROR)
+                                        .build())
+                        .errorMessage("AWS DynamoDbException Occurred")
+                        .build();
+
+        SessionItem sessionItem = new SessionItem();
+        sessionItem.setSessionId(UUID.randomUUID());
+        when(mockSessionService.getSessionByAccessToken(accessToken)).thenReturn(sessionItem);
+        when(mockDocumentCheckRetrievalService.getDocumentCheckResult(sessionItem.getSessionId()))
+                .thenThrow(
+                        AwsServiceException.builder()
+                                .statusCode(500)
+                                .awsErrorDetails(awsErrorDetails)
+                                .build());
+
+        APIGatewayProxyResponseEvent response = handler.handleRequest(event, context);
+
+        // Read on another thread, but mapped to the same response as before
+        verify(mockPersonIdentityService).getPersonIdentityDetailed(sessionItem.getSessionId());
+        verify(mockVerifiableCredentialService, never())
+                .generateSignedVerifiableCredentialJwt(any(), any(), any());
+        verify(mockEventProbe).counterMetric(LAMBDA_ISSUE_CREDENTIAL_COMPLETED_ERROR);
+        verify(mockEventProbe)
+                .counterMetric(
+                        eq(ISSUE_CREDENTIAL_READ_DURATION_PREFIX + "document_check_result"),
+                        anyDouble());
+        verify(mockAuditEventPublisher, never()).flush();
+        String responseBody = new ObjectMapper().readValue(response.getBody(), String.class);
+        assertEquals(awsErrorDetails.sdkHttpResponse().statusCode(), response.getStatusCode());
+        assertEquals(awsErrorDetails.errorMessage(), responseBody);
+    }
+
     private void setRequestBodyAsPlainJWT(APIGatewayProxyRequestEvent event) {
         String requestJWT =
                 new PlainJWT(
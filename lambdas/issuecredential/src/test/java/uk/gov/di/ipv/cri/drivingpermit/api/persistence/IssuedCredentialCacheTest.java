@@ -0,0 +1,128 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.persistence;
+
+import com.nimbusds.oauth2.sdk.token.AccessToken;
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import uk.gov.di.ipv.cri.drivingpermit.api.persistence.item.IssuedCredentialItem;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IssuedCredentialCacheTest {
+    private static final Instant NOW = Instant.parse("2022-06-01T12:00:00Z");
+    private static final long TTL_SECONDS = 60L;
+    private static final String SIGNED_JWT = "header.payload.signature";
+
+    @Mock private IssuedCredentialStore mockDataStore;
+
+    private final UUID sessionId = UUID.randomUUID();
+    private final AccessToken accessToken = new BearerAccessToken();
+    private IssuedCredentialCache issuedCredentialCache;
+
+    @BeforeEach
+    void setUp() {
+        issuedCredentialCache =
+                new IssuedCredentialCache(
+                        mockDataStore, Clock.fixed(NOW, ZoneOffset.UTC), TTL_SECONDS);
+    }
+
+    @Test
+    void shouldReturnTheCredentialPutForTheSameSessionAndToken() {
+        IssuedCredentialItem item = putAndCapture();
+        when(mockDataStore.getItem(sessionId.toString())).thenReturn(item);
+
+        assertEquals(Optional.of(SIGNED_JWT), issuedCredentialCache.get(sessionId, accessToken));
+    }
+
+    @Test
+    void shouldKeepOnlyAHashOfTheToken() {
+        IssuedCredentialItem item = putAndCapture();
+
+        assertEquals(sessionId, item.getSessionId());
+        assertNotEquals(accessToken.getValue(), item.getAccessTokenHash());
+        assertEquals(NOW.plusSeconds(TTL_SECONDS).toEpochMilli(), item.getExpiresAt());
+        assertEquals(NOW.plusSeconds(TTL_SECONDS).getEpochSecond() + 1, item.getTtl());
+    }
+
+    @Test
+    void shouldNotReturnTheCredentialForAnotherToken() {
+        IssuedCredentialItem item = putAndCapture();
+        when(mockDataStore.getItem(sessionId.toString())).thenReturn(item);
+
+        assertEquals(
+                Optional.empty(), issuedCredentialCache.get(sessionId, new BearerAccessToken()));
+    }
+
+    @Test
+    void shouldNotReturnTheCredentialOnceItHasExpired() {
+        IssuedCredentialItem item = putAndCapture();
+        when(mockDataStore.getItem(sessionId.toString())).thenReturn(item);
+
+        IssuedCredentialCache later =
+                new IssuedCredentialCache(
+                        mockDataStore,
+                        Clock.fixed(NOW.plusSeconds(TTL_SECONDS), ZoneOffset.UTC),
+                        TTL_SECONDS);
+
+        assertEquals(Optional.empty(), later.get(sessionId, accessToken));
+    }
+
+    @Test
+    void shouldTreatAFailedReadAsAMiss() {
+        when(mockDataStore.getItem(sessionId.toString()))
+                .thenThrow(DynamoDbException.builder().message("unavailable").build());
+
+        assertEquals(Optional.empty(), issuedCredentialCache.get(sessionId, accessToken));
+    }
+
+    @Test
+    void shouldIgnoreAFailedWrite() {
+        doThrow(DynamoDbException.builder().message("unavailable").build())
+                .when(mockDataStore)
+                .create(any(IssuedCredentialItem.class));
+
+        issuedCredentialCache.put(sessionId, accessToken, SIGNED_JWT);
+
+        verify(mockDataStore).create(any(IssuedCredentialItem.class));
+    }
+
+    @Test
+    void shouldNotReadOrWriteWhenTheTimeToLiveIsZero() {
+        IssuedCredentialCache disabled =
+                new IssuedCredentialCache(mockDataStore, Clock.fixed(NOW, ZoneOffset.UTC), 0L);
+
+        disabled.put(sessionId, accessToken, SIGNED_JWT);
+
+        assertFalse(disabled.isEnabled());
+        assertEquals(Optional.empty(), disabled.get(sessionId, accessToken));
+        verifyNoInteractions(mockDataStore);
+    }
+
+    private IssuedCredentialItem putAndCapture() {
+        issuedCredentialCache.put(sessionId, accessToken, SIGNED_JWT);
+
+        ArgumentCaptor<IssuedCredentialItem> item =
+                ArgumentCaptor.forClass(IssuedCredentialItem.class);
+        verify(mockDataStore).create(item.capture());
+        return item.getValue();
+    }
+}
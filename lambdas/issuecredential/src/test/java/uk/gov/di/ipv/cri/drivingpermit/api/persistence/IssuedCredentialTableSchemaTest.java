@@ -0,0 +1,78 @@
+package uk.gov.di.ipv.cri.drivingpermit.api.persistence;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import uk.gov.di.ipv.cri.drivingpermit.api.persistence.item.IssuedCredentialItem;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static uk.gov.di.ipv.cri.drivingpermit.api.persistence.IssuedCredentialTableSchema.TABLE_SCHEMA;
+
+class IssuedCredentialTableSchemaTest {
+
+    private final TableSchema<IssuedCredentialItem> beanTableSchema =
+            TableSchema.fromBean(IssuedCredentialItem.class);
+
+    @Test
+    void shouldHaveTheAttributesOfTheBean() {
+        assertEquals(
+                new HashSet<>(beanTableSchema.attributeNames()),
+                new HashSet<>(TABLE_SCHEMA.attributeNames()));
+    }
+
+    @Test
+    void shouldHaveThePartitionKeyOfTheBean() {
+        assertEquals(
+                beanTableSchema.tableMetadata().primaryPartitionKey(),
+                TABLE_SCHEMA.tableMetadata().primaryPartitionKey());
+        assertEquals(
+                beanTableSchema.tableMetadata().primaryKeys(),
+                TABLE_SCHEMA.tableMetadata().primaryKeys());
+    }
+
+    @Test
+    void shouldWriteTheSameAttributeValuesAsTheBean() {
+        IssuedCredentialItem item = createItem();
+
+        assertEquals(beanTableSchema.itemToMap(item, true), TABLE_SCHEMA.itemToMap(item, true));
+        assertEquals(beanTableSchema.itemToMap(item, false), TABLE_SCHEMA.itemToMap(item, false));
+    }
+
+    @Test
+    void shouldReadWhatTheBeanWrote() {
+        Map<String, AttributeValue> written = beanTableSchema.itemToMap(createItem(), true);
+
+        IssuedCredentialItem read = TABLE_SCHEMA.mapToItem(written);
+
+        assertEquals(written, beanTableSchema.itemToMap(read, true));
+    }
+
+    @Test
+    void shouldReadAnItemWithMissingAttributes() {
+        IssuedCredentialItem item = new IssuedCredentialItem();
+        item.setSessionId(UUID.randomUUID());
+        Map<String, AttributeValue> written = new HashMap<>(beanTableSchema.itemToMap(item, true));
+        written.remove("expiresAt");
+
+        IssuedCredentialItem read = TABLE_SCHEMA.mapToItem(written);
+
+        assertEquals(item.getSessionId(), read.getSessionId());
+        assertEquals(0L, read.getExpiresAt());
+    }
+
+    /** Every property set to a value other than its default, so none is left out of the map. */
+    private static IssuedCredentialItem createItem() {
+        IssuedCredentialItem item = new IssuedCredentialItem();
+        item.setSessionId(UUID.randomUUID());
+        item.setAccessTokenHash("hash");
+        item.setSignedJwt("header.payload.signature");
+        item.setExpiresAt(1654084860000L);
+        item.setTtl(1654084861L);
+        return item;
+    }
+}
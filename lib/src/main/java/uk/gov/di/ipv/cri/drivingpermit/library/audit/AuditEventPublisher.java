@@ -0,0 +1,218 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import uk.gov.di.ipv.cri.common.library.domain.AuditEventContext;
+import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
+import uk.gov.di.ipv.cri.common.library.exception.SqsException;
+import uk.gov.di.ipv.cri.common.library.service.AuditEventFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Collects the audit events of an invocation and sends them to the audit queue with
+ * SendMessageBatch, instead of a blocking SendMessage round trip for each one. Entries SQS does
+ * not accept are retried in a new batch. Any still failing after that, or in a batch that failed
+ * as a whole, are sent one at a time with SendMessage. {@link #flush()} throws if an event could
+ * not be sent at all.
+ *
+ * <p>Handlers add events as they happen and call {@link #flush()} before they return. Each
+ * invocation starts with {@link #discardPending()}, so events left by one that failed before it
+ * flushed are not sent with the next one's.
+ */
+public class AuditEventPublisher {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    // The most entries SendMessageBatch accepts
+    static final int MAX_BATCH_SIZE = 10;
+    static final int MAX_BATCH_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 25L;
+
+    private final Supplier<SqsAsyncClient> sqsAsyncClientSupplier;
+    private final String queueUrl;
+    private final ObjectMapper objectMapper;
+    private final AuditEventFactory auditEventFactory;
+    private final Queue<String> pendingEvents = new ConcurrentLinkedQueue<>();
+
+    public AuditEventPublisher(
+            SqsAsyncClient sqsAsyncClient,
+            String queueUrl,
+            ObjectMapper objectMapper,
+            AuditEventFactory auditEventFactory) {
+        this(() -> sqsAsyncClient, queueUrl, objectMapper, auditEventFactory);
+    }
+
+    /**
+     * Takes a supplier so the client can be created the first time events are sent rather than
+     * when the publisher is. The supplier is called on every send and must return the same client.
+     */
+    public AuditEventPublisher(
+            Supplier<SqsAsyncClient> sqsAsyncClientSupplier,
+            String queueUrl,
+            ObjectMapper objectMapper,
+            AuditEventFactory auditEventFactory) {
+        this.sqsAsyncClientSupplier = sqsAsyncClientSupplier;
+        this.queueUrl = queueUrl;
+        this.objectMapper = objectMapper;
+        this.auditEventFactory = auditEventFactory;
+    }
+
+    public void addAuditEvent(AuditEventType eventType, AuditEventContext context)
+            throws SqsException {
+        addAuditEvent(eventType, context, null);
+    }
+
+    /** Creates the event now, so it has the current timestamp, and holds it for the next flush. */
+    public <T> void addAuditEvent(AuditEventType eventType, AuditEventContext context, T extensions)
+            throws SqsException {
+        try {
+            pendingEvents.add(
+                    objectMapper.writeValueAsString(
+                            auditEventFactory.create(eventType, context, extensions)));
+        } catch (JsonProcessingException e) {
+            throw new SqsException(e);
+        }
+    }
+
+    /** Drops the events added since the last flush, without sending them. */
+    public void discardPending() {
+        int discarded = 0;
+        while (pendingEvents.poll() != null) {
+            discarded++;
+        }
+        if (discarded > 0) {
+            LOGGER.warn("Discarded {} audit events left by an earlier invocation", discarded);
+        }
+    }
+
+    /** Sends all pending events and waits until SQS has accepted every one of them. */
+    public void flush() throws SqsException {
+        List<String> messageBodies = new ArrayList<>();
+        String messageBody;
+        while ((messageBody = pendingEvents.poll()) != null) {
+            messageBodies.add(messageBody);
+        }
+        if (messageBodies.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int start = 0; start < messageBodies.size(); start += MAX_BATCH_SIZE) {
+            int end = Math.min(messageBodies.size(), start + MAX_BATCH_SIZE);
+            batches.add(sendBatch(messageBodies.subList(start, end), 1));
+        }
+
+        try {
+            CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            throw new SqsException(cause);
+        }
+    }
+
+    private CompletableFuture<Void> sendBatch(List<String> messageBodies, int attempt) {
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<>(messageBodies.size());
+        for (int i = 0; i < messageBodies.size(); i++) {
+            entries.add(
+                    SendMessageBatchRequestEntry.builder()
+                            .id(String.valueOf(i))
+                            .messageBody(messageBodies.get(i))
+                            .build());
+        }
+
+        SendMessageBatchRequest request =
+                SendMessageBatchRequest.builder().queueUrl(queueUrl).entries(entries).build();
+        return sqsAsyncClientSupplier
+                .get()
+                .sendMessageBatch(request)
+                .handle(
+                        (response, error) -> {
+                            if (error != null) {
+                                LOGGER.warn(
+                                        "Audit event batch failed, sending events one at a time",
+                                        error);
+                                return sendIndividually(messageBodies);
+                            }
+                            return resendFailedEntries(messageBodies, response, attempt);
+                        })
+                .thenCompose(resent -> resent);
+    }
+
+    private CompletableFuture<Void> resendFailedEntries(
+            List<String> messageBodies, SendMessageBatchResponse response, int attempt) {
+        if (!response.hasFailed() || response.failed().isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<String> retryable = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        for (BatchResultErrorEntry failed : response.failed()) {
+            LOGGER.warn("Audit event not accepted by SQS, code {}", failed.code());
+            String messageBody = messageBodies.get(Integer.parseInt(failed.id()));
+            if (Boolean.TRUE.equals(failed.senderFault())) {
+                rejected.add(messageBody);
+            } else {
+                retryable.add(messageBody);
+            }
+        }
+
+        // The request was at fault, sending it again in a batch will not change the answer
+        CompletableFuture<Void> resent = sendIndividually(rejected);
+        if (retryable.isEmpty()) {
+            return resent;
+        }
+
+        CompletableFuture<Void> retried;
+        if (attempt < MAX_BATCH_ATTEMPTS) {
+            retried =
+                    CompletableFuture.runAsync(
+                                    () -> {},
+                                    CompletableFuture.delayedExecutor(
+                                            RETRY_DELAY_MS * attempt, TimeUnit.MILLISECONDS))
+                            .thenCompose(ignored -> sendBatch(retryable, attempt + 1));
+        } else {
+            retried = sendIndividually(retryable);
+        }
+        return CompletableFuture.allOf(resent, retried);
+    }
+
+    private CompletableFuture<Void> sendIndividually(List<String> messageBodies) {
+        SqsAsyncClient sqsAsyncClient = sqsAsyncClientSupplier.get();
+        List<CompletableFuture<?>> sends = new ArrayList<>(messageBodies.size());
+        for (String messageBody : messageBodies) {
+            sends.add(
+                    sqsAsyncClient
+                            .sendMessage(
+                                    SendMessageRequest.builder()
+                                            .queueUrl(queueUrl)
+                                            .messageBody(messageBody)
+                                            .build())
+                            .whenComplete(
+                                    (response, error) -> {
+                                        if (error != null) {
+                                            LOGGER.error("Audit event could not be sent", error);
+                                        }
+                                    }));
+        }
+        return CompletableFuture.allOf(sends.toArray(new CompletableFuture[0]));
+    }
+}
@@ -43,9 +43,60 @@ public class Definitions {
     public static final String THIRD_PARTY_REQUEST_SEND_ERROR = "third_party_request_send_error";
     public static final String THIRD_PARTY_REQUEST_SEND_MAX_RETRIES =
             "third_party_request_send_max_retries";
+    public static final String THIRD_PARTY_REQUEST_SEND_RETRY_BUDGET_EXHAUSTED =
+            "third_party_request_send_retry_budget_exhausted"; // Deadline or Retry-After
     public static final String THIRD_PARTY_REQUEST_SEND_FAIL =
             "third_party_requests_send_fail"; // IOException
 
+    // Hedged requests (DCS) - a hedge is won when it answers with a 200 before the first request
+    public static final String THIRD_PARTY_REQUEST_HEDGE_SENT = "third_party_request_hedge_sent";
+    public static final String THIRD_PARTY_REQUEST_HEDGE_WON = "third_party_request_hedge_won";
+
+    // HTTP Connection Pool (DCS) - reuse rate is 1 - (handshakes / leased)
+    public static final String THIRD_PARTY_CONNECTION_LEASED = "third_party_connection_leased";
+    public static final String THIRD_PARTY_CONNECTION_REUSED = "third_party_connection_reused";
+    public static final String THIRD_PARTY_TLS_HANDSHAKE = "third_party_tls_handshake";
+
+    // DCS connection warm up during init (duration recorded in milliseconds)
+    public static final String DCS_CONNECTION_WARM_UP_OK = "dcs_connection_warm_up_ok";
+    public static final String DCS_CONNECTION_WARM_UP_FAILED = "dcs_connection_warm_up_failed";
+    public static final String DCS_CONNECTION_WARM_UP_DURATION = "dcs_connection_warm_up_duration";
+
+    // Lambda init and the first request an environment handles (durations in milliseconds)
+    public static final String COLD_START_INIT_DURATION = "cold_start_init_duration";
+    public static final String FIRST_REQUEST_DURATION = "first_request_duration";
+
+    // Creation of a service during init or on first use, service name is appended (milliseconds)
+    public static final String SERVICE_CREATION_DURATION_PREFIX = "service_creation_duration_";
+
+    // Parameter loading during init, per group (duration recorded in milliseconds)
+    public static final String CONFIG_LOAD_DURATION_PREFIX = "config_load_duration_";
+
+    // Configuration reloaded from SSM after its time to live, the cache entry name is appended
+    // followed by _hit, _miss, _refresh_ok or _refresh_failed
+    public static final String CONFIG_CACHE_PREFIX = "config_cache_";
+
+    // Each write that saves an attempt, the write name is appended (milliseconds). Reported for
+    // a write that failed as well as one that succeeded
+    public static final String SAVE_ATTEMPT_WRITE_DURATION_PREFIX = "save_attempt_write_duration_";
+
+    // Each read the credential is issued from, the read name is appended (milliseconds)
+    public static final String ISSUE_CREDENTIAL_READ_DURATION_PREFIX =
+            "issue_credential_read_duration_";
+
+    // Credential requests answered with the credential already issued for the session (hit) or
+    // issued afresh (miss)
+    public static final String ISSUED_CREDENTIAL_CACHE_HIT = "issued_credential_cache_hit";
+    public static final String ISSUED_CREDENTIAL_CACHE_MISS = "issued_credential_cache_miss";
+
+    // DCS circuit breaker state changes and rejections (endpoint name is appended)
+    public static final String DCS_CIRCUIT_BREAKER_OPENED_PREFIX = "dcs_circuit_breaker_opened_";
+    public static final String DCS_CIRCUIT_BREAKER_HALF_OPENED_PREFIX =
+            "dcs_circuit_breaker_half_opened_";
+    public static final String DCS_CIRCUIT_BREAKER_CLOSED_PREFIX = "dcs_circuit_breaker_closed_";
+    public static final String DCS_CIRCUIT_BREAKER_REJECTED_PREFIX =
+            "dcs_circuit_breaker_rejected_";
+
     // Third Party Response Type DCS
     public static final String THIRD_PARTY_DCS_RESPONSE_OK = "third_party_dcs_response_ok";
     public static final String THIRD_PARTY_DCS_RESPONSE_TYPE_ERROR =
@@ -0,0 +1,27 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.persistence;
+
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.DocumentCheckResultItem;
+
+/**
+ * The document check result table, as the cri-common-lib DataStore would give it but mapped with
+ * {@link DocumentCheckResultTableSchema} in place of an introspected bean schema.
+ */
+public class DocumentCheckResultStore {
+
+    private final DynamoDbTable<DocumentCheckResultItem> table;
+
+    public DocumentCheckResultStore(String tableName, DynamoDbEnhancedClient enhancedClient) {
+        this.table = enhancedClient.table(tableName, DocumentCheckResultTableSchema.TABLE_SCHEMA);
+    }
+
+    public void create(DocumentCheckResultItem item) {
+        table.putItem(item);
+    }
+
+    public DocumentCheckResultItem getItem(String sessionId) {
+        return table.getItem(Key.builder().partitionValue(sessionId).build());
+    }
+}
@@ -0,0 +1,106 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.persistence;
+
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.DocumentCheckResultItem;
+
+import java.util.UUID;
+
+import static software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags.primaryPartitionKey;
+
+/**
+ * The table schema of {@link DocumentCheckResultItem}, written out by hand rather than introspected
+ * from the bean. TableSchema.fromBean reflects over the class and spins up a lambda for every
+ * getter and setter, which is paid during init by both lambdas that use the table.
+ *
+ * <p>The attributes have to match what the bean schema would give. The build fails in
+ * DocumentCheckResultTableSchemaTest if a property is added to the item but not here.
+ */
+public final class DocumentCheckResultTableSchema {
+
+    public static final TableSchema<DocumentCheckResultItem> TABLE_SCHEMA = create();
+
+    private DocumentCheckResultTableSchema() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    private static TableSchema<DocumentCheckResultItem> create() {
+        return StaticTableSchema.builder(DocumentCheckResultItem.class)
+                .newItemSupplier(DocumentCheckResultItem::new)
+                .addAttribute(
+                        UUID.class,
+                        a ->
+                                a.name("sessionId")
+                                        .getter(DocumentCheckResultItem::getSessionId)
+                                        .setter(DocumentCheckResultItem::setSessionId)
+                                        .tags(primaryPartitionKey()))
+                .addAttribute(
+                        EnhancedType.listOf(String.class),
+                        a ->
+                                a.name("contraIndicators")
+                                        .getter(DocumentCheckResultItem::getContraIndicators)
+                                        .setter(DocumentCheckResultItem::setContraIndicators))
+                .addAttribute(
+                        Integer.class,
+                        a ->
+                                a.name("strengthScore")
+                                        .getter(DocumentCheckResultItem::getStrengthScore)
+                                        .setter(DocumentCheckResultItem::setStrengthScore))
+                .addAttribute(
+                        Integer.class,
+                        a ->
+                                a.name("validityScore")
+                                        .getter(DocumentCheckResultItem::getValidityScore)
+                                        .setter(DocumentCheckResultItem::setValidityScore))
+                .addAttribute(
+                        Integer.class,
+                        a ->
+                                a.name("activityHistoryScore")
+                                        .getter(DocumentCheckResultItem::getActivityHistoryScore)
+                                        .setter(DocumentCheckResultItem::setActivityHistoryScore))
+                .addAttribute(
+                        String.class,
+                        a ->
+                                a.name("activityFrom")
+                                        .getter(DocumentCheckResultItem::getActivityFrom)
+                                        .setter(DocumentCheckResultItem::setActivityFrom))
+                .addAttribute(
+                        String.class,
+                        a ->
+                                a.name("checkMethod")
+                                        .getter(DocumentCheckResultItem::getCheckMethod)
+                                        .setter(DocumentCheckResultItem::setCheckMethod))
+                .addAttribute(
+                        String.class,
+                        a ->
+                                a.name("identityCheckPolicy")
+                                        .getter(DocumentCheckResultItem::getIdentityCheckPolicy)
+                                        .setter(DocumentCheckResultItem::setIdentityCheckPolicy))
+                .addAttribute(
+                        String.class,
+                        a ->
+                                a.name("issuedBy")
+                                        .getter(DocumentCheckResultItem::getIssuedBy)
+                                        .setter(DocumentCheckResultItem::setIssuedBy))
+                .addAttribute(
+                        String.class,
+                        a ->
+                                a.name("documentNumber")
+                                        .getter(DocumentCheckResultItem::getDocumentNumber)
+                                        .setter(DocumentCheckResultItem::setDocumentNumber))
+                .addAttribute(
+                        String.class,
+                        a ->
+                                a.name("expiryDate")
+                                        .getter(DocumentCheckResultItem::getExpiryDate)
+                                        .setter(DocumentCheckResultItem::setExpiryDate))
+                .addAttribute(
+                        String.class,
+                        a ->
+                                a.name("transactionId")
+                                        .getter(DocumentCheckResultItem::getTransactionId)
+                                        .setter(DocumentCheckResultItem::setTransactionId))
+                .build();
+    }
+}
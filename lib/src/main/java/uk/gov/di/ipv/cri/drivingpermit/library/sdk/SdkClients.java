@@ -0,0 +1,98 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.sdk;
+
+import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+/**
+ * Configures AWS SDK client builders to share one tuned HTTP client per lambda, rather than each
+ * SDK client discovering and creating its own. Sync clients share a UrlConnectionHttpClient, which
+ * loads far fewer classes at init than the Apache client, and async clients share a Netty client.
+ *
+ * <p>The shared clients are created on first use and are never closed, they live as long as the
+ * execution environment. Closing an SDK client built here leaves the shared HTTP client open.
+ */
+public final class SdkClients {
+
+    private static final SdkHttpClientConfig CONFIG = SdkHttpClientConfig.fromEnvironment();
+
+    private SdkClients() {
+        throw new IllegalStateException("Instantiation is not valid for this class.");
+    }
+
+    /** Sets the shared sync HTTP client and the region of the lambda on the builder. */
+    public static <B extends AwsClientBuilder<B, ?> & AwsSyncClientBuilder<B, ?>> B sync(
+            B builder) {
+        return withRegion(builder.httpClient(SyncHttpClientHolder.HTTP_CLIENT));
+    }
+
+    /** Sets the shared async HTTP client and the region of the lambda on the builder. */
+    public static <B extends AwsClientBuilder<B, ?> & AwsAsyncClientBuilder<B, ?>> B async(
+            B builder) {
+        return withRegion(builder.httpClient(AsyncHttpClientHolder.HTTP_CLIENT));
+    }
+
+    /**
+     * One enhanced client for every DataStore in the lambda, in place of the client each call to
+     * DataStore.getClient() builds.
+     */
+    public static DynamoDbEnhancedClient dynamoDbEnhancedClient() {
+        return DynamoDbHolder.ENHANCED_CLIENT;
+    }
+
+    /**
+     * Lambda sets AWS_REGION, reading it here saves the SDK walking its region provider chain for
+     * every client. Elsewhere the SDK is left to find the region itself.
+     */
+    private static <B extends AwsClientBuilder<B, ?>> B withRegion(B builder) {
+        String region = System.getenv("AWS_REGION");
+        return region == null ? builder : builder.region(Region.of(region));
+    }
+
+    static SdkHttpClient createSyncHttpClient(SdkHttpClientConfig config) {
+        // HttpURLConnection keeps idle connections in a JVM wide cache, sized by this property. It
+        // is read once, so is only set if nothing has set it before the first client is created
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections", String.valueOf(config.getMaxConnections()));
+        }
+        return UrlConnectionHttpClient.builder()
+                .connectionTimeout(config.getConnectTimeout())
+                .socketTimeout(config.getSocketTimeout())
+                .build();
+    }
+
+    static SdkAsyncHttpClient createAsyncHttpClient(SdkHttpClientConfig config) {
+        return NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(config.getMaxConnections())
+                .connectionTimeout(config.getConnectTimeout())
+                .readTimeout(config.getSocketTimeout())
+                .writeTimeout(config.getSocketTimeout())
+                .eventLoopGroupBuilder(
+                        SdkEventLoopGroup.builder().numberOfThreads(config.getEventLoopThreads()))
+                .build();
+    }
+
+    // Holder classes, so a lambda that only uses one kind of client never creates the other
+    private static final class SyncHttpClientHolder {
+        private static final SdkHttpClient HTTP_CLIENT = createSyncHttpClient(CONFIG);
+    }
+
+    private static final class AsyncHttpClientHolder {
+        private static final SdkAsyncHttpClient HTTP_CLIENT = createAsyncHttpClient(CONFIG);
+    }
+
+    private static final class DynamoDbHolder {
+        private static final DynamoDbEnhancedClient ENHANCED_CLIENT =
+                DynamoDbEnhancedClient.builder()
+                        .dynamoDbClient(sync(DynamoDbClient.builder()).build())
+                        .build();
+    }
+}
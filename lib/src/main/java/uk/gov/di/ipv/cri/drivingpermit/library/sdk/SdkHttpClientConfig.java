@@ -0,0 +1,94 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.sdk;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Timeouts and connection limits of the HTTP clients shared by the AWS SDK clients. Read from
+ * environment variables rather than SSM, as the SSM client is one of the clients being configured.
+ * Any that are missing or invalid fall back to the defaults below.
+ */
+public class SdkHttpClientConfig {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    public static final int DEFAULT_CONNECT_TIMEOUT_MS = 1000;
+    public static final int DEFAULT_SOCKET_TIMEOUT_MS = 5000;
+    public static final int DEFAULT_MAX_CONNECTIONS = 10;
+    public static final int DEFAULT_EVENT_LOOP_THREADS = 2;
+
+    private final Duration connectTimeout;
+    private final Duration socketTimeout;
+    private final int maxConnections;
+    private final int eventLoopThreads;
+
+    public SdkHttpClientConfig(Map<String, String> environment) {
+        this.connectTimeout =
+                Duration.ofMillis(
+                        getPositiveInt(
+                                environment,
+                                "SDK_HTTP_CONNECT_TIMEOUT_MS",
+                                DEFAULT_CONNECT_TIMEOUT_MS));
+        this.socketTimeout =
+                Duration.ofMillis(
+                        getPositiveInt(
+                                environment,
+                                "SDK_HTTP_SOCKET_TIMEOUT_MS",
+                                DEFAULT_SOCKET_TIMEOUT_MS));
+        this.maxConnections =
+                getPositiveInt(environment, "SDK_HTTP_MAX_CONNECTIONS", DEFAULT_MAX_CONNECTIONS);
+        this.eventLoopThreads =
+                getPositiveInt(
+                        environment, "SDK_HTTP_EVENT_LOOP_THREADS", DEFAULT_EVENT_LOOP_THREADS);
+    }
+
+    public static SdkHttpClientConfig fromEnvironment() {
+        return new SdkHttpClientConfig(System.getenv());
+    }
+
+    /** Time allowed to open a connection to an AWS endpoint. */
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /** Time allowed between bytes read from, or written to, an AWS endpoint. */
+    public Duration getSocketTimeout() {
+        return socketTimeout;
+    }
+
+    /**
+     * Connections the async client opens at most, and idle connections the sync client keeps open
+     * to each endpoint.
+     */
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /** Threads the async client handles its connections on. */
+    public int getEventLoopThreads() {
+        return eventLoopThreads;
+    }
+
+    private static int getPositiveInt(
+            Map<String, String> environment, String name, int defaultValue) {
+        String value = environment.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to the default
+        }
+
+        LOGGER.warn("Invalid environment variable {} '{}', using {}", name, value, defaultValue);
+        return defaultValue;
+    }
+}
@@ -0,0 +1,108 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import org.apache.logging.log4j.ThreadContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the independent steps of a request on a small pool of daemon threads. Each task gets the
+ * log context (correlation id and other keys Powertools adds) of the thread that submitted it.
+ */
+public class ParallelTaskExecutor implements Executor {
+
+    private final Executor executor;
+
+    public ParallelTaskExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public static ParallelTaskExecutor withDaemonThreads(String threadNamePrefix, int threads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ParallelTaskExecutor(
+                Executors.newFixedThreadPool(
+                        threads,
+                        runnable -> {
+                            Thread thread =
+                                    new Thread(
+                                            runnable,
+                                            threadNamePrefix + "-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Map<String, String> logContext = ThreadContext.getImmutableContext();
+        executor.execute(
+                () -> {
+                    ThreadContext.putAll(logContext);
+                    try {
+                        command.run();
+                    } finally {
+                        ThreadContext.clearMap();
+                    }
+                });
+    }
+
+    /** Starts the task, a checked exception it throws completes the future exceptionally. */
+    public <T> CompletableFuture<T> supply(Callable<T> task) {
+        return CompletableFuture.supplyAsync(
+                () -> {
+                    try {
+                        return task.call();
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                },
+                this);
+    }
+
+    /**
+     * Runs the tasks concurrently and waits for all of them to finish, including after one has
+     * failed, since a write that is already in flight cannot be called back. When any fail, the
+     * failure of the first in list order is thrown with the others suppressed, so which failure is
+     * reported does not depend on timing. If interrupted, tasks not yet finished are cancelled.
+     */
+    public void invokeAll(List<Callable<Void>> tasks)
+            throws ExecutionException, InterruptedException {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(tasks.size());
+        for (Callable<Void> task : tasks) {
+            futures.add(supply(task));
+        }
+
+        ExecutionException failure = null;
+        try {
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e.getCause());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import java.nio.ByteBuffer;
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Random IDs and seeds that stay unique across execution environments restored from the same
+ * SnapStart snapshot. Any generator state in the snapshot is shared by every environment restored
+ * from it, so {@link #reseed()} is called from the afterRestore hooks to replace the generators
+ * with ones seeded from entropy gathered after the restore.
+ *
+ * <p>IDs come from a generator per thread, a DRBG that only reads the entropy source when it is
+ * created, so threads drawing IDs do not contend for one generator's lock or wait on the entropy
+ * source. Each is personalized with a seed read at that point, as the state the DRBG would
+ * otherwise start from is itself held in the snapshot.
+ */
+public final class RandomIds {
+
+    private static final int SEED_BYTES = 32;
+    private static final int DRBG_STRENGTH = 256;
+
+    private static final RandomIds INSTANCE =
+            new RandomIds(RandomIds::createSecureRandom, RandomIds::createThreadSecureRandom);
+
+    private final Supplier<SecureRandom> secureRandomFactory;
+    // Given the generator to read the personalization seed from
+    private final Function<SecureRandom, SecureRandom> threadSecureRandomFactory;
+    private final ThreadLocal<ThreadGenerator> threadGenerator = new ThreadLocal<>();
+    private volatile SecureRandom secureRandom;
+    private volatile int generation;
+
+    RandomIds(Supplier<SecureRandom> secureRandomFactory) {
+        this(secureRandomFactory, seedSource -> secureRandomFactory.get());
+    }
+
+    RandomIds(
+            Supplier<SecureRandom> secureRandomFactory,
+            Function<SecureRandom, SecureRandom> threadSecureRandomFactory) {
+        this.secureRandomFactory = secureRandomFactory;
+        this.threadSecureRandomFactory = threadSecureRandomFactory;
+        this.secureRandom = secureRandomFactory.get();
+    }
+
+    public static RandomIds getInstance() {
+        return INSTANCE;
+    }
+
+    /** A version 4 UUID, as {@link UUID#randomUUID()} but from the generators held here. */
+    public UUID randomUUID() {
+        byte[] bytes = new byte[16];
+        getThreadSecureRandom().nextBytes(bytes);
+        bytes[6] = (byte) ((bytes[6] & 0x0f) | 0x40);
+        bytes[8] = (byte) ((bytes[8] & 0x3f) | 0x80);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /** A seed for a {@link java.util.Random} that has to be re-seeded after a restore. */
+    public long nextSeed() {
+        return secureRandom.nextLong();
+    }
+
+    /** Replaces the generators, so nothing they held before a snapshot is used after restore. */
+    public synchronized void reseed() {
+        secureRandom = secureRandomFactory.get();
+        // Each thread replaces its own generator the next time it draws an ID
+        generation++;
+    }
+
+    SecureRandom getThreadSecureRandom() {
+        int currentGeneration = generation;
+        ThreadGenerator generator = threadGenerator.get();
+        if (generator == null || generator.generation != currentGeneration) {
+            generator =
+                    new ThreadGenerator(
+                            threadSecureRandomFactory.apply(secureRandom), currentGeneration);
+            threadGenerator.set(generator);
+        }
+        return generator.secureRandom;
+    }
+
+    static SecureRandom createSecureRandom() {
+        SecureRandom secureRandom = new SecureRandom();
+        // Supplements rather than replaces the seed, mixing in entropy read at this point
+        secureRandom.setSeed(secureRandom.generateSeed(SEED_BYTES));
+        return secureRandom;
+    }
+
+    static SecureRandom createThreadSecureRandom(SecureRandom seedSource) {
+        try {
+            return SecureRandom.getInstance(
+                    "DRBG",
+                    DrbgParameters.instantiation(
+                            DRBG_STRENGTH,
+                            DrbgParameters.Capability.RESEED_ONLY,
+                            seedSource.generateSeed(SEED_BYTES)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No DRBG SecureRandom is available", e);
+        }
+    }
+
+    private static final class ThreadGenerator {
+        private final SecureRandom secureRandom;
+        private final int generation;
+
+        private ThreadGenerator(SecureRandom secureRandom, int generation) {
+            this.secureRandom = secureRandom;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SqsException;
+import uk.gov.di.ipv.cri.common.library.domain.AuditEventContext;
+import uk.gov.di.ipv.cri.common.library.domain.AuditEventType;
+import uk.gov.di.ipv.cri.common.library.service.AuditEventFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AuditEventPublisherTest {
+    private static final String QUEUE_URL = "https://sqs.eu-west-2.amazonaws.com/1/audit";
+
+    @Mock private SqsAsyncClient mockSqsAsyncClient;
+    @Mock private ObjectMapper mockObjectMapper;
+    @Mock private AuditEventFactory mockAuditEventFactory;
+    @Mock private AuditEventContext mockAuditEventContext;
+
+    private AuditEventPublisher auditEventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        auditEventPublisher =
+                new AuditEventPublisher(
+                        mockSqsAsyncClient, QUEUE_URL, mockObjectMapper, mockAuditEventFactory);
+    }
+
+    @Test
+    void shouldSendPendingEventsInBatchesOfTen() throws Exception {
+        addEvents(12);
+        when(mockSqsAsyncClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                SendMessageBatchResponse.builder().build()));
+
+        auditEventPublisher.flush();
+
+        ArgumentCaptor<SendMessageBatchRequest> requests =
+                ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        verify(mockSqsAsyncClient, times(2)).sendMessageBatch(requests.capture());
+        assertEquals(QUEUE_URL, requests.getAllValues().get(0).queueUrl());
+        assertEquals(10, requests.getAllValues().get(0).entries().size());
+        assertEquals(
+                List.of("event-10", "event-11"), messageBodies(requests.getAllValues().get(1)));
+        verify(mockSqsAsyncClient, never()).sendMessage(any(SendMessageRequest.class));
+    }
+
+    @Test
+    void shouldRetryOnlyTheEntriesSqsDidNotAccept() throws Exception {
+        addEvents(2);
+        when(mockSqsAsyncClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                SendMessageBatchResponse.builder()
+                                        .failed(
+                                                BatchResultErrorEntry.builder()
+                                                        .id("1")
+                                                        .code("InternalError")
+                                                        .senderFault(false)
+                                                        .build())
+                                        .build()),
+                        CompletableFuture.completedFuture(
+                                SendMessageBatchResponse.builder().build()));
+
+        auditEventPublisher.flush();
+
+        ArgumentCaptor<SendMessageBatchRequest> requests =
+                ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        verify(mockSqsAsyncClient, times(2)).sendMessageBatch(requests.capture());
+        assertEquals(List.of("event-1"), messageBodies(requests.getAllValues().get(1)));
+    }
+
+    @Test
+    void shouldSendEventsOneAtATimeWhenTheBatchFails() throws Exception {
+        addEvents(2);
+        when(mockSqsAsyncClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(SqsException.builder().build()));
+        when(mockSqsAsyncClient.sendMessage(any(SendMessageRequest.class)))
+                .thenReturn(
+                        CompletableFuture.completedFuture(SendMessageResponse.builder().build()));
+
+        auditEventPublisher.flush();
+
+        verify(mockSqsAsyncClient, times(2)).sendMessage(any(SendMessageRequest.class));
+    }
+
+    @Test
+    void shouldThrowSqsExceptionWhenAnEventCannotBeSent() throws Exception {
+        addEvents(1);
+        when(mockSqsAsyncClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(SqsException.builder().build()));
+        when(mockSqsAsyncClient.sendMessage(any(SendMessageRequest.class)))
+                .thenReturn(CompletableFuture.failedFuture(SqsException.builder().build()));
+
+        assertThrows(
+                uk.gov.di.ipv.cri.common.library.exception.SqsException.class,
+                () -> auditEventPublisher.flush());
+    }
+
+    @Test
+    void shouldNotCallSqsWhenThereAreNoPendingEvents() throws Exception {
+        auditEventPublisher.flush();
+
+        verifyNoInteractions(mockSqsAsyncClient);
+    }
+
+    @Test
+    void shouldNotSendEventsOfAFailedInvocationWithTheNextOne() throws Exception {
+        // The first invocation adds an event, then fails before it flushes
+        addEvents(2);
+        auditEventPublisher.discardPending();
+        when(mockSqsAsyncClient.sendMessageBatch(any(SendMessageBatchRequest.class)))
+                .thenReturn(
+                        CompletableFuture.completedFuture(
+                                SendMessageBatchResponse.builder().build()));
+
+        when(mockObjectMapper.writeValueAsString(any())).thenReturn("next-event");
+        auditEventPublisher.addAuditEvent(AuditEventType.END, mockAuditEventContext);
+        auditEventPublisher.flush();
+
+        ArgumentCaptor<SendMessageBatchRequest> request =
+                ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        verify(mockSqsAsyncClient).sendMessageBatch(request.capture());
+        assertEquals(List.of("next-event"), messageBodies(request.getValue()));
+    }
+
+    private void addEvents(int count) throws Exception {
+        String[] eventBodies = new String[count - 1];
+        for (int i = 1; i < count; i++) {
+            eventBodies[i - 1] = "event-" + i;
+        }
+        when(mockObjectMapper.writeValueAsString(any())).thenReturn("event-0", eventBodies);
+        for (int i = 0; i < count; i++) {
+            auditEventPublisher.addAuditEvent(AuditEventType.REQUEST_SENT, mockAuditEventContext);
+        }
+    }
+
+    private static List<String> messageBodies(SendMessageBatchRequest request) {
+        return request.entries().stream()
+                .map(SendMessageBatchRequestEntry::messageBody)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,86 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.persistence;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import uk.gov.di.ipv.cri.drivingpermit.library.persistence.item.DocumentCheckResultItem;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static uk.gov.di.ipv.cri.drivingpermit.library.persistence.DocumentCheckResultTableSchema.TABLE_SCHEMA;
+
+class DocumentCheckResultTableSchemaTest {
+
+    private final TableSchema<DocumentCheckResultItem> beanTableSchema =
+            TableSchema.fromBean(DocumentCheckResultItem.class);
+
+    @Test
+    void shouldHaveTheAttributesOfTheBean() {
+        assertEquals(
+                new HashSet<>(beanTableSchema.attributeNames()),
+                new HashSet<>(TABLE_SCHEMA.attributeNames()));
+    }
+
+    @Test
+    void shouldHaveThePartitionKeyOfTheBean() {
+        assertEquals(
+                beanTableSchema.tableMetadata().primaryPartitionKey(),
+                TABLE_SCHEMA.tableMetadata().primaryPartitionKey());
+        assertEquals(
+                beanTableSchema.tableMetadata().primaryKeys(),
+                TABLE_SCHEMA.tableMetadata().primaryKeys());
+    }
+
+    @Test
+    void shouldWriteTheSameAttributeValuesAsTheBean() {
+        DocumentCheckResultItem item = createItem();
+
+        assertEquals(beanTableSchema.itemToMap(item, true), TABLE_SCHEMA.itemToMap(item, true));
+        assertEquals(beanTableSchema.itemToMap(item, false), TABLE_SCHEMA.itemToMap(item, false));
+    }
+
+    @Test
+    void shouldReadWhatTheBeanWrote() {
+        Map<String, AttributeValue> written = beanTableSchema.itemToMap(createItem(), true);
+
+        DocumentCheckResultItem read = TABLE_SCHEMA.mapToItem(written);
+
+        assertEquals(written, beanTableSchema.itemToMap(read, true));
+    }
+
+    @Test
+    void shouldReadAnItemWithMissingAttributes() {
+        DocumentCheckResultItem item = new DocumentCheckResultItem();
+        item.setSessionId(UUID.randomUUID());
+        Map<String, AttributeValue> written = new HashMap<>(beanTableSchema.itemToMap(item, true));
+        written.remove("strengthScore");
+
+        DocumentCheckResultItem read = TABLE_SCHEMA.mapToItem(written);
+
+        assertEquals(item.getSessionId(), read.getSessionId());
+        assertEquals(0, read.getStrengthScore());
+    }
+
+    /** Every property set to a value other than its default, so none is left out of the map. */
+    private static DocumentCheckResultItem createItem() {
+        DocumentCheckResultItem item = new DocumentCheckResultItem();
+        item.setSessionId(UUID.randomUUID());
+        item.setContraIndicators(List.of("A01", "D02"));
+        item.setStrengthScore(3);
+        item.setValidityScore(2);
+        item.setActivityHistoryScore(1);
+        item.setActivityFrom("1996-12-26");
+        item.setCheckMethod("data");
+        item.setIdentityCheckPolicy("published");
+        item.setIssuedBy("DVLA");
+        item.setDocumentNumber("A001");
+        item.setExpiryDate("2006-12-26");
+        item.setTransactionId(UUID.randomUUID().toString());
+        return item;
+    }
+}
@@ -0,0 +1,48 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.sdk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SdkHttpClientConfigTest {
+
+    @Test
+    void shouldUseTheDefaultsWhenNothingIsSet() {
+        SdkHttpClientConfig config = new SdkHttpClientConfig(Map.of());
+
+        assertEquals(Duration.ofMillis(1000), config.getConnectTimeout());
+        assertEquals(Duration.ofMillis(5000), config.getSocketTimeout());
+        assertEquals(10, config.getMaxConnections());
+        assertEquals(2, config.getEventLoopThreads());
+    }
+
+    @Test
+    void shouldReadTheEnvironmentVariables() {
+        SdkHttpClientConfig config =
+                new SdkHttpClientConfig(
+                        Map.of(
+                                "SDK_HTTP_CONNECT_TIMEOUT_MS", "250",
+                                "SDK_HTTP_SOCKET_TIMEOUT_MS", " 3000 ",
+                                "SDK_HTTP_MAX_CONNECTIONS", "4",
+                                "SDK_HTTP_EVENT_LOOP_THREADS", "1"));
+
+        assertEquals(Duration.ofMillis(250), config.getConnectTimeout());
+        assertEquals(Duration.ofMillis(3000), config.getSocketTimeout());
+        assertEquals(4, config.getMaxConnections());
+        assertEquals(1, config.getEventLoopThreads());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "ten", "0", "-5"})
+    void shouldFallBackToTheDefaultForAnInvalidValue(String value) {
+        SdkHttpClientConfig config =
+                new SdkHttpClientConfig(Map.of("SDK_HTTP_MAX_CONNECTIONS", value));
+
+        assertEquals(SdkHttpClientConfig.DEFAULT_MAX_CONNECTIONS, config.getMaxConnections());
+    }
+}
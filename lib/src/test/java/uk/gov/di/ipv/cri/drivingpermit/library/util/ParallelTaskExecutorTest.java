@@ -0,0 +1,112 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import org.apache.logging.log4j.ThreadContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelTaskExecutorTest {
+    private ExecutorService executorService;
+    private ParallelTaskExecutor parallelTaskExecutor;
+
+    @BeforeEach
+    void setUp() {
+        executorService = Executors.newFixedThreadPool(3);
+        parallelTaskExecutor = new ParallelTaskExecutor(executorService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ThreadContext.clearMap();
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void shouldRunTasksAtTheSameTime() throws Exception {
+        // Each task waits for the others to start, so this only completes if all run at once
+        CountDownLatch allStarted = new CountDownLatch(3);
+        Callable<Void> task =
+                () -> {
+                    allStarted.countDown();
+                    assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+                    return null;
+                };
+
+        parallelTaskExecutor.invokeAll(List.of(task, task, task));
+
+        assertEquals(0, allStarted.getCount());
+    }
+
+    @Test
+    void shouldWaitForAllTasksAndThrowFirstFailureInListOrder() {
+        AtomicBoolean slowTaskFinished = new AtomicBoolean();
+        IOException firstFailure = new IOException("first");
+        IllegalStateException secondFailure = new IllegalStateException("second");
+
+        ExecutionException e =
+                assertThrows(
+                        ExecutionException.class,
+                        () ->
+                                parallelTaskExecutor.invokeAll(
+                                        List.of(
+                                                () -> {
+                                                    // Fails after the second task has failed
+                                                    Thread.sleep(100);
+                                                    throw firstFailure;
+                                                },
+                                                () -> {
+                                                    throw secondFailure;
+                                                },
+                                                () -> {
+                                                    Thread.sleep(200);
+                                                    slowTaskFinished.set(true);
+                                                    return null;
+                                                })));
+
+        assertEquals(firstFailure, e.getCause());
+        assertEquals(secondFailure, e.getSuppressed()[0]);
+        assertTrue(slowTaskFinished.get());
+    }
+
+    @Test
+    void shouldCompleteFutureWithCheckedExceptionThrownByTask() {
+        IOException failure = new IOException("failed");
+
+        ExecutionException e =
+                assertThrows(
+                        ExecutionException.class,
+                        () ->
+                                parallelTaskExecutor
+                                        .supply(
+                                                () -> {
+                                                    throw failure;
+                                                })
+                                        .get());
+
+        assertEquals(failure, e.getCause());
+    }
+
+    @Test
+    void shouldCopyLogContextToTasks() throws Exception {
+        ThreadContext.put("session_id", "test-session-id");
+
+        String sessionId =
+                parallelTaskExecutor.supply(() -> ThreadContext.get("session_id")).get();
+
+        assertEquals("test-session-id", sessionId);
+    }
+}
@@ -0,0 +1,128 @@
+package uk.gov.di.ipv.cri.drivingpermit.library.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.DrbgParameters;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class RandomIdsTest {
+    private static final byte[] SNAPSHOT_SEED = {1, 2, 3, 4, 5, 6, 7, 8};
+
+    @Test
+    void shouldCreateUniqueVersion4Uuids() {
+        RandomIds randomIds = RandomIds.getInstance();
+        Set<UUID> uuids = new HashSet<>();
+
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = randomIds.randomUUID();
+            assertEquals(4, uuid.version());
+            assertEquals(2, uuid.variant());
+            uuids.add(uuid);
+        }
+
+        assertEquals(1000, uuids.size());
+    }
+
+    @Test
+    void shouldRepeatIdsWhenRestoredFromTheSameGeneratorStateWithoutReseeding() {
+        RandomIds firstRestore = new RandomIds(RandomIdsTest::createSnapshotGenerator);
+        RandomIds secondRestore = new RandomIds(RandomIdsTest::createSnapshotGenerator);
+
+        assertEquals(firstRestore.randomUUID(), secondRestore.randomUUID());
+        assertEquals(firstRestore.nextSeed(), secondRestore.nextSeed());
+    }
+
+    @Test
+    void shouldCreateDifferentIdsInEachEnvironmentReseededAfterRestore() {
+        RandomIds firstRestore = new RandomIds(snapshotThenFreshGenerators());
+        RandomIds secondRestore = new RandomIds(snapshotThenFreshGenerators());
+
+        firstRestore.reseed();
+        secondRestore.reseed();
+
+        assertNotEquals(firstRestore.randomUUID(), secondRestore.randomUUID());
+        assertNotEquals(firstRestore.nextSeed(), secondRestore.nextSeed());
+    }
+
+    @Test
+    void shouldDrawIdsFromAGeneratorPerThreadReplacedOnReseed() throws InterruptedException {
+        AtomicInteger threadGeneratorsCreated = new AtomicInteger();
+        RandomIds randomIds =
+                new RandomIds(
+                        RandomIds::createSecureRandom,
+                        seedSource -> {
+                            threadGeneratorsCreated.incrementAndGet();
+                            return RandomIds.createThreadSecureRandom(seedSource);
+                        });
+
+        randomIds.randomUUID();
+        randomIds.randomUUID();
+        assertEquals(1, threadGeneratorsCreated.get());
+
+        Thread otherThread = new Thread(randomIds::randomUUID);
+        otherThread.start();
+        otherThread.join();
+        assertEquals(2, threadGeneratorsCreated.get());
+
+        randomIds.reseed();
+        randomIds.randomUUID();
+        assertEquals(3, threadGeneratorsCreated.get());
+    }
+
+    @Test
+    void shouldPersonalizeEachThreadGeneratorCreatedAfterReseed() {
+        RandomIds firstRestore =
+                new RandomIds(snapshotThenFreshGenerators(), RandomIds::createThreadSecureRandom);
+        RandomIds secondRestore =
+                new RandomIds(snapshotThenFreshGenerators(), RandomIds::createThreadSecureRandom);
+
+        firstRestore.reseed();
+        secondRestore.reseed();
+
+        // Without it both DRBGs would start from the instantiation state held in the snapshot
+        byte[] firstPersonalization = personalizationString(firstRestore);
+        byte[] secondPersonalization = personalizationString(secondRestore);
+        assertNotNull(firstPersonalization);
+        assertNotNull(secondPersonalization);
+        assertFalse(Arrays.equals(firstPersonalization, secondPersonalization));
+        assertNotEquals(firstRestore.randomUUID(), secondRestore.randomUUID());
+    }
+
+    private static byte[] personalizationString(RandomIds randomIds) {
+        DrbgParameters.Instantiation parameters =
+                (DrbgParameters.Instantiation) randomIds.getThreadSecureRandom().getParameters();
+        return parameters.getPersonalizationString();
+    }
+
+    /** The generator captured in the snapshot, then newly seeded ones as created after restore. */
+    private static Supplier<SecureRandom> snapshotThenFreshGenerators() {
+        AtomicBoolean snapshotTaken = new AtomicBoolean();
+        return () ->
+                snapshotTaken.getAndSet(true)
+                        ? RandomIds.createSecureRandom()
+                        : createSnapshotGenerator();
+    }
+
+    private static SecureRandom createSnapshotGenerator() {
+        try {
+            SecureRandom secureRandom = SecureRandom.getInstance("SHA1PRNG");
+            secureRandom.setSeed(SNAPSHOT_SEED);
+            return secureRandom;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}